@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.integration.daytrader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.apache.openjpa.lib.log.Log;
+import org.apache.openjpa.lib.log.LogFactoryImpl;
+import org.apache.openjpa.persistence.test.AbstractPersistenceTestCase;
+
+/**
+ * Runs the Daytrader scenario of {@link TestDaytrader} on virtual threads,
+ * recording the JFR events of virtual threads pinned to their carrier thread,
+ * and asserts that no virtual thread is pinned while it blocks in OpenJPA.
+ * <br>
+ * A pinned event is attributed to OpenJPA if the first frame of its stack
+ * trace that is not part of the JDK is in OpenJPA, outside of the integration
+ * tests. Every JDBC call is made by OpenJPA, so pins of the JDBC driver, which
+ * holds monitors of its own, have OpenJPA frames below the driver's. Those
+ * pins and the pins of the test itself are logged with their first frame that
+ * is not part of the JDK, but not asserted.
+ * <br>
+ * From JDK 24 on, a virtual thread holding a monitor no longer pins its
+ * carrier thread (JEP 491). On those JVMs the test only detects pins by
+ * native frames and class initialization, and passes whether OpenJPA blocks
+ * holding monitors or not.
+ * <br>
+ * The test needs virtual threads and JFR, and does nothing on JVMs without
+ * them. All JDK types are looked up reflectively, as the tests are compiled
+ * for Java 8.
+ */
+public class TestDaytraderVirtualThreads extends AbstractPersistenceTestCase {
+
+    private static final int TEST_USERS = 50;
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    EntityManagerFactory emf = null;
+    Log log = null;
+
+    @Override
+    public void setUp() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("openjpa.jdbc.SynchronizeMappings", "buildSchema(ForeignKeys=true,"
+            + "SchemaAction='add,deleteTableContents')");
+        Map<Object, Object> config = new HashMap<>(System.getProperties());
+        config.putAll(map);
+        emf = Persistence.createEntityManagerFactory("daytrader", config);
+        assertNotNull(emf);
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        em.createQuery("DELETE FROM orderejb").executeUpdate();
+        em.createQuery("DELETE FROM quoteejb").executeUpdate();
+        em.createQuery("DELETE FROM accountejb").executeUpdate();
+        em.createQuery("DELETE FROM accountprofileejb").executeUpdate();
+        em.getTransaction().commit();
+        em.close();
+
+        log = new LogFactoryImpl().getLog("test");
+        TradeConfig.setRunTimeMode(TradeConfig.JPA);
+        TradeConfig.setLog(log);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        log = null;
+        emf.close();
+        emf = null;
+        super.tearDown();
+    }
+
+    public void testNoPinningInOpenJPA() throws Exception {
+        ExecutorService executor;
+        Object recording;
+        try {
+            executor = (ExecutorService) Executors.class
+                .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            recording = startRecording();
+        } catch (ReflectiveOperationException e) {
+            log.info("TestDaytraderVirtualThreads skipped, virtual threads or JFR not available: " + e);
+            return;
+        }
+
+        List<List<String>> pins = new ArrayList<>();
+        try {
+            TradeBuildDB tradeDB = new TradeBuildDB(log, new TradeAction(log, emf, false));
+            tradeDB.setup(TradeConfig.getMAX_QUOTES(), TradeConfig.getMAX_USERS());
+
+            List<Future<Boolean>> users = new ArrayList<>();
+            for (int i = 0; i < TEST_USERS; i++) {
+                final String userID = "uid:" + i;
+                users.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        return new TradeScenario(new TradeAction(log, emf, false)).performUserTasks(userID);
+                    }
+                }));
+            }
+            int completed = 0;
+            for (Future<Boolean> user : users)
+                if (user.get())
+                    completed++;
+            log.info("TestDaytraderVirtualThreads " + completed + " of " + TEST_USERS
+                + " users completed their tasks on virtual threads");
+            assertTrue(completed > 0);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            pins.addAll(stopRecording(recording));
+        }
+
+        List<String> openjpaPins = new ArrayList<>();
+        for (List<String> pin : pins) {
+            String frame = findApplicationFrame(pin);
+            if (isOpenJPAFrame(frame))
+                openjpaPins.add(frame + " in " + pin);
+            else
+                log.info("TestDaytraderVirtualThreads pinned outside of OpenJPA at " + frame);
+        }
+        assertTrue("Virtual threads pinned in OpenJPA at " + openjpaPins, openjpaPins.isEmpty());
+    }
+
+    /**
+     * Return whether the given frame is in OpenJPA, outside of the
+     * integration tests.
+     */
+    private static boolean isOpenJPAFrame(String frame) {
+        return frame != null && frame.startsWith("org.apache.openjpa.")
+            && !frame.startsWith("org.apache.openjpa.integration.");
+    }
+
+    /**
+     * Return the first frame of the given stack trace that is not part of the
+     * JDK, or null if none is.
+     */
+    private static String findApplicationFrame(List<String> stack) {
+        for (String frame : stack)
+            if (!frame.startsWith("java.") && !frame.startsWith("jdk.") && !frame.startsWith("sun."))
+                return frame;
+        return null;
+    }
+
+    /**
+     * Start a JFR recording of the pinned events, with their stack traces.
+     */
+    private static Object startRecording() throws ReflectiveOperationException {
+        Class<?> recordingType = Class.forName("jdk.jfr.Recording");
+        Class<?> settingsType = Class.forName("jdk.jfr.EventSettings");
+        Object recording = recordingType.getConstructor().newInstance();
+        Object settings = recordingType.getMethod("enable", String.class).invoke(recording, PINNED_EVENT);
+        settingsType.getMethod("withThreshold", Duration.class).invoke(settings, Duration.ZERO);
+        settingsType.getMethod("withStackTrace").invoke(settings);
+        recordingType.getMethod("start").invoke(recording);
+        return recording;
+    }
+
+    /**
+     * Stop the given recording and return the stack trace of each pinned
+     * event, as a list of frames in the form <code>class.method</code>.
+     */
+    private static List<List<String>> stopRecording(Object recording) throws Exception {
+        Class<?> recordingType = Class.forName("jdk.jfr.Recording");
+        Path file = Files.createTempFile("pinned", ".jfr");
+        List<List<String>> pins = new ArrayList<>();
+        try {
+            recordingType.getMethod("stop").invoke(recording);
+            recordingType.getMethod("dump", Path.class).invoke(recording, file);
+            List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+                .getMethod("readAllEvents", Path.class).invoke(null, file);
+            for (Object event : events) {
+                Object stack = invoke("jdk.jfr.consumer.RecordedEvent", event, "getStackTrace");
+                if (stack == null)
+                    continue;
+                List<String> frames = new ArrayList<>();
+                for (Object frame : (List<?>) invoke("jdk.jfr.consumer.RecordedStackTrace", stack, "getFrames")) {
+                    Object method = invoke("jdk.jfr.consumer.RecordedFrame", frame, "getMethod");
+                    Object type = invoke("jdk.jfr.consumer.RecordedMethod", method, "getType");
+                    String cls = (String) invoke("jdk.jfr.consumer.RecordedClass", type, "getName");
+                    frames.add(cls + "." + invoke("jdk.jfr.consumer.RecordedMethod", method, "getName"));
+                }
+                pins.add(frames);
+            }
+        } finally {
+            recordingType.getMethod("close").invoke(recording);
+            Files.deleteIfExists(file);
+        }
+        return pins;
+    }
+
+    private static Object invoke(String type, Object target, String method) throws ReflectiveOperationException {
+        return Class.forName(type).getMethod(method).invoke(target);
+    }
+}
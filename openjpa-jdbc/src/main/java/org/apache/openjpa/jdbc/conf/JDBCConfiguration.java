@@ -611,6 +611,86 @@ public interface JDBCConfiguration
      */
     DataSource getDataSource2(StoreContext ctx);
 
+    /**
+     * The JNDI name of the data source of a replica of the database that
+     * reads outside of transactions, and queries marked read-only, are sent
+     * to. If neither this nor the replica connection factory is set, all
+     * reads use the primary data source.
+     *
+     * @since 3.0.1
+     */
+    String getReplicaConnectionFactoryName();
+
+    /**
+     * The JNDI name of the data source of a replica of the database that
+     * reads outside of transactions, and queries marked read-only, are sent
+     * to.
+     *
+     * @since 3.0.1
+     */
+    void setReplicaConnectionFactoryName(String name);
+
+    /**
+     * The data source of a replica of the database, looked up by the replica
+     * connection factory name if not set, or null if none is configured.
+     *
+     * @since 3.0.1
+     */
+    Object getReplicaConnectionFactory();
+
+    /**
+     * The data source of a replica of the database.
+     *
+     * @since 3.0.1
+     */
+    void setReplicaConnectionFactory(Object factory);
+
+    /**
+     * Return the replica data source to read from, or null if no replica is
+     * configured. Its default user name and password are obtained as for the
+     * primary data source.
+     *
+     * @see #getDataSource
+     * @since 3.0.1
+     */
+    DataSource getReplicaDataSource(StoreContext ctx);
+
+    /**
+     * The time, in milliseconds, a persistence context keeps reading from
+     * the primary data source after it commits a transaction, so that it
+     * reads its own writes even though the replica lags behind the primary.
+     * Defaults to 1000.
+     *
+     * @since 3.0.1
+     */
+    int getReplicaLag();
+
+    /**
+     * The time, in milliseconds, a persistence context keeps reading from
+     * the primary data source after it commits a transaction.
+     *
+     * @since 3.0.1
+     */
+    void setReplicaLag(int millis);
+
+    /**
+     * Whether to generate a loader per class mapping that reads the
+     * primitive and string fields of the class straight from the result
+     * set, rather than through the strategies of the fields. Defaults to
+     * false.
+     *
+     * @since 3.0.1
+     */
+    boolean getDynamicFieldLoaders();
+
+    /**
+     * Whether to generate a loader per class mapping that reads the
+     * primitive and string fields of the class straight from the result set.
+     *
+     * @since 3.0.1
+     */
+    void setDynamicFieldLoaders(boolean dynamic);
+
     /**
      * Gets the String constant that matches the {@link IdentifierUtil}
      * @return String-based name of the {@link IdentifierUtil}
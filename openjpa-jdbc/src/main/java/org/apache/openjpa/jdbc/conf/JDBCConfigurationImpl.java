@@ -44,6 +44,8 @@ import org.apache.openjpa.jdbc.sql.MaxDBDictionary;
 import org.apache.openjpa.jdbc.sql.SQLFactory;
 import org.apache.openjpa.kernel.BrokerImpl;
 import org.apache.openjpa.kernel.StoreContext;
+import org.apache.openjpa.lib.conf.BooleanValue;
+import org.apache.openjpa.lib.conf.Configurations;
 import org.apache.openjpa.lib.conf.IntValue;
 import org.apache.openjpa.lib.conf.ObjectValue;
 import org.apache.openjpa.lib.conf.PluginValue;
@@ -88,12 +90,17 @@ public class JDBCConfigurationImpl
     public PluginValue driverDataSourcePlugin;
     public MappingFactoryValue mappingFactoryPlugin;
     public ObjectValue identifierUtilPlugin;
+    public ObjectValue replicaConnectionFactory;
+    public StringValue replicaConnectionFactoryName;
+    public IntValue replicaLag;
+    public BooleanValue dynamicFieldLoaders;
 
     // used internally
     private String firstUser = null;
     private String firstPass = null;
     private DecoratingDataSource dataSource = null;
     private DecoratingDataSource dataSource2 = null;
+    private DecoratingDataSource replicaDataSource = null;
 
     private static final Localizer _loc = Localizer.forPackage(JDBCConfigurationImpl.class);
 
@@ -352,6 +359,19 @@ public class JDBCConfigurationImpl
         identifierUtilPlugin.setString(aliases[0]);
         identifierUtilPlugin.setInstantiatingGetter("getIdentifierUtilInstance");
 
+        replicaConnectionFactory = addObject("jdbc.ReplicaConnectionFactory");
+        replicaConnectionFactory.setInstantiatingGetter(
+            "getReplicaConnectionFactory");
+        replicaConnectionFactoryName = addString(
+            "jdbc.ReplicaConnectionFactoryName");
+        replicaLag = addInt("jdbc.ReplicaLag");
+        replicaLag.setDefault("1000");
+        replicaLag.set(1000);
+        replicaLag.setDynamic(true);
+
+        dynamicFieldLoaders = addBoolean("jdbc.DynamicFieldLoaders");
+        dynamicFieldLoaders.setDefault("false");
+        dynamicFieldLoaders.set(false);
 
         // this static initializer is to get past a weird
         // ClassCircularityError that happens only under IBM's
@@ -1038,6 +1058,84 @@ public class JDBCConfigurationImpl
         return DataSourceFactory.defaultsDataSource(ds, user, pass);
     }
 
+    @Override
+    public String getReplicaConnectionFactoryName() {
+        return replicaConnectionFactoryName.get();
+    }
+
+    @Override
+    public void setReplicaConnectionFactoryName(String name) {
+        replicaConnectionFactoryName.set(name);
+    }
+
+    @Override
+    public Object getReplicaConnectionFactory() {
+        if (replicaDataSource == null) {
+            Object obj = replicaConnectionFactory.get();
+            String name = StringUtil.trimToNull(
+                getReplicaConnectionFactoryName());
+            if (obj == null && name != null) {
+                try {
+                    obj = Configurations.lookup(name,
+                        replicaConnectionFactoryName.getProperty(),
+                        getLog(LOG_RUNTIME));
+                } catch (Exception e) {
+                    Log log = getLog(LOG_JDBC);
+                    if (log.isWarnEnabled())
+                        log.warn(_loc.get("replica-lookup-failed", name, e));
+                }
+            }
+            if (obj == null)
+                return null;
+            if (!(obj instanceof DataSource))
+                throw new UserException(_loc.get("unknown-datasource", name,
+                    obj.getClass().getName())).setFatal(true);
+
+            DecoratingDataSource dds = (obj instanceof DecoratingDataSource)
+                ? (DecoratingDataSource) obj
+                : DataSourceFactory.decorateDataSource((DataSource) obj,
+                    this, false);
+            replicaDataSource = DataSourceFactory.installDBDictionary
+                (getDBDictionaryInstance(), dds, this, false);
+            replicaConnectionFactory.set(replicaDataSource, true);
+        }
+        return replicaDataSource;
+    }
+
+    @Override
+    public void setReplicaConnectionFactory(Object factory) {
+        if (factory == replicaConnectionFactory.get())
+            return;
+        replicaDataSource = null;
+        replicaConnectionFactory.set(factory);
+    }
+
+    @Override
+    public DataSource getReplicaDataSource(StoreContext ctx) {
+        DataSource ds = (DataSource) getReplicaConnectionFactory();
+        return (ds == null) ? null : getDataSource(ctx, ds);
+    }
+
+    @Override
+    public int getReplicaLag() {
+        return replicaLag.get();
+    }
+
+    @Override
+    public void setReplicaLag(int millis) {
+        replicaLag.set(millis);
+    }
+
+    @Override
+    public boolean getDynamicFieldLoaders() {
+        return dynamicFieldLoaders.get();
+    }
+
+    @Override
+    public void setDynamicFieldLoaders(boolean dynamic) {
+        dynamicFieldLoaders.set(dynamic);
+    }
+
     /**
      * Free the data sources.
      */
@@ -1051,6 +1149,10 @@ public class JDBCConfigurationImpl
             getDBDictionaryInstance().closeDataSource(dataSource);
             connectionFactory2.set(null, true); // so super doesn't close it
         }
+        if (replicaDataSource != null) {
+            getDBDictionaryInstance().closeDataSource(replicaDataSource);
+            replicaConnectionFactory.set(null, true);
+        }
         super.preClose();
     }
 
@@ -235,9 +235,8 @@ public abstract class AbstractUpdateManager
             fields = reorderFields(fields);
         }
 
-        BitSet dirty = sm.getDirty();
         for (int i = 0; i < fields.length; i++) {
-            if (dirty.get(fields[i].getIndex())
+            if (sm.isDirty(fields[i].getIndex())
                 && !bufferCustomInsert(fields[i], sm, store, customs)) {
                 fields[i].insert(sm, store, rowMgr);
             }
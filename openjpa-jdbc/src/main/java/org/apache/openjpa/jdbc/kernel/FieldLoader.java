@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.jdbc.kernel;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.openjpa.jdbc.schema.Column;
+import org.apache.openjpa.jdbc.sql.DBDictionary;
+import org.apache.openjpa.kernel.OpenJPAStateManager;
+
+/**
+ * Loads the basic fields a class mapping defines straight from the columns
+ * of a result set, without going through the strategies of the fields.
+ * Subclasses are generated per mapping by {@link FieldLoaderGenerator};
+ * fields with any other strategy are left to the interpretive path.
+ *
+ * @since 3.0.1
+ */
+public abstract class FieldLoader {
+
+    // set by the generator
+    Column[] _cols;
+    boolean[] _handled;
+
+    /**
+     * The columns this loader reads, one per field it loads, in the order
+     * of the indexes given to {@link #load}.
+     */
+    public Column[] getColumns() {
+        return _cols;
+    }
+
+    /**
+     * Whether this loader loads the field at the given position of the
+     * defined fields of its mapping.
+     */
+    public boolean handles(int definedPosition) {
+        return _handled[definedPosition];
+    }
+
+    /**
+     * Load the unloaded fields of the given instance from the current row
+     * of the given result set.
+     *
+     * @param indexes the result set index of each of the
+     * {@link #getColumns columns}, or 0 for a column that was not selected
+     */
+    public abstract void load(OpenJPAStateManager sm, ResultSet rs,
+        DBDictionary dict, int[] indexes)
+        throws SQLException;
+}
@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.jdbc.kernel;
+
+import java.security.AccessController;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.openjpa.jdbc.meta.ClassMapping;
+import org.apache.openjpa.jdbc.meta.FieldMapping;
+import org.apache.openjpa.jdbc.meta.FieldStrategy;
+import org.apache.openjpa.jdbc.meta.strats.PrimitiveFieldStrategy;
+import org.apache.openjpa.jdbc.meta.strats.StateComparisonVersionStrategy;
+import org.apache.openjpa.jdbc.meta.strats.StringFieldStrategy;
+import org.apache.openjpa.jdbc.schema.Column;
+import org.apache.openjpa.jdbc.sql.DBDictionary;
+import org.apache.openjpa.kernel.OpenJPAStateManager;
+import org.apache.openjpa.lib.util.J2DoPrivHelper;
+import org.apache.openjpa.meta.JavaTypes;
+import org.apache.openjpa.util.InternalException;
+
+import serp.bytecode.BCClass;
+import serp.bytecode.BCClassLoader;
+import serp.bytecode.BCMethod;
+import serp.bytecode.Code;
+import serp.bytecode.Instruction;
+import serp.bytecode.JumpInstruction;
+import serp.bytecode.Project;
+
+/**
+ * Generates a {@link FieldLoader} per class mapping. The generated
+ * <code>load</code> method reads each primitive and string field the
+ * mapping defines with the typed getter of the {@link DBDictionary} and
+ * stores it in the state manager, which is what
+ * {@link PrimitiveFieldStrategy} and {@link StringFieldStrategy} do through
+ * the {@link org.apache.openjpa.jdbc.sql.Result}:
+ * <pre>
+ * int i = indexes[0];
+ * if (i &gt; 0 &amp;&amp; !sm.isLoaded(3))
+ *     sm.storeInt(3, dict.getInt(rs, i));
+ * </pre>
+ * Primitive fields of classes versioned by state comparison are left to
+ * their strategy, which records null columns for the version check.
+ *
+ * @since 3.0.1
+ */
+public class FieldLoaderGenerator {
+
+    // prefix for generated classes
+    private static final String PREFIX = "openjpaloader$";
+
+    private final Project _project = new Project();
+    private final BCClassLoader _loader =
+        AccessController.doPrivileged(J2DoPrivHelper.newBCClassLoaderAction(
+            _project, AccessController.doPrivileged(J2DoPrivHelper
+                .getClassLoaderAction(FieldLoader.class))));
+    private int _count = 0;
+
+    /**
+     * Generate a loader for the fields the given mapping defines, or return
+     * null if none of them can be loaded by a generated loader.
+     */
+    public synchronized FieldLoader generate(ClassMapping mapping) {
+        FieldMapping[] fms = mapping.getDefinedFieldMappings();
+        boolean[] handled = new boolean[fms.length];
+        List<FieldMapping> fields = new ArrayList<>();
+        for (int i = 0; i < fms.length; i++) {
+            if (isLoadable(fms[i])) {
+                handled[i] = true;
+                fields.add(fms[i]);
+            }
+        }
+        if (fields.isEmpty())
+            return null;
+
+        BCClass bc = _project.loadClass(PREFIX + mapping.getDescribedType().
+            getName().replace('.', '$') + "$" + _count++);
+        bc.setSuperclass(FieldLoader.class);
+        bc.addDefaultConstructor().makePublic();
+        addLoadMethod(bc, fields);
+
+        Column[] cols = new Column[fields.size()];
+        for (int i = 0; i < cols.length; i++)
+            cols[i] = fields.get(i).getColumns()[0];
+        try {
+            Class<?> cls = Class.forName(bc.getName(), true, _loader);
+            FieldLoader loader = (FieldLoader) cls.getConstructor().
+                newInstance();
+            loader._cols = cols;
+            loader._handled = handled;
+            return loader;
+        } catch (Throwable t) {
+            throw new InternalException("cons-access", t).setFatal(true);
+        } finally {
+            _project.clear(); // remove old refs
+        }
+    }
+
+    /**
+     * Whether the given field is loaded by a generated loader.
+     */
+    private static boolean isLoadable(FieldMapping fm) {
+        if (fm.isPrimaryKey() || fm.getColumns().length != 1)
+            return false;
+        FieldStrategy strat = fm.getStrategy();
+        if (strat == null)
+            return false;
+        if (strat.getClass() == StringFieldStrategy.class)
+            return true;
+        if (strat.getClass() != PrimitiveFieldStrategy.class)
+            return false;
+        return !StateComparisonVersionStrategy.ALIAS.equals(fm.
+            getDefiningMapping().getVersion().getStrategy().getAlias());
+    }
+
+    /**
+     * Implement the load method.
+     */
+    private void addLoadMethod(BCClass bc, List<FieldMapping> fields) {
+        BCMethod method = bc.declareMethod("load", void.class, new Class<?>[]{
+            OpenJPAStateManager.class, ResultSet.class, DBDictionary.class,
+            int[].class });
+        method.makePublic();
+        Code code = method.getCode(true);
+
+        int idx = code.getNextLocalsIndex();
+
+        List<JumpInstruction> skips = new ArrayList<>();
+        Instruction first;
+        FieldMapping fm;
+        for (int i = 0; i < fields.size(); i++) {
+            fm = fields.get(i);
+
+            // int idx = indexes[i];
+            first = code.aload().setParam(3);
+            for (JumpInstruction skip : skips)
+                skip.setTarget(first);
+            skips.clear();
+            code.constant().setValue(i);
+            code.iaload();
+            code.istore().setLocal(idx);
+
+            // if (idx > 0 && !sm.isLoaded(field))
+            code.iload().setLocal(idx);
+            skips.add(code.ifle());
+            code.aload().setParam(0);
+            code.constant().setValue(fm.getIndex());
+            code.invokeinterface().setMethod(OpenJPAStateManager.class,
+                "isLoaded", boolean.class, new Class<?>[]{ int.class });
+            skips.add(code.ifne());
+
+            // sm.store<Type>(field, dict.get<Type>(rs, idx));
+            code.aload().setParam(0);
+            code.constant().setValue(fm.getIndex());
+            code.aload().setParam(2);
+            code.aload().setParam(1);
+            code.iload().setLocal(idx);
+            addStore(code, fm);
+        }
+        Instruction ret = code.vreturn();
+        for (JumpInstruction skip : skips)
+            skip.setTarget(ret);
+        code.calculateMaxLocals();
+        code.calculateMaxStack();
+    }
+
+    /**
+     * Read the value of the given field from the dictionary and store it in
+     * the state manager, with the state manager, field index, dictionary,
+     * result set and column index on the stack.
+     */
+    private void addStore(Code code, FieldMapping fm) {
+        String getter;
+        String store;
+        Class<?> type;
+        switch (fm.getTypeCode()) {
+            case JavaTypes.BOOLEAN:
+                getter = "getBoolean";
+                store = "storeBoolean";
+                type = boolean.class;
+                break;
+            case JavaTypes.BYTE:
+                getter = "getByte";
+                store = "storeByte";
+                type = byte.class;
+                break;
+            case JavaTypes.CHAR:
+                getter = "getChar";
+                store = "storeChar";
+                type = char.class;
+                break;
+            case JavaTypes.DOUBLE:
+                getter = "getDouble";
+                store = "storeDouble";
+                type = double.class;
+                break;
+            case JavaTypes.FLOAT:
+                getter = "getFloat";
+                store = "storeFloat";
+                type = float.class;
+                break;
+            case JavaTypes.INT:
+                getter = "getInt";
+                store = "storeInt";
+                type = int.class;
+                break;
+            case JavaTypes.LONG:
+                getter = "getLong";
+                store = "storeLong";
+                type = long.class;
+                break;
+            case JavaTypes.SHORT:
+                getter = "getShort";
+                store = "storeShort";
+                type = short.class;
+                break;
+            case JavaTypes.STRING:
+                getter = (fm.getColumns()[0].getType() == Types.CLOB)
+                    ? "getClobString" : "getString";
+                store = "storeString";
+                type = String.class;
+                break;
+            default:
+                throw new InternalException();
+        }
+        code.invokevirtual().setMethod(DBDictionary.class, getter, type,
+            new Class<?>[]{ ResultSet.class, int.class });
+        code.invokeinterface().setMethod(OpenJPAStateManager.class, store,
+            void.class, new Class<?>[]{ int.class, type });
+    }
+}
@@ -151,7 +151,8 @@ public class FinderQueryImpl
         FetchConfiguration fetch) {
         boolean forUpdate = false;
         JDBCStore jstore = (JDBCStore)store;
-        Connection conn = jstore.getConnection();
+        Connection conn = jstore.getConnection(
+            (JDBCFetchConfiguration) fetch);
         DBDictionary dict = jstore.getDBDictionary();
         PreparedStatement stmnt = null;
         ResultSet rs = null;
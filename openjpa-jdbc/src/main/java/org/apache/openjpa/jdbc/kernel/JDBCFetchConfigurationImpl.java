@@ -94,6 +94,7 @@ public class JDBCFetchConfigurationImpl
         public Set<String> fetchInnerJoins = null;
         public int isolationLevel = -1;
         public boolean ignoreDfgForFkSelect = false;
+        public boolean joinsShared = false;
     }
 
     protected final JDBCConfigurationState _state;
@@ -139,7 +140,18 @@ public class JDBCFetchConfigurationImpl
         setFetchDirection(jf.getFetchDirection());
         setLRSSize(jf.getLRSSize());
         setJoinSyntax(jf.getJoinSyntax());
-        addJoins(jf.getJoins());
+        Set<String> joins = (jf instanceof JDBCFetchConfigurationImpl)
+            ? shareJoins((JDBCFetchConfigurationImpl) jf) : null;
+        if (joins != null) {
+            lock();
+            try {
+                _state.joins = joins;
+                _state.joinsShared = true;
+            } finally {
+                unlock();
+            }
+        } else
+            addJoins(jf.getJoins());
         setIgnoreDfgForFkSelect(jf.getIgnoreDfgForFkSelect());
     }
 
@@ -335,7 +347,7 @@ public class JDBCFetchConfigurationImpl
     public Set<String> getJoins() {
         if (_state.joins == null)
             return Collections.emptySet();
-        return _state.joins;
+        return Collections.unmodifiableSet(_state.joins);
     }
 
     @Override
@@ -350,9 +362,7 @@ public class JDBCFetchConfigurationImpl
 
         lock();
         try {
-            if (_state.joins == null)
-                _state.joins = new HashSet<>();
-            _state.joins.add(join);
+            getJoinsForUpdate().add(join);
         } finally {
             unlock();
         }
@@ -372,8 +382,8 @@ public class JDBCFetchConfigurationImpl
     public JDBCFetchConfiguration removeJoin(String field) {
         lock();
         try {
-            if (_state.joins != null)
-                _state.joins.remove(field);
+            if (_state.joins != null && _state.joins.contains(field))
+                getJoinsForUpdate().remove(field);
         } finally {
             unlock();
         }
@@ -385,7 +395,7 @@ public class JDBCFetchConfigurationImpl
         lock();
         try {
             if (_state.joins != null)
-                _state.joins.removeAll(joins);
+                getJoinsForUpdate().removeAll(joins);
         } finally {
             unlock();
         }
@@ -396,7 +406,10 @@ public class JDBCFetchConfigurationImpl
     public JDBCFetchConfiguration clearJoins() {
         lock();
         try {
-            if (_state.joins != null)
+            if (_state.joinsShared) {
+                _state.joins = null;
+                _state.joinsShared = false;
+            } else if (_state.joins != null)
                 _state.joins.clear();
         } finally {
             unlock();
@@ -404,6 +417,37 @@ public class JDBCFetchConfigurationImpl
         return this;
     }
 
+    /**
+     * Mark the joins of the given configuration shared under its lock and
+     * return them, or return null if they cannot be shared with this one.
+     */
+    private Set<String> shareJoins(JDBCFetchConfigurationImpl fetch) {
+        if (fetch._state == _state || _state.joins != null)
+            return null;
+        fetch.lock();
+        try {
+            if (fetch._state.joins == null)
+                return null;
+            // share the joins until either side modifies them
+            fetch._state.joinsShared = true;
+            return fetch._state.joins;
+        } finally {
+            fetch.unlock();
+        }
+    }
+
+    /**
+     * Return the joins to modify, copying them first if shared.
+     */
+    private Set<String> getJoinsForUpdate() {
+        if (_state.joins == null)
+            _state.joins = new HashSet<>();
+        else if (_state.joinsShared)
+            _state.joins = new HashSet<>(_state.joins);
+        _state.joinsShared = false;
+        return _state.joins;
+    }
+
     @Override
     public int getIsolation() {
         return _state.isolationLevel;
@@ -69,6 +69,19 @@ public interface JDBCStore {
      */
     Connection getConnection();
 
+    /**
+     * Return a SQL connection to read from the database with the given fetch
+     * configuration. The connection is to a replica of the database if one
+     * is configured and the read need not see the uncommitted or recent
+     * writes of this context; otherwise it is the same as
+     * {@link #getConnection()}, which is what this default returns.
+     *
+     * @since 3.0.1
+     */
+    default Connection getConnection(JDBCFetchConfiguration fetch) {
+        return getConnection();
+    }
+
     /**
      * Return a new SQL connection to the database.
      * This is used when the current connection still has a open result set
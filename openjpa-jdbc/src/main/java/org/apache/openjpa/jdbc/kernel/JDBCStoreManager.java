@@ -50,14 +50,17 @@ import org.apache.openjpa.jdbc.sql.Result;
 import org.apache.openjpa.jdbc.sql.SQLExceptions;
 import org.apache.openjpa.jdbc.sql.SQLFactory;
 import org.apache.openjpa.jdbc.sql.Select;
+import org.apache.openjpa.jdbc.sql.SelectImpl.SelectResult;
 import org.apache.openjpa.jdbc.sql.SelectExecutor;
 import org.apache.openjpa.jdbc.sql.Union;
 import org.apache.openjpa.kernel.BrokerImpl;
 import org.apache.openjpa.kernel.FetchConfiguration;
 import org.apache.openjpa.kernel.FinderCache;
+import org.apache.openjpa.kernel.LockLevels;
 import org.apache.openjpa.kernel.LockManager;
 import org.apache.openjpa.kernel.OpenJPAStateManager;
 import org.apache.openjpa.kernel.PCState;
+import org.apache.openjpa.kernel.QueryHints;
 import org.apache.openjpa.kernel.QueryLanguages;
 import org.apache.openjpa.kernel.Seq;
 import org.apache.openjpa.kernel.StoreContext;
@@ -103,6 +106,10 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
     private DataSource _ds = null;
     private RefCountConnection _conn = null;
     private boolean _active = false;
+    private DataSource _replicaDs = null;
+    private RefCountConnection _replica = null;
+    private long _lastCommit = 0;
+    private boolean _fieldLoaders = false;
     private Log _log = null;
 
     // track the pending statements so we can cancel them
@@ -128,12 +135,14 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
         _dict = _conf.getDBDictionaryInstance();
         _sql = _conf.getSQLFactoryInstance();
         _log = _conf.getLog(JDBCConfiguration.LOG_DIAG);
+        _fieldLoaders = _conf.getDynamicFieldLoaders();
 
         LockManager lm = ctx.getLockManager();
         if (lm instanceof JDBCLockManager)
             _lm = (JDBCLockManager) lm;
 
         _ds = getDataSource(ctx);
+        _replicaDs = _conf.getReplicaDataSource(ctx);
 
         if (_conf.getUpdateManagerInstance().orderDirty())
             ctx.setOrderDirtyObjects(true);
@@ -206,6 +215,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
         try {
             if (!_ctx.isManaged() || !_conf.isConnectionFactoryModeManaged())
                 _conn.commit();
+            _lastCommit = System.currentTimeMillis();
         } catch (SQLException se) {
             try {
                 _conn.rollback();
@@ -258,6 +268,35 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
         return _conn;
     }
 
+    @Override
+    public Connection getConnection(JDBCFetchConfiguration fetch) {
+        if (!isReplicaRead(fetch))
+            return getConnection();
+        connectReplica();
+        return _replica;
+    }
+
+    /**
+     * Affirms if a read with the given fetch configuration may use the
+     * replica data source. It may if a replica is configured, this store has
+     * no transaction in progress and has not committed one within the
+     * configured replica lag, and the context has no transaction in progress
+     * or the read is marked read-only and does not lock.
+     */
+    private boolean isReplicaRead(JDBCFetchConfiguration fetch) {
+        if (_replicaDs == null || _active)
+            return false;
+        if (_lastCommit != 0
+            && System.currentTimeMillis() - _lastCommit < _conf.getReplicaLag())
+            return false;
+        if (!_ctx.isActive())
+            return true;
+        return fetch != null
+            && Boolean.valueOf(String.valueOf(
+                fetch.getHint(QueryHints.HINT_READ_ONLY)))
+            && fetch.getReadLockLevel() == LockLevels.LOCK_NONE;
+    }
+
     protected DataSource getDataSource() {
         return _ds;
     }
@@ -415,7 +454,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
                         // setInverseRelation() when the sm owner is fully
                         // initialized.
                         int index = mappedByFieldMapping.getIndex();
-                        if (sm.getLoaded().get(index)) {
+                        if (sm.isLoaded(index)) {
                             sm.setImplData(index, mappedByObject);
                         } else {
                             sm.setIntermediate(index, mappedByObject);
@@ -661,7 +700,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
 
             // if the instance is hollow and there's a customized
             // get by id method, use it
-            if (sm.getLoaded().length() == 0
+            if (sm.getLoadedBits().isEmpty()
                 && mapping.customLoad(sm, this, null, jfetch))
                 removeLoadedFields(sm, fields);
 
@@ -695,7 +734,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
             // now allow the fields to load themselves individually too
             FieldMapping[] fms = mapping.getFieldMappings();
             for (int i = 0; i < fms.length; i++)
-                if (fields.get(i) && (!sm.getLoaded().get(i) || sm.isDelayed(i))) {
+                if (fields.get(i) && (!sm.isLoaded(i) || sm.isDelayed(i))) {
                     if (_log.isTraceEnabled()) {
                         _log.trace("load field: '"+ fms[i].getName() + "' for oid="+sm.getObjectId()
                             +" "+mapping.getDescribedType());
@@ -719,7 +758,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
         FieldMapping[] fms = mapping.getFieldMappings();
         for (int i = 0; i < fms.length; i++) {
             if (fields.get(i)) {
-                if (!(fms[i].isDelayCapable() && (!sm.getLoaded().get(i) || sm.isDelayed(i)))) {
+                if (!(fms[i].isDelayCapable() && (!sm.isLoaded(i) || sm.isDelayed(i)))) {
                     return false;
                 }
             }
@@ -732,7 +771,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
      */
     private void removeLoadedFields(OpenJPAStateManager sm, BitSet fields) {
         for (int i = 0, len = fields.length(); i < len; i++)
-            if (fields.get(i) && sm.getLoaded().get(i))
+            if (fields.get(i) && sm.isLoaded(i))
                 fields.clear(i);
     }
 
@@ -989,6 +1028,8 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
     public void close() {
         if (_conn != null)
             _conn.free();
+        if (_replica != null)
+            _replica.free();
     }
 
     /////////////
@@ -1022,6 +1063,22 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
         return new RefCountConnection(_ds.getConnection());
     }
 
+    /**
+     * Connect to the replica of the db.
+     */
+    private void connectReplica() {
+        _ctx.lock();
+        try {
+            if (_replica == null)
+                _replica = new RefCountConnection(_replicaDs.getConnection());
+            _replica.ref();
+        } catch (SQLException se) {
+            throw SQLExceptions.getStore(se, _dict);
+        } finally {
+            _ctx.unlock();
+        }
+    }
+
     @Override
     public Connection getNewConnection() {
         try {
@@ -1130,11 +1187,26 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
         else if (sm.getVersion() == null)
             mapping.getVersion().load(sm, this, res);
 
+        // load primitive and string fields straight from the result set
+        // through the generated loader of the mapping, if enabled
+        FieldLoader loader = (_fieldLoaders && res instanceof SelectResult)
+            ? mapping.getFieldLoader() : null;
+        if (loader != null) {
+            SelectResult sres = (SelectResult) res;
+            int[] indexes = sres.getIndexes(mapping, loader.getColumns());
+            if (indexes == null)
+                loader = null;
+            else
+                loader.load(sm, sres.getResultSet(), sres.getDBDictionary(),
+                    indexes);
+        }
+
         // load unloaded fields
         FieldMapping[] fms = mapping.getDefinedFieldMappings();
         Object eres, processed;
         for (int i = 0; i < fms.length; i++) {
-            if (fms[i].isPrimaryKey() || sm.getLoaded().get(fms[i].getIndex()))
+            if ((loader != null && loader.handles(i)) || fms[i].isPrimaryKey()
+                || sm.isLoaded(fms[i].getIndex()))
                 continue;
 
             // check for eager result, and if not present do standard load
@@ -1322,7 +1394,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
         if (fields != null)
             return fields.get(fm.getIndex());
         if (sm != null && sm.getPCState() != PCState.TRANSIENT
-            && sm.getLoaded().get(fm.getIndex()))
+            && sm.isLoaded(fm.getIndex()))
             return false;
         return fetch.requiresFetch(fm) == FetchConfiguration.FETCH_LOAD;
     }
@@ -1450,7 +1522,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
             fetch.getIgnoreDfgForFkSelect() ||
                 !fm.isInDefaultFetchGroup() && !fm.isDefaultFetchGroupExplicit();
 
-        return dfg && (sm == null || sm.getPCState() == PCState.TRANSIENT || !sm.getLoaded().get(fm.getIndex()))
+        return dfg && (sm == null || sm.getPCState() == PCState.TRANSIENT || !sm.isLoaded(fm.getIndex()))
             && fm.supportsSelect(sel, Select.TYPE_TWO_PART, sm, this, fetch) > 0;
     }
 
@@ -1672,7 +1744,10 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
             } catch (SQLException se) {
             }
             _freed = true;
-            _conn = null;
+            if (this == _replica)
+                _replica = null;
+            else
+                _conn = null;
         }
 
         @Override
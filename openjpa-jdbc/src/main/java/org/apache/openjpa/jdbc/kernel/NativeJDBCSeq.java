@@ -23,6 +23,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.text.MessageFormat;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.openjpa.conf.OpenJPAConfiguration;
 import org.apache.openjpa.jdbc.conf.JDBCConfiguration;
@@ -85,6 +86,9 @@ public class NativeJDBCSeq
     private boolean alreadyLoggedAlterSeqFailure = false;
     private boolean alreadyLoggedAlterSeqDisabled = false;
 
+    // guards the allocated range, also while allocating from the database
+    private final ReentrantLock _lock = new ReentrantLock();
+
     /**
      * The sequence name. Defaults to <code>OPENJPA_SEQUENCE</code>.
      */
@@ -196,18 +200,23 @@ public class NativeJDBCSeq
     }
 
     @Override
-    protected synchronized Object nextInternal(JDBCStore store, ClassMapping mapping)
+    protected Object nextInternal(JDBCStore store, ClassMapping mapping)
         throws SQLException {
-        if (!alterIncrementBy) {
-            allocateInternal(0, store, mapping);
-            alterIncrementBy = true;
-        }
-        if (_nextValue >= _maxValue) {
-            allocateInternal(0, store, mapping);
+        _lock.lock();
+        try {
+            if (!alterIncrementBy) {
+                allocateInternal(0, store, mapping);
+                alterIncrementBy = true;
+            }
+            if (_nextValue >= _maxValue) {
+                allocateInternal(0, store, mapping);
+            }
+            long result = _nextValue;
+            _nextValue += _increment;
+            return result;
+        } finally {
+            _lock.unlock();
         }
-        long result = _nextValue;
-        _nextValue += _increment;
-        return result;
     }
 
     /**
@@ -217,41 +226,46 @@ public class NativeJDBCSeq
      * @param mapping ignored
      */
     @Override
-    protected synchronized void allocateInternal(int additional, JDBCStore store, ClassMapping mapping)
+    protected void allocateInternal(int additional, JDBCStore store, ClassMapping mapping)
         throws SQLException {
-        Connection conn = getConnection(store);
+        _lock.lock();
         try {
-            if (!alterIncrementBy) {
-                DBDictionary dict = _conf.getDBDictionaryInstance();
-                if (!dict.disableAlterSeqenceIncrementBy) {
-                    // If this fails, we will warn the user at most one time and set _allocated and _increment to 1 so
-                    // as to not potentially insert records ahead of what the database thinks is the next sequence
-                    // value.
-                    if (updateSql(conn, dict.getAlterSequenceSQL(_seq)) == -1) {
-                        if (!alreadyLoggedAlterSeqFailure) {
+            Connection conn = getConnection(store);
+            try {
+                if (!alterIncrementBy) {
+                    DBDictionary dict = _conf.getDBDictionaryInstance();
+                    if (!dict.disableAlterSeqenceIncrementBy) {
+                        // If this fails, we will warn the user at most one time and set _allocated and _increment to 1 so
+                        // as to not potentially insert records ahead of what the database thinks is the next sequence
+                        // value.
+                        if (updateSql(conn, dict.getAlterSequenceSQL(_seq)) == -1) {
+                            if (!alreadyLoggedAlterSeqFailure) {
+                                Log log = _conf.getLog(OpenJPAConfiguration.LOG_RUNTIME);
+                                if (log.isWarnEnabled()) {
+                                    log.warn(_loc.get("fallback-no-seq-cache", _seqName));
+                                }
+                            }
+                            alreadyLoggedAlterSeqFailure = true;
+                            _allocate = 1;
+                        }
+                    } else {
+                        if (!alreadyLoggedAlterSeqDisabled) {
                             Log log = _conf.getLog(OpenJPAConfiguration.LOG_RUNTIME);
                             if (log.isWarnEnabled()) {
-                                log.warn(_loc.get("fallback-no-seq-cache", _seqName));
+                                log.warn(_loc.get("alter-seq-disabled", _seqName));
                             }
                         }
-                        alreadyLoggedAlterSeqFailure = true;
-                        _allocate = 1;
-                    }
-                } else {
-                    if (!alreadyLoggedAlterSeqDisabled) {
-                        Log log = _conf.getLog(OpenJPAConfiguration.LOG_RUNTIME);
-                        if (log.isWarnEnabled()) {
-                            log.warn(_loc.get("alter-seq-disabled", _seqName));
-                        }
-                    }
 
-                    alreadyLoggedAlterSeqDisabled = true;
+                        alreadyLoggedAlterSeqDisabled = true;
+                    }
                 }
+                _nextValue = getSequence(conn);
+                _maxValue = _nextValue + _allocate * _increment;
+            } finally {
+                closeConnection(conn);
             }
-            _nextValue = getSequence(conn);
-            _maxValue = _nextValue + _allocate * _increment;
         } finally {
-            closeConnection(conn);
+            _lock.unlock();
         }
     }
 
@@ -106,8 +106,8 @@ public class PreparedSQLStoreQuery extends SQLStoreQuery {
             DBDictionary dict = store.getDBDictionary();
 
             SQLBuffer buf = new SQLBuffer(dict).append(pq.getTargetQuery());
-            Connection conn = store.getConnection();
             JDBCFetchConfiguration fetch = (JDBCFetchConfiguration)q.getContext().getFetchConfiguration();
+            Connection conn = store.getConnection(fetch);
 
             ResultObjectProvider rop;
             PreparedStatement stmnt = null;
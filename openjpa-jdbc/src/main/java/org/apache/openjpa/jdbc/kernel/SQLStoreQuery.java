@@ -205,9 +205,10 @@ public class SQLStoreQuery
 
             List paramList = new ArrayList(Arrays.asList(params));
             SQLBuffer buf = new SQLBuffer(dict).append(sql);
-            Connection conn = store.getConnection();
             JDBCFetchConfiguration fetch = (JDBCFetchConfiguration)
                 q.getContext().getFetchConfiguration();
+            Connection conn = (_call) ? store.getConnection()
+                : store.getConnection(fetch);
 
             ResultObjectProvider rop;
             PreparedStatement stmnt = null;
@@ -31,6 +31,7 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.openjpa.enhance.PersistenceCapable;
 import org.apache.openjpa.enhance.Reflection;
+import org.apache.openjpa.jdbc.kernel.FieldLoader;
 import org.apache.openjpa.jdbc.kernel.JDBCFetchConfiguration;
 import org.apache.openjpa.jdbc.kernel.JDBCStore;
 import org.apache.openjpa.jdbc.meta.strats.NoneClassStrategy;
@@ -92,6 +93,10 @@ public class ClassMapping
     // maps columns to joinables
     private final Map _joinables = new ConcurrentHashMap();
 
+    // generated loader of the basic fields
+    private transient volatile FieldLoader _loader = null;
+    private transient volatile boolean _loaderGenerated = false;
+
     /**
      * Constructor. Supply described type and owning repository.
      */
@@ -130,6 +135,26 @@ public class ClassMapping
     // Runtime
     ///////////
 
+    /**
+     * Return the generated loader of the primitive and string fields this
+     * mapping defines, or null if it defines none. The loader is generated
+     * on first use.
+     *
+     * @since 3.0.1
+     */
+    public FieldLoader getFieldLoader() {
+        if (!_loaderGenerated) {
+            synchronized (this) {
+                if (!_loaderGenerated) {
+                    _loader = getMappingRepository().getFieldLoaderGenerator().
+                        generate(this);
+                    _loaderGenerated = true;
+                }
+            }
+        }
+        return _loader;
+    }
+
     /**
      * Return the oid value stored in the result. This implementation will
      * recurse until it finds an ancestor class who uses oid values for its
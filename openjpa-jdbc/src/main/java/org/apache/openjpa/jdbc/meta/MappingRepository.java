@@ -31,6 +31,7 @@ import java.util.Map;
 import org.apache.openjpa.conf.OpenJPAConfiguration;
 import org.apache.openjpa.jdbc.conf.JDBCConfiguration;
 import org.apache.openjpa.jdbc.identifier.DBIdentifier;
+import org.apache.openjpa.jdbc.kernel.FieldLoaderGenerator;
 import org.apache.openjpa.jdbc.meta.strats.BlobValueHandler;
 import org.apache.openjpa.jdbc.meta.strats.ByteArrayValueHandler;
 import org.apache.openjpa.jdbc.meta.strats.CharArrayStreamValueHandler;
@@ -82,6 +83,9 @@ import org.apache.openjpa.jdbc.meta.strats.UntypedPCValueHandler;
 import org.apache.openjpa.jdbc.meta.strats.ValueMapDiscriminatorStrategy;
 import org.apache.openjpa.jdbc.meta.strats.VerticalClassStrategy;
 import org.apache.openjpa.jdbc.schema.Column;
+import org.apache.openjpa.jdbc.schema.DynamicSchemaFactory;
+import org.apache.openjpa.jdbc.schema.FileSchemaFactory;
+import org.apache.openjpa.jdbc.schema.SchemaFactory;
 import org.apache.openjpa.jdbc.schema.SchemaGroup;
 import org.apache.openjpa.jdbc.sql.DBDictionary;
 import org.apache.openjpa.jdbc.sql.JoinSyntaxes;
@@ -119,6 +123,7 @@ public class MappingRepository extends MetaDataRepository {
     private Map<Object, QueryResultMapping> _results = new HashMap<>();
     private SchemaGroup _schema = null;
     private StrategyInstaller _installer = null;
+    private transient FieldLoaderGenerator _loaders = null;
 
     /**
      * Default constructor.  Configure via
@@ -154,10 +159,13 @@ public class MappingRepository extends MetaDataRepository {
      */
     public SchemaGroup getSchemaGroup() {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 if (_schema == null)
                     _schema = ((JDBCConfiguration) getConfiguration()).getSchemaFactoryInstance().readSchema();
                 return _schema;
+            } finally {
+                unlock();
             }
         } else {
             if (_schema == null)
@@ -171,8 +179,11 @@ public class MappingRepository extends MetaDataRepository {
      */
     public void setSchemaGroup(SchemaGroup schema) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 _schema = schema;
+            } finally {
+                unlock();
             }
         } else {
             _schema = schema;
@@ -184,10 +195,13 @@ public class MappingRepository extends MetaDataRepository {
      */
     public StrategyInstaller getStrategyInstaller() {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 if (_installer == null)
                     _installer = new RuntimeStrategyInstaller(this);
                 return _installer;
+            } finally {
+                unlock();
             }
         } else {
             if (_installer == null)
@@ -196,13 +210,32 @@ public class MappingRepository extends MetaDataRepository {
         }
     }
 
+    /**
+     * Generates the field loaders of the mappings in this repository.
+     *
+     * @since 3.0.1
+     */
+    public FieldLoaderGenerator getFieldLoaderGenerator() {
+        lock();
+        try {
+            if (_loaders == null)
+                _loaders = new FieldLoaderGenerator();
+            return _loaders;
+        } finally {
+            unlock();
+        }
+    }
+
     /**
      * Installs mapping strategies on components.
      */
     public void setStrategyInstaller(StrategyInstaller installer) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 _installer = installer;
+            } finally {
+                unlock();
             }
         } else {
             _installer = installer;
@@ -215,8 +248,11 @@ public class MappingRepository extends MetaDataRepository {
     public QueryResultMapping getQueryResultMapping(Class<?> cls, String name, ClassLoader loader, boolean mustExist) {
         QueryResultMapping res;
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 res = getQueryResultMappingInternal(cls, name, loader);
+            } finally {
+                unlock();
             }
         } else {
             res = getQueryResultMappingInternal(cls, name, loader);
@@ -261,9 +297,12 @@ public class MappingRepository extends MetaDataRepository {
      */
     public QueryResultMapping[] getQueryResultMappings() {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 Collection values = _results.values();
                 return (QueryResultMapping[]) values.toArray(new QueryResultMapping[values.size()]);
+            } finally {
+                unlock();
             }
         } else {
             Collection values = _results.values();
@@ -277,8 +316,11 @@ public class MappingRepository extends MetaDataRepository {
      */
     public QueryResultMapping getCachedQueryResultMapping(Class cls, String name) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return (QueryResultMapping) _results.get(getQueryResultKey(cls, name));
+            } finally {
+                unlock();
             }
         } else {
             return (QueryResultMapping) _results.get(getQueryResultKey(cls, name));
@@ -290,8 +332,11 @@ public class MappingRepository extends MetaDataRepository {
      */
     public QueryResultMapping addQueryResultMapping(Class cls, String name) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return addQueryResultMappingInternal(cls, name);
+            } finally {
+                unlock();
             }
         } else {
             return addQueryResultMappingInternal(cls, name);
@@ -310,8 +355,11 @@ public class MappingRepository extends MetaDataRepository {
      */
     public boolean removeQueryResultMapping(QueryResultMapping res) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return _results.remove(getQueryResultKey(res)) != null;
+            } finally {
+                unlock();
             }
         } else {
             return _results.remove(getQueryResultKey(res)) != null;
@@ -323,10 +371,13 @@ public class MappingRepository extends MetaDataRepository {
      */
     public boolean removeQueryResultMapping(Class cls, String name) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 if (name == null)
                     return false;
                 return _results.remove(getQueryResultKey(cls, name)) != null;
+            } finally {
+                unlock();
             }
         } else {
             if (name == null)
@@ -375,10 +426,13 @@ public class MappingRepository extends MetaDataRepository {
     @Override
     public void clear() {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 super.clear();
                 _schema = null;
                 _results.clear();
+            } finally {
+                unlock();
             }
         } else {
             super.clear();
@@ -387,6 +441,70 @@ public class MappingRepository extends MetaDataRepository {
         }
     }
 
+    @Override
+    protected void addResolvedContext(List<Object> context) {
+        super.addResolvedContext(context);
+        context.add(_dict);
+        context.add(_defaults);
+    }
+
+    /**
+     * Adds the dictionary, the database it was set up for and the content of
+     * a schema file. A schema that is read from the database cannot be
+     * fingerprinted, so mappings resolved against it are not cached.
+     */
+    @Override
+    protected boolean addResolvedInputs(Map<String, Object> inputs) {
+        if (!super.addResolvedInputs(inputs))
+            return false;
+        if (_dict != null) {
+            inputs.put("dict.class", _dict.getClass().getName());
+            inputs.put("dict.platform", _dict.platform);
+            inputs.put("dict.databaseProductName", _dict.databaseProductName);
+            inputs.put("dict.databaseProductVersion",
+                _dict.databaseProductVersion);
+        }
+        SchemaFactory factory = ((JDBCConfiguration) getConfiguration())
+            .getSchemaFactoryInstance();
+        if (factory instanceof FileSchemaFactory) {
+            ClassLoader loader = getConfiguration().getClassResolverInstance()
+                .getClassLoader(FileSchemaFactory.class, null);
+            inputs.put("schema.file", AccessController.doPrivileged(
+                J2DoPrivHelper.getResourceAction(loader,
+                ((FileSchemaFactory) factory).getFile())));
+            return true;
+        }
+        return factory instanceof DynamicSchemaFactory;
+    }
+
+    /**
+     * Adds the query result mappings and the schema group that the
+     * resolved mappings refer to.
+     */
+    @Override
+    protected void getResolvedState(Map<String, Object> state) {
+        super.getResolvedState(state);
+        state.put("results", new HashMap<>(_results));
+        state.put("schema", _schema);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void setResolvedState(Map<String, Object> state) {
+        Map<Object, QueryResultMapping> results =
+            (Map<Object, QueryResultMapping>) state.get("results");
+        SchemaGroup schema = (SchemaGroup) state.get("schema");
+        super.setResolvedState(state);
+        _results.putAll(results);
+        if (schema != null) {
+            // a schema factory that is also the schema group is read without
+            // its dictionary
+            if (schema instanceof Configurable)
+                ((Configurable) schema).setConfiguration(getConfiguration());
+            _schema = schema;
+        }
+    }
+
     @Override
     protected void prepareMapping(ClassMetaData meta) {
         // make sure superclass resolved first; resolving superclass may have
@@ -164,4 +164,16 @@ public class MetaDataPlusMappingFactory
         super.addFieldExtensionKeys(exts);
         _map.addFieldExtensionKeys(exts);
     }
+
+    @Override
+    public File getResolvedCacheFile() {
+        File file = super.getResolvedCacheFile();
+        return (file != null) ? file : _map.getResolvedCacheFile();
+    }
+
+    @Override
+    public long getResourceFingerprint(ClassLoader envLoader) {
+        return 31 * super.getResourceFingerprint(envLoader)
+            + _map.getResourceFingerprint(envLoader);
+    }
 }
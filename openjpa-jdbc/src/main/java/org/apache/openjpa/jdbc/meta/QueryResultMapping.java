@@ -19,6 +19,7 @@
 package org.apache.openjpa.jdbc.meta;
 
 import java.io.File;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
@@ -46,7 +47,9 @@ import org.apache.openjpa.util.MetaDataException;
  * @author Abe White
  */
 public class QueryResultMapping
-    implements MetaDataModes, SourceTracker, Commentable {
+    implements MetaDataModes, SourceTracker, Commentable, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private static final Localizer _loc = Localizer.forPackage
         (QueryResultMapping.class);
@@ -257,7 +260,10 @@ public class QueryResultMapping
     /**
      * A persistence-capable result.
      */
-    public class PCResult {
+    public class PCResult
+        implements Serializable {
+
+        private static final long serialVersionUID = 1L;
 
         /**
          * Path token to represent a discriminator.
@@ -567,7 +573,10 @@ public class QueryResultMapping
     /**
      * Fetch information.
      */
-    private static class FetchInfo {
+    private static class FetchInfo
+        implements Serializable {
+
+        private static final long serialVersionUID = 1L;
 
         /**
          * Indexes of fields to exclude from loading.
@@ -592,7 +601,8 @@ public class QueryResultMapping
     /**
      * Mapping of columns to result ids.
      */
-    private interface ColumnMap {
+    private interface ColumnMap
+        extends Serializable {
 
         /**
          * Return the result id for the given column, or the given colum
@@ -607,6 +617,8 @@ public class QueryResultMapping
     private static class SingleColumnMap
         implements ColumnMap {
 
+        private static final long serialVersionUID = 1L;
+
         private final Object _id;
 
         public SingleColumnMap(Object id) {
@@ -631,6 +643,8 @@ public class QueryResultMapping
     private static class MultiColumnMap
         implements ColumnMap {
 
+        private static final long serialVersionUID = 1L;
+
         private final List<Column> _cols;
         private final Object[] _ids;
 
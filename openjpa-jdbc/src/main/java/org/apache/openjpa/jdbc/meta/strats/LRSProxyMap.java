@@ -63,7 +63,7 @@ class LRSProxyMap
     }
 
     @Override
-    protected synchronized int count() {
+    protected int count() {
         boolean derivedVal = _strat.getFieldMapping().getElement().
             getValueMappedBy() != null;
         final ClassMapping[] clss = (derivedVal)
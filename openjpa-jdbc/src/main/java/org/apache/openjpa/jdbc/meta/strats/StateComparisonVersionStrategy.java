@@ -119,7 +119,7 @@ public class StateComparisonVersionStrategy
                     continue;
 
                 // update our next state image with the new field value
-                if (sm.getDirty().get(i) && !sm.getFlushed().get(i))
+                if (sm.isDirty(i) && !sm.isFlushed(i))
                     nextState[i] = sm.fetch(fields[i].getIndex());
 
                 // fetch the row for this field; if no row exists, then we can't
@@ -178,7 +178,7 @@ public class StateComparisonVersionStrategy
             if (!loaded.get(i))
                 continue;
 
-            if (record && sm.getDirty().get(i) && !sm.getFlushed().get(i))
+            if (record && sm.isDirty(i) && !sm.isFlushed(i))
                 nextState[i] = sm.fetch(fields[i].getIndex());
             if (fields[i].getTable() == table)
                 fields[i].where(sm, store, custom, state[i]);
@@ -202,9 +202,9 @@ public class StateComparisonVersionStrategy
         for (int i = 0; i < fields.length; i++) {
             if (!fields[i].isPrimaryKey()
                 && fields[i].isVersionable()
-                && sm.getLoaded().get(fields[i].getIndex())
+                && sm.isLoaded(fields[i].getIndex())
                 && !loaded.get(i)
-                && !sm.getDirty().get(fields[i].getIndex())) {
+                && !sm.isDirty(fields[i].getIndex())) {
                 loaded.set(i);
                 state[i] = sm.fetch(fields[i].getIndex());
             }
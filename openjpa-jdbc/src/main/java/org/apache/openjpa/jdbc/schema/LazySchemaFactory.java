@@ -21,6 +21,7 @@ package org.apache.openjpa.jdbc.schema;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.openjpa.jdbc.conf.JDBCConfiguration;
 import org.apache.openjpa.jdbc.identifier.DBIdentifier;
@@ -51,6 +52,9 @@ public class LazySchemaFactory
     private boolean _pks = false;
     private boolean _fks = false;
 
+    // guards the shared connection while generating schema objects
+    private final ReentrantLock _lock = new ReentrantLock();
+
     public boolean getPrimaryKeys() {
         return _pks;
     }
@@ -154,9 +158,10 @@ public class LazySchemaFactory
         DBIdentifier schemaName = name.getSchemaName();
         DBIdentifier objectName = name.getIdentifier();
 
-        // we share a single connection across all schemas, so synch
-        // on the schema group
-        synchronized (this) {
+        // we share a single connection across all schemas, so lock
+        // the schema group
+        _lock.lock();
+        try {
             boolean close = false;
             try {
                 // use the existing connection if possible; this method
@@ -205,6 +210,8 @@ public class LazySchemaFactory
                     _conn = null;
                 }
             }
+        } finally {
+            _lock.unlock();
         }
     }
 
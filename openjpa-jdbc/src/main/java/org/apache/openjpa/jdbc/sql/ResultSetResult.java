@@ -40,6 +40,7 @@ import java.time.OffsetDateTime;
 import java.time.OffsetTime;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 
@@ -69,6 +70,9 @@ public class ResultSetResult
     private int _row = -1;
     private int _size = -1;
 
+    // result set indexes of the columns and ids looked up so far
+    private Map<Object, Integer> _indexes = null;
+
     // optional; used to deserialize blobs containing refs to persistent objs
     private JDBCStore _store = null;
 
@@ -589,10 +593,25 @@ public class ResultSetResult
      */
     protected int findObject(Object obj, Joins joins)
         throws SQLException {
+        // the position of a column does not change from row to row, so look
+        // each column up once instead of once per field and row
+        if (_indexes == null)
+            _indexes = new HashMap<>();
+        Integer idx = _indexes.get(obj);
+        if (idx == null) {
+            idx = findColumn(obj);
+            _indexes.put(obj, idx);
+        }
+        return idx;
+    }
+
+    /**
+     * Look up the 1-based result set index of the given column or id by name.
+     */
+    private int findColumn(Object obj) {
         try {
-          String s1 = obj.toString();
-          DBIdentifier sName = DBIdentifier.newColumn(obj.toString());
-          return getResultSet().findColumn(_dict.convertSchemaCase(sName));
+            DBIdentifier sName = DBIdentifier.newColumn(obj.toString());
+            return getResultSet().findColumn(_dict.convertSchemaCase(sName));
         } catch (SQLException se) {
             _dict.log.trace(se.getMessage());
             return 0;
@@ -441,7 +441,8 @@ public class SelectImpl
         boolean isLRS = isLRS();
         int rsType = (isLRS && supportsRandomAccess(forUpdate))
             ? -1 : ResultSet.TYPE_FORWARD_ONLY;
-        Connection conn = store.getConnection();
+        Connection conn = (forUpdate) ? store.getConnection()
+            : store.getConnection(fetch);
         PreparedStatement stmnt = null;
         ResultSet rs = null;
         try {
@@ -2475,6 +2476,9 @@ public class SelectImpl
         private int _pos = 0;
         private Stack _preJoins = null;
 
+        // result set indexes of columns read by generated field loaders
+        private Map<Object, int[]> _indexes = null;
+
         /**
          * Constructor.
          */
@@ -2695,6 +2699,33 @@ public class SelectImpl
             return null;
         }
 
+        /**
+         * Return the result set index of each of the given columns, or 0 for
+         * a column that was not selected. Return null if the columns cannot
+         * be read by index, as this result currently loads an instance
+         * through joins. The indexes are computed once per key.
+         *
+         * @since 3.0.1
+         */
+        public int[] getIndexes(Object key, Column[] cols) {
+            if (_sel._from != null)
+                return null;
+            PathJoins pre = getPreJoins();
+            if (pre != null && pre.path() != null)
+                return null;
+
+            if (_indexes == null)
+                _indexes = new HashMap<>();
+            int[] idx = _indexes.get(key);
+            if (idx == null) {
+                idx = new int[cols.length];
+                for (int i = 0; i < cols.length; i++)
+                    idx[i] = _sel._selects.indexOf(cols[i]) + 1;
+                _indexes.put(key, idx);
+            }
+            return idx;
+        }
+
         /**
          * Return the alias used to key on the column data, considering the
          * given joins.
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.jdbc.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.openjpa.jdbc.identifier.DBIdentifier;
+import org.apache.openjpa.lib.log.NoneLogFactory;
+import org.jmock.Expectations;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class TestResultSetResult {
+    @Rule
+    public JUnitRuleMockery context = new JUnitRuleMockery();
+
+    final Connection mockConnection = context.mock(Connection.class);
+    final ResultSet mockRS = context.mock(ResultSet.class);
+
+    final DBDictionary dict = new DBDictionary() {
+        @Override
+        public String convertSchemaCase(DBIdentifier objectName) {
+            return objectName.getName();
+        }
+    };
+
+    /*
+     * Columns are resolved against the result set once and then read by index on every row.
+     */
+    @Test
+    public void testColumnIndexResolvedOnce() throws Exception {
+        context.checking(new Expectations()
+        {
+            {
+                oneOf(mockRS).findColumn("ID");
+                will(returnValue(2));
+
+                exactly(2).of(mockRS).next();
+                will(onConsecutiveCalls(returnValue(true), returnValue(true)));
+
+                exactly(2).of(mockRS).getInt(2);
+                will(onConsecutiveCalls(returnValue(10), returnValue(20)));
+            }
+        });
+
+        ResultSetResult res = new ResultSetResult(mockConnection, mockRS, dict);
+        assertTrue(res.next());
+        assertTrue(res.contains("ID"));
+        assertEquals(10, res.getInt("ID"));
+        assertTrue(res.next());
+        assertTrue(res.contains("ID"));
+        assertEquals(20, res.getInt("ID"));
+    }
+
+    /*
+     * Columns missing from the result set are remembered as well.
+     */
+    @Test
+    public void testMissingColumnResolvedOnce() throws Exception {
+        dict.log = new NoneLogFactory().getLog("test");
+        context.checking(new Expectations()
+        {
+            {
+                oneOf(mockRS).findColumn("NAME");
+                will(throwException(new SQLException("NAME")));
+            }
+        });
+
+        ResultSetResult res = new ResultSetResult(mockConnection, mockRS, dict);
+        assertFalse(res.contains("NAME"));
+        assertFalse(res.contains("NAME"));
+    }
+}
@@ -35,6 +35,7 @@ public abstract class DetachOptions
 
     private boolean _liteAutoDetach = false;
     private boolean _detachProxyFields = true;
+    private boolean _copyInBulk = true;
 
     /**
      * The {@link DetachState} constant.
@@ -161,6 +162,29 @@ public abstract class DetachOptions
         return _detachProxyFields;
     }
 
+    /**
+     * Whether detaching a copy copies the fields whose values need no
+     * detaching, such as primitives, strings and relations detach does not
+     * cascade through, with a single call to the generated copy code of
+     * the instance rather than one field at a time. Defaults to true.
+     *
+     * @since 3.0.1
+     */
+    public boolean getCopyFieldsInBulk() {
+        return _copyInBulk;
+    }
+
+    /**
+     * Whether detaching a copy copies the fields whose values need no
+     * detaching with a single call to the generated copy code of the
+     * instance.
+     *
+     * @since 3.0.1
+     */
+    public void setCopyFieldsInBulk(boolean val) {
+        _copyInBulk = val;
+    }
+
     /**
      * Detach loaded state.
      */
@@ -20,6 +20,7 @@ package org.apache.openjpa.conf;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.apache.openjpa.audit.Auditor;
 import org.apache.openjpa.datacache.CacheDistributionPolicy;
@@ -2009,5 +2010,38 @@ public interface OpenJPAConfiguration
     String getDropScriptTarget();
 
     String getLoadScriptSource();
+
+    /**
+     * Gets the plug-in string of the {@link Executor} that runs the
+     * asynchronous operations of persistence contexts.
+     *
+     * @since 3.0.1
+     */
+    String getAsyncExecutor();
+
+    /**
+     * Sets the plug-in string of the {@link Executor} that runs the
+     * asynchronous operations of persistence contexts.
+     *
+     * @since 3.0.1
+     */
+    void setAsyncExecutor(String executor);
+
+    /**
+     * Gets the {@link Executor} that runs the asynchronous operations of
+     * persistence contexts.
+     *
+     * @see org.apache.openjpa.kernel.AsyncExecutor
+     * @since 3.0.1
+     */
+    Executor getAsyncExecutorInstance();
+
+    /**
+     * Sets the {@link Executor} that runs the asynchronous operations of
+     * persistence contexts.
+     *
+     * @since 3.0.1
+     */
+    void setAsyncExecutorInstance(Executor executor);
 }
 
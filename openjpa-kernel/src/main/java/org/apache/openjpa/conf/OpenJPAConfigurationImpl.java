@@ -21,6 +21,7 @@ package org.apache.openjpa.conf;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.apache.openjpa.audit.AuditLogger;
 import org.apache.openjpa.audit.Auditor;
@@ -39,6 +40,7 @@ import org.apache.openjpa.event.RemoteCommitEventManager;
 import org.apache.openjpa.event.RemoteCommitProvider;
 import org.apache.openjpa.instrumentation.InstrumentationManager;
 import org.apache.openjpa.instrumentation.InstrumentationManagerImpl;
+import org.apache.openjpa.kernel.AsyncExecutor;
 import org.apache.openjpa.kernel.AutoClear;
 import org.apache.openjpa.kernel.BrokerImpl;
 import org.apache.openjpa.kernel.ConnectionRetainModes;
@@ -178,6 +180,7 @@ public class OpenJPAConfigurationImpl
     public BooleanValue postLoadOnMerge;
     public BooleanValue optimizeIdCopy;
     public BooleanValue useTcclForSelectNew;
+    public PluginValue asyncExecutorPlugin;
 
     // JPA Properties
     public IntValue databaseAction;
@@ -672,6 +675,13 @@ public class OpenJPAConfigurationImpl
         useTcclForSelectNew.setDefault("false");
         useTcclForSelectNew.set(false);
 
+        asyncExecutorPlugin = addPlugin("AsyncExecutor", true);
+        aliases = new String[] { "default", AsyncExecutor.class.getName(), };
+        asyncExecutorPlugin.setAliases(aliases);
+        asyncExecutorPlugin.setDefault(aliases[0]);
+        asyncExecutorPlugin.setString(aliases[0]);
+        asyncExecutorPlugin.setInstantiatingGetter("getAsyncExecutorInstance");
+
         // initialize supported options that some runtimes may not support
         supportedOptions.add(OPTION_NONTRANS_READ);
         supportedOptions.add(OPTION_OPTIMISTIC);
@@ -1970,6 +1980,7 @@ public class OpenJPAConfigurationImpl
         ImplHelper.close(metaRepository);
         ImplHelper.close(remoteEventManager);
         ImplHelper.close(getInstrumentationManagerInstance());
+        ImplHelper.close(asyncExecutorPlugin.get());
         super.preClose();
     }
 
@@ -2278,5 +2289,29 @@ public class OpenJPAConfigurationImpl
             setUseTCCLinSelectNew(useTcclForSelectNew.booleanValue());
         }
     }
+
+    @Override
+    public String getAsyncExecutor() {
+        return asyncExecutorPlugin.getString();
+    }
+
+    @Override
+    public void setAsyncExecutor(String executor) {
+        asyncExecutorPlugin.setString(executor);
+    }
+
+    @Override
+    public Executor getAsyncExecutorInstance() {
+        Executor executor = (Executor) asyncExecutorPlugin.get();
+        if (executor == null) {
+            executor = (Executor) asyncExecutorPlugin.instantiate(Executor.class, this);
+        }
+        return executor;
+    }
+
+    @Override
+    public void setAsyncExecutorInstance(Executor executor) {
+        asyncExecutorPlugin.set(executor);
+    }
 }
 
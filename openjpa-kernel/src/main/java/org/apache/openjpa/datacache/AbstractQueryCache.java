@@ -495,10 +495,11 @@ public abstract class AbstractQueryCache
         private static final float LOAD_FACTOR = 0.75f;
         private static final int CONCURRENCY = 16;
 
-        private static final int ARRAY_SIZE = 3;
+        private static final int ARRAY_SIZE = 4;
         private static final int READ  = 0;
         private static final int HIT   = 1;
         private static final int EVICT = 2;
+        private static final int COALESCED = 3;
 
         private long[] astat = new long[ARRAY_SIZE];
         private long[] stat  = new long[ARRAY_SIZE];
@@ -578,6 +579,16 @@ public abstract class AbstractQueryCache
             return astat[EVICT];
         }
 
+        @Override
+        public long getCoalescedCount() {
+            return stat[COALESCED];
+        }
+
+        @Override
+        public long getTotalCoalescedCount() {
+            return astat[COALESCED];
+        }
+
         private long getCount(Map<T, long[]> target, T query, int i) {
             long[] row = target.get(query);
             return (row == null) ? 0 : row[i];
@@ -644,6 +655,18 @@ public abstract class AbstractQueryCache
             addSample(query, EVICT);
         }
 
+        /**
+         * Record that an execution of the given query was served by waiting
+         * on a concurrent execution of the same query.
+         *
+         * @since 3.0.1
+         */
+        public void recordCoalesced(T query) {
+            if (query == null)
+                return;
+            addSample(query, COALESCED);
+        }
+
         @Override
         public void dump(PrintStream out) {
             String header = "Query Statistics starting from " + start;
@@ -141,6 +141,28 @@ public interface CacheStatistics extends Serializable {
      */
     @Deprecated long getTotalWriteCount(Class<?> cls);
 
+    /**
+     * Gets number of read requests that missed the cache but were served by
+     * waiting on a concurrent load of the same data since last reset.
+     * Returns 0 by default.
+     *
+     * @since 3.0.1
+     */
+    default long getCoalescedCount() {
+        return 0;
+    }
+
+    /**
+     * Gets number of read requests that missed the cache but were served by
+     * waiting on a concurrent load of the same data since start.
+     * Returns 0 by default.
+     *
+     * @since 3.0.1
+     */
+    default long getTotalCoalescedCount() {
+        return 0;
+    }
+
 	/**
 	 * Gets the time of last reset.
 	 */
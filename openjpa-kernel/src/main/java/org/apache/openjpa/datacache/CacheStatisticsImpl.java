@@ -36,6 +36,8 @@ public class CacheStatisticsImpl implements CacheStatisticsSPI {
     private long[] stat = new long[ARRAY_SIZE];
     private Map<String, long[]> stats = new HashMap<>();
     private Map<String, long[]> totalStats = new HashMap<>();
+    private long coalesced;
+    private long totalCoalesced;
 
     private Date start = new Date();
     private Date since = new Date();
@@ -134,6 +136,16 @@ public class CacheStatisticsImpl implements CacheStatisticsSPI {
         return getCount(totalStats, str, WRITE);
     }
 
+    @Override
+    public long getCoalescedCount() {
+        return coalesced;
+    }
+
+    @Override
+    public long getTotalCoalescedCount() {
+        return totalCoalesced;
+    }
+
     @Override
     public Date since() {
         return since;
@@ -148,6 +160,7 @@ public class CacheStatisticsImpl implements CacheStatisticsSPI {
     public void reset() {
         stat = new long[ARRAY_SIZE];
         stats.clear();
+        coalesced = 0;
         since = new Date();
     }
 
@@ -214,6 +227,15 @@ public class CacheStatisticsImpl implements CacheStatisticsSPI {
         addSample(cls.getName(), WRITE);
     }
 
+    @Override
+    public void newCoalesced(Class<?> cls) {
+        if (!enabled) {
+            return;
+        }
+        coalesced++;
+        totalCoalesced++;
+    }
+
     public void newPut(Object oid) {
         if (!enabled) {
             return;
@@ -42,6 +42,16 @@ public interface CacheStatisticsSPI extends CacheStatistics {
     void newPut(Class<?> cls);
 
 
+    /**
+     * Record a cache miss that was served by waiting on a concurrent load of
+     * the same data instead of loading it again.
+     *
+     * @param cls
+     *            - The class describing the type that is contained in the cache.
+     * @since 3.0.1
+     */
+    void newCoalesced(Class<?> cls);
+
     /**
      * Enable statistics collection.
      */
@@ -18,6 +18,10 @@
  */
 package org.apache.openjpa.datacache;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.apache.openjpa.event.RemoteCommitListener;
 import org.apache.openjpa.lib.util.Localizer;
 import org.apache.openjpa.util.CacheMap;
@@ -28,6 +32,11 @@ import org.apache.openjpa.util.CacheMap;
  * randomly. Due to race conditions, it is possible that a get call might not
  * return a cached instance if that instance is being transferred between
  * internal datastructures.
+ * <br>
+ * Besides the number of entries, the cache can be bounded by an estimated
+ * memory budget (see {@link #setMaxMemory}). Each entry is weighed with
+ * {@link DataCacheSizeEstimator} as it is added and entries are evicted
+ * until the estimated total fits the budget again.
  *
  * @since 0.4.0
  */
@@ -45,6 +54,10 @@ public class ConcurrentDataCache
     private int _cacheSize = Integer.MIN_VALUE;
     private int _softRefs = Integer.MIN_VALUE;
     protected boolean _lru = false;
+    private volatile long _maxMemory = -1;
+    private final AtomicLong _memory = new AtomicLong();
+    private final Map<Object,Long> _weights = new ConcurrentHashMap<>();
+    private transient PartitionedDataCache _owner;
 
     /**
      * Returns the underlying {@link CacheMap} that this cache is using.
@@ -93,6 +106,71 @@ public class ConcurrentDataCache
         return _cache.getSoftReferenceSize();
     }
 
+    /**
+     * Sets the maximum estimated number of bytes the unpinned entries of
+     * this cache may retain, or <code>-1</code> for no limit. Entries are
+     * evicted, soft references first, when the estimate exceeds the budget.
+     *
+     * @since 3.0.1
+     */
+    public void setMaxMemory(long bytes) {
+        boolean weighed = isWeighed();
+        _maxMemory = bytes;
+        if (_cache == null)
+            return;
+        if (!weighed)
+            weighAll();
+        enforceMaxMemory();
+    }
+
+    /**
+     * Returns the maximum estimated number of bytes this cache may retain.
+     * Defaults to <code>-1</code>.
+     *
+     * @since 3.0.1
+     */
+    public long getMaxMemory() {
+        return _maxMemory;
+    }
+
+    /**
+     * Returns the estimated number of bytes retained by the entries of this
+     * cache.
+     *
+     * @since 3.0.1
+     */
+    public long getMemoryUsage() {
+        return _memory.get();
+    }
+
+    /**
+     * Sets the share of a global memory budget assigned to this cache. Unlike
+     * {@link #setMaxMemory}, nothing is evicted here: the cache evicts under
+     * its own lock the next time an entry is added, so that a redistribution
+     * never waits for the locks of other caches.
+     */
+    void setMemoryShare(long bytes) {
+        _maxMemory = bytes;
+    }
+
+    /**
+     * Sets the partitioned cache whose memory budget this cache shares.
+     */
+    void setOwner(PartitionedDataCache owner) {
+        boolean weighed = isWeighed();
+        _owner = owner;
+        if (_cache != null && !weighed)
+            weighAll();
+    }
+
+    /**
+     * Affirms if entries are weighed, which is only the case when this cache
+     * has a memory budget of its own or shares one with other partitions.
+     */
+    private boolean isWeighed() {
+        return _maxMemory >= 0 || _owner != null;
+    }
+
     @Override
     public void initialize(DataCacheManager mgr) {
         super.initialize(mgr);
@@ -132,8 +210,14 @@ public class ConcurrentDataCache
         CacheMap res = new CacheMap(_lru) {
             @Override
             protected void entryRemoved(Object key, Object value, boolean expired) {
+                unweigh(key);
                 keyRemoved(key, expired);
             }
+
+            @Override
+            protected void entryAdded(Object key, Object value) {
+                weigh(key, value);
+            }
         };
 
         return res;
@@ -146,7 +230,63 @@ public class ConcurrentDataCache
 
     @Override
     protected DataCachePCData putInternal(Object key, DataCachePCData pc) {
-        return (DataCachePCData) _cache.put(key, pc);
+        DataCachePCData o = (DataCachePCData) _cache.put(key, pc);
+        enforceMaxMemory();
+        return o;
+    }
+
+    /**
+     * Record the estimated weight of the given entry.
+     */
+    protected void weigh(Object key, Object value) {
+        if (!isWeighed() || !(value instanceof DataCachePCData))
+            return;
+        long weight = DataCacheSizeEstimator.estimate((DataCachePCData) value);
+        Long old = _weights.put(key, weight);
+        _memory.addAndGet((old == null) ? weight : weight - old);
+    }
+
+    /**
+     * Forget the estimated weight of the given entry.
+     */
+    protected void unweigh(Object key) {
+        Long old = _weights.remove(key);
+        if (old != null)
+            _memory.addAndGet(-old);
+    }
+
+    /**
+     * Weigh all entries currently in the cache.
+     */
+    private void weighAll() {
+        _cache.writeLock();
+        try {
+            for (Object o : _cache.entrySet()) {
+                Map.Entry<?,?> entry = (Map.Entry<?,?>) o;
+                weigh(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            _cache.writeUnlock();
+        }
+    }
+
+    /**
+     * Evict entries until the estimated memory usage fits the budget.
+     */
+    private void enforceMaxMemory() {
+        if (_owner != null)
+            _owner.rebalanceMemory(false);
+        if (_maxMemory < 0)
+            return;
+
+        Object key;
+        while (_memory.get() > _maxMemory) {
+            key = _cache.evict();
+            if (key == null)
+                break;
+            if (log.isTraceEnabled())
+                log.trace(_loc.get("cache-memory-evict", new Object[]{ getName(), key, _memory.get(), _maxMemory }));
+        }
     }
 
     @Override
@@ -80,6 +80,27 @@ public interface DataCacheManager {
      */
     ClearableScheduler getClearableScheduler();
 
+    /**
+     * Return the refresher which reloads stale cache entries in the background,
+     * or null if stale entries are evicted instead. Returns null by default.
+     *
+     * @since 3.0.1
+     */
+    default DataCacheRefresher getRefresher() {
+        return null;
+    }
+
+    /**
+     * Return the coalescer which makes concurrent misses for the same data
+     * wait on a single load, or null if misses are not coalesced. Returns
+     * null by default.
+     *
+     * @since 3.0.1
+     */
+    default LoadCoalescer getLoadCoalescer() {
+        return null;
+    }
+
     /**
      * Select the cache where the given managed proxy instance should be cached.
      * This decision <em>may</em> override the cache returned by
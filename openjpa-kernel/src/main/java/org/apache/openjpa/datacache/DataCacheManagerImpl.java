@@ -50,6 +50,12 @@ public class DataCacheManagerImpl
     private QueryCache _queryCache = null;
     private DataCachePCDataGenerator _pcGenerator = null;
     private ClearableScheduler _scheduler = null;
+    private DataCacheRefresher _refresher = null;
+    private int _refreshThreads = 2;
+    private int _refreshQueueSize = 1000;
+    private LoadCoalescer _coalescer = null;
+    private boolean _loadCoalescing = false;
+    private long _loadCoalescingTimeout = 5000;
     private CacheDistributionPolicy _policy = new DefaultCacheDistributionPolicy();
     private Map<ClassMetaData, Boolean> _cacheable = null;
 
@@ -62,6 +68,8 @@ public class DataCacheManagerImpl
     public void initialize(OpenJPAConfiguration conf, ObjectValue dataCache, ObjectValue queryCache) {
         _conf = conf;
         _cacheable = new ConcurrentHashMap<>();
+        if (_loadCoalescing)
+            _coalescer = new LoadCoalescer(_loadCoalescingTimeout);
         _queryCache = (QueryCache) queryCache.instantiate(QueryCache.class, conf);
         if (_queryCache != null)
             _queryCache.initialize(this);
@@ -121,12 +129,78 @@ public class DataCacheManagerImpl
         return _scheduler;
     }
 
+    /**
+     * Returns the refresher, creating it on first use.
+     */
+    @Override
+    public synchronized DataCacheRefresher getRefresher() {
+        if (_refresher == null)
+            _refresher = new DataCacheRefresher(_conf, this, _refreshThreads, _refreshQueueSize);
+        return _refresher;
+    }
+
+    /**
+     * Sets the maximum number of stale cache entries that are reloaded concurrently. Defaults to 2.
+     */
+    public void setRefreshThreads(int threads) {
+        _refreshThreads = threads;
+    }
+
+    public int getRefreshThreads() {
+        return _refreshThreads;
+    }
+
+    /**
+     * Sets the maximum number of stale cache entries waiting to be reloaded. Further stale entries are not
+     * reloaded until a later read finds room in the queue. Defaults to 1000.
+     */
+    public void setRefreshQueueSize(int size) {
+        _refreshQueueSize = size;
+    }
+
+    public int getRefreshQueueSize() {
+        return _refreshQueueSize;
+    }
+
+    @Override
+    public LoadCoalescer getLoadCoalescer() {
+        return _coalescer;
+    }
+
+    /**
+     * Sets whether concurrent cache misses for the same instance or query are coalesced into a single load from the
+     * data store. Defaults to false.
+     */
+    public void setLoadCoalescing(boolean coalesce) {
+        _loadCoalescing = coalesce;
+    }
+
+    public boolean getLoadCoalescing() {
+        return _loadCoalescing;
+    }
+
+    /**
+     * Sets the number of milliseconds a coalesced cache miss waits for the concurrent load before loading on its
+     * own. Defaults to 5000.
+     */
+    public void setLoadCoalescingTimeout(long timeout) {
+        _loadCoalescingTimeout = timeout;
+    }
+
+    public long getLoadCoalescingTimeout() {
+        return _loadCoalescingTimeout;
+    }
+
     @Override
     public void close() {
         ImplHelper.close(_cache);
         ImplHelper.close(_queryCache);
         if (_scheduler != null)
             _scheduler.stop();
+        synchronized (this) {
+            if (_refresher != null)
+                _refresher.close();
+        }
     }
 
     /**
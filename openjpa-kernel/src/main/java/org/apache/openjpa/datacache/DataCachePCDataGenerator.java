@@ -63,11 +63,27 @@ public class DataCachePCDataGenerator extends PCDataGenerator {
         super(conf);
     }
 
+    /**
+     * Constructor.
+     *
+     * @param buildTime whether this generator writes classes at build time
+     * @since 3.0.1
+     */
+    public DataCachePCDataGenerator(OpenJPAConfiguration conf,
+        boolean buildTime) {
+        super(conf, buildTime);
+    }
+
     @Override
     protected String getUniqueName(Class type) {
         return super.getUniqueName(type) + POSTFIX;
     }
 
+    @Override
+    protected String getBuildTimeName(Class<?> type) {
+        return super.getBuildTimeName(type) + POSTFIX;
+    }
+
     @Override
     protected void finish(DynamicPCData data, ClassMetaData meta) {
         int timeout = meta.getDataCacheTimeout();
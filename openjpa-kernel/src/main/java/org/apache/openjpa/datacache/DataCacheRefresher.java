@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.datacache;
+
+import java.security.AccessController;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.openjpa.conf.OpenJPAConfiguration;
+import org.apache.openjpa.enhance.PCDataGenerator;
+import org.apache.openjpa.kernel.Broker;
+import org.apache.openjpa.kernel.BrokerFactory;
+import org.apache.openjpa.kernel.DataCacheRetrieveMode;
+import org.apache.openjpa.kernel.DataCacheStoreMode;
+import org.apache.openjpa.kernel.FetchConfiguration;
+import org.apache.openjpa.kernel.OpenJPAStateManager;
+import org.apache.openjpa.kernel.StoreManager;
+import org.apache.openjpa.lib.log.Log;
+import org.apache.openjpa.lib.util.Closeable;
+import org.apache.openjpa.lib.util.J2DoPrivHelper;
+import org.apache.openjpa.lib.util.Localizer;
+import org.apache.openjpa.meta.ClassMetaData;
+
+/**
+ * Reloads stale cache entries in the background so that readers keep being
+ * served the cached copy instead of waiting on the database.
+ * <br>
+ * Data of a class with a {@link ClassMetaData#getDataCacheRefreshTimeout()
+ * refresh timeout} becomes stale once the refresh timeout has elapsed since it
+ * was cached. Stale data is still returned by the cache; the first read of a
+ * stale entry schedules one reload of that entry, further reads of the same
+ * entry are ignored until the reload completed. Reloads run on a bounded pool
+ * of daemon threads with a bounded queue; requests that do not fit are dropped
+ * and retried by a later read. Once the regular cache timeout has elapsed the
+ * entry expires and reads block on the database as usual.
+ *
+ * @since 3.0.1
+ */
+public class DataCacheRefresher implements Closeable {
+
+    private static final Localizer _loc = Localizer.forPackage(DataCacheRefresher.class);
+
+    private final DataCacheManager _mgr;
+    private final Log _log;
+    private final ThreadPoolExecutor _executor;
+    private final Map<Object, Boolean> _pending = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param conf the configuration
+     * @param mgr the manager whose caches are refreshed
+     * @param threads the maximum number of concurrent reloads
+     * @param queueSize the maximum number of reloads waiting for a thread
+     */
+    public DataCacheRefresher(OpenJPAConfiguration conf, DataCacheManager mgr, int threads, int queueSize) {
+        _mgr = mgr;
+        _log = conf.getLogFactory().getLog(OpenJPAConfiguration.LOG_DATACACHE);
+        _executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueSize)), new RefreshThreadFactory());
+        _executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Affirms if the given cached data is stale, i.e. past the refresh timeout
+     * but not yet timed out.
+     */
+    public static boolean isStale(DataCachePCData data, ClassMetaData meta) {
+        int refresh = meta.getDataCacheRefreshTimeout();
+        int timeout = meta.getDataCacheTimeout();
+        long expires = data.getTimeOut();
+        if (refresh <= 0 || timeout <= 0 || expires == -1)
+            return false;
+        return System.currentTimeMillis() >= expires - timeout + refresh;
+    }
+
+    /**
+     * Schedule a reload of the data cached under the given oid, unless a
+     * reload of the same oid is already pending.
+     *
+     * @param factory the factory to obtain a broker for the reload from
+     * @param cache the cache holding the data
+     * @param oid the oid of the data
+     * @return true if a reload was scheduled
+     */
+    public boolean refresh(final BrokerFactory factory, final DataCache cache, final Object oid) {
+        if (_executor.isShutdown() || _pending.putIfAbsent(oid, Boolean.TRUE) != null)
+            return false;
+
+        try {
+            _executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        reload(factory, cache, oid);
+                    } catch (RuntimeException re) {
+                        if (_log.isWarnEnabled())
+                            _log.warn(_loc.get("cache-refresh-failed", oid), re);
+                    } finally {
+                        _pending.remove(oid);
+                    }
+                }
+            });
+            if (_log.isTraceEnabled())
+                _log.trace(_loc.get("cache-refresh", oid));
+            return true;
+        } catch (RejectedExecutionException ree) {
+            _pending.remove(oid);
+            if (_log.isTraceEnabled())
+                _log.trace(_loc.get("cache-refresh-rejected", oid));
+            return false;
+        }
+    }
+
+    /**
+     * Return the number of reloads that are queued or running.
+     */
+    public int getPendingCount() {
+        return _pending.size();
+    }
+
+    /**
+     * Load the instance with the given oid from the database in a broker of
+     * its own and replace the cached data with the loaded state.
+     */
+    protected void reload(BrokerFactory factory, DataCache cache, Object oid) {
+        Broker broker = factory.newBroker();
+        try {
+            FetchConfiguration fetch = broker.getFetchConfiguration();
+            fetch.setCacheRetrieveMode(DataCacheRetrieveMode.BYPASS);
+            fetch.setCacheStoreMode(DataCacheStoreMode.BYPASS);
+
+            Object pc = broker.find(oid, true, null);
+            if (pc == null) {
+                cache.remove(oid);
+                return;
+            }
+
+            OpenJPAStateManager sm = broker.getStateManager(pc);
+            ClassMetaData meta = sm.getMetaData();
+            PCDataGenerator gen = _mgr.getPCDataGenerator();
+            DataCachePCData data = (gen != null)
+                ? (DataCachePCData) gen.generatePCData(sm.getObjectId(), meta)
+                : new DataCachePCDataImpl(sm.fetchObjectId(), meta, cache.getName());
+            data.store(sm);
+
+            // make sure that we're not replacing a newer version that was
+            // committed while we were loading
+            cache.writeLock();
+            try {
+                DataCachePCData cached = cache.get(oid);
+                if (cached != null && broker.getStoreManager().compareVersion(sm, sm.getVersion(),
+                    cached.getVersion()) == StoreManager.VERSION_EARLIER)
+                    return;
+                cache.put(data);
+            } finally {
+                cache.writeUnlock();
+            }
+        } finally {
+            broker.close();
+        }
+    }
+
+    /**
+     * Stop accepting reloads and discard the queued ones.
+     */
+    @Override
+    public void close() {
+        _executor.shutdownNow();
+        _pending.clear();
+    }
+
+    /**
+     * Creates the daemon threads running the reloads.
+     */
+    private static class RefreshThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger _count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            return AccessController.doPrivileged(J2DoPrivHelper.newDaemonThreadAction(r,
+                _loc.get("cache-refresh-thread", _count.incrementAndGet()).getMessage()));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.datacache;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+import org.apache.openjpa.kernel.AbstractPCData;
+import org.apache.openjpa.kernel.PCData;
+
+/**
+ * Estimates the heap retained by a cached {@link DataCachePCData}.
+ * The estimate walks the loaded field values and charges each of them a
+ * size derived from a typical 64-bit JVM layout with compressed references.
+ * It is meant to weigh cache entries against each other, not to match a
+ * heap dump byte for byte.
+ *
+ * @since 3.0.1
+ */
+public final class DataCacheSizeEstimator {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int ENTRY = 32;
+
+    // charged for the pc data instance, its bit set and data array
+    private static final int PCDATA_OVERHEAD = 96;
+
+    // guards against unbounded recursion through nested structures
+    private static final int MAX_DEPTH = 8;
+
+    private DataCacheSizeEstimator() {
+    }
+
+    /**
+     * Return the estimated number of bytes retained by the given data.
+     */
+    public static long estimate(PCData data) {
+        return estimate(data, 0);
+    }
+
+    private static long estimate(PCData data, int depth) {
+        long size = PCDATA_OVERHEAD + sizeOf(data.getId(), depth)
+            + sizeOf(data.getVersion(), depth);
+        if (data instanceof AbstractPCData) {
+            AbstractPCData pcdata = (AbstractPCData) data;
+            for (int i = pcdata.nextLoaded(0); i >= 0; i = pcdata.nextLoaded(i + 1))
+                size += REFERENCE + sizeOf(data.getData(i), depth);
+        }
+        return size;
+    }
+
+    /**
+     * Return the estimated number of bytes retained by the given value as it
+     * is held in the cache.
+     */
+    private static long sizeOf(Object val, int depth) {
+        if (val == null)
+            return 0;
+        if (depth > MAX_DEPTH)
+            return OBJECT_HEADER;
+
+        if (val instanceof String)
+            return align(OBJECT_HEADER + 8) + align(ARRAY_HEADER + ((String) val).length() * 2L);
+        if (val instanceof Boolean || val instanceof Byte || val instanceof Character
+            || val instanceof Short || val instanceof Integer || val instanceof Float)
+            return OBJECT_HEADER;
+        if (val instanceof Long || val instanceof Double || val instanceof Date)
+            return OBJECT_HEADER + 8;
+        if (val instanceof BigDecimal)
+            return align(OBJECT_HEADER + 24) + sizeOf(((BigDecimal) val).unscaledValue(), depth + 1);
+        if (val instanceof BigInteger)
+            return align(OBJECT_HEADER + 24) + align(ARRAY_HEADER + ((BigInteger) val).bitLength() / 8 + 1);
+        if (val instanceof PCData)
+            return estimate((PCData) val, depth + 1);
+        if (val instanceof Collection) {
+            Collection<?> coll = (Collection<?>) val;
+            long size = OBJECT_HEADER + ARRAY_HEADER;
+            for (Object elem : coll)
+                size += ENTRY + sizeOf(elem, depth + 1);
+            return size;
+        }
+        if (val instanceof Map) {
+            Map<?,?> map = (Map<?,?>) val;
+            long size = OBJECT_HEADER + ARRAY_HEADER;
+            for (Map.Entry<?,?> entry : map.entrySet())
+                size += ENTRY + sizeOf(entry.getKey(), depth + 1)
+                    + sizeOf(entry.getValue(), depth + 1);
+            return size;
+        }
+        if (val.getClass().isArray())
+            return sizeOfArray(val, depth);
+
+        // object ids and other opaque values
+        return OBJECT_HEADER + 16;
+    }
+
+    private static long sizeOfArray(Object val, int depth) {
+        int len = Array.getLength(val);
+        Class<?> comp = val.getClass().getComponentType();
+        if (comp == byte.class || comp == boolean.class)
+            return align(ARRAY_HEADER + len);
+        if (comp == char.class || comp == short.class)
+            return align(ARRAY_HEADER + len * 2L);
+        if (comp == int.class || comp == float.class)
+            return align(ARRAY_HEADER + len * 4L);
+        if (comp == long.class || comp == double.class)
+            return align(ARRAY_HEADER + len * 8L);
+
+        long size = align(ARRAY_HEADER + (long) len * REFERENCE);
+        for (int i = 0; i < len; i++)
+            size += sizeOf(Array.get(val, i), depth + 1);
+        return size;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
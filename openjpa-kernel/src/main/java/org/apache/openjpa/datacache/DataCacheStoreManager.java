@@ -52,7 +52,7 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
 
     // all the state managers changed in this transaction
     private Collection<OpenJPAStateManager> _inserts = null;
-    private Map<OpenJPAStateManager, BitSet> _updates = null;
+    private Collection<OpenJPAStateManager> _updates = null;
     private Collection<OpenJPAStateManager> _deletes = null;
 
     // the owning context
@@ -157,12 +157,7 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
 
             // update pcdatas for updates
             if (_updates != null) {
-                BitSet fields;
-                OpenJPAStateManager sm;
-                for (Map.Entry<OpenJPAStateManager, BitSet> entry : _updates.entrySet()) {
-                    sm = entry.getKey();
-                    fields = entry.getValue();
-
+                for (OpenJPAStateManager sm : _updates) {
                     cache = _mgr.selectCache(sm);
                     if (cache == null) {
                         continue;
@@ -184,7 +179,9 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
                         data.store(sm);
                         mods.newUpdates.add(new PCDataHolder(data, sm));
                     } else {
-                        data.store(sm, fields);
+                        // the fields dirtied in this transaction, as they
+                        // stay dirty until after the commit
+                        data.store(sm, sm.getDirty());
                         mods.existingUpdates.add(new PCDataHolder(data, sm));
                     }
                     CacheStatistics stats = cache.getStatistics();
@@ -370,6 +367,7 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
         CacheStatistics stats = cache.getStatistics();
         boolean fromDatabase = false;
         boolean alreadyCached = data != null;
+        LoadCoalescer.Flight flight = null;
         if (sm.isEmbedded()
          || fetch.getCacheRetrieveMode() == DataCacheRetrieveMode.BYPASS
          || fetch.getCacheStoreMode() == DataCacheStoreMode.REFRESH) {
@@ -382,34 +380,84 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
                 }
                 sm.initialize(data.getType(), state);
                 data.load(sm, fetch, edata);
+                refreshIfStale(cache, sm, data);
             } else {
                 if (!alreadyCached) {
                     if (stats.isEnabled()) {
                         // Get the classname from MetaData... but this won't be right in every case.
                         ((CacheStatisticsSPI)stats).newGet(sm.getMetaData().getDescribedType(), false);
                     }
+                    if (!isLocking(fetch)) {
+                        flight = beginLoad(sm.getObjectId());
+                        if (flight != null && !flight.isLeader()) {
+                            // another broker is loading the same instance; wait for it to cache the data
+                            data = awaitLoad(flight, cache, sm.getObjectId());
+                            flight = null;
+                            if (data != null) {
+                                if (stats.isEnabled()) {
+                                    ((CacheStatisticsSPI) stats).newCoalesced(data.getType());
+                                }
+                                sm.initialize(data.getType(), state);
+                                data.load(sm, fetch, edata);
+                                refreshIfStale(cache, sm, data);
+                                return true;
+                            }
+                        }
+                    }
+                }
+                try {
+                    fromDatabase = super.initialize(sm, state, fetch, edata);
+                } catch (RuntimeException re) {
+                    if (flight != null)
+                        flight.complete();
+                    throw re;
                 }
-                fromDatabase = super.initialize(sm, state, fetch, edata);
             }
         }
-        // update cache if the result came from the database and configured to use or refresh the cache.
-        boolean updateCache = fromDatabase && _ctx.getPopulateDataCache()
-                           && ((fetch.getCacheStoreMode() == DataCacheStoreMode.USE && !alreadyCached)
-                            || (fetch.getCacheStoreMode() == DataCacheStoreMode.REFRESH));
-        if (updateCache) {
-            // It is possible that the "cacheability" of the provided SM changed after hitting the DB. This can happen
-            // when we are operating against an Entity that is in some sort of inheritance structure.
-            cache = _mgr.selectCache(sm);
-            if (cache != null) {
-                cacheStateManager(cache, sm, data);
-                if (stats.isEnabled()) {
-                    ((CacheStatisticsSPI) stats).newPut(sm.getMetaData().getDescribedType());
+        try {
+            // update cache if the result came from the database and configured to use or refresh the cache.
+            boolean updateCache = fromDatabase && _ctx.getPopulateDataCache()
+                               && ((fetch.getCacheStoreMode() == DataCacheStoreMode.USE && !alreadyCached)
+                                || (fetch.getCacheStoreMode() == DataCacheStoreMode.REFRESH));
+            if (updateCache) {
+                // It is possible that the "cacheability" of the provided SM changed after hitting the DB. This can
+                // happen when we are operating against an Entity that is in some sort of inheritance structure.
+                cache = _mgr.selectCache(sm);
+                if (cache != null) {
+                    cacheStateManager(cache, sm, data);
+                    if (stats.isEnabled()) {
+                        ((CacheStatisticsSPI) stats).newPut(sm.getMetaData().getDescribedType());
+                    }
                 }
             }
+        } finally {
+            if (flight != null)
+                flight.complete();
         }
         return fromDatabase || alreadyCached;
     }
 
+    /**
+     * Join the in-flight load of the given oid, if misses are coalesced.
+     */
+    private LoadCoalescer.Flight beginLoad(Object oid) {
+        LoadCoalescer coalescer = _mgr.getLoadCoalescer();
+        return (coalescer == null || oid == null) ? null : coalescer.begin(oid);
+    }
+
+    /**
+     * Wait for the leader of the given flight and return the data it cached,
+     * or null if the caller has to load the data on its own.
+     */
+    private DataCachePCData awaitLoad(LoadCoalescer.Flight flight, DataCache cache, Object oid) {
+        if (!flight.await())
+            return null;
+        DataCachePCData data = cache.get(oid);
+        if (data != null)
+            flight.coalesced();
+        return data;
+    }
+
     private void cacheStateManager(DataCache cache, OpenJPAStateManager sm, DataCachePCData data) {
         if (sm.isFlushed()) {
             return;
@@ -445,10 +493,10 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
         DataCache cache = _mgr.selectCache(sm);
 
         boolean found = false;
-        int loadedFieldsBefore = sm.getLoaded().cardinality();
+        int loadedFieldsBefore = sm.getLoadedBits().cardinality();
         if (cache == null || sm.isEmbedded() || bypass(fetch, StoreManager.FORCE_LOAD_NONE)) {
             found = super.load(sm, fields, fetch, lockLevel, edata);
-            int loadedFieldsAfter = sm.getLoaded().cardinality();
+            int loadedFieldsAfter = sm.getLoadedBits().cardinality();
             boolean changed = loadedFieldsAfter > loadedFieldsBefore;
             updateDataCache(found, sm, fetch, changed);
             return found;
@@ -456,8 +504,10 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
 
         CacheStatistics stats = cache.getStatistics();
         DataCachePCData data = cache.get(sm.getObjectId());
-        if (lockLevel == LockLevels.LOCK_NONE && !isLocking(fetch) && data != null)
+        if (lockLevel == LockLevels.LOCK_NONE && !isLocking(fetch) && data != null) {
             data.load(sm, fields, fetch, edata);
+            refreshIfStale(cache, sm, data);
+        }
         if (fields.length() == 0){
             if (stats.isEnabled()) {
                 Class<?> cls = (data == null) ? sm.getMetaData().getDescribedType() : data.getType();
@@ -470,7 +520,7 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
         // so that if the store manager decides to modify it it won't affect us
         found = super.load(sm,(BitSet) fields.clone() , fetch, lockLevel, edata);
 
-        int loadedFieldsAfter = sm.getLoaded().cardinality();
+        int loadedFieldsAfter = sm.getLoadedBits().cardinality();
         boolean changed = loadedFieldsAfter > loadedFieldsBefore;
         // Get new instance of cache after DB load since it may have changed
         updateDataCache(found, sm, fetch, changed);
@@ -478,6 +528,22 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
         return found;
     }
 
+    /**
+     * Schedule a background reload of the given cached data if it is past
+     * the refresh timeout of its type. The stale data has already been
+     * served to the caller. Without a refresher, the stale data is evicted
+     * so that the next read loads it.
+     */
+    private void refreshIfStale(DataCache cache, OpenJPAStateManager sm, DataCachePCData data) {
+        if (!DataCacheRefresher.isStale(data, sm.getMetaData()))
+            return;
+        DataCacheRefresher refresher = _mgr.getRefresher();
+        if (refresher != null)
+            refresher.refresh(_ctx.getBroker().getBrokerFactory(), cache, data.getId());
+        else
+            cache.remove(data.getId());
+    }
+
     /**
      * Updates or inserts and item into the data cache.  If storeMode=USE and not in the cache,
      * the item is inserted.  If storeMode=REFRESH the item is inserted, updated, or if found=false,
@@ -579,6 +645,7 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
                         }
                         sm.initialize(data.getType(), state);
                         data.load(sm, fetch, edata);
+                        refreshIfStale(cache, sm, data);
                     } else {
                         unloaded = addUnloaded(sm, null, unloaded);
                         if (stats.isEnabled()) {
@@ -592,6 +659,7 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
                         // load unloaded fields
                         fields = sm.getUnloaded(fetch);
                         data.load(sm, fields, fetch, edata);
+                        refreshIfStale(cache, sm, data);
                         if (fields.length() > 0){
                             unloaded = addUnloaded(sm, fields, unloaded);
                             if (stats.isEnabled()) {
@@ -620,47 +688,83 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
         if (!_ctx.getPopulateDataCache())
             return failed;
 
-        // for each loaded instance, merge loaded state into cached data
-
-        boolean isNew;
-
-        for(Map.Entry<OpenJPAStateManager, BitSet> entry : unloaded.entrySet()) {
-            OpenJPAStateManager sm = entry.getKey();
-            fields = entry.getValue();
-
+        // group the loaded instances by cache so that each cache is locked
+        // once and populated in bulk rather than once per instance
+        Map<DataCache,List<OpenJPAStateManager>> loaded = new HashMap<>();
+        for (OpenJPAStateManager sm : unloaded.keySet()) {
             cache = _mgr.selectCache(sm);
             if (cache == null || sm.isEmbedded() || (failed != null
                 && failed.contains(sm.getId())))
                 continue;
 
-            // make sure that we're not trying to cache an old version
-            cache.writeLock();
-            try {
-                data = cache.get(sm.getObjectId());
+            smList = loaded.get(cache);
+            if (smList == null) {
+                smList = new ArrayList<>();
+                loaded.put(cache, smList);
+            }
+            smList.add(sm);
+        }
+
+        for (Entry<DataCache,List<OpenJPAStateManager>> entry : loaded.entrySet())
+            populateDataCache(entry.getKey(), entry.getValue(), unloaded);
+        return failed;
+    }
+
+    /**
+     * Merge the state of the given freshly loaded instances into the given
+     * cache. The cache is locked once for the whole batch and the resulting
+     * data is handed to the cache in a single {@link DataCache#commit} call.
+     *
+     * @param cache the cache all instances map to
+     * @param sms the loaded instances
+     * @param fields the fields that were loaded for each instance, or a null
+     * value if the instance was loaded in its entirety
+     */
+    private void populateDataCache(DataCache cache, List<OpenJPAStateManager> sms,
+        Map<OpenJPAStateManager, BitSet> fields) {
+        List<Object> oidList = new ArrayList<>(sms.size());
+        for (OpenJPAStateManager sm : sms)
+            oidList.add(sm.getObjectId());
+
+        List<DataCachePCData> additions = new ArrayList<>(sms.size());
+        List<DataCachePCData> updates = new ArrayList<>();
+        CacheStatistics stats = cache.getStatistics();
+
+        // make sure that we're not trying to cache an old version
+        cache.writeLock();
+        try {
+            Map<Object,DataCachePCData> dataMap = cache.getAll(oidList);
+            DataCachePCData data;
+            BitSet loaded;
+            for (OpenJPAStateManager sm : sms) {
+                data = dataMap.get(sm.getObjectId());
                 if (data != null && compareVersion(sm, sm.getVersion(),
                     data.getVersion()) == VERSION_EARLIER)
                     continue;
 
-                isNew = data == null;
+                boolean isNew = data == null;
                 if (isNew)
                     data = newPCData(sm, cache);
-                if (fields == null)
+                loaded = fields.get(sm);
+                if (loaded == null)
                     data.store(sm);
                 else
-                    data.store(sm, fields);
+                    data.store(sm, loaded);
                 if (isNew)
-                    cache.put(data);
+                    additions.add(data);
                 else
-                    cache.update(data);
-                CacheStatistics stats = cache.getStatistics();
+                    updates.add(data);
                 if (stats.isEnabled()) {
                     ((CacheStatisticsSPI)stats).newPut(data.getType());
                 }
-            } finally {
-                cache.writeUnlock();
             }
+
+            if (!additions.isEmpty() || !updates.isEmpty())
+                cache.commit(additions, Collections.<DataCachePCData> emptyList(), updates,
+                    Collections.emptyList());
+        } finally {
+            cache.writeUnlock();
         }
-        return failed;
     }
 
     /**
@@ -709,9 +813,9 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
             }
             else if (sm.getPCState() == PCState.PDIRTY) {
                 if (_updates == null) {
-                    _updates = new HashMap<>();
+                    _updates = new HashSet<>();
                 }
-                _updates.put(sm, sm.getDirty());
+                _updates.add(sm);
             } else if (sm.getPCState() == PCState.PDELETED) {
                 if (_deletes == null) {
                     _deletes = new HashSet<>();
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.datacache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces concurrent cache misses for the same key into a single load.
+ * <br>
+ * The first thread to miss on a key becomes the leader of a flight and loads
+ * the data from the store. Threads missing on the same key while the flight is
+ * in progress join it as followers: they wait until the leader
+ * {@link Flight#complete completed} the flight and then look up the cache
+ * again instead of issuing the same load themselves. A follower whose wait
+ * times out, or who finds nothing in the cache after the flight completed,
+ * falls back to loading on its own. A thread that leads a flight does not
+ * wait on the flight of another thread, as that thread may in turn wait on
+ * the flight it leads; it loads on its own instead.
+ * <br>
+ * Keys are object ids for the data cache and {@link QueryKey}s for the query
+ * cache. One coalescer is shared by all brokers of a broker factory.
+ *
+ * @since 3.0.1
+ */
+public class LoadCoalescer {
+
+    private final Map<Object, Flight> _flights = new ConcurrentHashMap<>();
+    private final Map<Thread, Integer> _leading = new HashMap<>();
+    private final AtomicLong _coalesced = new AtomicLong();
+    private long _timeout;
+
+    /**
+     * Constructor.
+     *
+     * @param timeout the number of milliseconds a follower waits for the
+     * leader of a flight before loading on its own
+     */
+    public LoadCoalescer(long timeout) {
+        _timeout = timeout;
+    }
+
+    /**
+     * The number of milliseconds a follower waits for the leader of a flight.
+     */
+    public long getTimeout() {
+        return _timeout;
+    }
+
+    /**
+     * Join the flight for the given key, starting a new one if no load of the
+     * key is in progress.
+     *
+     * @return the flight, whose {@link Flight#isLeader} tells whether the
+     * caller has to load the data; or null if the calling thread is already
+     * leading a flight for the key or any other flight, in which case it must
+     * load without coalescing
+     */
+    public Flight begin(Object key) {
+        Thread current = Thread.currentThread();
+        Flight flight = new Flight(key, current);
+        Flight existing = _flights.putIfAbsent(key, flight);
+        if (existing == null) {
+            lead(current);
+            return flight;
+        }
+        if (existing._leader == current || isLeading(current))
+            return null;
+        return existing;
+    }
+
+    /**
+     * Record that the given thread leads one more flight.
+     */
+    private synchronized void lead(Thread leader) {
+        Integer count = _leading.get(leader);
+        _leading.put(leader, (count == null) ? 1 : count + 1);
+    }
+
+    /**
+     * Record that the given thread leads one flight less.
+     */
+    private synchronized void land(Thread leader) {
+        Integer count = _leading.get(leader);
+        if (count == null || count <= 1)
+            _leading.remove(leader);
+        else
+            _leading.put(leader, count - 1);
+    }
+
+    /**
+     * Affirms if the given thread leads a flight in progress.
+     */
+    private synchronized boolean isLeading(Thread thread) {
+        return _leading.containsKey(thread);
+    }
+
+    /**
+     * Return the number of flights currently in progress.
+     */
+    public int getFlightCount() {
+        return _flights.size();
+    }
+
+    /**
+     * Return the number of loads that followers were spared by waiting on a
+     * flight.
+     */
+    public long getCoalescedCount() {
+        return _coalesced.get();
+    }
+
+    /**
+     * A single in-flight load of a key.
+     */
+    public class Flight {
+
+        private final Object _key;
+        private final Thread _leader;
+        private final CountDownLatch _done = new CountDownLatch(1);
+
+        private Flight(Object key, Thread leader) {
+            _key = key;
+            _leader = leader;
+        }
+
+        /**
+         * Affirms if the calling thread leads this flight and has to load the
+         * data.
+         */
+        public boolean isLeader() {
+            return _leader == Thread.currentThread();
+        }
+
+        /**
+         * Wait for the leader to complete this flight.
+         *
+         * @return true if the flight completed within the coalescer's timeout
+         */
+        public boolean await() {
+            try {
+                return _done.await(_timeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        /**
+         * Record that the caller was served by this flight instead of loading
+         * the data on its own.
+         */
+        public void coalesced() {
+            _coalesced.incrementAndGet();
+        }
+
+        /**
+         * Complete this flight and release its followers. Called by the leader
+         * once the loaded data is in the cache or the load failed. Completing
+         * a flight more than once has no effect.
+         */
+        public void complete() {
+            if (_flights.remove(_key, this))
+                land(_leader);
+            _done.countDown();
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.openjpa.lib.conf.PluginListValue;
 import org.apache.openjpa.lib.conf.Value;
@@ -56,6 +57,11 @@ import org.apache.openjpa.util.UserException;
  * Besides the two partitions, this cache instance itself can store data and referred by its own name
  * (<code>X</code> in the above example).
  * <br>
+ * A <code>MaxMemory</code> configured on this cache is a global budget of estimated bytes shared by this cache
+ * and its partitions rather than a budget of its own. The budget is initially split evenly and is periodically
+ * (see {@link #setMemoryRebalanceInterval(long)}) redistributed so that half of it stays evenly split while the
+ * other half follows the share of cache hits each partition served since the previous redistribution.
+ * <br>
  *
  * @author Pinaki Poddar
  *
@@ -67,6 +73,10 @@ public class PartitionedDataCache extends ConcurrentDataCache {
     private Class<? extends DataCache> _type = ConcurrentDataCache.class;
     private final List<String> _partProperties = new ArrayList<>();
     private final Map<String, DataCache> _partitions = new HashMap<>();
+    private long _globalMemory = -1;
+    private long _rebalanceInterval = 60000;
+    private final AtomicLong _lastRebalance = new AtomicLong();
+    private final Map<String, Long> _lastHits = new HashMap<>();
 
     @Override
     public void initialize(DataCacheManager mgr) {
@@ -74,6 +84,119 @@ public class PartitionedDataCache extends ConcurrentDataCache {
         for(DataCache part : _partitions.values()){
             part.initialize(mgr);
         }
+        if (_globalMemory >= 0) {
+            setOwner(this);
+            for (DataCache part : _partitions.values()) {
+                if (part instanceof ConcurrentDataCache)
+                    ((ConcurrentDataCache) part).setOwner(this);
+            }
+            rebalanceMemory(true);
+        }
+    }
+
+    /**
+     * Sets the global budget of estimated bytes shared by this cache and its partitions,
+     * or <code>-1</code> for no limit.
+     */
+    @Override
+    public void setMaxMemory(long bytes) {
+        _globalMemory = bytes;
+    }
+
+    /**
+     * Gets the global budget of estimated bytes shared by this cache and its partitions.
+     */
+    @Override
+    public long getMaxMemory() {
+        return _globalMemory;
+    }
+
+    /**
+     * Gets the estimated number of bytes retained by this cache and its partitions.
+     */
+    @Override
+    public long getMemoryUsage() {
+        long usage = super.getMemoryUsage();
+        for (DataCache part : _partitions.values()) {
+            if (part instanceof ConcurrentDataCache)
+                usage += ((ConcurrentDataCache) part).getMemoryUsage();
+        }
+        return usage;
+    }
+
+    /**
+     * Sets the minimum number of milliseconds between two redistributions of the global memory budget.
+     * A non-positive value keeps the budget evenly split among the partitions.
+     */
+    public void setMemoryRebalanceInterval(long millis) {
+        _rebalanceInterval = millis;
+    }
+
+    /**
+     * Gets the minimum number of milliseconds between two redistributions of the global memory budget.
+     */
+    public long getMemoryRebalanceInterval() {
+        return _rebalanceInterval;
+    }
+
+    /**
+     * Gets the share of the global memory budget currently assigned to this cache and each of its partitions,
+     * keyed by cache name.
+     */
+    public Map<String, Long> getMemoryBudgets() {
+        Map<String, Long> budgets = new HashMap<>();
+        budgets.put(getName(), super.getMaxMemory());
+        for (DataCache part : _partitions.values()) {
+            if (part instanceof ConcurrentDataCache)
+                budgets.put(part.getName(), ((ConcurrentDataCache) part).getMaxMemory());
+        }
+        return budgets;
+    }
+
+    /**
+     * Redistributes the global memory budget among this cache and its partitions according to the
+     * cache hits each of them served since the last redistribution. Only the new shares are recorded:
+     * each cache evicts down to its share under its own lock the next time an entry is added to it.
+     *
+     * @param force if false, the budget is only redistributed if the rebalance interval has elapsed.
+     */
+    public void rebalanceMemory(boolean force) {
+        if (_globalMemory < 0 || (!force && _rebalanceInterval <= 0))
+            return;
+        long now = System.currentTimeMillis();
+        long last = _lastRebalance.get();
+        if (!force && now - last < _rebalanceInterval)
+            return;
+        if (!_lastRebalance.compareAndSet(last, now))
+            return;
+
+        List<ConcurrentDataCache> members = new ArrayList<>();
+        members.add(this);
+        for (DataCache part : _partitions.values()) {
+            if (part instanceof ConcurrentDataCache)
+                members.add((ConcurrentDataCache) part);
+        }
+
+        long[] hits = new long[members.size()];
+        long total = 0;
+        synchronized (_lastHits) {
+            for (int i = 0; i < hits.length; i++) {
+                ConcurrentDataCache member = members.get(i);
+                long count = member.getStatistics().getHitCount();
+                Long prev = _lastHits.put(member.getName(), count);
+                hits[i] = (prev == null || prev > count) ? count : count - prev;
+                total += hits[i];
+            }
+        }
+
+        long even = (total == 0) ? _globalMemory : _globalMemory / 2;
+        long weighted = _globalMemory - even;
+        for (int i = 0; i < hits.length; i++) {
+            long share = even / hits.length;
+            if (total > 0)
+                share += (long) (weighted * ((double) hits[i] / total));
+            members.get(i).setMemoryShare(share);
+        }
     }
     /**
      * Sets the type of the partitions.
@@ -36,6 +36,7 @@ import org.apache.openjpa.kernel.FetchConfiguration;
 import org.apache.openjpa.kernel.LockLevels;
 import org.apache.openjpa.kernel.OpenJPAStateManager;
 import org.apache.openjpa.kernel.QueryContext;
+import org.apache.openjpa.kernel.QueryStatistics;
 import org.apache.openjpa.kernel.ResultShape;
 import org.apache.openjpa.kernel.StoreContext;
 import org.apache.openjpa.kernel.StoreQuery;
@@ -169,11 +170,42 @@ public class QueryCacheStoreQuery
      * caching provider.
      */
     private ResultObjectProvider wrapResult(ResultObjectProvider rop,
-        QueryKey key) {
-        if (key == null)
+        QueryKey key, LoadCoalescer.Flight flight) {
+        if (key == null) {
+            if (flight != null)
+                flight.complete();
             return rop;
+        }
         return new CachingResultObjectProvider(rop, getContext().
-            getProjectionAliases().length > 0, key);
+            getProjectionAliases().length > 0, key, flight);
+    }
+
+    /**
+     * Count an execution of the query with the given key that was served by
+     * waiting on a concurrent execution of the same query.
+     */
+    private void recordCoalesced(QueryKey qk) {
+        QueryStatistics<QueryKey> stats = _cache.getStatistics();
+        if (stats instanceof AbstractQueryCache.Default)
+            ((AbstractQueryCache.Default<QueryKey>) stats).recordCoalesced(qk);
+        else if (stats instanceof QueryStatistics.Default)
+            ((QueryStatistics.Default<QueryKey>) stats).recordCoalesced(qk);
+    }
+
+    /**
+     * Join the in-flight execution of the query with the given key, if
+     * misses are coalesced and the result of the query may be cached.
+     */
+    private LoadCoalescer.Flight beginLoad(QueryKey qk) {
+        if (qk == null)
+            return null;
+        FetchConfiguration fetch = getContext().getFetchConfiguration();
+        if (!fetch.getQueryCacheEnabled()
+            || fetch.getReadLockLevel() > LockLevels.LOCK_NONE)
+            return null;
+        LoadCoalescer coalescer = _sctx.getConfiguration().
+            getDataCacheManagerInstance().getLoadCoalescer();
+        return (coalescer == null) ? null : coalescer.begin(qk);
     }
 
     /**
@@ -355,8 +387,46 @@ public class QueryCacheStoreQuery
                 QueryKey.newInstance(cq.getContext(), _ex.isPacking(q), params, _candidate, _subs, range.start,
                     range.end, parsed);
 
+            List<Object> cached = checkCache(cq, key);
+            if (cached != null)
+                return new ListResultObjectProvider(cached);
+
+            // a lazy result is only cached once it was iterated to its end,
+            // which concurrent executions cannot wait for
+            LoadCoalescer.Flight flight = (_fc.getQueryCacheEnabled() && !range.lrs) ? cq.beginLoad(key) : null;
+            if (flight != null && !flight.isLeader()) {
+                // another broker is executing the same query; wait for it to cache the result
+                if (flight.await()) {
+                    cached = checkCache(cq, key);
+                    if (cached != null) {
+                        flight.coalesced();
+                        cq.recordCoalesced(key);
+                        return new ListResultObjectProvider(cached);
+                    }
+                }
+                flight = null;
+            }
+
+            ResultObjectProvider rop;
+            try {
+                rop = _ex.executeQuery(cq.getDelegate(), params, range);
+            } catch (RuntimeException re) {
+                if (flight != null)
+                    flight.complete();
+                throw re;
+            }
+            if (_fc.getQueryCacheEnabled())
+                return cq.wrapResult(rop, key, flight);
+            else
+                return rop;
+        }
+
+        /**
+         * Look up the cached result of the query with the given key.
+         */
+        private List<Object> checkCache(QueryCacheStoreQuery cq, QueryKey key) {
             // Create a new FetchConfiguration that will be used to ensure that any JOIN FETCHed fields are loaded
-            StoreContext store = q.getContext().getStoreContext();
+            StoreContext store = cq.getContext().getStoreContext();
             FetchConfiguration cacheFc = store.pushFetchConfiguration();
 
             // OPENJPA-2586: If the FetchConfig for this executor contains fields,
@@ -374,19 +444,10 @@ public class QueryCacheStoreQuery
                 }
             }
             try {
-                List<Object> cached = cq.checkCache(key, cacheFc);
-                if (cached != null) {
-                    return new ListResultObjectProvider(cached);
-                }
+                return cq.checkCache(key, cacheFc);
             } finally {
                 store.popFetchConfiguration();
             }
-
-            ResultObjectProvider rop = _ex.executeQuery(cq.getDelegate(), params, range);
-            if (_fc.getQueryCacheEnabled())
-                return cq.wrapResult(rop, key);
-            else
-                return rop;
         }
 
         @Override
@@ -607,6 +668,7 @@ public class QueryCacheStoreQuery
         private final ResultObjectProvider _rop;
         private final boolean _proj;
         private final QueryKey _qk;
+        private final LoadCoalescer.Flight _flight;
         private final TreeMap<Integer,Object> _data = new TreeMap<>();
         private boolean _maintainCache = true;
         private int _pos = -1;
@@ -617,20 +679,33 @@ public class QueryCacheStoreQuery
         private int _size = Integer.MAX_VALUE;
 
         /**
-         * Constructor. Supply delegate result provider and our query key.
+         * Constructor. Supply delegate result provider, our query key and the
+         * flight to complete once caching finished or was aborted.
          */
         public CachingResultObjectProvider(ResultObjectProvider rop,
-            boolean proj, QueryKey key) {
+            boolean proj, QueryKey key, LoadCoalescer.Flight flight) {
             _rop = rop;
             _proj = proj;
             _qk = key;
+            _flight = flight;
             _cache.addTypesChangedListener(this);
         }
 
+        /**
+         * Release concurrent executions of the query waiting on us. Those
+         * that find the result cached by then use it, the others execute the
+         * query on their own.
+         */
+        private void completeFlight() {
+            if (_flight != null)
+                _flight.complete();
+        }
+
         /**
          * Stop caching.
          */
         private void abortCaching() {
+            completeFlight();
             if (!_maintainCache)
                 return;
 
@@ -729,6 +804,8 @@ public class QueryCacheStoreQuery
                 checkFinished(null, false);
             } else if (next && _pos > _max)
                 _max = _pos;
+            if (!next)
+                completeFlight();
             return next;
         }
 
@@ -742,6 +819,8 @@ public class QueryCacheStoreQuery
                 checkFinished(null, false);
             } else if (valid && _pos > _max)
                 _max = _pos;
+            if (!valid)
+                completeFlight();
             return valid;
         }
 
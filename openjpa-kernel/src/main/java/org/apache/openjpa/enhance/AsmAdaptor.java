@@ -18,10 +18,6 @@
  */
 package org.apache.openjpa.enhance;
 
-import static java.util.Arrays.asList;
-
-import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -29,11 +25,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.xbean.asm7.ClassReader;
-import org.apache.xbean.asm7.ClassVisitor;
 import org.apache.xbean.asm7.ClassWriter;
-import org.apache.xbean.asm7.Opcodes;
 
 import serp.bytecode.BCClass;
 
@@ -45,6 +41,8 @@ import serp.bytecode.BCClass;
 public final class AsmAdaptor {
     private static final boolean USE_ASM = System.getProperty("java.version").compareTo("1.6") > 0;
     private static final int Java7_MajorVersion = 51;
+    private static final String PC = "org/apache/openjpa/enhance/PersistenceCapable";
+    private static final String OBJECT = "java/lang/Object";
 
     @SuppressWarnings("deprecation")
     public static void write(BCClass bc) throws IOException {
@@ -94,12 +92,11 @@ public final class AsmAdaptor {
     }
 
     private static byte[] toJava7ByteArray(BCClass bc, byte[] classBytes) throws IOException {
-        ByteArrayInputStream bais = new ByteArrayInputStream(classBytes);
-        BufferedInputStream bis = new BufferedInputStream(bais);
-
+        // frames are recomputed from scratch, so don't bother expanding the
+        // stale ones serp carried over from the original class
         ClassWriter cw = new BCClassWriter(ClassWriter.COMPUTE_FRAMES, bc.getClassLoader());
-        ClassReader cr = new ClassReader(bis);
-        cr.accept(cw, 0);
+        ClassReader cr = new ClassReader(classBytes);
+        cr.accept(cw, ClassReader.SKIP_FRAMES);
         return cw.toByteArray();
     }
 
@@ -114,33 +111,41 @@ public final class AsmAdaptor {
         {
             return false;
         }
-        final ClassReader cr = new ClassReader(b);
         try
         {
-            cr.accept(new ClassVisitor(Opcodes.ASM7)
+            // only the header is needed; don't visit the class body
+            final ClassReader cr = new ClassReader(b);
+            for (String iface : cr.getInterfaces())
             {
-                @Override
-                public void visit(final int i, final int i1,
-                                  final String name, final String s,
-                                  final String parent, final String[] interfaces)
+                if (PC.equals(iface))
                 {
-                    boolean enhanced = interfaces != null && interfaces.length > 0 &&
-                        asList(interfaces).contains("org/apache/openjpa/enhance/PersistenceCapable");
-                    if (!enhanced && name != null && parent != null &&
-                        !"java/lang/Object".equals(parent) && !name.equals(parent)) {
-                        enhanced = isEnhanced(bytes(parent));
-                    }
-                    throw new EnhancedStatusException(enhanced);
+                    return true;
                 }
-            }, 0);
-            return false;
-        } catch (final EnhancedStatusException e) {
-            return e.status;
-        } catch (final Exception e) {
+            }
+            final String name = cr.getClassName();
+            final String parent = cr.getSuperName();
+            if (name == null || parent == null || OBJECT.equals(parent)
+                || name.equals(parent) || isPlatformClass(parent))
+            {
+                return false;
+            }
+            return isEnhanced(bytes(parent));
+        }
+        catch (final Exception e)
+        {
             return false;
         }
     }
 
+    /**
+     * JDK classes never implement {@link PersistenceCapable}, so there is no
+     * need to read their bytecode when walking up a hierarchy.
+     */
+    private static boolean isPlatformClass(final String type)
+    {
+        return type.startsWith("java/") || type.startsWith("javax/");
+    }
+
     private static byte[] bytes(final String type)
     {
         final ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
@@ -169,6 +174,7 @@ public final class AsmAdaptor {
 
     private static class BCClassWriter extends ClassWriter {
         private final ClassLoader _loader;
+        private final Map<String, Class<?>> _types = new HashMap<>();
 
         BCClassWriter(int flags, ClassLoader loader) {
             super(flags);
@@ -177,14 +183,14 @@ public final class AsmAdaptor {
 
         @Override
         protected String getCommonSuperClass(String type1, String type2) {
-            Class<?> class1;
-            Class<?> class2;
-            try {
-                class1 = _loader.loadClass(type1.replace('/', '.'));
-                class2 = _loader.loadClass(type2.replace('/', '.'));
-            } catch (ClassNotFoundException ex) {
-                throw new RuntimeException(ex);
+            if (type1.equals(type2)) {
+                return type1;
+            }
+            if (OBJECT.equals(type1) || OBJECT.equals(type2)) {
+                return OBJECT;
             }
+            Class<?> class1 = loadClass(type1);
+            Class<?> class2 = loadClass(type2);
             if (class1.isAssignableFrom(class2)) {
                 return type1;
             }
@@ -192,22 +198,29 @@ public final class AsmAdaptor {
                 return type2;
             }
             if (class1.isInterface() || class2.isInterface()) {
-                return "java/lang/Object";
+                return OBJECT;
             }
             do {
                 class1 = class1.getSuperclass();
             } while (!class1.isAssignableFrom(class2));
             return class1.getName().replace('.', '/');
         }
-    }
-
-    private static class EnhancedStatusException extends RuntimeException {
-        
-        private static final long serialVersionUID = 1L;
-        private final boolean status;
 
-        private EnhancedStatusException(final boolean status) {
-            this.status = status;
+        /**
+         * Frame computation asks for the same few types over and over while
+         * merging branches; avoid a class loader round trip for each.
+         */
+        private Class<?> loadClass(String type) {
+            Class<?> cls = _types.get(type);
+            if (cls == null) {
+                try {
+                    cls = _loader.loadClass(type.replace('/', '.'));
+                } catch (ClassNotFoundException ex) {
+                    throw new RuntimeException(ex);
+                }
+                _types.put(type, cls);
+            }
+            return cls;
         }
     }
 }
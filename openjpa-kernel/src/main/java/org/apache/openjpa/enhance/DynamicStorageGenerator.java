@@ -18,6 +18,8 @@
  */
 package org.apache.openjpa.enhance;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.security.AccessController;
 
@@ -109,7 +111,16 @@ public class DynamicStorageGenerator {
     public DynamicStorage generateStorage(int[] types, Object obj) {
         if (obj == null)
             return null;
+        return createFactory(generateStorageClass(types, obj));
+    }
 
+    /**
+     * Generate the bytecode of the {@link DynamicStorage} class for the given
+     * array of {@link JavaTypes} constants and user key.
+     *
+     * @since 3.0.1
+     */
+    protected BCClass generateStorageClass(int[] types, Object obj) {
         String name = getClassName(obj);
         BCClass bc = _project.loadClass(name);
         declareClasses(bc);
@@ -122,7 +133,28 @@ public class DynamicStorageGenerator {
         addGetMethods(bc, types);
         addInitialize(bc, objectCount);
         decorate(obj, bc, types);
-        return createFactory(bc);
+        return bc;
+    }
+
+    /**
+     * Write the given generated class beneath the given class directory
+     * rather than loading it.
+     *
+     * @return the written class file
+     * @since 3.0.1
+     */
+    protected File writeClass(BCClass bc, File dir)
+        throws IOException {
+        File file = new File(dir, bc.getName().replace('.',
+            File.separatorChar) + ".class");
+        try {
+            AccessController.doPrivileged(J2DoPrivHelper.mkdirsAction
+                (file.getParentFile()));
+            AsmAdaptor.write(bc, file);
+            return file;
+        } finally {
+            _project.clear(); // remove old refs
+        }
     }
 
     /**
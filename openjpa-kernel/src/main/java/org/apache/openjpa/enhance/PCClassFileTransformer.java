@@ -55,7 +55,10 @@ public class PCClassFileTransformer
     private final ClassLoader _tmpLoader;
     private final Log _log;
     private final Set _names;
-    private boolean _transforming = false;
+
+    // per thread, so that one thread transforming a class does not make the
+    // transformer skip the classes loaded concurrently by other threads
+    private final ThreadLocal<Boolean> _transforming = new ThreadLocal<>();
 
     /**
      * Constructor.
@@ -121,10 +124,10 @@ public class PCClassFileTransformer
         // prevent re-entrant calls, which can occur if the enhancing
         // loader is used to also load OpenJPA libraries; this is to prevent
         // recursive enhancement attempts for internal openjpa libraries
-        if (_transforming)
+        if (_transforming.get() != null)
             return null;
 
-        _transforming = true;
+        _transforming.set(Boolean.TRUE);
 
         return transform0(className, redef, bytes);
     }
@@ -172,7 +175,7 @@ public class PCClassFileTransformer
                 throw (IllegalClassFormatException) t;
             throw new GeneralException(t);
         } finally {
-            _transforming = false;
+            _transforming.remove();
             if (returnBytes != null && _log.isTraceEnabled())
                 _log.trace(_loc.get("runtime-enhance-complete", className,
                     bytes.length, returnBytes.length));
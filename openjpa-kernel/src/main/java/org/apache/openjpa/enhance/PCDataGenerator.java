@@ -18,6 +18,9 @@
  */
 package org.apache.openjpa.enhance;
 
+import java.io.File;
+import java.io.IOException;
+import java.security.AccessController;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.Iterator;
@@ -32,6 +35,7 @@ import org.apache.openjpa.kernel.OpenJPAStateManager;
 import org.apache.openjpa.kernel.PCData;
 import org.apache.openjpa.kernel.StoreContext;
 import org.apache.openjpa.lib.log.Log;
+import org.apache.openjpa.lib.util.J2DoPrivHelper;
 import org.apache.openjpa.lib.util.Localizer;
 import org.apache.openjpa.lib.util.StringUtil;
 import org.apache.openjpa.meta.ClassMetaData;
@@ -65,13 +69,34 @@ public class PCDataGenerator
 
     protected static final String POSTFIX = "$openjpapcdata";
 
+    /**
+     * Name of the static field holding the field layout of a class generated
+     * at build time. A build time class whose layout no longer matches the
+     * metadata is ignored in favor of generating a new class.
+     */
+    protected static final String LAYOUT = "pcdataLayout";
+
     private final Map<Class<?>, DynamicStorage> _generated = new ConcurrentHashMap<>();
     private final OpenJPAConfiguration _conf;
     private final Log _log;
+    private final boolean _buildTime;
 
     public PCDataGenerator(OpenJPAConfiguration conf) {
+        this(conf, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param buildTime whether this generator writes classes at build time
+     * through {@link #writeBuildTimeStorage} rather than generating them at
+     * runtime
+     * @since 3.0.1
+     */
+    public PCDataGenerator(OpenJPAConfiguration conf, boolean buildTime) {
         _conf = conf;
         _log = _conf.getLogFactory().getLog(OpenJPAConfiguration.LOG_ENHANCE);
+        _buildTime = buildTime;
     }
 
     /**
@@ -106,14 +131,101 @@ public class PCDataGenerator
      * Actually generate the factory instance.
      */
     private DynamicStorage generateStorage(ClassMetaData meta) {
+        DynamicStorage storage = loadBuildTimeStorage(meta);
+        if (storage != null)
+            return storage;
+
         if (_log.isTraceEnabled())
             _log.trace(_loc.get("pcdata-generate", meta));
+        return generateStorage(getTypes(meta), meta);
+    }
 
+    /**
+     * Return the storage types of the given type's fields.
+     */
+    private int[] getTypes(ClassMetaData meta) {
         FieldMetaData[] fields = meta.getFields();
         int[] types = new int[fields.length];
         for (int i = 0; i < types.length; i++)
             types[i] = replaceType(fields[i]);
-        return generateStorage(types, meta);
+        return types;
+    }
+
+    /**
+     * Return a description of the given type's fields as far as they shape
+     * the generated class.
+     */
+    private String getLayout(ClassMetaData meta) {
+        StringBuilder buf = new StringBuilder();
+        FieldMetaData[] fields = meta.getFields();
+        for (int i = 0; i < fields.length; i++) {
+            buf.append(fields[i].getName()).append(':')
+                .append(replaceType(fields[i]))
+                .append(usesIntermediate(fields[i]) ? 'i' : '-')
+                .append(usesImplData(fields[i]) ? 'd' : '-').append(';');
+        }
+        return buf.append(usesImplData(meta) ? 'd' : '-').toString();
+    }
+
+    /**
+     * Load the pcdata class generated at build time for the given type,
+     * returning null if none exists or it no longer matches the metadata.
+     */
+    private DynamicStorage loadBuildTimeStorage(ClassMetaData meta) {
+        if (_buildTime)
+            return null;
+
+        Class<?> type = meta.getDescribedType();
+        Class<?> cls;
+        try {
+            cls = Class.forName(getBuildTimeName(type), true,
+                AccessController.doPrivileged(
+                    J2DoPrivHelper.getClassLoaderAction(type)));
+        } catch (Throwable t) {
+            // expected if the class hasn't been generated
+            return null;
+        }
+
+        try {
+            if (DynamicStorage.class.isAssignableFrom(cls)
+                && getLayout(meta).equals(cls.getField(LAYOUT).get(null))) {
+                DynamicStorage storage = (DynamicStorage) cls.getConstructor()
+                    .newInstance();
+                if (_log.isTraceEnabled())
+                    _log.trace(_loc.get("pcdata-loaded", cls.getName(), meta));
+                return storage;
+            }
+        } catch (Exception e) {
+            // treat as stale
+        }
+        if (_log.isWarnEnabled())
+            _log.warn(_loc.get("pcdata-stale", cls.getName(), meta));
+        return null;
+    }
+
+    /**
+     * Generate the pcdata class for the given type and write it beneath the
+     * given class directory, from where the type's pcdata is loaded at
+     * runtime instead of being generated. The generator must have been
+     * constructed for build time generation.
+     *
+     * @param meta the metadata of the type
+     * @param dir the root directory of the class path to write to
+     * @return the written class file
+     * @since 3.0.1
+     */
+    public File writeBuildTimeStorage(ClassMetaData meta, File dir)
+        throws IOException {
+        if (!_buildTime)
+            throw new InternalException();
+
+        BCClass bc = generateStorageClass(getTypes(meta), meta);
+        BCField layout = bc.declareField(LAYOUT, String.class);
+        layout.makePublic();
+        layout.setStatic(true);
+        layout.setFinal(true);
+        layout.getConstantValue(true).setStringValue(getLayout(meta));
+        return writeClass(bc, dir);
     }
 
     /**
@@ -139,7 +251,8 @@ public class PCDataGenerator
 
     @Override
     protected final String getClassName(Object obj) {
-        return getUniqueName(((ClassMetaData) obj).getDescribedType());
+        Class<?> type = ((ClassMetaData) obj).getDescribedType();
+        return (_buildTime) ? getBuildTimeName(type) : getUniqueName(type);
     }
 
     /**
@@ -149,6 +262,17 @@ public class PCDataGenerator
         return type.getName() + "$" + System.identityHashCode(type) + POSTFIX;
     }
 
+    /**
+     * Return the name of the given type's pcdata implementation generated at
+     * build time. As the class is loaded by the type's own class loader, the
+     * name need not be unique across loaders.
+     *
+     * @since 3.0.1
+     */
+    protected String getBuildTimeName(Class<?> type) {
+        return type.getName() + POSTFIX;
+    }
+
     @Override
     protected final void decorate(Object obj, BCClass bc, int[] types) {
         super.decorate(obj, bc, types);
@@ -742,15 +866,13 @@ public class PCDataGenerator
         code.constant().setValue(objectCount);
         code.aaload();
         code.astore().setLocal(inter);
-        // 		if (inter != null && !sm.getLoaded().get(index))
+        // 		if (inter != null && !sm.isLoaded(index))
         code.aload().setLocal(inter);
         jumps2.add(code.ifnull());
         code.aload().setParam(0);
-        code.invokeinterface().setMethod(OpenJPAStateManager.class,
-            "getLoaded", BitSet.class, null);
         code.constant().setValue(index);
-        code.invokevirtual().setMethod(BitSet.class, "get",
-            boolean.class, new Class[]{ int.class });
+        code.invokeinterface().setMethod(OpenJPAStateManager.class,
+            "isLoaded", boolean.class, new Class<?>[]{ int.class });
         jumps2.add(code.ifne());
         //			sm.setIntermediate(index, inter);
         //	}  // end else
@@ -811,13 +933,11 @@ public class PCDataGenerator
                     boolean.class, new Class[]{ int.class });
                 jumps.add(code.ifeq());
             } else {
-                // if (sm.getLoaded().get(index)))
+                // if (sm.isLoaded(index)))
                 setTarget(code.aload().setParam(0), jumps);
-                code.invokeinterface().setMethod(OpenJPAStateManager.class,
-                    "getLoaded", BitSet.class, null);
                 code.constant().setValue(i);
-                code.invokevirtual().setMethod(BitSet.class, "get",
-                    boolean.class, new Class[]{ int.class });
+                code.invokeinterface().setMethod(OpenJPAStateManager.class,
+                    "isLoaded", boolean.class, new Class<?>[]{ int.class });
                 jumps.add(code.ifeq());
             }
             addStore(bc, code, fmds[i], objectCount);
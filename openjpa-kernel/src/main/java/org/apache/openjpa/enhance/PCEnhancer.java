@@ -22,6 +22,7 @@ import java.io.Externalizable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.ObjectInput;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutput;
@@ -39,18 +40,26 @@ import java.security.PrivilegedActionException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.openjpa.conf.OpenJPAConfiguration;
 import org.apache.openjpa.conf.OpenJPAConfigurationImpl;
+import org.apache.openjpa.datacache.DataCachePCDataGenerator;
 import org.apache.openjpa.lib.conf.Configurations;
 import org.apache.openjpa.lib.log.Log;
 import org.apache.openjpa.lib.meta.ClassArgParser;
@@ -87,6 +96,8 @@ import org.apache.openjpa.util.InternalException;
 import org.apache.openjpa.util.LongId;
 import org.apache.openjpa.util.ObjectId;
 import org.apache.openjpa.util.OpenJPAException;
+import org.apache.openjpa.util.ProxyManager;
+import org.apache.openjpa.util.ProxyManagerImpl;
 import org.apache.openjpa.util.ShortId;
 import org.apache.openjpa.util.StringId;
 import org.apache.openjpa.util.UserException;
@@ -4771,6 +4782,13 @@ public class PCEnhancer {
      * <li><i>-enforcePropertyRestrictions/-epr [true/t | false/f]</i>:
      * Whether to throw an exception if a PROPERTY access entity appears
      * to be violating standard property restrictions. Defaults to false.</li>
+     * <li><i>-generateHelpers/-gh [true/t | false/f]</i>: Whether to also
+     * generate the proxies of the persistent types' second class object
+     * fields and, with <code>DynamicDataStructs</code> enabled, their data
+     * cache PCData classes, so that they need not be generated at runtime.
+     * Defaults to false.</li>
+     * <li><i>-threads/-th &lt;count&gt;</i>: The number of classes to
+     * enhance concurrently. Defaults to 1.</li>
      * </ul>
      *  Each additional argument can be either the full class name of the
      * type to enhance, the path to the .java file for the type, the path to
@@ -4829,6 +4847,10 @@ public class PCEnhancer {
         flags.enforcePropertyRestrictions = opts.removeBooleanProperty
             ("enforcePropertyRestrictions", "epr",
                 flags.enforcePropertyRestrictions);
+        flags.generateHelpers = opts.removeBooleanProperty
+            ("generateHelpers", "gh", flags.generateHelpers);
+        flags.threads = opts.removeIntProperty
+            ("threads", "th", flags.threads);
 
         // for unit testing
         BytecodeWriter writer = (BytecodeWriter) opts.get(
@@ -4842,8 +4864,8 @@ public class PCEnhancer {
      * Enhance the given classes.
      */
     public static boolean run(OpenJPAConfiguration conf, String[] args,
-        Flags flags, MetaDataRepository repos, BytecodeWriter writer,
-        ClassLoader loader)
+        final Flags flags, MetaDataRepository repos,
+        final BytecodeWriter writer, ClassLoader loader)
         throws IOException {
         if (loader == null)
             loader = conf.getClassResolverInstance().
@@ -4857,7 +4879,7 @@ public class PCEnhancer {
             repos.setSourceMode(MetaDataModes.MODE_META);
         }
 
-        Log log = conf.getLog(OpenJPAConfiguration.LOG_TOOL);
+        final Log log = conf.getLog(OpenJPAConfiguration.LOG_TOOL);
         Collection classes;
         if (args == null || args.length == 0) {
             classes = repos.getPersistentTypeNames(true, loader);
@@ -4874,27 +4896,96 @@ public class PCEnhancer {
                 classes.addAll(Arrays.asList(cap.parseTypes(args[i])));
         }
 
-        Project project = new Project();
-        BCClass bc;
-        PCEnhancer enhancer;
-        Collection persAwareClasses = new HashSet();
+        final Collection<Object> persAwareClasses =
+            Collections.synchronizedSet(new HashSet<>());
+        final Collection<ClassMetaData> metas = Collections.synchronizedList
+            (new ArrayList<ClassMetaData>());
 
-        int status;
-        for (Iterator itr = classes.iterator(); itr.hasNext();) {
-            Object o = itr.next();
+        int threads = Math.min(flags.threads, classes.size());
+        if (threads <= 1) {
+            Project project = new Project();
+            for (Object o : classes)
+                enhance(conf, o, project, repos, loader, flags,
+                    writer, log, persAwareClasses, metas);
+        } else {
             if (log.isInfoEnabled())
-                log.info(_loc.get("enhance-running", o));
+                log.info(_loc.get("enhance-parallel", classes.size(),
+                    threads));
+            // the metadata repository is shared; each thread gets its own
+            // serp project, which is not thread safe
+            final ThreadLocal<Project> projects = new ThreadLocal<Project>() {
+                @Override
+                protected Project initialValue() {
+                    return new Project();
+                }
+            };
+            ExecutorService exec = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>(classes.size());
+                for (final Object o : classes) {
+                    final OpenJPAConfiguration fconf = conf;
+                    final MetaDataRepository frepos = repos;
+                    final ClassLoader floader = loader;
+                    futures.add(exec.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws IOException {
+                            enhance(fconf, o, projects.get(), frepos,
+                                floader, flags, writer, log,
+                                persAwareClasses, metas);
+                            return null;
+                        }
+                    }));
+                }
+                for (Future<?> future : futures)
+                    future.get();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(ie.getMessage());
+            } catch (ExecutionException ee) {
+                Throwable cause = ee.getCause();
+                if (cause instanceof IOException)
+                    throw (IOException) cause;
+                if (cause instanceof RuntimeException)
+                    throw (RuntimeException) cause;
+                if (cause instanceof Error)
+                    throw (Error) cause;
+                throw new GeneralException(cause);
+            } finally {
+                exec.shutdownNow();
+            }
+        }
+        if(log.isInfoEnabled() && !persAwareClasses.isEmpty()){
+        	log.info(_loc.get("pers-aware-classes", persAwareClasses.size(), persAwareClasses));
+        }
+        if (!metas.isEmpty())
+            generateHelpers(conf, metas, flags.directory, log);
+        return true;
+    }
 
-            if (o instanceof String)
-                bc = project.loadClass((String) o, loader);
-            else
-                bc = project.loadClass((Class) o);
-            enhancer = new PCEnhancer(conf, bc, repos, loader);
+    /**
+     * Enhance a single class given by name or type, recording the result
+     * in the given collections.
+     */
+    private static void enhance(OpenJPAConfiguration conf, Object o,
+        Project project, MetaDataRepository repos, ClassLoader loader,
+        Flags flags, BytecodeWriter writer, Log log,
+        Collection<Object> persAwareClasses, Collection<ClassMetaData> metas)
+        throws IOException {
+        if (log.isInfoEnabled())
+            log.info(_loc.get("enhance-running", o));
+
+        BCClass bc;
+        if (o instanceof String)
+            bc = project.loadClass((String) o, loader);
+        else
+            bc = project.loadClass((Class) o);
+        try {
+            PCEnhancer enhancer = new PCEnhancer(conf, bc, repos, loader);
             if (writer != null)
                 enhancer.setBytecodeWriter(writer);
             enhancer.setDirectory(flags.directory);
             enhancer.setAddDefaultConstructor(flags.addDefaultConstructor);
-            status = enhancer.run();
+            int status = enhancer.run();
             if (status == ENHANCE_NONE) {
                 if (log.isTraceEnabled())
                     log.trace(_loc.get("enhance-norun"));
@@ -4907,12 +4998,80 @@ public class PCEnhancer {
             } else {
                 enhancer.record();
             }
+            if (flags.generateHelpers && status != ENHANCE_INTERFACE
+                && enhancer.getMetaData() != null)
+                metas.add(enhancer.getMetaData());
+        } finally {
             project.clear();
         }
-        if(log.isInfoEnabled() && !persAwareClasses.isEmpty()){
-        	log.info(_loc.get("pers-aware-classes", persAwareClasses.size(), persAwareClasses));
+    }
+
+    /**
+     * Generate the classes OpenJPA otherwise generates at runtime for the
+     * given persistent types: the proxies of their second class object fields
+     * and, if dynamic data structures are enabled, their data cache PCData.
+     * The classes are written beneath the given directory, or beneath the
+     * class directory of each persistent type if null.
+     */
+    private static void generateHelpers(OpenJPAConfiguration conf,
+        Collection<ClassMetaData> metas, File dir, Log log)
+        throws IOException {
+        ProxyManager proxies = conf.getProxyManagerInstance();
+        DataCachePCDataGenerator pcdata = (conf.getDynamicDataStructs())
+            ? new DataCachePCDataGenerator(conf, true) : null;
+
+        Map<File, Collection<Class<?>>> proxyTypes = new HashMap<>();
+        Collection<String> names = new ArrayList<>();
+        for (ClassMetaData meta : metas) {
+            Class<?> type = meta.getDescribedType();
+            File root = (dir != null) ? dir : getClassDirectory(type);
+            if (root == null)
+                continue;
+
+            if (pcdata != null && !type.isInterface()) {
+                pcdata.writeBuildTimeStorage(meta, root);
+                names.add(type.getName());
+            }
+            if (!(proxies instanceof ProxyManagerImpl))
+                continue;
+            Collection<Class<?>> types = proxyTypes.get(root);
+            if (types == null) {
+                types = new LinkedHashSet<>();
+                proxyTypes.put(root, types);
+            }
+            for (FieldMetaData fmd : meta.getDeclaredFields()) {
+                switch (fmd.getDeclaredTypeCode()) {
+                    case JavaTypes.COLLECTION:
+                    case JavaTypes.MAP:
+                    case JavaTypes.DATE:
+                    case JavaTypes.CALENDAR:
+                        types.add(fmd.getDeclaredType());
+                        break;
+                }
+            }
         }
-        return true;
+        for (Map.Entry<File, Collection<Class<?>>> entry
+            : proxyTypes.entrySet())
+            names.addAll(((ProxyManagerImpl) proxies).writeBuildTimeProxies
+                (entry.getValue(), entry.getKey()));
+        if (log.isInfoEnabled() && !names.isEmpty())
+            log.info(_loc.get("enhance-helpers", names.size(), names));
+    }
+
+    /**
+     * Return the root of the class directory holding the given type's class
+     * file, or null if it is not in a directory.
+     */
+    private static File getClassDirectory(Class<?> type) {
+        File file = Files.getClassFile(type);
+        if (file == null)
+            return null;
+        File dir = file.getParentFile();
+        String pkg = ClassUtil.getPackageName(type);
+        if (pkg.length() > 0)
+            for (int i = 0; i != -1 && dir != null; i = pkg.indexOf('.', i + 1))
+                dir = dir.getParentFile();
+        return dir;
     }
 
     /**
@@ -4924,6 +5083,8 @@ public class PCEnhancer {
         public boolean addDefaultConstructor = true;
         public boolean tmpClassLoader = true;
         public boolean enforcePropertyRestrictions = false;
+        public boolean generateHelpers = false;
+        public int threads = 1;
     }
 
     /**
@@ -18,6 +18,9 @@
  */
 package org.apache.openjpa.enhance;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -57,6 +60,13 @@ public class Reflection {
         new ConcurrentReferenceHashMap(ReferenceStrength.WEAK, ReferenceStrength.HARD);
     private static Map<Class<?>, Set<String>> beanPropertiesNameCache =
         new ConcurrentReferenceHashMap(ReferenceStrength.WEAK, ReferenceStrength.HARD);
+    // Weak HashMap cache of method handles by method
+    @SuppressWarnings("unchecked")
+    private static Map<Method, MethodHandle> handleCache =
+        new ConcurrentReferenceHashMap(ReferenceStrength.WEAK, ReferenceStrength.HARD);
+    // type of a setter invocation that ignores the return value
+    private static final MethodType SETTER_TYPE =
+        MethodType.methodType(void.class, Object.class, Object.class);
 
     private static Method getGetterMethod(Class<?> cls, String prop) {
         Method rtnMethod = null;
@@ -338,6 +348,35 @@ public class Reflection {
         }
     }
 
+    /**
+     * Return a handle that invokes the given method with the receiver, the
+     * parameters and the return value all typed as <code>Object</code>.
+     * The receiver is ignored for static methods and a void method returns
+     * null. Handles are cached per method, so that the access checks and
+     * argument adaptation are done once rather than on every invocation.
+     *
+     * @since 3.0.1
+     */
+    public static MethodHandle getHandle(Method meth) {
+        MethodHandle handle = handleCache.get(meth);
+        if (handle != null)
+            return handle;
+
+        makeAccessible(meth, 0);
+        try {
+            handle = MethodHandles.lookup().unreflect(meth);
+        } catch (IllegalAccessException iae) {
+            throw new UserException(_loc.get("reflect-security", meth), iae).
+                setFatal(true);
+        }
+        if (Modifier.isStatic(meth.getModifiers()))
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        handle = handle.asType(MethodType.genericMethodType
+            (meth.getParameterTypes().length + 1));
+        handleCache.put(meth, handle);
+        return handle;
+    }
+
     /**
      * Wrap the given reflection exception as a runtime exception.
      */
@@ -468,9 +507,9 @@ public class Reflection {
     public static Object get(Object target, Method getter) {
         if (target == null || getter == null)
             return null;
-        makeAccessible(getter, getter.getModifiers());
+        MethodHandle handle = getHandle(getter);
         try {
-            return getter.invoke(target, (Object[]) null);
+            return (Object) handle.invokeExact(target);
         } catch (Throwable t) {
             throw wrapReflectionException(t, _loc.get("get-method", target, getter));
         }
@@ -772,9 +811,10 @@ public class Reflection {
     public static void set(Object target, Method setter, Object value) {
         if (target == null || setter == null)
             return;
-        makeAccessible(setter, setter.getModifiers());
+        MethodHandle handle = getHandle(setter);
         try {
-            setter.invoke(target, new Object[] { value });
+            // the generic handle of a setter returns null; drop the result
+            handle.asType(SETTER_TYPE).invokeExact(target, value);
         } catch (Throwable t) {
             throw wrapReflectionException(t, _loc.get("set-method", new Object[]{target, setter, value,
                     value == null ? "" : value.getClass()}));
@@ -21,6 +21,8 @@ package org.apache.openjpa.event;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
@@ -76,14 +78,20 @@ public class BeanLifecycleCallbacks
     @Override
     public void makeCallback(Object obj, Object rel, int eventType)
         throws Exception {
-        Method callback = getCallbackMethod();
-        if (!callback.isAccessible())
-            AccessController.doPrivileged(J2DoPrivHelper.setAccessibleAction(
-                callback, true));
+        MethodHandle handle = getCallbackHandle(requiresArgument() ? 3 : 2);
+        checkArgument(0, _listener);
+        checkArgument(1, obj);
         if (requiresArgument())
-            callback.invoke(_listener, new Object[]{ obj, rel });
-        else
-            callback.invoke(_listener, new Object[]{ obj });
+            checkArgument(2, rel);
+        try {
+            if (requiresArgument())
+                handle.invokeExact(_listener, obj, rel);
+            else
+                handle.invokeExact(_listener, obj);
+        } catch (Throwable t) {
+            // report failures of the callback the way reflection does
+            throw new InvocationTargetException(t);
+        }
     }
 
     @Override
@@ -22,16 +22,22 @@ import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.security.AccessController;
 import java.util.Arrays;
 
+import org.apache.openjpa.enhance.Reflection;
 import org.apache.openjpa.lib.util.J2DoPrivHelper;
 import org.apache.openjpa.lib.util.Localizer;
 import org.apache.openjpa.util.UserException;
 
 /**
- * Callback adapter that invokes a callback method via reflection.
+ * Callback adapter that invokes a callback method via reflection. The
+ * method is invoked through a method handle that is created on the first
+ * callback and reused for all further callbacks.
  *
  * @author Steve Kim
  */
@@ -42,6 +48,9 @@ public class MethodLifecycleCallbacks
         (MethodLifecycleCallbacks.class);
 
     private transient Method _callback;
+    private transient MethodHandle _handle;
+    // the receiver type, or null for a static method, and parameter types
+    private transient Class<?>[] _types;
     private boolean _arg;
 
     /**
@@ -52,6 +61,7 @@ public class MethodLifecycleCallbacks
     public MethodLifecycleCallbacks(Class cls, String method, boolean arg) {
         Class[] args = arg ? new Class[]{ Object.class } : null;
         _callback = getMethod(cls, method, args);
+        _types = getArgumentTypes(_callback);
         _arg = arg;
     }
 
@@ -60,9 +70,19 @@ public class MethodLifecycleCallbacks
      */
     public MethodLifecycleCallbacks(Method method, boolean arg) {
         _callback = method;
+        _types = getArgumentTypes(method);
         _arg = arg;
     }
 
+    private static Class<?>[] getArgumentTypes(Method method) {
+        Class<?>[] params = method.getParameterTypes();
+        Class<?>[] types = new Class<?>[params.length + 1];
+        if (!Modifier.isStatic(method.getModifiers()))
+            types[0] = method.getDeclaringClass();
+        System.arraycopy(params, 0, types, 1, params.length);
+        return types;
+    }
+
     /**
      * The callback method.
      */
@@ -82,17 +102,65 @@ public class MethodLifecycleCallbacks
         return true;
     }
 
+    /**
+     * Return a handle invoking the callback method with the receiver and
+     * all arguments typed as <code>Object</code> and no return value.
+     *
+     * @param args the number of arguments of the handle, including the
+     * receiver
+     * @throws UserException if the callback method does not take that
+     * many arguments
+     * @since 3.0.1
+     */
+    protected MethodHandle getCallbackHandle(int args) {
+        MethodHandle handle = _handle;
+        if (handle == null) {
+            handle = Reflection.getHandle(_callback);
+            if (handle.type().parameterCount() != args)
+                throw new UserException(_loc.get("callback-arg-count",
+                    _callback, args - 1));
+            handle = handle.asType(handle.type().changeReturnType(void.class));
+            _handle = handle;
+        }
+        return handle;
+    }
+
+    /**
+     * Throw the exception reflection would if the given value cannot be
+     * passed as the argument at the given index of the callback handle,
+     * where index 0 is the receiver. The handle would otherwise fail to
+     * cast the value and the failure would be mistaken for one of the
+     * callback itself.
+     *
+     * @since 3.0.1
+     */
+    protected void checkArgument(int index, Object val) {
+        Class<?> type = _types[index];
+        if (type == null)
+            return;
+        if (val == null ? type.isPrimitive()
+            : !type.isPrimitive() && !type.isInstance(val))
+            throw new IllegalArgumentException(_loc.get("callback-arg-type",
+                _callback, (val == null) ? null : val.getClass().getName(),
+                type.getName()).getMessage());
+    }
+
     @Override
     public void makeCallback(Object obj, Object arg, int eventType)
         throws Exception {
-        if (!_callback.isAccessible())
-            AccessController.doPrivileged(J2DoPrivHelper.setAccessibleAction(
-                _callback, true));
-
+        MethodHandle handle = getCallbackHandle(_arg ? 2 : 1);
+        checkArgument(0, obj);
         if (_arg)
-            _callback.invoke(obj, new Object[]{ arg });
-        else
-            _callback.invoke(obj, (Object[]) null);
+            checkArgument(1, arg);
+        try {
+            if (_arg)
+                handle.invokeExact(obj, arg);
+            else
+                handle.invokeExact(obj);
+        } catch (Throwable t) {
+            // report failures of the callback the way reflection does
+            throw new InvocationTargetException(t);
+        }
     }
 
     @Override
@@ -153,12 +221,13 @@ public class MethodLifecycleCallbacks
 
         Class[] args = _arg ? new Class[]{ Object.class } : null;
         _callback = getMethod(cls, methName, args);
+        _types = getArgumentTypes(_callback);
     }
 
     @Override
     public void writeExternal(ObjectOutput out)
         throws IOException {
-        out.writeObject(_callback.getClass());
+        out.writeObject(_callback.getDeclaringClass());
         out.writeObject(_callback.getName());
         out.writeBoolean(_arg);
     }
@@ -18,13 +18,17 @@
  */
 package org.apache.openjpa.instrumentation;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.Map;
 
 import org.apache.openjpa.datacache.CacheStatistics;
 import org.apache.openjpa.datacache.CacheStatisticsSPI;
+import org.apache.openjpa.datacache.ConcurrentDataCache;
 import org.apache.openjpa.datacache.DataCache;
 import org.apache.openjpa.datacache.DataCacheManager;
+import org.apache.openjpa.datacache.DelegatingDataCache;
+import org.apache.openjpa.datacache.PartitionedDataCache;
 import org.apache.openjpa.lib.instrumentation.AbstractInstrument;
 import org.apache.openjpa.lib.instrumentation.InstrumentationLevel;
 
@@ -239,6 +243,41 @@ public abstract class AbstractDataCacheInstrument extends AbstractInstrument imp
     public Map<String, long[]> getCacheStatistics() {
         return _dc.getStatistics().toMap();
     }
+    @Override
+    public long getMemoryUsage() {
+        ConcurrentDataCache cache = getConcurrentDataCache();
+        if (cache != null)
+            return cache.getMemoryUsage();
+        return NO_STATS;
+    }
+
+    @Override
+    public long getMaxMemory() {
+        ConcurrentDataCache cache = getConcurrentDataCache();
+        if (cache != null)
+            return cache.getMaxMemory();
+        return NO_STATS;
+    }
+
+    @Override
+    public Map<String, Long> getMemoryBudgets() {
+        ConcurrentDataCache cache = getConcurrentDataCache();
+        if (cache instanceof PartitionedDataCache)
+            return ((PartitionedDataCache) cache).getMemoryBudgets();
+        if (cache != null)
+            return Collections.singletonMap(cache.getName(), cache.getMaxMemory());
+        return Collections.emptyMap();
+    }
+
+    private ConcurrentDataCache getConcurrentDataCache() {
+        DataCache dc = _dc;
+        if (dc instanceof DelegatingDataCache)
+            dc = ((DelegatingDataCache) dc).getInnermostDelegate();
+        if (dc instanceof ConcurrentDataCache)
+            return (ConcurrentDataCache) dc;
+        return null;
+    }
+
     @Override
     public void clear() {
         _dc.clear();
@@ -193,6 +193,30 @@ public abstract class AbstractQueryCacheInstrument extends AbstractInstrument
         return NO_STATS;
     }
 
+    /**
+     * Returns number of total executions served by a concurrent execution
+     * of the same query since last reset.
+     */
+    @Override
+    public long getCoalescedCount() {
+        QueryStatistics<QueryKey> stats = getStatistics();
+        if (stats != null)
+            return stats.getCoalescedCount();
+        return NO_STATS;
+    }
+
+    /**
+     * Returns number of total executions served by a concurrent execution
+     * of the same query since start.
+     */
+    @Override
+    public long getTotalCoalescedCount() {
+        QueryStatistics<QueryKey> stats = getStatistics();
+        if (stats != null)
+            return stats.getTotalCoalescedCount();
+        return NO_STATS;
+    }
+
     /**
      * Returns all query keys currently tracked in the cache.
      */
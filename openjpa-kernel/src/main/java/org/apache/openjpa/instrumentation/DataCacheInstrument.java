@@ -18,6 +18,7 @@
  */
 package org.apache.openjpa.instrumentation;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.Map;
 
@@ -134,6 +135,38 @@ public interface DataCacheInstrument {
      */
     Map<String, long[]> getCacheStatistics();
 
+    /**
+     * Returns the estimated number of bytes retained by the cache, including its partitions.
+     * Returns -1 if the cache does not estimate its memory usage, which is the default.
+     *
+     * @since 3.0.1
+     */
+    default long getMemoryUsage() {
+        return -1;
+    }
+
+    /**
+     * Returns the budget of estimated bytes the cache may retain, or -1 if the cache has no memory budget,
+     * which is the default.
+     *
+     * @since 3.0.1
+     */
+    default long getMaxMemory() {
+        return -1;
+    }
+
+    /**
+     * Returns the share of the memory budget currently assigned to the cache and each of its partitions.
+     * The format for this map is:
+     *  Cache name(String) => Budget in bytes(Long)
+     * Returns an empty map by default.
+     *
+     * @since 3.0.1
+     */
+    default Map<String, Long> getMemoryBudgets() {
+        return Collections.emptyMap();
+    }
+
 
     /**
      * Clears all data from the DataCache.
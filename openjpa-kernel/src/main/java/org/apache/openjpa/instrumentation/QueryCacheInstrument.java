@@ -101,6 +101,18 @@ public interface QueryCacheInstrument {
      */
     long getTotalEvictionCount();
 
+    /**
+     * Returns number of total executions served by a concurrent execution
+     * of the same query since last reset.
+     */
+    long getCoalescedCount();
+
+    /**
+     * Returns number of total executions served by a concurrent execution
+     * of the same query since start.
+     */
+    long getTotalCoalescedCount();
+
     /**
      * Returns the number of total entries in the cache.
      * @return entries
@@ -65,6 +65,17 @@ public abstract class AbstractPCData
         return getLoaded().get(field);
     }
 
+    /**
+     * Return the index of the first loaded field at or after the given
+     * index, or -1 if there is none. Implementations that copy the mask
+     * returned by {@link #getLoaded} answer this without copying it.
+     *
+     * @since 3.0.1
+     */
+    public int nextLoaded(int field) {
+        return getLoaded().nextSetBit(field);
+    }
+
     /**
      * Transform the given data value into its field value.
      */
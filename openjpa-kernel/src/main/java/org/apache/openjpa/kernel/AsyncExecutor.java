@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.kernel;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.openjpa.lib.util.Closeable;
+import org.apache.openjpa.lib.util.Localizer;
+
+/**
+ * Runs the asynchronous operations of persistence contexts.
+ * <br>
+ * Where the JVM supports virtual threads, each operation runs on a virtual
+ * thread of its own, so that an operation waiting on the database does not
+ * hold a platform thread. Otherwise, or if virtual threads are disabled, the
+ * operations run on a bounded pool of daemon threads and the operations that
+ * find no free thread wait in a queue.
+ * <br>
+ * The executor also schedules the timeouts of the operations on a daemon
+ * thread of its own. Closing the executor stops both.
+ *
+ * @since 3.0.1
+ */
+public class AsyncExecutor implements Executor, Closeable {
+
+    private static final Localizer _loc = Localizer.forPackage(AsyncExecutor.class);
+
+    private int _maxThreads = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+    private boolean _virtualThreads = true;
+    private ExecutorService _executor;
+    private ScheduledThreadPoolExecutor _timer;
+
+    /**
+     * Return the maximum number of platform threads that run operations if
+     * virtual threads are not used.
+     */
+    public int getMaxThreads() {
+        return _maxThreads;
+    }
+
+    /**
+     * Set the maximum number of platform threads that run operations if
+     * virtual threads are not used. Defaults to twice the number of
+     * processors, and at least 8.
+     */
+    public void setMaxThreads(int maxThreads) {
+        _maxThreads = Math.max(1, maxThreads);
+    }
+
+    /**
+     * Return whether operations run on virtual threads where the JVM supports
+     * them.
+     */
+    public boolean getVirtualThreads() {
+        return _virtualThreads;
+    }
+
+    /**
+     * Set whether operations run on virtual threads where the JVM supports
+     * them. Defaults to true.
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        _virtualThreads = virtualThreads;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        getExecutor().execute(command);
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (_executor == null)
+            _executor = newExecutor();
+        return _executor;
+    }
+
+    /**
+     * Create the executor service that runs the operations.
+     */
+    protected ExecutorService newExecutor() {
+        if (_virtualThreads) {
+            try {
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factory.invoke(null);
+            } catch (Exception e) {
+                // virtual threads are not available before Java 21
+            }
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(_maxThreads, _maxThreads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), new AsyncThreadFactory("async-thread"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Run the given command once the given number of milliseconds elapsed,
+     * unless the returned future is cancelled before.
+     */
+    public ScheduledFuture<?> schedule(Runnable command, long millis) {
+        return getTimer().schedule(command, millis, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized ScheduledThreadPoolExecutor getTimer() {
+        if (_timer == null) {
+            _timer = new ScheduledThreadPoolExecutor(1, new AsyncThreadFactory("async-timer-thread"));
+            _timer.setRemoveOnCancelPolicy(true);
+        }
+        return _timer;
+    }
+
+    /**
+     * Stop accepting operations and timeouts. The operations and timeouts
+     * already accepted still run.
+     */
+    @Override
+    public synchronized void close() {
+        if (_executor != null)
+            _executor.shutdown();
+        if (_timer != null)
+            _timer.shutdown();
+    }
+
+    /**
+     * Creates the daemon threads running the operations or the timeouts.
+     */
+    private static class AsyncThreadFactory implements ThreadFactory {
+
+        private final String _name;
+        private final AtomicInteger _count = new AtomicInteger();
+
+        AsyncThreadFactory(String name) {
+            _name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, _loc.get(_name, _count.incrementAndGet()).getMessage());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -18,8 +18,6 @@
  */
 package org.apache.openjpa.kernel;
 
-import java.util.BitSet;
-
 import org.apache.openjpa.audit.AuditableOperation;
 import org.apache.openjpa.enhance.PersistenceCapable;
 import org.apache.openjpa.enhance.Reflection;
@@ -71,7 +69,7 @@ public final class Audited {
 	 * the array contains all the fields.
 	 */
 	public String[] getUpdatedFields() {
-		BitSet dirty = _sm.getDirty();
+		FieldBits dirty = _sm.getDirtyBits();
 		String[] names = new String[dirty.cardinality()];
 		int j = 0;
 		for (int pos = dirty.nextSetBit(0); pos != -1; pos = dirty.nextSetBit(pos+1)) {
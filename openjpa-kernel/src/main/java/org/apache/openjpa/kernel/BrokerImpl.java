@@ -69,7 +69,6 @@ import org.apache.openjpa.lib.instrumentation.InstrumentationLevel;
 import org.apache.openjpa.lib.log.Log;
 import org.apache.openjpa.lib.util.J2DoPrivHelper;
 import org.apache.openjpa.lib.util.Localizer;
-import org.apache.openjpa.lib.util.ReferenceHashMap;
 import org.apache.openjpa.lib.util.ReferenceHashSet;
 import org.apache.openjpa.lib.util.ReferenceMap;
 import org.apache.openjpa.lib.util.StringUtil;
@@ -243,6 +242,7 @@ public class BrokerImpl implements Broker, FindCallbacks, Cloneable, Serializabl
     private boolean _suppressBatchOLELogging = false;
     private boolean _allowReferenceToSiblingContext = false;
     private boolean _postLoadOnMerge = false;
+    private boolean _softManagedCache = true;
 
     // status
     private int _flags = 0;
@@ -428,11 +428,36 @@ public class BrokerImpl implements Broker, FindCallbacks, Cloneable, Serializabl
 
     /**
      * Create a {@link Map} to be used for the primary managed object cache.
-     * Maps oids to state managers. By default, this creates a
-     * {@link ReferenceMap} with soft values.
+     * Maps oids to state managers. By default, this creates a map that keeps
+     * single-column numeric identities in primitive tables, with soft values
+     * unless {@link #setSoftManagedCache soft references} are turned off.
      */
     protected Map<?,?> newManagedObjectCache() {
-        return new ReferenceHashMap(ReferenceStrength.HARD, ReferenceStrength.SOFT);
+        return new NumericIdMap<>(StateManagerImpl.class, _softManagedCache);
+    }
+
+    /**
+     * Whether the managed object cache holds instances by soft references,
+     * so that clean instances the application no longer references may be
+     * garbage collected. Defaults to true.
+     *
+     * @since 3.0.1
+     */
+    public boolean getSoftManagedCache() {
+        return _softManagedCache;
+    }
+
+    /**
+     * Whether the managed object cache holds instances by soft references.
+     * Turning this off saves a reference object per managed instance, but
+     * keeps all managed instances in memory until they are evicted, detached
+     * or the broker is cleared, so a large context may run out of memory.
+     * Takes effect for caches created after the call.
+     *
+     * @since 3.0.1
+     */
+    public void setSoftManagedCache(boolean soft) {
+        _softManagedCache = soft;
     }
 
     //////////////////////////////////
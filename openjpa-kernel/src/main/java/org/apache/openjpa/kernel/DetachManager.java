@@ -22,12 +22,14 @@ import java.io.IOException;
 import java.io.ObjectOutput;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -78,6 +80,10 @@ public class DetachManager
     private final IdentityHashMap _detached;
     private final DetachFieldManager _fullFM;
 
+    // when copying, the fields of each type whose values are detached as
+    // they are, and so can be copied in bulk
+    private Map<ClassMetaData, boolean[]> _copyable;
+
     /**
      * Used to prepare a detachable instance that does not externalize
      * detached state.
@@ -176,8 +182,12 @@ public class DetachManager
         if (idxs != null) {
             if (detachMode == DETACH_FETCH_GROUPS)
                 setFetchGroupFields(broker, sm, idxs);
-            else
-                idxs.or(sm.getLoaded());
+            else {
+                FieldBits loaded = sm.getLoadedBits();
+                for (int i = loaded.nextSetBit(0); i >= 0;
+                    i = loaded.nextSetBit(i + 1))
+                    idxs.set(i);
+            }
 
             // clear lrs fields
             FieldMetaData[] fmds = sm.getMetaData().getFields();
@@ -225,16 +235,12 @@ public class DetachManager
             return false;
 
         // only flush if there are actually any dirty non-flushed fields
-        BitSet dirtyFields = sm.getDirty();
-        BitSet flushedFields = sm.getFlushed();
-        for (int i = 0; i < dirtyFields.size(); i++) {
-            if (dirtyFields.get(i) && !flushedFields.get(i)) {
-                if (sm.getBroker().getRollbackOnly())
-                    sm.getBroker().preFlush();
-                else
-                    sm.getBroker().flush();
-                return true;
-            }
+        if (sm.getDirtyBits().hasAnyNotIn(sm.getFlushedBits(false))) {
+            if (sm.getBroker().getRollbackOnly())
+                sm.getBroker().preFlush();
+            else
+                sm.getBroker().flush();
+            return true;
         }
         return false;
     }
@@ -618,18 +624,30 @@ public class DetachManager
             FieldMetaData[] pks = sm.getMetaData().getPrimaryKeyFields();
             FieldMetaData[] fmds = sm.getMetaData().getFields();
 
-            if (_copy)
+            boolean[] copyable = null;
+            if (_copy) {
                 _to.pcReplaceStateManager(sm);
+                if (_opts.getCopyFieldsInBulk())
+                    copyable = getCopyableFields(sm.getMetaData());
+            }
             try {
+                // values that need no detaching are copied with a single
+                // call to the instance's generated copy code rather than
+                // through this field manager field by field
+                if (copyable != null)
+                    copyFields(from, fmds, copyable, fgfields);
+
                 // we start with pk fields: objects might rely on pk fields for
                 // equals and hashCode methods, and this ensures that pk fields
                 // are set properly if we return any partially-detached objects
                 // due to reentrant calls when traversing relations
                 for (int i = 0; i < pks.length; i++)
-                    detachField(from, pks[i].getIndex(), true);
+                    if (copyable == null || !copyable[pks[i].getIndex()])
+                        detachField(from, pks[i].getIndex(), true);
                 detachVersion();
                 for (int i = 0; i < fmds.length; i++)
-                    if (!fmds[i].isPrimaryKey() && !fmds[i].isVersion())
+                    if (!fmds[i].isPrimaryKey() && !fmds[i].isVersion()
+                        && (copyable == null || !copyable[i]))
                         detachField(from, i, fgfields.get(i));
             } finally {
                 // clear the StateManager from the target object
@@ -638,6 +656,24 @@ public class DetachManager
             }
         }
 
+        /**
+         * Copy the copyable primary key fields and fetched fields from the
+         * given instance.
+         */
+        private void copyFields(PersistenceCapable from, FieldMetaData[] fmds,
+            boolean[] copyable, BitSet fgfields) {
+            int[] idxs = new int[fmds.length];
+            int count = 0;
+            for (int i = 0; i < fmds.length; i++)
+                if (copyable[i] && (fmds[i].isPrimaryKey() || fgfields.get(i)))
+                    idxs[count++] = i;
+            if (count == 0)
+                return;
+            if (count < idxs.length)
+                idxs = Arrays.copyOf(idxs, count);
+            _to.pcCopyFields(from, idxs);
+        }
+
         /**
          * Detach (or clear) the given field index.
          */
@@ -723,6 +759,58 @@ public class DetachManager
             return obj;
         }
 
+        /**
+         * Return whether the value of the given field is detached as it is:
+         * whether {@link #detachField(Object, int)} returns it unchanged.
+         */
+        private boolean isCopyable(FieldMetaData fmd) {
+            if (fmd.isVersion())
+                return false;
+            switch (fmd.getDeclaredTypeCode()) {
+            case JavaTypes.ARRAY:
+            case JavaTypes.COLLECTION:
+            case JavaTypes.MAP:
+            case JavaTypes.CALENDAR:
+            case JavaTypes.DATE:
+            case JavaTypes.OBJECT:
+                return false;
+            case JavaTypes.PC:
+            case JavaTypes.PC_UNTYPED:
+                return !isCascade(fmd);
+            default:
+                return true;
+            }
+        }
+
+        /**
+         * Return the copyable fields of the given type, indexed on field.
+         */
+        private boolean[] getCopyableFields(ClassMetaData meta) {
+            if (_copyable == null)
+                _copyable = new HashMap<>();
+            boolean[] copyable = _copyable.get(meta);
+            if (copyable == null) {
+                FieldMetaData[] fmds = meta.getFields();
+                copyable = new boolean[fmds.length];
+                for (int i = 0; i < fmds.length; i++)
+                    copyable[i] = isCopyable(fmds[i]);
+                _copyable.put(meta, copyable);
+            }
+            return copyable;
+        }
+
+        /**
+         * Whether detach cascades through the given field.
+         */
+        private boolean isCascade(FieldMetaData fmd) {
+            return _cascadeWithDetach
+                || fmd.getCascadeDetach() == ValueMetaData.CASCADE_IMMEDIATE
+                || fmd.getKey().getCascadeDetach() ==
+                    ValueMetaData.CASCADE_IMMEDIATE
+                || fmd.getElement().getCascadeDetach() ==
+                    ValueMetaData.CASCADE_IMMEDIATE;
+        }
+
         /**
          * Detach the given value if needed.
          */
@@ -732,16 +820,7 @@ public class DetachManager
 
             FieldMetaData fmd = sm.getMetaData().getField(field);
 
-            boolean cascade = false;
-            if(_cascadeWithDetach
-                || fmd.getCascadeDetach() ==
-                    ValueMetaData.CASCADE_IMMEDIATE
-                || fmd.getKey().getCascadeDetach() ==
-                    ValueMetaData.CASCADE_IMMEDIATE
-                || fmd.getElement().getCascadeDetach() ==
-                    ValueMetaData.CASCADE_IMMEDIATE) {
-                cascade = true;
-            }
+            boolean cascade = isCascade(fmd);
 
             Object newVal = null;
             switch (fmd.getDeclaredTypeCode()) {
@@ -18,7 +18,6 @@
  */
 package org.apache.openjpa.kernel;
 
-import java.util.BitSet;
 import java.util.Collection;
 
 import org.apache.openjpa.conf.OpenJPAConfiguration;
@@ -53,9 +52,8 @@ public class DetachManagerLite {
                 PersistenceCapable pc = sm.getPersistenceCapable();
                 if (pc.pcIsDetached() == false) {
                     // Detach proxy fields.
-                    BitSet loaded = sm.getLoaded();
                     for (FieldMetaData fmd : cmd.getProxyFields()) {
-                        if (loaded.get(fmd.getIndex())) {
+                        if (sm.isLoaded(fmd.getIndex())) {
                             detachProxyField(fmd, pc, sm, _tsm);
                         }
                     }
@@ -57,8 +57,8 @@ public class DetachedStateManager
     private final PersistenceCapable _pc;
     private final boolean _embedded;
     private final boolean _access;
-    private final BitSet _loaded;
-    private final BitSet _dirty;
+    private final FieldBits _loaded;
+    private final FieldBits _dirty;
     private final Object _oid;
     private final Object _version;
     private final ReentrantLock _lock;
@@ -78,12 +78,16 @@ public class DetachedStateManager
         BitSet load, boolean access, boolean multithreaded) {
         _pc = pc;
         _embedded = sm.isEmbedded();
-        _loaded = load;
+        _loaded = FieldBits.valueOf(load);
         _access = access;
-        if (!sm.isFlushed())
-            _dirty = (BitSet) sm.getDirty().clone();
-        else
-            _dirty = new BitSet(_loaded.length());
+        if (sm.isFlushed())
+            _dirty = new FieldBits(load.length());
+        else if (sm instanceof StateManagerImpl) {
+            FieldBits dirty = ((StateManagerImpl) sm).getDirtyBits(false);
+            _dirty = (dirty == null) ? new FieldBits(load.length())
+                : dirty.clone();
+        } else
+            _dirty = FieldBits.valueOf(sm.getDirty());
         _oid = sm.fetchObjectId();
         _version = sm.getVersion();
         if (multithreaded)
@@ -111,13 +115,13 @@ public class DetachedStateManager
         BrokerImpl broker = manager.getBroker();
         StateManagerImpl sm;
         if (_embedded) {
-            if (_dirty.length () > 0)
+            if (!_dirty.isEmpty())
                 owner.dirty(ownerMeta.getFieldMetaData().getIndex());
             sm = (StateManagerImpl) broker.embed(_pc, _oid, owner, ownerMeta);
             ImplHelper.toPersistenceCapable(toAttach, broker.getConfiguration())
                 .pcReplaceStateManager(this);
         } else {
-            PCState state = (_dirty.length() > 0) ? PCState.PDIRTY
+            PCState state = (!_dirty.isEmpty()) ? PCState.PDIRTY
                 : PCState.PCLEAN;
             sm = (StateManagerImpl) broker.copy(this, state);
         }
@@ -132,7 +136,7 @@ public class DetachedStateManager
         int restore = broker.getRestoreState();
 
         boolean postLoadOnMerge = broker.getPostLoadOnMerge();
-        if (_dirty.length() > 0 || postLoadOnMerge) {
+        if (!_dirty.isEmpty() || postLoadOnMerge) {
             BitSet load = new BitSet(fields.length);
             if (postLoadOnMerge && broker.getLifecycleEventManager().hasLoadListeners(pc, meta)) {
                 // load all fields
@@ -181,14 +185,13 @@ public class DetachedStateManager
         Object origVersion = sm.getVersion();
         sm.setVersion(_version);
 
-        BitSet loaded = sm.getLoaded();
         int set = StateManager.SET_ATTACH;
         sm.setPostLoadCallback(false);
         for (int i = 0; i < fields.length; i++) {
             if (!_loaded.get(i))
                 continue;
             // don't reload already loaded non-mutable objects
-            if (!_dirty.get(i) && loaded.get(i) && ignoreLoaded(fields[i]))
+            if (!_dirty.get(i) && sm.isLoaded(i) && ignoreLoaded(fields[i]))
                 continue;
 
             provideField(i);
@@ -196,35 +199,35 @@ public class DetachedStateManager
                 case JavaTypes.BOOLEAN:
                     if (_dirty.get(i))
                         sm.settingBooleanField(pc, i,
-                            (loaded.get(i)) && sm.fetchBooleanField(i),
+                            (sm.isLoaded(i)) && sm.fetchBooleanField(i),
                             longval == 1, set);
                     else
                         sm.storeBooleanField(i, longval == 1);
                     break;
                 case JavaTypes.BYTE:
                     if (_dirty.get(i))
-                        sm.settingByteField(pc, i, (!loaded.get(i)) ? (byte) 0
+                        sm.settingByteField(pc, i, (!sm.isLoaded(i)) ? (byte) 0
                             : sm.fetchByteField(i), (byte) longval, set);
                     else
                         sm.storeByteField(i, (byte) longval);
                     break;
                 case JavaTypes.CHAR:
                     if (_dirty.get(i))
-                        sm.settingCharField(pc, i, (!loaded.get(i)) ? (char) 0
+                        sm.settingCharField(pc, i, (!sm.isLoaded(i)) ? (char) 0
                             : sm.fetchCharField(i), (char) longval, set);
                     else
                         sm.storeCharField(i, (char) longval);
                     break;
                 case JavaTypes.INT:
                     if (_dirty.get(i))
-                        sm.settingIntField(pc, i, (!loaded.get(i)) ? 0
+                        sm.settingIntField(pc, i, (!sm.isLoaded(i)) ? 0
                             : sm.fetchIntField(i), (int) longval, set);
                     else
                         sm.storeIntField(i, (int) longval);
                     break;
                 case JavaTypes.LONG:
                     if (_dirty.get(i))
-                        sm.settingLongField(pc, i, (!loaded.get(i)) ? 0L
+                        sm.settingLongField(pc, i, (!sm.isLoaded(i)) ? 0L
                             : sm.fetchLongField(i), longval, set);
                     else
                         sm.storeLongField(i, longval);
@@ -232,27 +235,27 @@ public class DetachedStateManager
                 case JavaTypes.SHORT:
                     if (_dirty.get(i))
                         sm.settingShortField(pc, i,
-                            (!loaded.get(i)) ? (short) 0 : sm.fetchShortField(i), (short) longval, set);
+                            (!sm.isLoaded(i)) ? (short) 0 : sm.fetchShortField(i), (short) longval, set);
                     else
                         sm.storeShortField(i, (short) longval);
                     break;
                 case JavaTypes.FLOAT:
                     if (_dirty.get(i))
-                        sm.settingFloatField(pc, i, (!loaded.get(i)) ? 0F
+                        sm.settingFloatField(pc, i, (!sm.isLoaded(i)) ? 0F
                             : sm.fetchFloatField(i), (float) dblval, set);
                     else
                         sm.storeFloatField(i, (float) dblval);
                     break;
                 case JavaTypes.DOUBLE:
                     if (_dirty.get(i))
-                        sm.settingDoubleField(pc, i, (!loaded.get(i)) ? 0D
+                        sm.settingDoubleField(pc, i, (!sm.isLoaded(i)) ? 0D
                             : sm.fetchDoubleField(i), dblval, set);
                     else
                         sm.storeDoubleField(i, dblval);
                     break;
                 case JavaTypes.STRING:
                     if (_dirty.get(i))
-                        sm.settingStringField(pc, i, (!loaded.get(i)) ? null
+                        sm.settingStringField(pc, i, (!sm.isLoaded(i)) ? null
                             : sm.fetchStringField(i), (String) objval, set);
                     else
                         sm.storeStringField(i, (String) objval);
@@ -279,7 +282,7 @@ public class DetachedStateManager
                             false);
                     }
                     if (_dirty.get(i))
-                        sm.settingObjectField(pc, i, (!loaded.get(i)) ? null
+                        sm.settingObjectField(pc, i, (!sm.isLoaded(i)) ? null
                             : sm.fetchObjectField(i), objval, set);
                     else
                         sm.storeObjectField(i, objval);
@@ -291,7 +294,7 @@ public class DetachedStateManager
                     if (coll != null)
                         coll = attachCollection(manager, coll, sm, fields[i]);
                     if (_dirty.get(i))
-                        sm.settingObjectField(pc, i, (!loaded.get(i)) ? null
+                        sm.settingObjectField(pc, i, (!sm.isLoaded(i)) ? null
                             : sm.fetchObjectField(i), coll, set);
                     else
                         sm.storeObjectField(i, coll);
@@ -302,14 +305,14 @@ public class DetachedStateManager
                     if (map != null)
                         map = attachMap(manager, map, sm, fields[i]);
                     if (_dirty.get(i))
-                        sm.settingObjectField(pc, i, (!loaded.get(i)) ? null
+                        sm.settingObjectField(pc, i, (!sm.isLoaded(i)) ? null
                             : sm.fetchObjectField(i), map, set);
                     else
                         sm.storeObjectField(i, map);
                     break;
                 default:
                     if (_dirty.get(i))
-                        sm.settingObjectField(pc, i, (!loaded.get(i)) ? null
+                        sm.settingObjectField(pc, i, (!sm.isLoaded(i)) ? null
                             : sm.fetchObjectField(i), objval, set);
                     else
                         sm.storeObjectField(i, objval);
@@ -406,7 +409,7 @@ public class DetachedStateManager
 
     @Override
     public boolean isDirty() {
-        return _dirty.length() != 0;
+        return !_dirty.isEmpty();
     }
 
     @Override
@@ -822,14 +825,34 @@ public class DetachedStateManager
 
     @Override
     public BitSet getLoaded() {
-        return _loaded;
+        return _loaded.toBitSet();
     }
 
     @Override
     public BitSet getDirty() {
+        return _dirty.toBitSet();
+    }
+
+    @Override
+    public FieldBits getLoadedBits() {
+        return _loaded;
+    }
+
+    @Override
+    public FieldBits getDirtyBits() {
         return _dirty;
     }
 
+    @Override
+    public boolean isLoaded(int field) {
+        return _loaded.get(field);
+    }
+
+    @Override
+    public boolean isDirty(int field) {
+        return _dirty.get(field);
+    }
+
     /**
      * Should DetachedStateField be used by Proxies to determine when to remove
      * $proxy wrappers during serialization.
@@ -124,6 +124,11 @@ public class FetchConfigurationImpl
 
     /**
      * Configurable state shared throughout a traversal chain.
+     * <br>
+     * The fetch group, field and hint collections may also be shared with
+     * the state of a {@link #clone} or {@link #copy} of the configuration.
+     * A shared collection is replaced by a private copy before it is first
+     * modified.
      */
     protected static class ConfigurationState
         implements Serializable
@@ -152,6 +157,9 @@ public class FetchConfigurationImpl
         public DataCacheRetrieveMode cacheRetrieveMode = DataCacheRetrieveMode.USE;
         public DataCacheStoreMode cacheStoreMode = DataCacheStoreMode.USE;
         public boolean cacheNonDefaultFetchPlanQueries = false;
+        public boolean fetchGroupsShared = false;
+        public boolean fieldsShared = false;
+        public boolean hintsShared = false;
     }
 
     private final ConfigurationState _state;
@@ -238,13 +246,17 @@ public class FetchConfigurationImpl
         setLockTimeout(fetch.getLockTimeout());
         setQueryTimeout(fetch.getQueryTimeout());
         setLockScope(fetch.getLockScope());
-        clearFetchGroups(false);
-        addFetchGroups(fetch.getFetchGroups());
-        clearFields();
+        if (fetch instanceof FetchConfigurationImpl)
+            shareFetchGroupsAndFields((FetchConfigurationImpl) fetch);
+        else {
+            clearFetchGroups(false);
+            addFetchGroups(fetch.getFetchGroups());
+            clearFields();
+            addFields(fetch.getFields());
+        }
         copyHints(fetch);
         setCacheRetrieveMode(fetch.getCacheRetrieveMode());
         setCacheStoreMode(fetch.getCacheStoreMode());
-        addFields(fetch.getFields());
 
         // don't use setters because require active transaction
         _state.readLockLevel = fetch.getReadLockLevel();
@@ -252,17 +264,109 @@ public class FetchConfigurationImpl
     }
 
 
+    /**
+     * Replace the fetch groups and fields of this configuration with those
+     * of the given configuration. The collections are shared until either
+     * side modifies them.
+     */
+    private void shareFetchGroupsAndFields(FetchConfigurationImpl fetch) {
+        ConfigurationState from = fetch._state;
+        if (from == _state)
+            return;
+
+        // mark the collections shared under the lock of their owner, which
+        // copies them before any later modification
+        Set<String> fetchGroups;
+        Set<String> fields;
+        fetch.lock();
+        try {
+            fetchGroups = from.fetchGroups;
+            from.fetchGroupsShared = fetchGroups != null;
+            fields = from.fields;
+            from.fieldsShared = fields != null;
+        } finally {
+            fetch.unlock();
+        }
+
+        lock();
+        try {
+            _state.fetchGroups = fetchGroups;
+            _state.fetchGroupsShared = fetchGroups != null;
+            _state.fetchGroupContainsAll = fetchGroups != null
+                && fetchGroups.contains(FetchGroup.NAME_ALL);
+            _state.fetchGroupContainsDefault = fetchGroups != null
+                && fetchGroups.contains(FetchGroup.NAME_DEFAULT);
+            _state.fields = fields;
+            _state.fieldsShared = fields != null;
+        } finally {
+            verifyDefaultPUFetchGroups();
+            unlock();
+        }
+    }
+
     void copyHints(FetchConfiguration fetch) {
         if (fetch instanceof FetchConfigurationImpl == false)
             return;
         FetchConfigurationImpl from = (FetchConfigurationImpl)fetch;
         if (from._state == null || from._state.hints == null)
             return;
-        if (this._state == null)
+        if (this._state == null || this._state == from._state)
             return;
-        if (this._state.hints == null)
-            this._state.hints = new HashMap<>();
-        this._state.hints.putAll(from._state.hints);
+        Map<String, Object> hints;
+        from.lock();
+        try {
+            hints = from._state.hints;
+            from._state.hintsShared = true;
+        } finally {
+            from.unlock();
+        }
+
+        lock();
+        try {
+            if (this._state.hints == null) {
+                this._state.hints = hints;
+                this._state.hintsShared = true;
+            } else
+                getHintsForUpdate().putAll(hints);
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Return the fetch groups to modify, copying them first if shared.
+     */
+    private Set<String> getFetchGroupsForUpdate() {
+        if (_state.fetchGroups == null)
+            _state.fetchGroups = new HashSet<>();
+        else if (_state.fetchGroupsShared)
+            _state.fetchGroups = new HashSet<>(_state.fetchGroups);
+        _state.fetchGroupsShared = false;
+        return _state.fetchGroups;
+    }
+
+    /**
+     * Return the fields to modify, copying them first if shared.
+     */
+    private Set<String> getFieldsForUpdate() {
+        if (_state.fields == null)
+            _state.fields = new HashSet<>();
+        else if (_state.fieldsShared)
+            _state.fields = new HashSet<>(_state.fields);
+        _state.fieldsShared = false;
+        return _state.fields;
+    }
+
+    /**
+     * Return the hints to modify, copying them first if shared.
+     */
+    private Map<String, Object> getHintsForUpdate() {
+        if (_state.hints == null)
+            _state.hints = new HashMap<>();
+        else if (_state.hintsShared)
+            _state.hints = new HashMap<>(_state.hints);
+        _state.hintsShared = false;
+        return _state.hints;
     }
 
     @Override
@@ -344,7 +448,7 @@ public class FetchConfigurationImpl
     @Override
     public Set<String> getFetchGroups() {
         if (_state.fetchGroups == null) return Collections.emptySet();
-        return _state.fetchGroups;
+        return Collections.unmodifiableSet(_state.fetchGroups);
     }
 
     @Override
@@ -375,9 +479,7 @@ public class FetchConfigurationImpl
 
         lock();
         try {
-            if (_state.fetchGroups == null)
-                _state.fetchGroups = new HashSet<>();
-            _state.fetchGroups.add(name);
+            getFetchGroupsForUpdate().add(name);
 
             if (FetchGroup.NAME_ALL.equals(name))
                 _state.fetchGroupContainsAll = true;
@@ -412,7 +514,8 @@ public class FetchConfigurationImpl
         lock();
         try {
             if (_state.fetchGroups != null) {
-                _state.fetchGroups.remove(group);
+                if (_state.fetchGroups.contains(group))
+                    getFetchGroupsForUpdate().remove(group);
                 if (FetchGroup.NAME_ALL.equals(group))
                     _state.fetchGroupContainsAll = false;
                 else if (FetchGroup.NAME_DEFAULT.equals(group))
@@ -449,10 +552,11 @@ public class FetchConfigurationImpl
     private FetchConfiguration clearFetchGroups(boolean restoresDefault) {
         lock();
         try {
-            if (_state.fetchGroups != null) {
+            if (_state.fetchGroups != null && !_state.fetchGroupsShared) {
                 _state.fetchGroups.clear();
             } else {
                 _state.fetchGroups = new HashSet<>();
+                _state.fetchGroupsShared = false;
             }
 
             _state.fetchGroupContainsAll = false;
@@ -525,7 +629,7 @@ public class FetchConfigurationImpl
     @Override
     public Set<String> getFields() {
         if (_state.fields == null) return Collections.emptySet();
-        return _state.fields;
+        return Collections.unmodifiableSet(_state.fields);
     }
 
     @Override
@@ -540,9 +644,7 @@ public class FetchConfigurationImpl
 
         lock();
         try {
-            if (_state.fields == null)
-                _state.fields = new HashSet<>();
-            _state.fields.add(field);
+            getFieldsForUpdate().add(field);
             _state.fetchGroupIsPUDefault = false;
         } finally {
             unlock();
@@ -557,9 +659,7 @@ public class FetchConfigurationImpl
 
         lock();
         try {
-            if (_state.fields == null)
-                _state.fields = new HashSet<>();
-            _state.fields.addAll(fields);
+            getFieldsForUpdate().addAll(fields);
         } finally {
             verifyDefaultPUFetchGroups();
             unlock();
@@ -572,7 +672,8 @@ public class FetchConfigurationImpl
         lock();
         try {
             if (_state.fields != null) {
-                _state.fields.remove(field);
+                if (_state.fields.contains(field))
+                    getFieldsForUpdate().remove(field);
 
                 if (_state.fields.size() == 0) {
                     verifyDefaultPUFetchGroups();
@@ -589,7 +690,7 @@ public class FetchConfigurationImpl
         lock();
         try {
             if (_state.fields != null)
-                _state.fields.removeAll(fields);
+                getFieldsForUpdate().removeAll(fields);
         } finally {
             unlock();
         }
@@ -600,7 +701,10 @@ public class FetchConfigurationImpl
     public FetchConfiguration clearFields() {
         lock();
         try {
-            if (_state.fields != null)
+            if (_state.fieldsShared) {
+                _state.fields = null;
+                _state.fieldsShared = false;
+            } else if (_state.fields != null)
                 _state.fields.clear();
         } finally {
             verifyDefaultPUFetchGroups();
@@ -813,7 +917,8 @@ public class FetchConfigurationImpl
         if (keys == null || _state.hints == null )
             return;
         for (String key : keys) {
-            _state.hints.remove(key);
+            if (_state.hints.containsKey(key))
+                getHintsForUpdate().remove(key);
         }
     }
 
@@ -878,9 +983,7 @@ public class FetchConfigurationImpl
     private void addHint(String name, Object value) {
         lock();
         try {
-            if (_state.hints == null)
-                _state.hints = new HashMap<>();
-            _state.hints.put(name, value);
+            getHintsForUpdate().put(name, value);
         } finally {
             unlock();
         }
@@ -892,7 +995,9 @@ public class FetchConfigurationImpl
     }
 
     public Object removeHint(String name) {
-        return (_state.hints == null) ? null : _state.hints.remove(name);
+        if (_state.hints == null || !_state.hints.containsKey(name))
+            return null;
+        return getHintsForUpdate().remove(name);
     }
 
     @Override
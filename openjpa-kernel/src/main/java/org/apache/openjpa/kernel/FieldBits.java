@@ -0,0 +1,333 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.kernel;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Mask of field indexes used to track the loaded, dirty and flushed state
+ * of an instance.
+ * <br>
+ * The first 64 fields are held in a single <code>long</code>, so that the
+ * mask of a type with up to 64 fields is one small object and copying it
+ * copies one word. Fields from index 64 on are held in an array that is
+ * only allocated for wider types. Callers of the state manager SPI that
+ * need a {@link BitSet} receive a {@link #toBitSet copy}; callers that only
+ * count or test fields read the mask itself, as returned by
+ * {@link OpenJPAStateManager#getLoadedBits}, and must not modify it.
+ *
+ * @since 3.0.1
+ */
+public final class FieldBits implements Serializable, Cloneable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_BITS = 1 << WORD_SHIFT;
+
+    // fields 0 to 63
+    private long _word;
+
+    // fields from 64 on, or null
+    private long[] _words;
+
+    /**
+     * Create an empty mask.
+     */
+    public FieldBits() {
+    }
+
+    /**
+     * Create an empty mask sized for the given number of fields.
+     */
+    public FieldBits(int length) {
+        if (length > WORD_BITS)
+            _words = new long[(length - 1) >>> WORD_SHIFT];
+    }
+
+    /**
+     * Create a mask with the bits of the given set, which may be null.
+     */
+    public static FieldBits valueOf(BitSet bits) {
+        if (bits == null)
+            return new FieldBits();
+        FieldBits fb = new FieldBits(bits.length());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+            fb.set(i);
+        return fb;
+    }
+
+    /**
+     * Whether the given field is set.
+     */
+    public boolean get(int field) {
+        if ((field & ~(WORD_BITS - 1)) == 0)
+            return (_word & (1L << field)) != 0;
+        checkIndex(field);
+        int w = (field >>> WORD_SHIFT) - 1;
+        return _words != null && w < _words.length
+            && (_words[w] & (1L << field)) != 0;
+    }
+
+    /**
+     * Set the given field.
+     */
+    public void set(int field) {
+        if ((field & ~(WORD_BITS - 1)) == 0)
+            _word |= 1L << field;
+        else {
+            checkIndex(field);
+            int w = ensureWord(field);
+            _words[w] |= 1L << field;
+        }
+    }
+
+    /**
+     * Set or clear the given field.
+     */
+    public void set(int field, boolean value) {
+        if (value)
+            set(field);
+        else
+            clear(field);
+    }
+
+    /**
+     * Clear the given field.
+     */
+    public void clear(int field) {
+        if ((field & ~(WORD_BITS - 1)) == 0)
+            _word &= ~(1L << field);
+        else {
+            checkIndex(field);
+            int w = (field >>> WORD_SHIFT) - 1;
+            if (_words != null && w < _words.length)
+                _words[w] &= ~(1L << field);
+        }
+    }
+
+    /**
+     * Clear all fields.
+     */
+    public void clear() {
+        _word = 0;
+        if (_words != null)
+            Arrays.fill(_words, 0);
+    }
+
+    /**
+     * Whether no field is set.
+     */
+    public boolean isEmpty() {
+        if (_word != 0)
+            return false;
+        if (_words != null)
+            for (long word : _words)
+                if (word != 0)
+                    return false;
+        return true;
+    }
+
+    /**
+     * The index of the highest set field plus one, or 0 if no field is set.
+     */
+    public int length() {
+        if (_words != null)
+            for (int w = _words.length - 1; w >= 0; w--)
+                if (_words[w] != 0)
+                    return (w + 2) * WORD_BITS
+                        - Long.numberOfLeadingZeros(_words[w]);
+        return WORD_BITS - Long.numberOfLeadingZeros(_word);
+    }
+
+    /**
+     * The number of set fields.
+     */
+    public int cardinality() {
+        int count = Long.bitCount(_word);
+        if (_words != null)
+            for (long word : _words)
+                count += Long.bitCount(word);
+        return count;
+    }
+
+    /**
+     * The index of the first set field at or after the given index, or -1
+     * if there is none.
+     */
+    public int nextSetBit(int from) {
+        checkIndex(from);
+        if (from < WORD_BITS) {
+            long word = _word & (-1L << from);
+            if (word != 0)
+                return Long.numberOfTrailingZeros(word);
+            from = WORD_BITS;
+        }
+        if (_words == null)
+            return -1;
+        int w = (from >>> WORD_SHIFT) - 1;
+        if (w >= _words.length)
+            return -1;
+        long word = _words[w] & (-1L << from);
+        while (true) {
+            if (word != 0)
+                return (w + 1) * WORD_BITS + Long.numberOfTrailingZeros(word);
+            if (++w == _words.length)
+                return -1;
+            word = _words[w];
+        }
+    }
+
+    /**
+     * Set the fields that are set in the given mask.
+     */
+    public void or(FieldBits bits) {
+        _word |= bits._word;
+        if (bits._words != null) {
+            for (int w = bits._words.length - 1; w >= 0; w--) {
+                if (bits._words[w] != 0) {
+                    ensureWord((w + 2) * WORD_BITS - 1);
+                    _words[w] |= bits._words[w];
+                }
+            }
+        }
+    }
+
+    /**
+     * Clear the fields that are set in the given mask.
+     */
+    public void andNot(FieldBits bits) {
+        _word &= ~bits._word;
+        if (_words != null && bits._words != null)
+            for (int w = Math.min(_words.length, bits._words.length) - 1;
+                w >= 0; w--)
+                _words[w] &= ~bits._words[w];
+    }
+
+    /**
+     * Clear the fields that are set in the given set.
+     */
+    public void andNot(BitSet bits) {
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+            clear(i);
+    }
+
+    /**
+     * Whether any field set in this mask is not set in the given mask,
+     * which may be null.
+     */
+    public boolean hasAnyNotIn(FieldBits bits) {
+        if (bits == null)
+            return !isEmpty();
+        if ((_word & ~bits._word) != 0)
+            return true;
+        if (_words != null)
+            for (int w = 0; w < _words.length; w++)
+                if ((_words[w] & ~bits.getWord(w)) != 0)
+                    return true;
+        return false;
+    }
+
+    /**
+     * Return a {@link BitSet} with the set fields of this mask.
+     */
+    public BitSet toBitSet() {
+        BitSet bits = new BitSet(length());
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1))
+            bits.set(i);
+        return bits;
+    }
+
+    @Override
+    public FieldBits clone() {
+        try {
+            FieldBits clone = (FieldBits) super.clone();
+            if (_words != null)
+                clone._words = _words.clone();
+            return clone;
+        } catch (CloneNotSupportedException cnse) {
+            throw new InternalError(cnse);
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other == this)
+            return true;
+        if (!(other instanceof FieldBits))
+            return false;
+        FieldBits bits = (FieldBits) other;
+        if (_word != bits._word)
+            return false;
+        int len = Math.max(_words == null ? 0 : _words.length,
+            bits._words == null ? 0 : bits._words.length);
+        for (int w = 0; w < len; w++)
+            if (getWord(w) != bits.getWord(w))
+                return false;
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        long h = 1234 ^ _word;
+        if (_words != null)
+            for (int w = 0; w < _words.length; w++)
+                h ^= _words[w] * (w + 2);
+        return (int) ((h >> 32) ^ h);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder("{");
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            if (buf.length() > 1)
+                buf.append(", ");
+            buf.append(i);
+        }
+        return buf.append('}').toString();
+    }
+
+    /**
+     * The word at the given index of the array of wide fields, or 0 if the
+     * array does not extend that far.
+     */
+    private long getWord(int w) {
+        return (_words == null || w >= _words.length) ? 0 : _words[w];
+    }
+
+    /**
+     * Grow the array of wide fields to hold the given field, and return the
+     * index of its word.
+     */
+    private int ensureWord(int field) {
+        int w = (field >>> WORD_SHIFT) - 1;
+        if (_words == null)
+            _words = new long[w + 1];
+        else if (w >= _words.length)
+            _words = Arrays.copyOf(_words, w + 1);
+        return w;
+    }
+
+    private static void checkIndex(int field) {
+        if (field < 0)
+            throw new IndexOutOfBoundsException(String.valueOf(field));
+    }
+}
@@ -0,0 +1,467 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.kernel;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.collections4.map.AbstractReferenceMap.ReferenceStrength;
+import org.apache.commons.collections4.map.ReferenceMap;
+import org.apache.openjpa.util.IntId;
+import org.apache.openjpa.util.LongId;
+import org.apache.openjpa.util.OpenJPAId;
+
+/**
+ * Map of oids to managed objects that stores single-column numeric
+ * identities without boxing them.
+ * <br>
+ * Values keyed by a {@link LongId} or {@link IntId} are held in one
+ * open-addressing table of primitive keys per persistent type, so that
+ * caching an instance costs a table slot instead of a hash entry, and, unless
+ * the values are soft, no reference object either. All other keys are held in
+ * a regular map.
+ * <br>
+ * Values are held strongly unless the map is created soft. Soft values
+ * let the garbage collector reclaim instances nothing else references, at
+ * the cost of a reference object per value and of purging collected values
+ * on access. Lookups honor the subclass matching rules of
+ * {@link OpenJPAId#equals}: a key matches a value cached under the same
+ * number for a superclass of its type, or for a subclass if the key
+ * {@link OpenJPAId#hasSubclasses has subclasses}.
+ * <br>
+ * The collection views are snapshots; changes to the map are not reflected
+ * in views obtained earlier and the views cannot be modified.
+ *
+ * @since 3.0.1
+ */
+class NumericIdMap<V> extends AbstractMap<Object, V> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Object REMOVED = new Object();
+    private static final Table[] NO_TABLES = new Table[0];
+
+    private final Class<V> _type;
+    private final boolean _soft;
+
+    private transient Map<Object, V> _others;
+    private transient Map<Class<?>, Table> _longs;
+    private transient Map<Class<?>, Table> _ints;
+    private transient Map<Class<?>, Table[]> _relatedLongs;
+    private transient Map<Class<?>, Table[]> _relatedInts;
+    private transient ReferenceQueue<V> _queue;
+    private transient int _size;
+
+    /**
+     * Constructor.
+     *
+     * @param type the type of the values
+     * @param soft whether values are held by soft references
+     */
+    NumericIdMap(Class<V> type, boolean soft) {
+        _type = type;
+        _soft = soft;
+        init();
+    }
+
+    private void init() {
+        if (_soft) {
+            _others = new ReferenceMap<>(ReferenceStrength.HARD, ReferenceStrength.SOFT);
+            _queue = new ReferenceQueue<>();
+        } else
+            _others = new HashMap<>();
+        _longs = new HashMap<>();
+        _ints = new HashMap<>();
+        _relatedLongs = new HashMap<>();
+        _relatedInts = new HashMap<>();
+        _size = 0;
+    }
+
+    /**
+     * Whether values are held by soft references.
+     */
+    public boolean isSoft() {
+        return _soft;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (!isNumeric(key))
+            return _others.get(key);
+
+        purge();
+        OpenJPAId oid = (OpenJPAId) key;
+        long num = toLong(oid);
+        for (Table table : candidates(oid)) {
+            V val = unwrap(table.get(num));
+            if (val != null)
+                return val;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V put(Object key, V value) {
+        if (!isNumeric(key))
+            return _others.put(key, value);
+        if (value == null)
+            throw new NullPointerException();
+
+        purge();
+        OpenJPAId oid = (OpenJPAId) key;
+        long num = toLong(oid);
+
+        // replace the value of a matching key, which keeps the type it was
+        // first cached under
+        for (Table table : candidates(oid)) {
+            V val = unwrap(table.get(num));
+            if (val != null) {
+                table.put(num, wrap(table, num, value));
+                return val;
+            }
+        }
+
+        Map<Class<?>, Table> tables = (key instanceof LongId) ? _longs : _ints;
+        Table table = tables.get(oid.getType());
+        if (table == null) {
+            table = new Table(oid.getType(), key instanceof IntId);
+            tables.put(oid.getType(), table);
+            ((key instanceof LongId) ? _relatedLongs : _relatedInts).clear();
+        }
+        // the slot may still hold a collected value that was not purged yet
+        if (!table.put(num, wrap(table, num, value)))
+            _size++;
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!isNumeric(key))
+            return _others.remove(key);
+
+        purge();
+        OpenJPAId oid = (OpenJPAId) key;
+        long num = toLong(oid);
+        for (Table table : candidates(oid)) {
+            V val = unwrap(table.get(num));
+            if (val != null) {
+                table.remove(num);
+                _size--;
+                return val;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        purge();
+        return _size + _others.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        init();
+    }
+
+    @Override
+    public Collection<V> values() {
+        purge();
+        List<V> values = new ArrayList<>(size());
+        addTableValues(_longs, values, null);
+        addTableValues(_ints, values, null);
+        values.addAll(_others.values());
+        return values;
+    }
+
+    @Override
+    public Set<Entry<Object, V>> entrySet() {
+        purge();
+        List<V> values = new ArrayList<>(_size);
+        List<Object> keys = new ArrayList<>(_size);
+        addTableValues(_longs, values, keys);
+        addTableValues(_ints, values, keys);
+
+        Set<Entry<Object, V>> entries = new HashSet<>();
+        for (int i = 0; i < keys.size(); i++)
+            entries.add(new SimpleImmutableEntry<>(keys.get(i), values.get(i)));
+        for (Entry<Object, V> entry : _others.entrySet())
+            entries.add(new SimpleImmutableEntry<>(entry));
+        return entries;
+    }
+
+    private void addTableValues(Map<Class<?>, Table> tables, List<V> values, List<Object> keys) {
+        for (Table table : tables.values()) {
+            for (int i = 0; i < table._vals.length; i++) {
+                V val = unwrap(table._vals[i]);
+                if (val == null)
+                    continue;
+                values.add(val);
+                if (keys != null)
+                    keys.add((table._int) ? new IntId(table._type, (int) table._keys[i])
+                        : new LongId(table._type, table._keys[i]));
+            }
+        }
+    }
+
+    /**
+     * Whether the given key is kept in a numeric table.
+     */
+    private static boolean isNumeric(Object key) {
+        return key instanceof LongId || key instanceof IntId;
+    }
+
+    private static long toLong(OpenJPAId oid) {
+        return (oid instanceof LongId) ? ((LongId) oid).getId() : ((IntId) oid).getId();
+    }
+
+    /**
+     * Return the tables that may hold a value for the given key, starting
+     * with the table of the key's own type.
+     */
+    private Table[] candidates(OpenJPAId oid) {
+        Class<?> type = oid.getType();
+        Map<Class<?>, Table> tables = (oid instanceof LongId) ? _longs : _ints;
+        if (tables.isEmpty())
+            return NO_TABLES;
+
+        Map<Class<?>, Table[]> cache = (oid instanceof LongId) ? _relatedLongs : _relatedInts;
+        Table[] related = cache.get(type);
+        if (related == null) {
+            List<Table> list = new ArrayList<>();
+            Table own = tables.get(type);
+            if (own != null)
+                list.add(own);
+            for (Table table : tables.values())
+                if (table != own && (table._type.isAssignableFrom(type)
+                    || type.isAssignableFrom(table._type)))
+                    list.add(table);
+            related = list.toArray(new Table[list.size()]);
+            cache.put(type, related);
+        }
+        if (!oid.hasSubclasses()) {
+            // only the key's own type and its superclasses match
+            int count = 0;
+            for (Table table : related)
+                if (table._type.isAssignableFrom(type))
+                    count++;
+            if (count != related.length) {
+                Table[] supers = new Table[count];
+                count = 0;
+                for (Table table : related)
+                    if (table._type.isAssignableFrom(type))
+                        supers[count++] = table;
+                return supers;
+            }
+        }
+        return related;
+    }
+
+    private Object wrap(Table table, long key, V value) {
+        return (_soft) ? new ValueReference<>(value, _queue, table, key) : value;
+    }
+
+    private V unwrap(Object val) {
+        if (val == null || val == REMOVED)
+            return null;
+        if (_soft)
+            return _type.cast(((ValueReference<?>) val).get());
+        return _type.cast(val);
+    }
+
+    /**
+     * Drop the entries whose values have been garbage collected.
+     */
+    private void purge() {
+        if (!_soft)
+            return;
+        Reference<? extends V> ref;
+        while ((ref = _queue.poll()) != null) {
+            ValueReference<?> vref = (ValueReference<?>) ref;
+            if (vref._table.removeIfSame(vref._key, vref))
+                _size--;
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out)
+        throws IOException {
+        out.defaultWriteObject();
+        Set<Entry<Object, V>> entries = entrySet();
+        out.writeInt(entries.size());
+        for (Entry<Object, V> entry : entries) {
+            out.writeObject(entry.getKey());
+            out.writeObject(entry.getValue());
+        }
+    }
+
+    private void readObject(ObjectInputStream in)
+        throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        init();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++)
+            put(in.readObject(), _type.cast(in.readObject()));
+    }
+
+    /**
+     * Open-addressing table of primitive keys to values of one type.
+     */
+    private static final class Table {
+
+        private final Class<?> _type;
+        private final boolean _int;
+        private long[] _keys = new long[16];
+        private Object[] _vals = new Object[16];
+        private int _used = 0; // live and removed slots
+
+        private Table(Class<?> type, boolean intId) {
+            _type = type;
+            _int = intId;
+        }
+
+        /**
+         * Return the slot holding the given key, or the empty slot where it
+         * would be inserted.
+         */
+        private int slot(long key) {
+            int mask = _keys.length - 1;
+            int i = hash(key) & mask;
+            int removed = -1;
+            while (_vals[i] != null) {
+                if (_vals[i] == REMOVED) {
+                    if (removed == -1)
+                        removed = i;
+                } else if (_keys[i] == key)
+                    return i;
+                i = (i + 1) & mask;
+            }
+            return (removed == -1) ? i : removed;
+        }
+
+        /**
+         * Return the value or reference stored under the given key.
+         */
+        private Object get(long key) {
+            int i = slot(key);
+            return (_keys[i] == key && _vals[i] != REMOVED) ? _vals[i] : null;
+        }
+
+        /**
+         * Map the given key to the given value.
+         *
+         * @return whether the key replaced an existing value
+         */
+        private boolean put(long key, Object val) {
+            int i = slot(key);
+            boolean replaced = _vals[i] != null && _vals[i] != REMOVED;
+            if (_vals[i] == null)
+                _used++;
+            _keys[i] = key;
+            _vals[i] = val;
+            if (_used * 4 >= _keys.length * 3)
+                rehash();
+            return replaced;
+        }
+
+        private void remove(long key) {
+            int i = slot(key);
+            if (_vals[i] != null && _vals[i] != REMOVED && _keys[i] == key)
+                _vals[i] = REMOVED;
+        }
+
+        /**
+         * Remove the given key if it is still mapped to the given value.
+         */
+        private boolean removeIfSame(long key, Object val) {
+            int i = slot(key);
+            if (_vals[i] != val)
+                return false;
+            _vals[i] = REMOVED;
+            return true;
+        }
+
+        private void rehash() {
+            long[] keys = _keys;
+            Object[] vals = _vals;
+            int live = 0;
+            for (Object val : vals)
+                if (val != null && val != REMOVED)
+                    live++;
+
+            int capacity = keys.length;
+            while (live * 2 >= capacity)
+                capacity <<= 1;
+            _keys = new long[capacity];
+            _vals = new Object[capacity];
+            _used = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (vals[i] != null && vals[i] != REMOVED) {
+                    int j = slot(keys[i]);
+                    _keys[j] = keys[i];
+                    _vals[j] = vals[i];
+                    _used++;
+                }
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Soft reference to a value that remembers where it is cached.
+     */
+    private static final class ValueReference<V> extends SoftReference<V> {
+
+        private final Table _table;
+        private final long _key;
+
+        private ValueReference(V value, ReferenceQueue<? super V> queue,
+            Table table, long key) {
+            super(value, queue);
+            _table = table;
+            _key = key;
+        }
+    }
+}
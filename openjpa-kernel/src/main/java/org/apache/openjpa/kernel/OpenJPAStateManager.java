@@ -130,21 +130,88 @@ public interface OpenJPAStateManager
     boolean isProvisional();
 
     /**
-     * Return a read-only mask of the indexes of all loaded fields.
+     * Return a read-only mask of the indexes of all loaded fields. The mask
+     * may be a copy that does not reflect later changes.
      */
     BitSet getLoaded();
 
     /**
-     * Return a read-only mask of the indexes of all dirty fields.
+     * Return a read-only mask of the indexes of all dirty fields. The mask
+     * may be a copy that does not reflect later changes.
      */
     BitSet getDirty();
 
     /**
      * Return a read-only mask of the indexes of all fields that have been
-     * flushed since they were last changed.
+     * flushed since they were last changed. The mask may be a copy that does
+     * not reflect later changes.
      */
     BitSet getFlushed();
 
+    /**
+     * Return whether the given field is loaded. Implementations that copy
+     * the mask returned by {@link #getLoaded} answer this without copying it.
+     *
+     * @since 3.0.1
+     */
+    default boolean isLoaded(int field) {
+        return getLoaded().get(field);
+    }
+
+    /**
+     * Return whether the given field is dirty. Implementations that copy
+     * the mask returned by {@link #getDirty} answer this without copying it.
+     *
+     * @since 3.0.1
+     */
+    default boolean isDirty(int field) {
+        return getDirty().get(field);
+    }
+
+    /**
+     * Return whether the given field has been flushed since it was last
+     * changed. Implementations that copy the mask returned by
+     * {@link #getFlushed} answer this without copying it.
+     *
+     * @since 3.0.1
+     */
+    default boolean isFlushed(int field) {
+        return getFlushed().get(field);
+    }
+
+    /**
+     * Return the mask of loaded fields, which must not be modified.
+     * Implementations that track their fields in a {@link FieldBits} mask
+     * return it without copying it, so that callers can count and test the
+     * loaded fields without allocating.
+     *
+     * @since 3.0.1
+     */
+    default FieldBits getLoadedBits() {
+        return FieldBits.valueOf(getLoaded());
+    }
+
+    /**
+     * Return the mask of dirty fields, which must not be modified.
+     *
+     * @see #getLoadedBits
+     * @since 3.0.1
+     */
+    default FieldBits getDirtyBits() {
+        return FieldBits.valueOf(getDirty());
+    }
+
+    /**
+     * Return the mask of fields flushed since they were last changed, which
+     * must not be modified.
+     *
+     * @see #getLoadedBits
+     * @since 3.0.1
+     */
+    default FieldBits getFlushedBits() {
+        return FieldBits.valueOf(getFlushed());
+    }
+
     /**
      * Return a mutable mask of the unloaded fields that need loading based
      * on the given fetch configuration. Pass in null to retrieve all
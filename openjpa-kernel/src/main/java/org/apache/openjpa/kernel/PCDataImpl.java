@@ -39,7 +39,7 @@ public class PCDataImpl
     private final Class<?> _type;
     private final String _cache;
     private final Object[] _data;
-    private final BitSet _loaded;
+    private final FieldBits _loaded;
     private Object _version = null;
     private Object _impl = null;
     private Object[] _fieldImpl = null;
@@ -58,7 +58,7 @@ public class PCDataImpl
 
         int len = meta.getFields().length;
         _data = new Object[len];
-        _loaded = new BitSet(len);
+        _loaded = new FieldBits(len);
     }
 
     @Override
@@ -73,7 +73,12 @@ public class PCDataImpl
 
     @Override
     public BitSet getLoaded() {
-        return _loaded;
+        return _loaded.toBitSet();
+    }
+
+    @Override
+    public int nextLoaded(int field) {
+        return _loaded.nextSetBit(field);
     }
 
     @Override
@@ -160,7 +165,7 @@ public class PCDataImpl
             // fields in configured fetch groups
             if (!isLoaded(i))
                 loadIntermediate(sm, fmds[i]);
-            else if (!sm.getLoaded().get(i) && fetch.requiresFetch(fmds[i])
+            else if (!sm.isLoaded(i) && fetch.requiresFetch(fmds[i])
                 != FetchConfiguration.FETCH_NONE)
                 loadField(sm, fmds[i], fetch, context);
         }
@@ -246,7 +251,7 @@ public class PCDataImpl
     protected void loadIntermediate(OpenJPAStateManager sm, FieldMetaData fmd) {
         int index = fmd.getIndex();
         Object inter = getIntermediate(index);
-        if (inter != null && !sm.getLoaded().get(index))
+        if (inter != null && !sm.isLoaded(index))
             sm.setIntermediate(index, inter);
     }
 
@@ -257,7 +262,7 @@ public class PCDataImpl
 
         FieldMetaData[] fmds = sm.getMetaData().getFields();
         for (int i = 0; i < fmds.length; i++) {
-            if (sm.getLoaded().get(i)) {
+            if (sm.isLoaded(i)) {
                 storeField(sm, fmds[i]);
                 storeImplData(sm, fmds[i], isLoaded(i));
             } else if (!isLoaded(i))
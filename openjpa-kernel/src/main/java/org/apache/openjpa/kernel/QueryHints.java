@@ -108,4 +108,13 @@ public interface QueryHints {
      * if possible.
      */
     String HINT_USE_LITERAL_IN_SQL = "openjpa.hint.UseLiteralInSQL";
+
+    /**
+     * A boolean directive that the query only reads, so that it may read from
+     * a replica of the database even within a transaction, provided the
+     * transaction has not written to the database yet.
+     *
+     * @since 3.0.1
+     */
+    String HINT_READ_ONLY = "openjpa.hint.ReadOnly";
 }
@@ -110,6 +110,30 @@ public interface QueryStatistics<T> extends Serializable {
      */
     long getTotalEvictionCount();
 
+    /**
+     * Gets number of total query executions that missed the cache but were
+     * served by waiting on a concurrent execution of the same query since
+     * last reset.
+     * Returns 0 by default.
+     *
+     * @since 3.0.1
+     */
+    default long getCoalescedCount() {
+        return 0;
+    }
+
+    /**
+     * Gets number of total query executions that missed the cache but were
+     * served by waiting on a concurrent execution of the same query since
+     * start.
+     * Returns 0 by default.
+     *
+     * @since 3.0.1
+     */
+    default long getTotalCoalescedCount() {
+        return 0;
+    }
+
 	/**
 	 * Gets the time of last reset.
 	 */
@@ -149,10 +173,11 @@ public interface QueryStatistics<T> extends Serializable {
 	    private static final float LOAD_FACTOR = 0.75f;
 	    private static final int CONCURRENCY = 16;
 
-		private static final int ARRAY_SIZE = 3;
+		private static final int ARRAY_SIZE = 4;
         private static final int READ  = 0;
         private static final int HIT   = 1;
         private static final int EVICT = 2;
+        private static final int COALESCED = 3;
 
 		private long[] astat = new long[ARRAY_SIZE];
 		private long[] stat  = new long[ARRAY_SIZE];
@@ -288,6 +313,19 @@ public interface QueryStatistics<T> extends Serializable {
             addSample(query, EVICT);
         }
 
+        /**
+         * Record that an execution of the given query was served by waiting
+         * on a concurrent execution of the same query.
+         *
+         * @since 3.0.1
+         */
+        public void recordCoalesced(T query) {
+            if (query == null) {
+                return;
+            }
+            addSample(query, COALESCED);
+        }
+
 		@Override
         public void dump(PrintStream out) {
             String header = "Query Statistics starting from " + start;
@@ -334,6 +372,16 @@ public interface QueryStatistics<T> extends Serializable {
         public long getTotalEvictionCount() {
             return astat[EVICT];
         }
+
+        @Override
+        public long getCoalescedCount() {
+            return stat[COALESCED];
+        }
+
+        @Override
+        public long getTotalCoalescedCount() {
+            return astat[COALESCED];
+        }
 	}
 
 	/**
@@ -407,6 +455,16 @@ public interface QueryStatistics<T> extends Serializable {
             return 0;
         }
 
+        @Override
+        public long getCoalescedCount() {
+            return 0;
+        }
+
+        @Override
+        public long getTotalCoalescedCount() {
+            return 0;
+        }
+
         @Override
         public Set<T> keys() {
             return Collections.emptySet();
@@ -55,7 +55,7 @@ public class SaveFieldManager
     /**
      * Constructor. Provide {@link StateManagerImpl} of instance to save.
      */
-    SaveFieldManager(StateManagerImpl sm, PersistenceCapable pc, BitSet dirty) {
+    SaveFieldManager(StateManagerImpl sm, PersistenceCapable pc, FieldBits dirty) {
         _sm = sm;
         _state = pc;
 
@@ -67,7 +67,7 @@ public class SaveFieldManager
         if (_sm.isNew() || !_sm.isPersistent() || dirty == null)
             _unloaded = new BitSet(fields.length);
         else {
-            _unloaded = (BitSet) dirty.clone();
+            _unloaded = dirty.toBitSet();
             for (int i = 0; i < fields.length; i++)
                 if (fields[i].getManagement() != FieldMetaData.MANAGE_PERSISTENT)
                     _unloaded.clear(i);
@@ -95,7 +95,7 @@ public class SaveFieldManager
      */
     public boolean saveField(int field) {
         // if not loaded we can't save orig value; mark as unloaded on rollback
-        if (_sm.getLoaded() != null && !_sm.getLoaded().get(field)) {
+        if (_sm.getLoadedBits() != null && !_sm.isLoaded(field)) {
             _unloaded.set(field);
             return false;
         }
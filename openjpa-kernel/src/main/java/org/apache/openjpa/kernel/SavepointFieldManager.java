@@ -51,9 +51,9 @@ class SavepointFieldManager
         (SavepointFieldManager.class);
 
     private final StateManagerImpl _sm;
-    private final BitSet _loaded;
-    private final BitSet _dirty;
-    private final BitSet _flush;
+    private final FieldBits _loaded;
+    private final FieldBits _dirty;
+    private final FieldBits _flush;
     private final PCState _state;
     private transient PersistenceCapable _copy;
 
@@ -74,14 +74,12 @@ class SavepointFieldManager
         _sm = sm;
         _state = _sm.getPCState();
 
-        _dirty = (BitSet) _sm.getDirty().clone();
-        _flush = (BitSet) _sm.getFlushed().clone();
-        _loaded = (BitSet) _sm.getLoaded().clone();
+        _dirty = copy(_sm.getDirtyBits(false));
+        _flush = copy(_sm.getFlushedBits(false));
+        _loaded = _sm.getLoadedBits().clone();
 
         FieldMetaData[] fields = _sm.getMetaData().getFields();
-        for (int i = 0; i < _loaded.length(); i++) {
-            if (!_loaded.get(i))
-                continue;
+        for (int i = _loaded.nextSetBit(0); i >= 0; i = _loaded.nextSetBit(i + 1)) {
             if (copy || fields[i].getManagement() ==
                 FieldMetaData.MANAGE_TRANSACTIONAL) {
                 if (_copy == null)
@@ -100,6 +98,10 @@ class SavepointFieldManager
         _loadVersion = _sm.getLoadVersion ();
     }
 
+    private static FieldBits copy(FieldBits bits) {
+        return (bits == null) ? null : bits.clone();
+    }
+
     /**
      * Return the state manager that this manager is associated with.
      */
@@ -132,21 +134,21 @@ class SavepointFieldManager
     /**
      * Return the fields stored in this manager.
      */
-    public BitSet getLoaded() {
+    public FieldBits getLoaded() {
         return _loaded;
     }
 
     /**
-     * Return the dirty fields during the saved state.
+     * Return the dirty fields during the saved state, or null if none.
      */
-    public BitSet getDirty() {
+    public FieldBits getDirty() {
         return _dirty;
     }
 
     /**
-     * Return the flushed fields during the saved state.
+     * Return the flushed fields during the saved state, or null if none.
      */
-    public BitSet getFlushed() {
+    public FieldBits getFlushed() {
         return _flush;
     }
 
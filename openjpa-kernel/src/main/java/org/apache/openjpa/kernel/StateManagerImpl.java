@@ -115,14 +115,14 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     // information about the instance
     private transient PersistenceCapable _pc = null;
     protected transient ClassMetaData _meta = null;
-    protected BitSet _loaded = null;
+    protected FieldBits _loaded = null;
 
     // Care needs to be taken when accessing these fields as they will can be null if no fields are
     // dirty, or have been flushed.
-    private BitSet _dirty = null;
-    private BitSet _flush = null;
+    private FieldBits _dirty = null;
+    private FieldBits _flush = null;
 
-    private BitSet _delayed = null;
+    private FieldBits _delayed = null;
     private int _flags = 0;
 
     // id is the state manager identity; oid is the persistent identity.  oid
@@ -221,10 +221,10 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
         _pc.pcReplaceStateManager(this);
         _state = newState;
 
-        // clone the field bitsets.
-        _dirty=(BitSet)sm.getDirty().clone();
-        _loaded = (BitSet)sm.getLoaded().clone();
-        _flush = (BitSet) sm.getFlushed().clone();
+        // copy the field masks; dirty and flushed masks are created lazily
+        _dirty = (sm._dirty == null) ? null : sm._dirty.clone();
+        _loaded = sm._loaded.clone();
+        _flush = (sm._flush == null) ? null : sm._flush.clone();
         _version = sm.getVersion();
 
         _oid = sm.getObjectId();
@@ -359,7 +359,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
         pc.pcReplaceStateManager(this);
 
         FieldMetaData[] fmds = _meta.getFields();
-        _loaded = new BitSet(fmds.length);
+        _loaded = new FieldBits(fmds.length);
 
         // mark primary key and non-persistent fields as loaded
         for(int i : _meta.getPkAndNonPersistentManagedFmdIndexes()){
@@ -505,6 +505,19 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
 
     @Override
     public BitSet getLoaded() {
+        return _loaded.toBitSet();
+    }
+
+    @Override
+    public boolean isLoaded(int field) {
+        return _loaded.get(field);
+    }
+
+    /**
+     * The mask of loaded fields itself rather than a copy.
+     */
+    @Override
+    public FieldBits getLoadedBits() {
         return _loaded;
     }
 
@@ -1128,12 +1141,12 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
             boolean wasFlushed = isFlushed();
             boolean wasDeleted = isDeleted();
             boolean needPostUpdate = !(wasNew && !wasFlushed)
-                    && (ImplHelper.getUpdateFields(this) != null);
+                    && hasUpdateFields();
 
-            // all dirty fields were flushed, we are referencing the _dirty BitSet directly here
+            // all dirty fields were flushed, we are referencing the _dirty mask directly here
             // because we don't want to instantiate it if we don't have to.
             if (_dirty != null) {
-                getFlushed().or(_dirty);
+                getFlushedBits(true).or(_dirty);
             }
 
             // important to set flushed bit after calling _state.flush so
@@ -1226,16 +1239,16 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
      */
     void rollbackToSavepoint(SavepointFieldManager savepoint) {
         _state = savepoint.getPCState();
-        BitSet loaded = savepoint.getLoaded();
-        for (int i = 0, len = loaded.length(); i < len; i++) {
-            if (loaded.get(i) && savepoint.restoreField(i)) {
+        FieldBits loaded = savepoint.getLoaded();
+        for (int i = loaded.nextSetBit(0); i >= 0; i = loaded.nextSetBit(i + 1)) {
+            if (savepoint.restoreField(i)) {
                 provideField(savepoint.getCopy(), savepoint, i);
                 replaceField(_pc, savepoint, i);
             }
         }
-        _loaded = loaded;
-        _dirty = savepoint.getDirty();
-        _flush = savepoint.getFlushed();
+        _loaded = loaded.clone();
+        _dirty = (savepoint.getDirty() == null) ? null : savepoint.getDirty().clone();
+        _flush = (savepoint.getFlushed() == null) ? null : savepoint.getFlushed().clone();
         _version = savepoint.getVersion();
         _loadVersion = savepoint.getLoadVersion();
     }
@@ -1366,7 +1379,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
             // if some fields have been loaded but the instance is out of
             // date or this is part of a refreshAll() and we don't want to
             // take the extra hit to see if the instance is out of date, clear
-            if (_loaded.length() > 0 && (refreshAll || isEmbedded()
+            if (!_loaded.isEmpty() && (refreshAll || isEmbedded()
                 || !syncVersion(null))) {
                 Object version = _version;
                 clearFields();
@@ -1693,7 +1706,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     @Override
     public void setDelayed(int field, boolean delay) {
         if (_delayed == null) {
-            _delayed = new BitSet();
+            _delayed = new FieldBits(_meta.getFields().length);
         }
         if (delay) {
             _delayed.set(field);
@@ -3020,7 +3033,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
             // record a saved field manager even if no field is currently loaded
             // as existence of a SaveFieldManager is critical for a dirty check
             if (_saved == null)
-                _saved = new SaveFieldManager(this, getPersistenceCapable(), getDirty());
+                _saved = new SaveFieldManager(this, getPersistenceCapable(), _dirty);
         }
     }
 
@@ -3043,7 +3056,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
         // save the old field value anyway
         if (_saved == null) {
             if (_loaded.get(field))
-                _saved = new SaveFieldManager(this, null, getDirty());
+                _saved = new SaveFieldManager(this, null, _dirty);
             else
                 return;
         }
@@ -3083,15 +3096,15 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
                 if ((_flags & FLAG_SAVE) == 0)
                     clearFields();
                 else // only unloaded fields were dirtied
-                    _loaded.andNot(_loaded);
+                    _loaded.clear();
             }
             // we direct state transitions based on our own getRestoreState
             // method, but to decide whether to actually rollback field
             // values, we consult the broker for the user's setting
             else if (_broker.getRestoreState() != RestoreState.RESTORE_NONE) {
                 // rollback all currently-loaded fields
-                for (int i = 0, len = _loaded.length(); i < len; i++)
-                    if (_loaded.get(i) && _saved.restoreField(i))
+                for (int i = _loaded.nextSetBit(0); i >= 0; i = _loaded.nextSetBit(i + 1))
+                    if (_saved.restoreField(i))
                         replaceField(_pc, _saved, i);
 
                 // rollback loaded set
@@ -3174,7 +3187,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
             if (isDeleted())
                 fireLifecycleEvent(LifecycleEvent.BEFORE_DELETE);
             else if (!(isNew() && !isFlushed())
-				&& (ImplHelper.getUpdateFields(this) != null))
+				&& hasUpdateFields())
                 fireLifecycleEvent(LifecycleEvent.BEFORE_UPDATE);
             _flags |= FLAG_PRE_FLUSHED;
         }
@@ -3642,8 +3655,29 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
 
     @Override
     public BitSet getFlushed() {
-        if (_flush == null) {
-            _flush = new BitSet(_meta.getFields().length);
+        return (_flush == null) ? new BitSet(0) : _flush.toBitSet();
+    }
+
+    @Override
+    public boolean isFlushed(int field) {
+        return isFieldFlushed(field);
+    }
+
+    /**
+     * The mask of flushed fields itself rather than a copy.
+     */
+    @Override
+    public FieldBits getFlushedBits() {
+        return (_flush == null) ? new FieldBits() : _flush;
+    }
+
+    /**
+     * The mask of flushed fields itself rather than a copy, or null if no
+     * field was flushed and <code>create</code> is false.
+     */
+    FieldBits getFlushedBits(boolean create) {
+        if (_flush == null && create) {
+            _flush = new FieldBits(_meta.getFields().length);
         }
         return _flush;
     }
@@ -3656,22 +3690,62 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     }
 
     /**
-     * Will clear the bit at the specified if the _flush BetSet has been created.
+     * Will clear the bit at the specified if the _flush mask has been created.
      */
     private void clearFlushField(int index) {
         if (_flush != null) {
-            getFlushed().clear(index);
+            _flush.clear(index);
         }
     }
 
     @Override
     public BitSet getDirty() {
-        if (_dirty == null) {
-            _dirty = new BitSet(_meta.getFields().length);
+        return (_dirty == null) ? new BitSet(0) : _dirty.toBitSet();
+    }
+
+    @Override
+    public boolean isDirty(int field) {
+        return isFieldDirty(field);
+    }
+
+    /**
+     * The mask of dirty fields itself rather than a copy.
+     */
+    @Override
+    public FieldBits getDirtyBits() {
+        return (_dirty == null) ? new FieldBits() : _dirty;
+    }
+
+    /**
+     * The mask of dirty fields itself rather than a copy, or null if no
+     * field was dirtied and <code>create</code> is false.
+     */
+    FieldBits getDirtyBits(boolean create) {
+        if (_dirty == null && create) {
+            _dirty = new FieldBits(_meta.getFields().length);
         }
         return _dirty;
     }
 
+    /**
+     * Whether this instance has fields that require an update, as in
+     * {@link ImplHelper#hasUpdateFields}, without copying the dirty and
+     * flushed masks.
+     */
+    private boolean hasUpdateFields() {
+        if ((_state == PCState.PDIRTY && (!isFlushed() || isFlushedDirty()))
+            || (_state == PCState.PNEW && isFlushedDirty()))
+            return _dirty != null && _dirty.hasAnyNotIn(isFlushed() ? _flush : null);
+        return false;
+    }
+
+    /**
+     * Whether any field is dirty, without creating the dirty set.
+     */
+    boolean hasDirtyFields() {
+        return _dirty != null && !_dirty.isEmpty();
+    }
+
     private boolean isFieldDirty(int index) {
         if (_dirty == null) {
             return false;
@@ -3680,15 +3754,15 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     }
 
     private void setFieldDirty(int index) {
-        getDirty().set(index);
+        getDirtyBits(true).set(index);
     }
 
     /**
-     * Will clear the bit at the specified index if the _dirty BetSet has been created.
+     * Will clear the bit at the specified index if the _dirty mask has been created.
      */
     private void clearDirty(int index) {
         if (_dirty != null) {
-            getDirty().clear(index);
+            _dirty.clear(index);
         }
     }
 
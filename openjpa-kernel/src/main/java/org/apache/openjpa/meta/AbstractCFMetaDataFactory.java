@@ -33,12 +33,15 @@ import java.security.PrivilegedActionException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
@@ -83,6 +86,8 @@ public abstract class AbstractCFMetaDataFactory
     protected Collection<String> cpath = null;
 
     private Set<String> _typeNames = null;
+    private String _scanCacheFile = null;
+    private MetaDataScanCache _scanCache = null;
     public static final String PERSISTENCE_UNIT_ROOT_URL = "PersistenceUnitRootUrl";
     public static final String MAPPING_FILE_NAMES = "MappingFileNames";
     public static final String JAR_FILE_URLS = "JarFiles";
@@ -176,6 +181,94 @@ public abstract class AbstractCFMetaDataFactory
           : new ArrayList<>(Arrays.asList(StringUtil.split(cpath, ";", 0)));
     }
 
+    /**
+     * Path of a file caching the persistent type names found by scanning
+     * directories and jars. Locations whose files did not change since the
+     * names were cached are not scanned again. When metadata is preloaded,
+     * the resolved metadata is cached as well, in a file of the same path
+     * with a <code>.resolved</code> suffix. Unset by default.
+     *
+     * @since 3.0.1
+     */
+    public void setScanCache(String file) {
+        _scanCacheFile = (StringUtil.isEmpty(file)) ? null : file;
+        _scanCache = null;
+    }
+
+    /**
+     * Path of a file caching the persistent type names found by scanning
+     * directories and jars.
+     *
+     * @since 3.0.1
+     */
+    public String getScanCache() {
+        return _scanCacheFile;
+    }
+
+    /**
+     * The file caching resolved metadata next to the
+     * {@link #getScanCache scan cache}, or null if there is no scan cache.
+     *
+     * @since 3.0.1
+     */
+    @Override
+    public File getResolvedCacheFile() {
+        return (_scanCacheFile == null) ? null
+            : new File(_scanCacheFile + ".resolved");
+    }
+
+    /**
+     * Fingerprint of the metadata files, URLs and resources supplied by the
+     * user, including the resources subclasses add implicitly.
+     *
+     * @since 3.0.1
+     */
+    @Override
+    public long getResourceFingerprint(ClassLoader envLoader) {
+        long hash = 17L;
+        try {
+            if (files != null)
+                for (File file : new TreeSet<>(files))
+                    hash = 31 * hash + MetaDataScanCache.fingerprint(file);
+            if (urls != null) {
+                Map<String, URL> sorted = new TreeMap<>();
+                for (URL url : urls)
+                    sorted.put(url.toExternalForm(), url);
+                for (URL url : sorted.values()) {
+                    File file = toLocalFile(url);
+                    hash = 31 * hash + ((file != null)
+                        ? MetaDataScanCache.fingerprint(file)
+                        : ResolvedMetaDataCache.fingerprint(url));
+                }
+            }
+            if (rsrcs != null) {
+                ClassLoader loader = repos.getConfiguration().
+                    getClassResolverInstance().getClassLoader(getClass(),
+                    envLoader);
+                for (String rsrc : new TreeSet<>(rsrcs)) {
+                    hash = 31 * hash + rsrc.hashCode();
+                    for (Enumeration<URL> e = AccessController.doPrivileged(
+                        J2DoPrivHelper.getResourcesAction(loader, rsrc));
+                        e.hasMoreElements();)
+                        hash = 31 * hash
+                            + ResolvedMetaDataCache.fingerprint(e.nextElement());
+                }
+            }
+        } catch (IOException | PrivilegedActionException e) {
+            throw new GeneralException(e);
+        }
+        return hash;
+    }
+
+    /**
+     * Return the scan cache, or null if none is configured.
+     */
+    private synchronized MetaDataScanCache getScanCacheInstance() {
+        if (_scanCache == null && _scanCacheFile != null)
+            _scanCache = new MetaDataScanCache(new File(_scanCacheFile), log);
+        return _scanCache;
+    }
+
     @Override
     public boolean store(ClassMetaData[] metas, QueryMetaData[] queries,
         SequenceMetaData[] seqs, int mode, Map<File,String> output) {
@@ -622,7 +715,10 @@ public abstract class AbstractCFMetaDataFactory
                 envLoader);
             long start = System.currentTimeMillis();
 
-            Set names = parsePersistentTypeNames(loader);
+            Set<String> names = parsePersistentTypeNames(loader);
+            MetaDataScanCache cache = getScanCacheInstance();
+            if (cache != null)
+                cache.store();
             if (names.isEmpty() && devpath)
                 scan(new ClasspathMetaDataIterator(null, newMetaDataFilter()),
                     newClassArgParser(), names, false, null);
@@ -654,17 +750,22 @@ public abstract class AbstractCFMetaDataFactory
                     .isDirectoryAction(file))).booleanValue()) {
                     if (log.isTraceEnabled())
                         log.trace(_loc.get("scanning-directory", file));
-                    scan(new FileMetaDataIterator(file, newMetaDataFilter()),
-                        cparser, names, true, file);
+                    if (!scanCached(file, names, file))
+                        scan(new FileMetaDataIterator(file,
+                            newMetaDataFilter()), cparser, names, true, file,
+                            file);
                 } else if (file.getName().endsWith(".jar")) {
                     if (log.isTraceEnabled())
                         log.trace(_loc.get("scanning-jar", file));
+                    if (scanCached(file, names, file))
+                        continue;
                     try {
                         ZipFile zFile = AccessController
                             .doPrivileged(J2DoPrivHelper
                                 .newZipFileAction(file));
                         scan(new ZipFileMetaDataIterator(zFile,
-                            newMetaDataFilter()), cparser, names, true, file);
+                            newMetaDataFilter()), cparser, names, true, file,
+                            file);
                     } catch (PrivilegedActionException pae) {
                         throw (IOException) pae.getException();
                     }
@@ -704,9 +805,10 @@ public abstract class AbstractCFMetaDataFactory
                         .booleanValue()) {
                         if (log.isTraceEnabled())
                             log.trace(_loc.get("scanning-directory", file));
-                        scan(
-                            new FileMetaDataIterator(file, newMetaDataFilter()),
-                            cparser, names, true, file);
+                        if (!scanCached(file, names, file))
+                            scan(new FileMetaDataIterator(file,
+                                newMetaDataFilter()), cparser, names, true,
+                                file, file);
                         continue;
                     }
                 }
@@ -767,8 +869,11 @@ public abstract class AbstractCFMetaDataFactory
                     if (url.getPath().endsWith("!/")) {
                         if (log.isTraceEnabled())
                             log.trace(_loc.get("scanning-jar-url", url));
-                        scan(new ZipFileMetaDataIterator(url,
-                            newMetaDataFilter()), cparser, names, true, url);
+                        File file = toLocalJar(url);
+                        if (!scanCached(file, names, url))
+                            scan(new ZipFileMetaDataIterator(url,
+                                newMetaDataFilter()), cparser, names, true, url,
+                                file);
                     } else {
                         if (log.isTraceEnabled())
                             log.trace(_loc.get("scanning-jar-url", url));
@@ -778,13 +883,17 @@ public abstract class AbstractCFMetaDataFactory
                 } else if (url.getPath().endsWith(".jar")) {
                     if (log.isTraceEnabled())
                         log.trace(_loc.get("scanning-jar-at-url", url));
+                    File file = toLocalFile(url);
+                    if (scanCached(file, names, url))
+                        continue;
                     try {
                         InputStream is = (InputStream)
                             AccessController.doPrivileged(
                                 J2DoPrivHelper.openStreamAction(url));
                         scan(new ZipStreamMetaDataIterator(
                             new ZipInputStream(is),
-                            newMetaDataFilter()), cparser, names, true, url);
+                            newMetaDataFilter()), cparser, names, true, url,
+                            file);
                     } catch (PrivilegedActionException pae) {
                         throw (IOException) pae.getException();
                     }
@@ -944,23 +1053,90 @@ public abstract class AbstractCFMetaDataFactory
     /**
      * Scan for persistent type names using the given metadata iterator.
      */
-    private void scan(MetaDataIterator mitr, ClassArgParser cparser, Set names,
-        boolean mapNames, Object debugContext)
+    private void scan(MetaDataIterator mitr, ClassArgParser cparser,
+        Set<String> names, boolean mapNames, Object debugContext)
+        throws IOException {
+        scan(mitr, cparser, names, mapNames, debugContext, null);
+    }
+
+    /**
+     * Scan for persistent type names using the given metadata iterator,
+     * caching the result for the given local directory or jar, if any.
+     */
+    private void scan(MetaDataIterator mitr, ClassArgParser cparser,
+        Set<String> names, boolean mapNames, Object debugContext,
+        File location)
         throws IOException {
-        Map map;
+        Map<Object, String[]> map;
         try {
             map = cparser.mapTypeNames(mitr);
         } finally {
             mitr.close();
         }
+        MetaDataScanCache cache = getScanCacheInstance();
+        if (cache != null && location != null)
+            cache.put(location, map);
+        addTypeNames(map, names, mapNames, debugContext);
+    }
 
-        Map.Entry entry;
-        for (Iterator itr = map.entrySet().iterator(); itr.hasNext();) {
-            entry = (Map.Entry) itr.next();
+    /**
+     * Add the type names cached for the given local directory or jar, if the
+     * location did not change since it was last scanned.
+     *
+     * @return whether cached type names were found
+     */
+    private boolean scanCached(File location, Set<String> names,
+        Object debugContext) {
+        MetaDataScanCache cache = getScanCacheInstance();
+        if (cache == null || location == null)
+            return false;
+        Map<Object, String[]> map = cache.get(location);
+        if (map == null)
+            return false;
+        if (log.isTraceEnabled())
+            log.trace(_loc.get("scan-cached", location));
+        addTypeNames(map, names, true, debugContext);
+        return true;
+    }
+
+    /**
+     * Return the local jar file of the given <code>jar:file:...!/</code>
+     * URL, or null if it is not a local jar.
+     */
+    private static File toLocalJar(URL url) {
+        String path = url.getPath();
+        if (!path.startsWith("file:") || !path.endsWith("!/"))
+            return null;
+        try {
+            return toLocalFile(new URL(path.substring(0, path.length() - 2)));
+        } catch (MalformedURLException mue) {
+            return null;
+        }
+    }
+
+    /**
+     * Return the local file of the given <code>file:</code> URL, or null if
+     * it is not a local file.
+     */
+    private static File toLocalFile(URL url) {
+        if (!"file".equals(url.getProtocol()))
+            return null;
+        try {
+            return new File(url.toURI());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Add the given type names found in metadata resources.
+     */
+    private void addTypeNames(Map<Object, String[]> map, Set<String> names,
+        boolean mapNames, Object debugContext) {
+        for (Map.Entry<Object, String[]> entry : map.entrySet()) {
             if (mapNames)
-                mapPersistentTypeNames(entry.getKey(), (String[])
-                    entry.getValue());
-            List newNames = Arrays.asList((String[]) entry.getValue());
+                mapPersistentTypeNames(entry.getKey(), entry.getValue());
+            List<String> newNames = Arrays.asList(entry.getValue());
             if (log.isTraceEnabled())
                 log.trace(_loc.get("scan-found-names", newNames, debugContext));
             names.addAll(newNames);
@@ -19,6 +19,8 @@
 package org.apache.openjpa.meta;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -194,6 +196,7 @@ public class ClassMetaData
 
     private Boolean _cacheEnabled = null;       // denotes status of JPA 2 @Cacheable annotation
     private int _cacheTimeout = Integer.MIN_VALUE;
+    private int _cacheRefreshTimeout = Integer.MIN_VALUE;
     private Boolean _detachable = null;
     private String _detachState = DEFAULT_STRING;
     private String _alias = null;
@@ -1564,6 +1567,35 @@ public class ClassMetaData
         _cacheTimeout = timeout;
     }
 
+    /**
+     * The number of milliseconds after which cached data of this class is
+     * refreshed in the background while still being served from the cache.
+     * Only applies if the class also has a cache timeout, which must be
+     * greater. -1 indicates no background refresh.
+     *
+     * @since 3.0.1
+     */
+    public int getDataCacheRefreshTimeout() {
+        if (_cacheRefreshTimeout == Integer.MIN_VALUE) {
+            if (_super != null)
+                _cacheRefreshTimeout = getPCSuperclassMetaData().
+                    getDataCacheRefreshTimeout();
+            else
+                _cacheRefreshTimeout = -1;
+        }
+        return _cacheRefreshTimeout;
+    }
+
+    /**
+     * The number of milliseconds after which cached data of this class is
+     * refreshed in the background. -1 indicates no background refresh.
+     *
+     * @since 3.0.1
+     */
+    public void setDataCacheRefreshTimeout(int timeout) {
+        _cacheRefreshTimeout = timeout;
+    }
+
     /**
      * Return the data cache for this class, or null if it is not cachable.
      */
@@ -1996,6 +2028,10 @@ public class ClassMetaData
         if (timeout < -1 || timeout == 0)
             throw new MetaDataException(_loc.get("cache-timeout-invalid",
                 _type, String.valueOf(timeout)));
+        int refresh = getDataCacheRefreshTimeout();
+        if (refresh < -1 || refresh == 0 || (refresh > 0 && refresh >= timeout))
+            throw new MetaDataException(_loc.get("cache-refresh-timeout-invalid",
+                _type, String.valueOf(refresh), String.valueOf(timeout)));
 
         if (_super == null) {
             return;
@@ -2549,6 +2585,8 @@ public class ClassMetaData
             _cacheName = meta.getDataCacheName();
         if (_cacheTimeout == Integer.MIN_VALUE)
             _cacheTimeout = meta.getDataCacheTimeout();
+        if (_cacheRefreshTimeout == Integer.MIN_VALUE)
+            _cacheRefreshTimeout = meta.getDataCacheRefreshTimeout();
         _cacheEnabled = meta.getCacheEnabled();
         _dataCacheEnabled = meta.getDataCacheEnabled();
         if (_detachable == null)
@@ -2657,6 +2695,17 @@ public class ClassMetaData
     	}
     }
 
+    /**
+     * Listen to the configuration again after deserialization, if this
+     * metadata was read into a configured repository.
+     */
+    private void readObject(ObjectInputStream in)
+        throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (_repos != null && _repos.getConfiguration() != null)
+            registerForValueUpdate("DataCacheTimeout");
+    }
+
     @Override
     public void valueChanged(Value val) {
     	if (val != null && val.matches("DataCacheTimeout")) {
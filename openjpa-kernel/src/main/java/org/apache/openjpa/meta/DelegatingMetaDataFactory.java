@@ -160,4 +160,14 @@ public class DelegatingMetaDataFactory
     public Class<?> getManagedClass(Class<?> c) {
         return _delegate.getManagedClass(c);
     }
+
+    @Override
+    public File getResolvedCacheFile() {
+        return _delegate.getResolvedCacheFile();
+    }
+
+    @Override
+    public long getResourceFingerprint(ClassLoader envLoader) {
+        return _delegate.getResourceFingerprint(envLoader);
+    }
 }
@@ -21,6 +21,7 @@ package org.apache.openjpa.meta;
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
+import java.io.ObjectInputStream;
 import java.io.ObjectOutput;
 import java.io.Serializable;
 import java.lang.reflect.Constructor;
@@ -2385,6 +2386,17 @@ public class FieldMetaData
         }
     }
 
+    /**
+     * Reset the lazily found externalizer and factory members, as transient
+     * fields are not initialized on deserialization.
+     */
+    private void readObject(ObjectInputStream in)
+        throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        _extMethod = DEFAULT_METHOD;
+        _factMethod = DEFAULT_METHOD;
+    }
+
     public boolean isValueGenerated() {
         return _generated;
     }
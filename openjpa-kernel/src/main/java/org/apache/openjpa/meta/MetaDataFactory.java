@@ -185,4 +185,25 @@ public interface MetaDataFactory
      */
     Class<?> getManagedClass(Class<?> c);
 
+    /**
+     * Return the file caching the resolved metadata of the persistent
+     * types, or null if resolved metadata is not cached. Returns null by
+     * default.
+     *
+     * @since 3.0.1
+     */
+    default File getResolvedCacheFile() {
+        return null;
+    }
+
+    /**
+     * Return a fingerprint of the metadata resources read by this factory,
+     * such as mapping files. The fingerprint changes whenever the content
+     * of a resource changes. Returns 0 by default.
+     *
+     * @since 3.0.1
+     */
+    default long getResourceFingerprint(ClassLoader envLoader) {
+        return 0;
+    }
 }
@@ -18,7 +18,10 @@
  */
 package org.apache.openjpa.meta;
 
+import java.io.File;
 import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.util.ArrayList;
@@ -34,6 +37,9 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.openjpa.conf.OpenJPAConfiguration;
 import org.apache.openjpa.enhance.DynamicPersistenceCapable;
@@ -45,6 +51,7 @@ import org.apache.openjpa.event.LifecycleEventManager;
 import org.apache.openjpa.lib.conf.Configurable;
 import org.apache.openjpa.lib.conf.Configuration;
 import org.apache.openjpa.lib.conf.Configurations;
+import org.apache.openjpa.lib.conf.Value;
 import org.apache.openjpa.lib.log.Log;
 import org.apache.openjpa.lib.util.ClassUtil;
 import org.apache.openjpa.lib.util.Closeable;
@@ -156,7 +163,9 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
 
     protected boolean _preload = false;
     protected boolean _preloadComplete = false;
+    private int _preloadThreads = 1;
     protected boolean _locking = true;
+    private final ReentrantLock _lock = new ReentrantLock();
     private static final String PRELOAD_STR = "Preload";
 
     // A boolean used to decide whether or not we need to call to PCEnhancer to check whether we have any down level
@@ -305,11 +314,65 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
     }
 
 
+    /**
+     * The number of threads that load the persistent classes and their
+     * annotations in parallel before their metadata is parsed during
+     * {@link #preload}. Defaults to 1, which loads the classes sequentially
+     * while parsing.
+     *
+     * @since 3.0.1
+     */
+    public int getPreloadThreads() {
+        return _preloadThreads;
+    }
+
+    /**
+     * The number of threads that load the persistent classes and their
+     * annotations in parallel before their metadata is parsed during
+     * {@link #preload}.
+     *
+     * @since 3.0.1
+     */
+    public void setPreloadThreads(int threads) {
+        _preloadThreads = threads;
+    }
+
+    /**
+     * Acquire the lock that guards the metadata of this repository. The lock
+     * is reentrant. Subclasses guard their own state with it as well. A lock
+     * is used rather than the monitor of this repository, as resolving
+     * metadata may read the schema from the database, and a virtual thread
+     * blocking on I/O while holding a monitor pins its carrier thread.
+     *
+     * @since 3.0.1
+     */
+    protected void lock() {
+        _lock.lock();
+    }
+
+    /**
+     * Release the lock acquired by {@link #lock}.
+     *
+     * @since 3.0.1
+     */
+    protected void unlock() {
+        _lock.unlock();
+    }
+
      /**
      * If the openjpa.MetaDataRepository plugin value Preload=true is set, this method will load all
      * MetaData for all persistent classes and will remove locking from this class.
      */
-    public synchronized void preload() {
+    public void preload() {
+        lock();
+        try {
+            preloadInternal();
+        } finally {
+            unlock();
+        }
+    }
+
+    private void preloadInternal() {
         if (_preload == false) {
             return;
         }
@@ -341,18 +404,42 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
             _log.trace(_loc.get("repos-initializeEager-found", classes));
         }
 
+        preloadClasses(classes, multi);
         List<Class<?>> loaded = new ArrayList<>();
         for (String c : classes) {
             try {
                 Class<?> cls = AccessController.doPrivileged((J2DoPrivHelper.getForNameAction(c, true, multi)));
                 loaded.add(cls);
-                // This call may be unnecessary?
-                _factory.load(cls, MODE_ALL, multi);
             } catch (PrivilegedActionException pae) {
                 throw new MetaDataException(_loc.get("repos-initializeEager-error"), pae);
             }
         }
-        resolveAll(multi);
+
+        ResolvedMetaDataCache cache = newResolvedCache();
+        Map<String, Object> inputs = new HashMap<>();
+        if (cache != null && !addResolvedInputs(inputs)) {
+            if (_log.isTraceEnabled())
+                _log.trace(_loc.get("resolved-cache-inputs", cache.getFile()));
+            cache = null;
+        }
+        long fingerprint = 0;
+        if (cache != null) {
+            try {
+                fingerprint = getResolvedFingerprint(classes, multi, inputs);
+            } catch (Exception e) {
+                if (_log.isWarnEnabled())
+                    _log.warn(_loc.get("resolved-cache-read", cache.getFile(), e));
+                cache = null;
+            }
+        }
+        boolean cached = cache != null && readResolvedCache(cache, fingerprint, multi, classes);
+        if (!cached) {
+            for (Class<?> cls : loaded) {
+                // This call may be unnecessary?
+                _factory.load(cls, MODE_ALL, multi);
+            }
+            resolveAll(multi);
+        }
 
         // Preload XML MetaData
         for (Class<?> cls : loaded) {
@@ -364,6 +451,8 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
                 }
             }
         }
+        if (cache != null && !cached)
+            writeResolvedCache(cache, fingerprint);
 
         // Hook in this class as a listener and process registered classes list to populate _aliases
         // list.
@@ -374,6 +463,282 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
     }
 
 
+    /**
+     * Return the cache of resolved metadata configured on the metadata
+     * factory, or null if resolved metadata is not cached.
+     */
+    private ResolvedMetaDataCache newResolvedCache() {
+        File file = _factory.getResolvedCacheFile();
+        return (file == null) ? null : new ResolvedMetaDataCache(file, _log);
+    }
+
+    /**
+     * Compute the fingerprint of the inputs of resolving the given
+     * persistent types: their class files, the resources of the metadata
+     * factory and the given other inputs.
+     */
+    private long getResolvedFingerprint(Set<String> classes, ClassLoader loader,
+        Map<String, Object> inputs)
+        throws Exception {
+        long hash = ResolvedMetaDataCache.fingerprint(classes, loader);
+        hash = 31 * hash + _factory.getResourceFingerprint(loader);
+        return 31 * hash + ResolvedMetaDataCache.fingerprint(inputs);
+    }
+
+    /**
+     * Add the inputs of resolution other than the persistent types and the
+     * resources of the metadata factory to the given map, by name. These are
+     * the values of all configuration properties. Subclasses add inputs of
+     * their own, such as the database their mappings are resolved for.
+     *
+     * @return false if the inputs cannot be fingerprinted, in which case the
+     * resolved metadata is not cached
+     * @since 3.0.1
+     */
+    protected boolean addResolvedInputs(Map<String, Object> inputs) {
+        for (Value val : _conf.getValues()) {
+            String str = val.getString();
+            inputs.put(val.getProperty(), (str != null) ? str : val.get());
+        }
+        return true;
+    }
+
+    /**
+     * Install the resolved metadata of the given cache if it was cached for
+     * the given fingerprint. The cache is only used by a repository that
+     * holds no metadata yet.
+     *
+     * @return whether cached metadata was installed
+     */
+    private boolean readResolvedCache(ResolvedMetaDataCache cache, long fingerprint, ClassLoader loader,
+        Set<String> classes) {
+        if (!_metas.isEmpty() || !_queries.isEmpty())
+            return false;
+
+        long start = System.currentTimeMillis();
+        Map<String, Object> state = cache.read(fingerprint, getResolvedContext(), loader, classes);
+        if (state == null)
+            return false;
+        setResolvedState(state);
+        for (ClassMetaData meta : _metas.values())
+            if (meta != null)
+                setEnvClassLoader(meta, loader);
+        if (_log.isTraceEnabled())
+            _log.trace(_loc.get("resolved-cache-used", _metas.size(), cache.getFile(),
+                System.currentTimeMillis() - start));
+        return true;
+    }
+
+    /**
+     * Set the environmental loader of the given metadata read from the cache
+     * and of the metadata of its embedded values.
+     */
+    private static void setEnvClassLoader(ClassMetaData meta, ClassLoader loader) {
+        meta.setEnvClassLoader(loader);
+        for (FieldMetaData fmd : meta.getDeclaredFields()) {
+            ValueMetaData[] vals = { fmd, fmd.getKey(), fmd.getElement() };
+            for (ValueMetaData val : vals)
+                if (val.getEmbeddedMetaData() != null)
+                    setEnvClassLoader(val.getEmbeddedMetaData(), loader);
+        }
+    }
+
+    /**
+     * Write the resolved metadata of this repository to the given cache.
+     */
+    private void writeResolvedCache(ResolvedMetaDataCache cache, long fingerprint) {
+        Map<String, Object> state = new HashMap<>();
+        getResolvedState(state);
+        if (cache.write(fingerprint, state, getResolvedContext()) && _log.isTraceEnabled())
+            _log.trace(_loc.get("resolved-cache-written", _metas.size(), cache.getFile()));
+    }
+
+    /**
+     * Return the objects of the runtime that resolved metadata refers to.
+     * They are not cached with the metadata but resolved to the objects of
+     * the repository reading the cache.
+     */
+    private List<Object> getResolvedContext() {
+        List<Object> context = new ArrayList<>();
+        addResolvedContext(context);
+        return context;
+    }
+
+    /**
+     * Add the objects of the runtime that resolved metadata refers to, such
+     * as this repository and its configuration, to the given list.
+     * Subclasses whose metadata refers to other runtime objects add them
+     * after the objects of their superclass.
+     *
+     * @since 3.0.1
+     */
+    protected void addResolvedContext(List<Object> context) {
+        context.add(this);
+        context.add(_conf);
+        context.add(_log);
+        context.add(_factory);
+        context.add(_factory.getDefaults());
+        context.add(_implGen);
+    }
+
+    /**
+     * Add the state of this repository that is cached with the resolved
+     * metadata to the given map. Subclasses that hold state of their own
+     * add it under keys of their own.
+     *
+     * @since 3.0.1
+     */
+    protected void getResolvedState(Map<String, Object> state) {
+        Map<Class<?>, ClassMetaData> metas = new HashMap<>();
+        for (Map.Entry<Class<?>, ClassMetaData> entry : _metas.entrySet())
+            if (entry.getValue() != null)
+                metas.put(entry.getKey(), entry.getValue());
+        state.put("metas", metas);
+        state.put("queries", new HashMap<>(_queries));
+        state.put("seqs", new HashMap<>(_seqs));
+        state.put("sysSeq", _sysSeq);
+        state.put("xmlmetas", new HashMap<>(_xmlmetas));
+        state.put("pawares", new HashMap<>(_pawares));
+        state.put("nonMapped", new HashMap<>(_nonMapped));
+        state.put("listeners", _listeners);
+        state.put("aliases", copyClassLists(_aliases));
+        state.put("impls", copyClassLists(_impls));
+        state.put("subs", copyClassLists(_subs));
+        synchronized (_ifaces) {
+            state.put("ifaces", new HashMap<>(_ifaces));
+        }
+        state.put("metaStrings", new HashMap<>(_metaStringMap));
+    }
+
+    /**
+     * Copy the given map of classes to collections of classes, leaving out
+     * null collections.
+     */
+    private static <K> Map<K, List<Class<?>>> copyClassLists(Map<K, ? extends Collection<Class<?>>> map) {
+        Map<K, List<Class<?>>> copy = new HashMap<>();
+        synchronized (map) {
+            for (Map.Entry<K, ? extends Collection<Class<?>>> entry : map.entrySet())
+                if (entry.getValue() != null)
+                    copy.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        return copy;
+    }
+
+    /**
+     * Restore the state of this repository from the given state read from
+     * the cache of resolved metadata.
+     *
+     * @see #getResolvedState
+     * @since 3.0.1
+     */
+    @SuppressWarnings("unchecked")
+    protected void setResolvedState(Map<String, Object> state) {
+        Map<Class<?>, ClassMetaData> metas = (Map<Class<?>, ClassMetaData>) state.get("metas");
+        Map<String, QueryMetaData> queries = (Map<String, QueryMetaData>) state.get("queries");
+        Map<String, SequenceMetaData> seqs = (Map<String, SequenceMetaData>) state.get("seqs");
+        SequenceMetaData sysSeq = (SequenceMetaData) state.get("sysSeq");
+        Map<Class<?>, XMLMetaData> xmlmetas = (Map<Class<?>, XMLMetaData>) state.get("xmlmetas");
+        Map<Class<?>, NonPersistentMetaData> pawares =
+            (Map<Class<?>, NonPersistentMetaData>) state.get("pawares");
+        Map<Class<?>, NonPersistentMetaData> nonMapped =
+            (Map<Class<?>, NonPersistentMetaData>) state.get("nonMapped");
+        List<Object> listeners = (List<Object>) state.get("listeners");
+        Map<String, List<Class<?>>> aliases = (Map<String, List<Class<?>>>) state.get("aliases");
+        Map<Class<?>, List<Class<?>>> impls = (Map<Class<?>, List<Class<?>>>) state.get("impls");
+        Map<Class<?>, List<Class<?>>> subs = (Map<Class<?>, List<Class<?>>>) state.get("subs");
+        Map<Class<?>, Class<?>> ifaces = (Map<Class<?>, Class<?>>) state.get("ifaces");
+        Map<String, ClassMetaData> metaStrings = (Map<String, ClassMetaData>) state.get("metaStrings");
+
+        _metas.putAll(metas);
+        _queries.putAll(queries);
+        _seqs.putAll(seqs);
+        if (_sysSeq == null)
+            _sysSeq = sysSeq;
+        _xmlmetas.putAll(xmlmetas);
+        _pawares.putAll(pawares);
+        _nonMapped.putAll(nonMapped);
+        for (Map.Entry<String, List<Class<?>>> entry : aliases.entrySet())
+            for (Class<?> cls : entry.getValue())
+                registerAlias(entry.getKey(), cls);
+        for (Map.Entry<Class<?>, List<Class<?>>> entry : impls.entrySet()) {
+            Collection<Class<?>> known = _impls.get(entry.getKey());
+            for (Class<?> cls : entry.getValue())
+                if (known == null || !known.contains(cls))
+                    addToCollection(_impls, entry.getKey(), cls, false);
+        }
+        for (Map.Entry<Class<?>, List<Class<?>>> entry : subs.entrySet())
+            for (Class<?> cls : entry.getValue())
+                addToCollection(_subs, entry.getKey(), cls, true);
+        _ifaces.putAll(ifaces);
+        _metaStringMap.putAll(metaStrings);
+        if (!listeners.isEmpty()) {
+            LifecycleEventManager.ListenerList list = new LifecycleEventManager.ListenerList(_listeners);
+            for (Object listener : listeners)
+                list.add(listener);
+            _listeners = list;
+            _systemListenersActivated = true;
+        }
+    }
+
+    /**
+     * Load the given classes and the annotations of their members on a pool
+     * of {@link #getPreloadThreads} threads. Parsing the metadata of a class
+     * then finds the class loaded and its annotations cached by the JVM.
+     * Parsing itself stays sequential, so the repository is populated in the
+     * same order as without parallel loading. The classes are not
+     * initialized here, which leaves static initializers to the sequential
+     * pass and avoids initialization deadlocks between classes. Exceptions
+     * and linkage errors are ignored as the sequential pass reports them;
+     * other errors are thrown.
+     */
+    private void preloadClasses(Set<String> classes, final ClassLoader loader) {
+        int threads = Math.min(_preloadThreads, classes.size());
+        if (threads < 2)
+            return;
+
+        long start = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(classes.size());
+            for (final String c : classes) {
+                tasks.add(pool.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        preloadClass(c, loader);
+                    }
+                }));
+            }
+            for (ForkJoinTask<?> task : tasks)
+                task.join();
+        } finally {
+            pool.shutdown();
+        }
+        if (_log.isTraceEnabled())
+            _log.trace(_loc.get("repos-preload-classes", classes.size(),
+                threads, System.currentTimeMillis() - start));
+    }
+
+    /**
+     * Load the given class and the annotations of its members.
+     */
+    private void preloadClass(String name, ClassLoader loader) {
+        try {
+            Class<?> cls = AccessController.doPrivileged(
+                J2DoPrivHelper.getForNameAction(name, false, loader));
+            cls.getDeclaredAnnotations();
+            for (Field field : AccessController.doPrivileged(
+                J2DoPrivHelper.getDeclaredFieldsAction(cls)))
+                field.getDeclaredAnnotations();
+            for (Method method : AccessController.doPrivileged(
+                J2DoPrivHelper.getDeclaredMethodsAction(cls)))
+                method.getDeclaredAnnotations();
+        } catch (Exception | LinkageError e) {
+            // reported when the class is loaded for parsing
+            if (_log.isTraceEnabled())
+                _log.trace(_loc.get("repos-preload-class-error", name, e));
+        }
+    }
+
     /**
      * Return the metadata for the given class.
      *
@@ -386,8 +751,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     public ClassMetaData getMetaData(Class<?> cls, ClassLoader envLoader, boolean mustExist) {
         if (_locking) {
-            synchronized(this){
+            lock();
+            try {
                 return getMetaDataInternal(cls, envLoader, mustExist);
+            } finally {
+                unlock();
             }
         } else {
             return getMetaDataInternal(cls, envLoader, mustExist);
@@ -855,8 +1223,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     public ClassMetaData[] getMetaDatas() {
         if (_locking) {
-            synchronized(this){
+            lock();
+            try {
                 return getMetaDatasInternal();
+            } finally {
+                unlock();
             }
         } else {
             return getMetaDatasInternal();
@@ -921,11 +1292,14 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
         ClassMetaData meta = newClassMetaData(cls);
         _factory.getDefaults().populate(meta, access, ignoreTransient);
 
-        // synchronize on this rather than the map, because all other methods
-        // that access _metas are synchronized on this
+        // lock this rather than synchronize on the map, because all other
+        // methods that access _metas lock this
         if (_locking) {
-            synchronized(this){
+            lock();
+            try {
                 return metasPutInternal(cls, meta);
+            } finally {
+                unlock();
             }
         } else {
             return metasPutInternal(cls, meta);
@@ -1071,8 +1445,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     public boolean removeMetaData(Class<?> cls) {
         if(_locking){
-            synchronized(this){
+            lock();
+            try {
                 return removeMetaDataInternal(cls);
+            } finally {
+                unlock();
             }
         }else{
             return removeMetaDataInternal(cls);
@@ -1120,8 +1497,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     void setInterfaceImpl(ClassMetaData meta, Class<?> impl) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 setInterfaceImplInternal(meta, impl);
+            } finally {
+                unlock();
             }
         } else {
             setInterfaceImplInternal(meta, impl);
@@ -1328,8 +1708,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
         if (cls == null)
             return null;
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return addPersistenceAwareInternal(cls);
+            } finally {
+                unlock();
             }
         } else {
             return addPersistenceAwareInternal(cls);
@@ -1397,8 +1780,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
         if (!iface.isInterface())
             throw new MetaDataException(_loc.get("not-non-mapped", iface));
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return addNonMappedInterfaceInternal(iface);
+            } finally {
+                unlock();
             }
         } else {
             return addNonMappedInterfaceInternal(iface);
@@ -1433,8 +1819,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
             if (_log.isTraceEnabled())
             _log.trace(_loc.get("clear-repos", this));
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 clearInternal();
+            } finally {
+                unlock();
             }
         } else {
             clearInternal();
@@ -1467,8 +1856,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     public Set<String> getPersistentTypeNames(boolean devpath, ClassLoader envLoader) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return getPersistentTypeNamesInternal(devpath, envLoader);
+            } finally {
+                unlock();
             }
         } else {
             return getPersistentTypeNamesInternal(devpath, envLoader);
@@ -1510,8 +1902,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     public Collection<Class<?>> loadPersistentTypes(boolean devpath, ClassLoader envLoader, boolean mustExist) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return loadPersistentTypesInternal(devpath, envLoader, mustExist);
+            } finally {
+                unlock();
             }
         } else {
             return loadPersistentTypesInternal(devpath, envLoader, mustExist);
@@ -1713,10 +2108,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
         if (_log.isTraceEnabled())
             _log.trace(_loc.get("process-registered", cls));
 
-        // update subclass lists; synchronize on this because accessing _metas
+        // update subclass lists; lock this because accessing _metas
         // requires it
         Class<?> leastDerived = cls;
-        synchronized (this) {
+        lock();
+        try {
             ClassMetaData meta;
             for (Class<?> anc = cls; (anc = PCRegistry.getPersistentSuperclass(anc)) != null;) {
                 addToCollection(_subs, anc, cls, true);
@@ -1725,6 +2121,8 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
                     meta.clearSubclassCache();
                 leastDerived = anc;
             }
+        } finally {
+            unlock();
         }
 
         // update oid mappings if this is a base concrete class
@@ -1959,8 +2357,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     public QueryMetaData getQueryMetaData(Class<?> cls, String name, ClassLoader envLoader, boolean mustExist) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return getQueryMetaDataInternal(cls, name, envLoader, mustExist);
+            } finally {
+                unlock();
             }
         } else {
             return getQueryMetaDataInternal(cls, name, envLoader, mustExist);
@@ -2034,8 +2435,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     public QueryMetaData[] getQueryMetaDatas() {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return _queries.values().toArray(new QueryMetaData[_queries.size()]);
+            } finally {
+                unlock();
             }
         } else {
             return _queries.values().toArray(new QueryMetaData[_queries.size()]);
@@ -2052,8 +2456,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     public QueryMetaData getCachedQueryMetaData(String name) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return _queries.get(name);
+            } finally {
+                unlock();
             }
         } else {
             return _queries.get(name);
@@ -2065,10 +2472,13 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     public QueryMetaData addQueryMetaData(Class<?> cls, String name) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 QueryMetaData meta = newQueryMetaData(cls, name);
                 _queries.put(name, meta);
                 return meta;
+            } finally {
+                unlock();
             }
         }else{
             QueryMetaData meta = newQueryMetaData(cls, name);
@@ -2079,9 +2489,12 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
 
     public QueryMetaData addQueryMetaData(QueryMetaData meta) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 final QueryMetaData queryMetaData = _queries.get(meta.getName());
                 return queryMetaData != null ? queryMetaData : _queries.put(meta.getName(), meta);
+            } finally {
+                unlock();
             }
         } else {
             final QueryMetaData queryMetaData = _queries.get(meta.getName());
@@ -2106,8 +2519,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
         if (meta == null)
             return false;
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return _queries.remove(meta.getName()) != null;
+            } finally {
+                unlock();
             }
         } else {
             return _queries.remove(meta.getName()) != null;
@@ -2119,10 +2535,13 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     public boolean removeQueryMetaData(Class<?> cls, String name) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 if (name == null)
                     return false;
                 return _queries.remove(name) != null;
+            } finally {
+                unlock();
             }
         } else {
             if (name == null)
@@ -2159,8 +2578,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     public SequenceMetaData getSequenceMetaData(String name, ClassLoader envLoader, boolean mustExist) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return getSequenceMetaDataInternal(name, envLoader, mustExist);
+            } finally {
+                unlock();
             }
         } else {
             return getSequenceMetaDataInternal(name, envLoader, mustExist);
@@ -2236,8 +2658,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     public SequenceMetaData[] getSequenceMetaDatas() {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return _seqs.values().toArray(new SequenceMetaData[_seqs.size()]);
+            } finally {
+                unlock();
             }
         } else {
             return _seqs.values().toArray(new SequenceMetaData[_seqs.size()]);
@@ -2249,8 +2674,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     public SequenceMetaData getCachedSequenceMetaData(String name) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return _seqs.get(name);
+            } finally {
+                unlock();
             }
         } else {
             return _seqs.get(name);
@@ -2262,10 +2690,13 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     public SequenceMetaData addSequenceMetaData(String name) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 SequenceMetaData meta = newSequenceMetaData(name);
                 _seqs.put(name, meta);
                 return meta;
+            } finally {
+                unlock();
             }
         } else {
             SequenceMetaData meta = newSequenceMetaData(name);
@@ -2288,8 +2719,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
         if (meta == null)
             return false;
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return _seqs.remove(meta.getName()) != null;
+            } finally {
+                unlock();
             }
         } else {
             return _seqs.remove(meta.getName()) != null;
@@ -2303,8 +2737,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
         if (name == null)
             return false;
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return _seqs.remove(name) != null;
+            } finally {
+                unlock();
             }
         } else {
             return _seqs.remove(name) != null;
@@ -2325,13 +2762,16 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     public void addSystemListener(Object listener) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 // copy to avoid issues with ListenerList and avoid unncessary
                 // locking on the list during runtime
                 LifecycleEventManager.ListenerList listeners = new LifecycleEventManager.ListenerList(_listeners);
                 listeners.add(listener);
                 _listeners = listeners;
                 _systemListenersActivated = true;
+            } finally {
+                unlock();
             }
         } else {
             LifecycleEventManager.ListenerList listeners = new LifecycleEventManager.ListenerList(_listeners);
@@ -2346,8 +2786,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     public boolean removeSystemListener(Object listener) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return removeSystemListenerInternal(listener);
+            } finally {
+                unlock();
             }
         } else {
             return removeSystemListenerInternal(listener);
@@ -2379,8 +2822,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
     @Override
     public void close() {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 closeInternal();
+            } finally {
+                unlock();
             }
         } else {
             closeInternal();
@@ -2430,8 +2876,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
      */
     public XMLMetaData getXMLMetaData(Class<?> cls) {
         if (_locking) {
-            synchronized (this) {
+            lock();
+            try {
                 return getXMLMetaDataInternal(cls);
+            } finally {
+                unlock();
             }
         } else {
             return getXMLMetaDataInternal(cls);
@@ -2464,8 +2913,11 @@ public class MetaDataRepository implements PCRegistry.RegisterClassListener, Con
     public XMLClassMetaData addXMLClassMetaData(Class<?> type) {
         XMLClassMetaData meta = newXMLClassMetaData(type);
         if(_locking){
-            synchronized(this){
+            lock();
+            try {
                 _xmlmetas.put(type, meta);
+            } finally {
+                unlock();
             }
         }else{
             _xmlmetas.put(type, meta);
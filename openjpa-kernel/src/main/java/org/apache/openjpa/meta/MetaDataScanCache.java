@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.meta;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.security.AccessController;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.openjpa.lib.log.Log;
+import org.apache.openjpa.lib.util.J2DoPrivHelper;
+import org.apache.openjpa.lib.util.Localizer;
+
+/**
+ * File backed cache of the persistent type names found by scanning
+ * directories and jar files for metadata.
+ * <br>
+ * Scanning reads every class file of a location to look for persistence
+ * annotations. The cache remembers the names found in each location along
+ * with a fingerprint of the location's files: their paths, sizes and
+ * modification times. A location whose fingerprint is unchanged is not
+ * scanned again, so processes starting from the same build skip the scan.
+ *
+ * @since 3.0.1
+ */
+class MetaDataScanCache {
+
+    private static final Localizer _loc = Localizer.forPackage
+        (MetaDataScanCache.class);
+
+    private static final int VERSION = 1;
+    private static final byte KEY_STRING = 0;
+    private static final byte KEY_URL = 1;
+
+    private final File _file;
+    private final Log _log;
+    private Map<String, Entry> _entries = null;
+    private boolean _dirty = false;
+
+    /**
+     * Constructor.
+     *
+     * @param file the file the cache is read from and stored to
+     * @param log log for problems reading or writing the file
+     */
+    public MetaDataScanCache(File file, Log log) {
+        _file = file;
+        _log = log;
+    }
+
+    /**
+     * The file the cache is read from and stored to.
+     */
+    public File getFile() {
+        return _file;
+    }
+
+    /**
+     * Return the type names found by the last scan of the given directory or
+     * jar, keyed on metadata resource, or null if the location has not been
+     * scanned or changed since.
+     */
+    public synchronized Map<Object, String[]> get(File location) {
+        Entry entry = getEntries().get(getKey(location));
+        if (entry == null || entry.fingerprint != fingerprint(location))
+            return null;
+        return entry.names;
+    }
+
+    /**
+     * Remember the type names found by scanning the given directory or jar.
+     * Locations whose resources are neither strings nor URLs are not cached.
+     */
+    public synchronized void put(File location, Map<Object, String[]> names) {
+        for (Object rsrc : names.keySet())
+            if (!(rsrc instanceof String) && !(rsrc instanceof URL))
+                return;
+        getEntries().put(getKey(location), new Entry(fingerprint(location),
+            new HashMap<>(names)));
+        _dirty = true;
+    }
+
+    /**
+     * Write the cache to its file if it changed since it was read.
+     */
+    public synchronized void store() {
+        if (!_dirty)
+            return;
+
+        File tmp = new File(_file.getPath() + ".tmp");
+        try {
+            File dir = _file.getAbsoluteFile().getParentFile();
+            if (dir != null)
+                AccessController.doPrivileged(J2DoPrivHelper.mkdirsAction(dir));
+            DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                write(out);
+            } finally {
+                out.close();
+            }
+            if (!tmp.renameTo(_file)) {
+                AccessController.doPrivileged(J2DoPrivHelper.deleteAction(_file));
+                if (!tmp.renameTo(_file))
+                    throw new IOException(tmp.getPath());
+            }
+            _dirty = false;
+        } catch (IOException ioe) {
+            AccessController.doPrivileged(J2DoPrivHelper.deleteAction(tmp));
+            if (_log.isWarnEnabled())
+                _log.warn(_loc.get("scan-cache-write", _file, ioe));
+        }
+    }
+
+    /**
+     * Lazily read the entries from the cache file.
+     */
+    private Map<String, Entry> getEntries() {
+        if (_entries != null)
+            return _entries;
+
+        _entries = new HashMap<>();
+        if (!(AccessController.doPrivileged(J2DoPrivHelper.existsAction
+            (_file))).booleanValue())
+            return _entries;
+
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream
+                (new FileInputStream(_file)));
+            try {
+                read(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException ioe) {
+            _entries.clear();
+            if (_log.isWarnEnabled())
+                _log.warn(_loc.get("scan-cache-read", _file, ioe));
+        }
+        return _entries;
+    }
+
+    private void read(DataInputStream in)
+        throws IOException {
+        if (in.readInt() != VERSION)
+            return;
+
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            String location = in.readUTF();
+            long fingerprint = in.readLong();
+            int rsrcs = in.readInt();
+            Map<Object, String[]> names = new HashMap<>(rsrcs * 4 / 3 + 1);
+            for (int j = 0; j < rsrcs; j++) {
+                Object rsrc;
+                if (in.readByte() == KEY_URL)
+                    rsrc = new URL(in.readUTF());
+                else
+                    rsrc = in.readUTF();
+                String[] types = new String[in.readInt()];
+                for (int k = 0; k < types.length; k++)
+                    types[k] = in.readUTF();
+                names.put(rsrc, types);
+            }
+            _entries.put(location, new Entry(fingerprint, names));
+        }
+    }
+
+    private void write(DataOutputStream out)
+        throws IOException {
+        out.writeInt(VERSION);
+        out.writeInt(_entries.size());
+        for (Map.Entry<String, Entry> entry : _entries.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue().fingerprint);
+            out.writeInt(entry.getValue().names.size());
+            for (Map.Entry<Object, String[]> names
+                : entry.getValue().names.entrySet()) {
+                if (names.getKey() instanceof URL) {
+                    out.writeByte(KEY_URL);
+                    out.writeUTF(((URL) names.getKey()).toExternalForm());
+                } else {
+                    out.writeByte(KEY_STRING);
+                    out.writeUTF((String) names.getKey());
+                }
+                out.writeInt(names.getValue().length);
+                for (String name : names.getValue())
+                    out.writeUTF(name);
+            }
+        }
+    }
+
+    private static String getKey(File location) {
+        return AccessController.doPrivileged(J2DoPrivHelper
+            .getAbsoluteFileAction(location)).getPath();
+    }
+
+    /**
+     * Compute the fingerprint of the given file or directory tree from the
+     * relative paths, sizes and modification times of its files.
+     */
+    static long fingerprint(File location) {
+        return fingerprint(location, "", 17L);
+    }
+
+    private static long fingerprint(File file, String path, long hash) {
+        hash = 31 * hash + path.hashCode();
+        if (!file.isDirectory())
+            return 31 * (31 * hash + file.length()) + file.lastModified();
+
+        String[] children = file.list();
+        if (children == null)
+            return hash;
+        Arrays.sort(children);
+        for (String child : children)
+            hash = fingerprint(new File(file, child), path + '/' + child, hash);
+        return hash;
+    }
+
+    /**
+     * The cached scan result of a location.
+     */
+    private static class Entry {
+
+        final long fingerprint;
+        final Map<Object, String[]> names;
+
+        Entry(long fingerprint, Map<Object, String[]> names) {
+            this.fingerprint = fingerprint;
+            this.names = names;
+        }
+    }
+}
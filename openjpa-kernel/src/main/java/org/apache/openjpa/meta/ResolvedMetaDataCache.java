@@ -0,0 +1,376 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.meta;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.security.AccessController;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+import org.apache.openjpa.conf.OpenJPAVersion;
+import org.apache.openjpa.lib.log.Log;
+import org.apache.openjpa.lib.util.J2DoPrivHelper;
+import org.apache.openjpa.lib.util.Localizer;
+
+/**
+ * File backed cache of resolved metadata.
+ * <br>
+ * The resolved metadata of all persistent types is written with Java
+ * serialization once the repository has preloaded it. A later repository
+ * reading the file installs the metadata as it was resolved, skipping both
+ * the parsing of annotations and XML and the resolution of metadata and
+ * mappings. The file records a fingerprint of the inputs of resolution: the
+ * class files of the persistent types, the metadata resources and the
+ * configuration. A file written for other inputs or by another OpenJPA
+ * version is ignored.
+ * <br>
+ * Objects of the runtime that the metadata refers to, such as the repository
+ * and the configuration, are not written. They are recorded as references to
+ * the <i>context</i> of the writing repository and resolved to the context of
+ * the reading repository.
+ * <br>
+ * The file is only trusted to hold metadata: reading it resolves no classes
+ * but those of the JDK collections and value types, of OpenJPA and of the
+ * packages of the persistent types.
+ *
+ * @since 3.0.1
+ */
+class ResolvedMetaDataCache {
+
+    private static final Localizer _loc = Localizer.forPackage
+        (ResolvedMetaDataCache.class);
+
+    private static final int VERSION = 1;
+
+    /**
+     * Packages of the JDK whose classes the cached metadata may hold.
+     */
+    private static final Set<String> JDK_PACKAGES = new HashSet<>(Arrays.asList
+        ("java.lang", "java.math", "java.sql", "java.time", "java.util",
+        "java.util.concurrent"));
+
+    private final File _file;
+    private final Log _log;
+
+    /**
+     * Constructor.
+     *
+     * @param file the file the cache is read from and written to
+     * @param log log for problems reading or writing the file
+     */
+    public ResolvedMetaDataCache(File file, Log log) {
+        _file = file;
+        _log = log;
+    }
+
+    /**
+     * The file the cache is read from and written to.
+     */
+    public File getFile() {
+        return _file;
+    }
+
+    /**
+     * Read the cached state, or return null if the file does not exist, was
+     * written for another fingerprint or cannot be read.
+     *
+     * @param fingerprint the fingerprint of the inputs of resolution
+     * @param context the runtime objects that cached references resolve to
+     * @param loader the loader of the classes of the cached metadata
+     * @param types the names of the persistent types; only classes of
+     * their packages are read besides those of the JDK and OpenJPA
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> read(long fingerprint, List<Object> context,
+        ClassLoader loader, Collection<String> types) {
+        if (!(AccessController.doPrivileged(J2DoPrivHelper.existsAction
+            (_file))).booleanValue())
+            return null;
+
+        try {
+            CacheInputStream in = new CacheInputStream(new BufferedInputStream
+                (new FileInputStream(_file)), context, loader, types);
+            try {
+                if (in.readInt() != VERSION
+                    || !OpenJPAVersion.VERSION_ID.equals(in.readUTF())
+                    || in.readLong() != fingerprint) {
+                    if (_log.isTraceEnabled())
+                        _log.trace(_loc.get("resolved-cache-stale", _file));
+                    return null;
+                }
+                return (Map<String, Object>) in.readObject();
+            } finally {
+                in.close();
+            }
+        } catch (Exception | LinkageError | StackOverflowError e) {
+            if (_log.isWarnEnabled())
+                _log.warn(_loc.get("resolved-cache-read", _file, e));
+            return null;
+        }
+    }
+
+    /**
+     * Write the given state to the file.
+     *
+     * @param fingerprint the fingerprint of the inputs of resolution
+     * @param state the state to cache
+     * @param context the runtime objects that are written as references
+     * @return whether the file was written
+     */
+    public boolean write(long fingerprint, Map<String, Object> state,
+        List<Object> context) {
+        File tmp = new File(_file.getPath() + ".tmp");
+        try {
+            File dir = _file.getAbsoluteFile().getParentFile();
+            if (dir != null)
+                AccessController.doPrivileged(J2DoPrivHelper.mkdirsAction(dir));
+            CacheOutputStream out = new CacheOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp)), context);
+            try {
+                out.writeInt(VERSION);
+                out.writeUTF(OpenJPAVersion.VERSION_ID);
+                out.writeLong(fingerprint);
+                out.writeObject(state);
+            } finally {
+                out.close();
+            }
+            if (!tmp.renameTo(_file)) {
+                AccessController.doPrivileged(J2DoPrivHelper.deleteAction(_file));
+                if (!tmp.renameTo(_file))
+                    throw new IOException(tmp.getPath());
+            }
+            return true;
+        } catch (NotSerializableException e) {
+            // metadata holding state that is not serializable, such as a
+            // custom strategy, is not cached
+            AccessController.doPrivileged(J2DoPrivHelper.deleteAction(tmp));
+            if (_log.isTraceEnabled())
+                _log.trace(_loc.get("resolved-cache-unserializable", _file,
+                    e.getMessage()));
+            return false;
+        } catch (Exception | StackOverflowError e) {
+            AccessController.doPrivileged(J2DoPrivHelper.deleteAction(tmp));
+            if (_log.isWarnEnabled())
+                _log.warn(_loc.get("resolved-cache-write", _file, e));
+            return false;
+        }
+    }
+
+    /**
+     * Compute the fingerprint of the class files of the given types.
+     */
+    static long fingerprint(Collection<String> types, ClassLoader loader)
+        throws IOException {
+        long hash = 17L;
+        for (String type : new TreeSet<>(types)) {
+            hash = 31 * hash + type.hashCode();
+            URL url = loader.getResource(type.replace('.', '/') + ".class");
+            if (url != null)
+                hash = 31 * hash + fingerprint(url);
+        }
+        return hash;
+    }
+
+    /**
+     * Compute the fingerprint of the content of the given resource.
+     */
+    static long fingerprint(URL url)
+        throws IOException {
+        CRC32 crc = new CRC32();
+        InputStream in = url.openStream();
+        try {
+            byte[] buf = new byte[8192];
+            for (int len; (len = in.read(buf)) != -1;)
+                crc.update(buf, 0, len);
+        } finally {
+            in.close();
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Compute the fingerprint of the given named inputs. Strings, numbers,
+     * booleans, characters and enums contribute their value, URLs the
+     * content of their resource and other objects their class.
+     */
+    static long fingerprint(Map<String, Object> inputs)
+        throws IOException {
+        long hash = 17L;
+        for (Map.Entry<String, Object> entry
+            : new TreeMap<>(inputs).entrySet()) {
+            hash = 31 * hash + entry.getKey().hashCode();
+            Object val = entry.getValue();
+            if (val == null)
+                continue;
+            if (val instanceof URL)
+                hash = 31 * hash + fingerprint((URL) val);
+            else if (val instanceof String || val instanceof Number
+                || val instanceof Boolean || val instanceof Character
+                || val instanceof Enum)
+                hash = 31 * hash + val.toString().hashCode();
+            else
+                hash = 31 * hash + val.getClass().getName().hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * Reference to an object of the context of a repository.
+     */
+    private static class ContextRef
+        implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        final int index;
+
+        ContextRef(int index) {
+            this.index = index;
+        }
+    }
+
+    /**
+     * Stream writing the objects of the context as {@link ContextRef}s.
+     */
+    private static class CacheOutputStream
+        extends ObjectOutputStream {
+
+        private final Map<Object, ContextRef> _refs =
+            new IdentityHashMap<>();
+
+        CacheOutputStream(OutputStream out, List<Object> context)
+            throws IOException {
+            super(out);
+            for (int i = 0; i < context.size(); i++)
+                if (context.get(i) != null && !_refs.containsKey
+                    (context.get(i)))
+                    _refs.put(context.get(i), new ContextRef(i));
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            ContextRef ref = _refs.get(obj);
+            return (ref == null) ? obj : ref;
+        }
+    }
+
+    /**
+     * Return the package of the class of the given name.
+     */
+    private static String getPackageName(String name) {
+        int dot = name.lastIndexOf('.');
+        return (dot == -1) ? "" : name.substring(0, dot);
+    }
+
+    /**
+     * Stream resolving {@link ContextRef}s to the objects of the context
+     * and classes with a given loader. Classes other than those of the JDK
+     * packages of metadata, of OpenJPA and of the packages of the persistent
+     * types are rejected.
+     */
+    private static class CacheInputStream
+        extends ObjectInputStream {
+
+        private final List<Object> _context;
+        private final ClassLoader _loader;
+        private final Set<String> _packages = new HashSet<>();
+
+        CacheInputStream(InputStream in, List<Object> context,
+            ClassLoader loader, Collection<String> types)
+            throws IOException {
+            super(in);
+            _context = new ArrayList<>(context);
+            _loader = loader;
+            for (String type : types)
+                _packages.add(getPackageName(type));
+            enableResolveObject(true);
+        }
+
+        /**
+         * Whether the class of the given name may be read.
+         */
+        private boolean isAllowed(String name) {
+            if (name.startsWith("[")) {
+                // arrays of primitives, or of allowed classes
+                String comp = name.replaceFirst("^\\[+", "");
+                if (!comp.startsWith("L"))
+                    return true;
+                name = comp.substring(1, comp.length() - 1);
+            }
+            String pkg = getPackageName(name);
+            return JDK_PACKAGES.contains(pkg) || _packages.contains(pkg)
+                || name.startsWith("org.apache.openjpa.");
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+            throws IOException, ClassNotFoundException {
+            if (!isAllowed(desc.getName()))
+                throw new InvalidClassException(desc.getName(),
+                    _loc.get("resolved-cache-class").getMessage());
+            try {
+                return Class.forName(desc.getName(), false, _loader);
+            } catch (ClassNotFoundException cnfe) {
+                return super.resolveClass(desc);
+            }
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces)
+            throws IOException {
+            throw new InvalidClassException(Arrays.toString(interfaces),
+                _loc.get("resolved-cache-class").getMessage());
+        }
+
+        @Override
+        protected Object resolveObject(Object obj)
+            throws IOException {
+            if (!(obj instanceof ContextRef))
+                return obj;
+            int index = ((ContextRef) obj).index;
+            if (index >= _context.size() || _context.get(index) == null)
+                throw new IOException(String.valueOf(index));
+            return _context.get(index);
+        }
+    }
+}
@@ -331,6 +331,42 @@ public class CacheMap
         }
     }
 
+    /**
+     * Evict a single unpinned entry from the map. Soft references are
+     * evicted before hard references. Among hard references, the least
+     * recently used entry is chosen for an LRU map and a random entry
+     * otherwise. Pinned entries are never evicted.
+     *
+     * @return the key of the evicted entry, or null if there was no
+     * unpinned entry to evict
+     * @since 3.0.1
+     */
+    public Object evict() {
+        writeLock();
+        try {
+            Object key = null;
+            Object val = null;
+            if (!softMap.isEmpty()) {
+                key = softMap.keySet().iterator().next();
+                val = remove(softMap, key);
+            } else if (cacheMap instanceof ConcurrentHashMap) {
+                Map.Entry<?,?> entry = ((ConcurrentHashMap) cacheMap).removeRandom();
+                if (entry != null) {
+                    key = entry.getKey();
+                    val = entry.getValue();
+                }
+            } else if (!cacheMap.isEmpty()) {
+                key = cacheMap.keySet().iterator().next();
+                val = remove(cacheMap, key);
+            }
+            if (key != null)
+                entryRemoved(key, val, true);
+            return key;
+        } finally {
+            writeUnlock();
+        }
+    }
+
     /**
      * Invoked when a key-value pair is evicted from this data
      * structure. This is invoked with <code>expired</code> set to
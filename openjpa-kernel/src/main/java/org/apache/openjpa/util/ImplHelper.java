@@ -34,6 +34,7 @@ import org.apache.openjpa.enhance.ReflectingPersistenceCapable;
 import org.apache.openjpa.enhance.RuntimeUnenhancedClassesModes;
 import org.apache.openjpa.enhance.StateManager;
 import org.apache.openjpa.kernel.FetchConfiguration;
+import org.apache.openjpa.kernel.FieldBits;
 import org.apache.openjpa.kernel.LockManager;
 import org.apache.openjpa.kernel.OpenJPAStateManager;
 import org.apache.openjpa.kernel.PCState;
@@ -180,18 +181,32 @@ public class ImplHelper {
      * @return the BitSet of fields that need update, or null if none
      */
     public static BitSet getUpdateFields(OpenJPAStateManager sm) {
+        if (!hasUpdateFields(sm))
+            return null;
+        FieldBits dirty = sm.getDirtyBits();
+        if (sm.isFlushed()) {
+            dirty = dirty.clone();
+            dirty.andNot(sm.getFlushedBits());
+        }
+        return dirty.toBitSet();
+    }
+
+    /**
+     * Affirms if the state has fields that require an update. Unlike
+     * {@link #getUpdateFields} this compares the masks of dirty and flushed
+     * fields word by word, without copying them.
+     *
+     * @param  sm  the state to check
+     * @since 3.0.1
+     */
+    public static boolean hasUpdateFields(OpenJPAStateManager sm) {
         if ((sm.getPCState() == PCState.PDIRTY
             && (!sm.isFlushed() || sm.isFlushedDirty()))
             || (sm.getPCState() == PCState.PNEW && sm.isFlushedDirty())) {
-            BitSet dirty = sm.getDirty();
-            if (sm.isFlushed()) {
-                dirty = (BitSet) dirty.clone();
-                dirty.andNot(sm.getFlushed());
-            }
-            if (dirty.length() > 0)
-                return dirty;
+            return sm.getDirtyBits().hasAnyNotIn(sm.isFlushed()
+                ? sm.getFlushedBits() : null);
         }
-        return null;
+        return false;
     }
 
     /**
@@ -1655,6 +1655,85 @@ public class ProxyManagerImpl
         }
     }
 
+    /**
+     * Generate the build time proxies for the given types and write them
+     * beneath the given class directory, where the proxy manager finds them
+     * before generating its own proxies at runtime. Collection and map
+     * interfaces are mapped to the standard implementations proxied for them.
+     * Types that cannot be proxied and types whose build time proxy is
+     * already available are skipped.
+     *
+     * @param types the types to proxy
+     * @param dir the root directory of the class path to write to
+     * @return the names of the proxy classes written
+     * @since 3.0.1
+     */
+    public List<String> writeBuildTimeProxies(Collection<Class<?>> types,
+        File dir)
+        throws IOException {
+        List<String> names = new ArrayList<>();
+        Set<Class<?>> seen = new HashSet<>();
+        for (Class<?> type : types) {
+            if (type == null)
+                continue;
+            if (type.isInterface()) {
+                if (Collection.class.isAssignableFrom(type))
+                    type = toConcreteType(type, _stdCollections);
+                else if (Map.class.isAssignableFrom(type))
+                    type = toConcreteType(type, _stdMaps);
+                else
+                    type = null;
+            }
+            if (type == null || !seen.add(type) || type.isArray()
+                || type.isPrimitive()
+                || type.getName().endsWith(PROXY_SUFFIX)
+                || Modifier.isFinal(type.getModifiers())
+                || Modifier.isAbstract(type.getModifiers())
+                || isUnproxyable(type))
+                continue;
+
+            try {
+                if (Class.forName(getProxyClassName(type, false), false,
+                    GeneratedClasses.getMostDerivedLoader(type, Proxy.class))
+                    != null)
+                    continue;
+            } catch (Throwable t) {
+                // expected if the class hasn't been generated
+            }
+
+            BCClass bc = generateBuildTimeProxyBytecode(type);
+            if (bc == null)
+                continue;
+            File file = new File(dir, bc.getName().replace('.',
+                File.separatorChar) + ".class");
+            AccessController.doPrivileged(J2DoPrivHelper.mkdirsAction
+                (file.getParentFile()));
+            AsmAdaptor.write(bc, file);
+            names.add(bc.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Generate the bytecode of the build time proxy for the given type.
+     */
+    private BCClass generateBuildTimeProxyBytecode(final Class type) {
+        if (Collection.class.isAssignableFrom(type))
+            return generateProxyCollectionBytecode(type, false);
+        if (Map.class.isAssignableFrom(type))
+            return generateProxyMapBytecode(type, false);
+        if (Date.class.isAssignableFrom(type))
+            return generateProxyDateBytecode(type, false);
+        if (Calendar.class.isAssignableFrom(type))
+            return generateProxyCalendarBytecode(type, false);
+        return AccessController.doPrivileged(new PrivilegedAction<BCClass>() {
+            @Override
+            public BCClass run() {
+                return generateProxyBeanBytecode(type, false);
+            }
+        });
+    }
+
     /**
      * Usage: java org.apache.openjpa.util.proxy.ProxyManagerImpl [option]*
      * &lt;class name&gt;+<br />
@@ -1673,10 +1752,18 @@ public class ProxyManagerImpl
      */
     public static void main(String[] args)
         throws ClassNotFoundException, IOException {
+        // write beside the ProxyManagerImpl.class file if possible, which
+        // sits beneath the class directory root by the package depth
         File dir = Files.getClassFile(ProxyManagerImpl.class);
-        dir = (dir == null) ? new File(AccessController.doPrivileged(
-            J2DoPrivHelper.getPropertyAction("user.dir")))
-            : dir.getParentFile();
+        if (dir == null)
+            dir = new File(AccessController.doPrivileged(
+                J2DoPrivHelper.getPropertyAction("user.dir")));
+        else {
+            dir = dir.getParentFile();
+            String pkg = ClassUtil.getPackageName(ProxyManagerImpl.class);
+            for (int i = 0; i != -1; i = pkg.indexOf('.', i + 1))
+                dir = dir.getParentFile();
+        }
 
         Options opts = new Options();
         args = opts.setFromCmdLine(args);
@@ -1712,43 +1799,15 @@ public class ProxyManagerImpl
             }));
         }
 
-        final ProxyManagerImpl mgr = new ProxyManagerImpl();
-        Class cls;
-        BCClass bc;
-        for (int i = 0; i < types.size(); i++) {
-            cls = Class.forName((String) types.get(i));
-            try {
-                if (Class.forName(getProxyClassName(cls, false), true,
-                    GeneratedClasses.getMostDerivedLoader(cls, Proxy.class))
-                    != null)
-                    continue;
-            } catch (Throwable t) {
-                // expected if the class hasn't been generated
-            }
-
-            if (Collection.class.isAssignableFrom(cls))
-                bc = mgr.generateProxyCollectionBytecode(cls, false);
-            else if (Map.class.isAssignableFrom(cls))
-                bc = mgr.generateProxyMapBytecode(cls, false);
-            else if (Date.class.isAssignableFrom(cls))
-                bc = mgr.generateProxyDateBytecode(cls, false);
-            else if (Calendar.class.isAssignableFrom(cls))
-                bc = mgr.generateProxyCalendarBytecode(cls, false);
-            else {
-                final Class fCls = cls;
-                // TODO Move this to J2DOPrivHelper
-                bc = AccessController
-                    .doPrivileged(new PrivilegedAction<BCClass>() {
-                        @Override
-                        public BCClass run() {
-                            return mgr.generateProxyBeanBytecode(fCls, false);
-                        }
-                    });
-            }
+        List<Class<?>> classes = new ArrayList<>(types.size());
+        for (int i = 0; i < types.size(); i++)
+            classes.add(Class.forName((String) types.get(i)));
+        List<String> names = new ProxyManagerImpl().writeBuildTimeProxies
+            (classes, dir);
+        for (String name : names) {
             // START - ALLOW PRINT STATEMENTS
-            System.out.println(bc.getName());
+            System.out.println(name);
             // STOP - ALLOW PRINT STATEMENTS
-            AsmAdaptor.write(bc, new File(dir, bc.getClassName() + ".class"));
         }
     }
 }
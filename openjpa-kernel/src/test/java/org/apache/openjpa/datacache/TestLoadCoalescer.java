@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.datacache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestLoadCoalescer {
+
+    @Test
+    public void testFirstMissLeads() {
+        LoadCoalescer coalescer = new LoadCoalescer(1000);
+        LoadCoalescer.Flight flight = coalescer.begin("a");
+        assertTrue(flight.isLeader());
+        assertEquals(1, coalescer.getFlightCount());
+
+        // the leader itself must not wait on its own flight
+        assertNull(coalescer.begin("a"));
+
+        flight.complete();
+        assertEquals(0, coalescer.getFlightCount());
+        assertTrue(coalescer.begin("a").isLeader());
+    }
+
+    @Test
+    public void testFollowerWaitsForLeader() throws Exception {
+        final LoadCoalescer coalescer = new LoadCoalescer(10000);
+        LoadCoalescer.Flight leader = coalescer.begin("a");
+
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> follower = exec.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    LoadCoalescer.Flight flight = coalescer.begin("a");
+                    assertFalse(flight.isLeader());
+                    boolean done = flight.await();
+                    flight.coalesced();
+                    return done;
+                }
+            });
+            Thread.sleep(50);
+            assertFalse(follower.isDone());
+
+            leader.complete();
+            assertTrue(follower.get());
+            assertEquals(1, coalescer.getCoalescedCount());
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLeaderDoesNotFollow() throws Exception {
+        final LoadCoalescer coalescer = new LoadCoalescer(10000);
+        LoadCoalescer.Flight a = coalescer.begin("a");
+
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            // leads b, then misses a while a's leader could be waiting on b
+            Future<Boolean> other = exec.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    LoadCoalescer.Flight b = coalescer.begin("b");
+                    assertTrue(b.isLeader());
+                    boolean follows = coalescer.begin("a") != null;
+                    b.complete();
+                    return follows;
+                }
+            });
+            assertFalse(other.get());
+
+            // once b landed, the other thread follows again
+            Future<Boolean> follower = exec.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    LoadCoalescer.Flight flight = coalescer.begin("a");
+                    return flight != null && !flight.isLeader();
+                }
+            });
+            assertTrue(follower.get());
+            a.complete();
+            assertEquals(0, coalescer.getFlightCount());
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFollowerTimesOut() throws Exception {
+        final LoadCoalescer coalescer = new LoadCoalescer(10);
+        coalescer.begin("a");
+
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> follower = exec.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return coalescer.begin("a").await();
+                }
+            });
+            assertFalse(follower.get());
+            assertEquals(0, coalescer.getCoalescedCount());
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.openjpa.enhance;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -25,9 +26,24 @@ import static org.junit.Assert.fail;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.xbean.asm7.ClassReader;
+import org.apache.xbean.asm7.ClassVisitor;
+import org.apache.xbean.asm7.FieldVisitor;
+import org.apache.xbean.asm7.Label;
+import org.apache.xbean.asm7.MethodVisitor;
+import org.apache.xbean.asm7.Opcodes;
 import org.junit.Test;
 
+import serp.bytecode.BCClass;
+import serp.bytecode.BCMethod;
+import serp.bytecode.Code;
+import serp.bytecode.JumpInstruction;
+import serp.bytecode.Project;
+
 public class TestAsmAdaptor
 {
     @Test
@@ -40,6 +56,166 @@ public class TestAsmAdaptor
         assertTrue(AsmAdaptor.isEnhanced(bytes(Enhanced.class)));
         assertTrue(AsmAdaptor.isEnhanced(bytes(TransitivelyEnhanced.class)));
         assertFalse(AsmAdaptor.isEnhanced(bytes(NotEnhanced.class)));
+        assertFalse(AsmAdaptor.isEnhanced(bytes(PlatformSubclass.class)));
+        assertFalse(AsmAdaptor.isEnhanced(null));
+    }
+
+    /**
+     * Differential test of the ASM pass against the serp output it is given:
+     * apart from the recomputed frames and maxima, the classes must have the
+     * same members and the same instructions, and the result must verify.
+     */
+    @Test
+    public void framePassPreservesSerpOutput() throws Exception
+    {
+        if (!AsmAdaptor.use())
+        {
+            return;
+        }
+        final BCClass bc = new Project().loadClass(Branching.class);
+        addMax(bc);
+        final byte[] serpBytes = bc.toByteArray();
+        final byte[] asmBytes = AsmAdaptor.toByteArray(bc, serpBytes);
+
+        assertEquals(describe(serpBytes), describe(asmBytes));
+
+        final Class<?> type = new ByteArrayLoader(Branching.class.getName(),
+            asmBytes).loadClass(Branching.class.getName());
+        final Method max = type.getMethod("max", int.class, int.class);
+        assertEquals(5, max.invoke(null, 3, 5));
+        assertEquals(5, max.invoke(null, 5, 3));
+        final Method sum = type.getMethod("sum", int[].class);
+        assertEquals(6, sum.invoke(null, new int[]{ 1, 2, 3 }));
+        assertEquals(-1, sum.invoke(null, (Object) null));
+    }
+
+    /**
+     * Declare a method with a branch the way the enhancer does, so that the
+     * class needs frames serp does not compute.
+     */
+    private static void addMax(final BCClass bc)
+    {
+        final BCMethod method = bc.declareMethod("max", int.class,
+            new Class[]{ int.class, int.class });
+        method.makePublic();
+        method.setStatic(true);
+        final Code code = method.getCode(true);
+        code.iload().setParam(0);
+        code.iload().setParam(1);
+        final JumpInstruction lt = code.ificmplt();
+        code.iload().setParam(0);
+        code.ireturn();
+        lt.setTarget(code.iload().setParam(1));
+        code.ireturn();
+        code.calculateMaxStack();
+        code.calculateMaxLocals();
+    }
+
+    /**
+     * Describe the members and instructions of the given class, leaving out
+     * frames, maxima, labels and line numbers.
+     */
+    private static List<String> describe(final byte[] b)
+    {
+        final List<String> desc = new ArrayList<String>();
+        final MethodVisitor mv = new MethodVisitor(Opcodes.ASM7)
+        {
+            @Override
+            public void visitInsn(final int opcode)
+            {
+                desc.add("  " + opcode);
+            }
+
+            @Override
+            public void visitIntInsn(final int opcode, final int operand)
+            {
+                desc.add("  " + opcode + " " + operand);
+            }
+
+            @Override
+            public void visitVarInsn(final int opcode, final int var)
+            {
+                desc.add("  " + opcode + " " + var);
+            }
+
+            @Override
+            public void visitTypeInsn(final int opcode, final String type)
+            {
+                desc.add("  " + opcode + " " + type);
+            }
+
+            @Override
+            public void visitFieldInsn(final int opcode, final String owner,
+                final String name, final String descriptor)
+            {
+                desc.add("  " + opcode + " " + owner + "." + name + descriptor);
+            }
+
+            @Override
+            public void visitMethodInsn(final int opcode, final String owner,
+                final String name, final String descriptor, final boolean itf)
+            {
+                desc.add("  " + opcode + " " + owner + "." + name + descriptor);
+            }
+
+            @Override
+            public void visitJumpInsn(final int opcode, final Label label)
+            {
+                desc.add("  " + opcode);
+            }
+
+            @Override
+            public void visitLdcInsn(final Object value)
+            {
+                desc.add("  ldc " + value);
+            }
+
+            @Override
+            public void visitIincInsn(final int var, final int increment)
+            {
+                desc.add("  iinc " + var + " " + increment);
+            }
+
+            @Override
+            public void visitTryCatchBlock(final Label start, final Label end,
+                final Label handler, final String type)
+            {
+                desc.add("  catch " + type);
+            }
+        };
+        new ClassReader(b).accept(new ClassVisitor(Opcodes.ASM7)
+        {
+            @Override
+            public void visit(final int version, final int access,
+                final String name, final String signature,
+                final String superName, final String[] interfaces)
+            {
+                desc.add(access + " " + name + " extends " + superName);
+                for (String iface : interfaces)
+                {
+                    desc.add("implements " + iface);
+                }
+            }
+
+            @Override
+            public FieldVisitor visitField(final int access, final String name,
+                final String descriptor, final String signature,
+                final Object value)
+            {
+                desc.add(access + " " + name + " " + descriptor);
+                return null;
+            }
+
+            @Override
+            public MethodVisitor visitMethod(final int access,
+                final String name, final String descriptor,
+                final String signature, final String[] exceptions)
+            {
+                desc.add(access + " " + name + descriptor);
+                return mv;
+            }
+        }, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+        return desc;
     }
 
     private byte[] bytes(final Class<?> type)
@@ -74,10 +250,67 @@ public class TestAsmAdaptor
         return baos.toByteArray();
     }
 
+    /**
+     * Loader defining a single class from the given bytes.
+     */
+    private static class ByteArrayLoader extends ClassLoader
+    {
+        private final String _name;
+        private final byte[] _bytes;
+
+        ByteArrayLoader(final String name, final byte[] bytes)
+        {
+            super(TestAsmAdaptor.class.getClassLoader());
+            _name = name;
+            _bytes = bytes;
+        }
+
+        @Override
+        protected Class<?> loadClass(final String name, final boolean resolve)
+            throws ClassNotFoundException
+        {
+            if (!_name.equals(name))
+            {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name))
+            {
+                Class<?> type = findLoadedClass(name);
+                if (type == null)
+                {
+                    type = defineClass(name, _bytes, 0, _bytes.length);
+                }
+                return type;
+            }
+        }
+    }
+
+    public static class Branching
+    {
+        public static int sum(final int[] values)
+        {
+            if (values == null)
+            {
+                return -1;
+            }
+            int sum = 0;
+            for (int value : values)
+            {
+                sum += value;
+            }
+            return sum;
+        }
+    }
+
     public static class NotEnhanced
     {
     }
 
+    public static class PlatformSubclass extends java.util.ArrayList<Object>
+    {
+        private static final long serialVersionUID = 1L;
+    }
+
     public static class TransitivelyEnhanced extends Enhanced
     {
     }
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.event;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.apache.openjpa.util.UserException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestMethodLifecycleCallbacks {
+
+    public static class Entity {
+        int calls;
+        Object arg;
+
+        public void callback() {
+            calls++;
+        }
+
+        public void callbackWithArg(Object arg) {
+            this.arg = arg;
+        }
+
+        public void fail() {
+            throw new ClassCastException("from callback");
+        }
+    }
+
+    public static class Listener {
+        static Entity last;
+
+        public void onEvent(Entity e) {
+            last = e;
+        }
+    }
+
+    @Test
+    public void testInvokesCallback() throws Exception {
+        Entity e = new Entity();
+        new MethodLifecycleCallbacks(Entity.class, "callback", false)
+            .makeCallback(e, null, 0);
+        assertEquals(1, e.calls);
+
+        new MethodLifecycleCallbacks(Entity.class, "callbackWithArg", true)
+            .makeCallback(e, "x", 0);
+        assertEquals("x", e.arg);
+    }
+
+    @Test
+    public void testWrapsFailureOfCallback() throws Exception {
+        try {
+            new MethodLifecycleCallbacks(Entity.class, "fail", false)
+                .makeCallback(new Entity(), null, 0);
+            fail();
+        } catch (InvocationTargetException ite) {
+            assertEquals("from callback", ite.getTargetException().getMessage());
+        }
+    }
+
+    @Test
+    public void testRejectsReceiverOfWrongType() throws Exception {
+        try {
+            new MethodLifecycleCallbacks(Entity.class, "callback", false)
+                .makeCallback("not an entity", null, 0);
+            fail();
+        } catch (IllegalArgumentException iae) {
+            // expected, as from reflection
+        }
+    }
+
+    @Test
+    public void testBeanCallback() throws Exception {
+        BeanLifecycleCallbacks callbacks = new BeanLifecycleCallbacks(
+            Listener.class, Listener.class.getMethod("onEvent", Entity.class),
+            false);
+        Entity e = new Entity();
+        callbacks.makeCallback(e, null, 0);
+        assertSame(e, Listener.last);
+
+        try {
+            callbacks.makeCallback("not an entity", null, 0);
+            fail();
+        } catch (IllegalArgumentException iae) {
+            // expected, as from reflection
+        }
+    }
+
+    @Test(expected = UserException.class)
+    public void testRejectsMethodWithWrongArity() throws Exception {
+        new MethodLifecycleCallbacks(Entity.class.getMethod("callback"), true)
+            .makeCallback(new Entity(), "x", 0);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.kernel;
+
+import java.util.Arrays;
+
+import org.apache.openjpa.meta.FetchGroup;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestFetchConfigurationCopy {
+
+    private static FetchConfigurationImpl newFetch() {
+        FetchConfigurationImpl fetch = new FetchConfigurationImpl();
+        fetch.addFetchGroups(Arrays.asList("a", "b"));
+        fetch.addField("x.y");
+        fetch.setHint("h", "1");
+        return fetch;
+    }
+
+    @Test
+    public void testCloneSeesSourceState() {
+        FetchConfigurationImpl fetch = newFetch();
+        FetchConfigurationImpl clone = (FetchConfigurationImpl) fetch.clone();
+        assertEquals(fetch.getFetchGroups(), clone.getFetchGroups());
+        assertTrue(clone.hasField("x.y"));
+        assertEquals("1", clone.getHint("h"));
+    }
+
+    @Test
+    public void testModifyingCloneLeavesSource() {
+        FetchConfigurationImpl fetch = newFetch();
+        FetchConfigurationImpl clone = (FetchConfigurationImpl) fetch.clone();
+        clone.addFetchGroup(FetchGroup.NAME_ALL);
+        clone.removeFetchGroup("a");
+        clone.clearFields();
+        clone.setHint("h", "2");
+
+        assertTrue(clone.hasFetchGroupAll());
+        assertFalse(clone.getFetchGroups().contains("a"));
+        assertFalse(clone.hasField("x.y"));
+        assertEquals("2", clone.getHint("h"));
+
+        assertFalse(fetch.hasFetchGroupAll());
+        assertTrue(fetch.hasFetchGroup("a"));
+        assertFalse(fetch.hasFetchGroup(FetchGroup.NAME_ALL));
+        assertTrue(fetch.hasField("x.y"));
+        assertEquals("1", fetch.getHint("h"));
+    }
+
+    @Test
+    public void testModifyingSourceLeavesClone() {
+        FetchConfigurationImpl fetch = newFetch();
+        FetchConfigurationImpl clone = (FetchConfigurationImpl) fetch.clone();
+        fetch.clearFetchGroups();
+        fetch.addField("x.z");
+        fetch.removeHint("h");
+
+        assertFalse(fetch.hasFetchGroup("a"));
+        assertTrue(fetch.hasFetchGroup(FetchGroup.NAME_DEFAULT));
+        assertEquals(2, fetch.getFields().size());
+        assertNull(fetch.getHint("h"));
+
+        assertEquals(2, clone.getFetchGroups().size());
+        assertTrue(clone.hasFetchGroup("a"));
+        assertEquals(1, clone.getFields().size());
+        assertEquals("1", clone.getHint("h"));
+    }
+
+    @Test
+    public void testSharedCollectionsAreNotModifiable() {
+        FetchConfigurationImpl fetch = newFetch();
+        FetchConfigurationImpl clone = (FetchConfigurationImpl) fetch.clone();
+        try {
+            clone.getFetchGroups().add("c");
+            fail("fetch groups modifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            clone.getFields().clear();
+            fail("fields modifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertFalse(fetch.hasFetchGroup("c"));
+        assertTrue(fetch.hasField("x.y"));
+    }
+
+    @Test
+    public void testCopyMergesHints() {
+        FetchConfigurationImpl fetch = newFetch();
+        FetchConfigurationImpl other = new FetchConfigurationImpl();
+        other.setHint("g", "3");
+        other.copy(fetch);
+        assertEquals("1", other.getHint("h"));
+        assertEquals("3", other.getHint("g"));
+        assertFalse(fetch.isHintSet("g"));
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.kernel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestFieldBits {
+
+    @Test
+    public void testNarrowMask() {
+        FieldBits bits = new FieldBits(10);
+        assertTrue(bits.isEmpty());
+        assertEquals(0, bits.length());
+        assertEquals(-1, bits.nextSetBit(0));
+
+        bits.set(0);
+        bits.set(63);
+        assertTrue(bits.get(0));
+        assertTrue(bits.get(63));
+        assertFalse(bits.get(1));
+        assertFalse(bits.get(64));
+        assertFalse(bits.get(1000));
+        assertEquals(64, bits.length());
+        assertEquals(2, bits.cardinality());
+        assertEquals(63, bits.nextSetBit(1));
+
+        bits.clear(0);
+        bits.clear(500);
+        assertFalse(bits.get(0));
+        assertEquals("{63}", bits.toString());
+    }
+
+    @Test
+    public void testWideMask() {
+        FieldBits bits = new FieldBits(130);
+        bits.set(1);
+        bits.set(64);
+        bits.set(129);
+        // grows past the given length
+        bits.set(300);
+        assertTrue(bits.get(64));
+        assertTrue(bits.get(129));
+        assertTrue(bits.get(300));
+        assertFalse(bits.get(128));
+        assertEquals(301, bits.length());
+        assertEquals(4, bits.cardinality());
+        assertEquals(64, bits.nextSetBit(2));
+        assertEquals(129, bits.nextSetBit(65));
+        assertEquals(300, bits.nextSetBit(130));
+        assertEquals(-1, bits.nextSetBit(301));
+
+        bits.clear();
+        assertTrue(bits.isEmpty());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testNegativeIndex() {
+        new FieldBits().get(-1);
+    }
+
+    @Test
+    public void testMatchesBitSet() {
+        Random random = new Random(42);
+        for (int length : new int[]{ 1, 63, 64, 65, 200 }) {
+            FieldBits a = new FieldBits(length);
+            FieldBits b = new FieldBits(length);
+            BitSet ea = new BitSet();
+            BitSet eb = new BitSet();
+            for (int i = 0; i < length; i++) {
+                if (random.nextBoolean()) {
+                    a.set(i);
+                    ea.set(i);
+                }
+                if (random.nextBoolean()) {
+                    b.set(i);
+                    eb.set(i);
+                }
+            }
+            assertEquals(ea, a.toBitSet());
+            assertEquals(a, FieldBits.valueOf(ea));
+            assertEquals(ea.length(), a.length());
+            assertEquals(ea.cardinality(), a.cardinality());
+
+            BitSet notIn = (BitSet) ea.clone();
+            notIn.andNot(eb);
+            assertEquals(!notIn.isEmpty(), a.hasAnyNotIn(b));
+
+            FieldBits or = a.clone();
+            or.or(b);
+            BitSet eor = (BitSet) ea.clone();
+            eor.or(eb);
+            assertEquals(eor, or.toBitSet());
+
+            FieldBits andNot = a.clone();
+            andNot.andNot(b);
+            assertEquals(notIn, andNot.toBitSet());
+            andNot = a.clone();
+            andNot.andNot(eb);
+            assertEquals(notIn, andNot.toBitSet());
+
+            // the clone does not share state
+            assertEquals(ea, a.toBitSet());
+        }
+    }
+
+    @Test
+    public void testOrGrowsNarrowMask() {
+        FieldBits narrow = new FieldBits(1);
+        FieldBits wide = new FieldBits(200);
+        wide.set(199);
+        narrow.or(wide);
+        assertTrue(narrow.get(199));
+        assertTrue(narrow.hasAnyNotIn(null));
+        assertFalse(narrow.hasAnyNotIn(wide));
+        assertTrue(wide.equals(narrow));
+        assertEquals(wide.hashCode(), narrow.hashCode());
+    }
+
+    @Test
+    public void testSerialize() throws Exception {
+        FieldBits bits = new FieldBits(100);
+        bits.set(3);
+        bits.set(99);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(bits);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(
+            new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(bits, in.readObject());
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.kernel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.openjpa.util.IntId;
+import org.apache.openjpa.util.LongId;
+import org.apache.openjpa.util.StringId;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestNumericIdMap {
+
+    public static class Base {
+    }
+
+    public static class Sub extends Base {
+    }
+
+    public static class Other extends Base {
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        for (boolean soft : new boolean[]{ true, false }) {
+            NumericIdMap<String> map = new NumericIdMap<>(String.class, soft);
+            assertNull(map.put(new LongId(Base.class, 1L), "a"));
+            assertNull(map.put(new IntId(Base.class, 1), "b"));
+            assertNull(map.put(new StringId(Base.class, "1"), "c"));
+            assertEquals(3, map.size());
+
+            assertEquals("a", map.get(new LongId(Base.class, 1L)));
+            assertEquals("b", map.get(new IntId(Base.class, 1)));
+            assertEquals("c", map.get(new StringId(Base.class, "1")));
+            assertNull(map.get(new LongId(Base.class, 2L)));
+
+            assertEquals("a", map.put(new LongId(Base.class, 1L), "d"));
+            assertEquals(3, map.size());
+            assertEquals("d", map.remove(new LongId(Base.class, 1L)));
+            assertNull(map.get(new LongId(Base.class, 1L)));
+            assertEquals(2, map.size());
+        }
+    }
+
+    @Test
+    public void testSubclassMatching() {
+        NumericIdMap<String> map = new NumericIdMap<>(String.class, false);
+        map.put(new LongId(Sub.class, 1L, false), "sub");
+        map.put(new LongId(Other.class, 2L, false), "other");
+
+        // a superclass key with subclasses matches
+        assertEquals("sub", map.get(new LongId(Base.class, 1L, true)));
+        assertEquals("other", map.get(new LongId(Base.class, 2L, true)));
+
+        // a superclass key without subclasses does not
+        assertNull(map.get(new LongId(Base.class, 1L, false)));
+
+        // neither does a sibling
+        assertNull(map.get(new LongId(Other.class, 1L, true)));
+
+        assertEquals("sub", map.remove(new LongId(Base.class, 1L, true)));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testGrowAndValues() {
+        NumericIdMap<Long> map = new NumericIdMap<>(Long.class, false);
+        for (long i = 0; i < 1000; i++)
+            map.put(new LongId(Base.class, i * 31), i);
+        for (long i = 0; i < 1000; i += 2)
+            map.remove(new LongId(Base.class, i * 31));
+        assertEquals(500, map.size());
+
+        Set<Long> values = new HashSet<>(map.values());
+        assertEquals(500, values.size());
+        for (long i = 1; i < 1000; i += 2) {
+            assertTrue(values.contains(i));
+            assertEquals(Long.valueOf(i), map.get(new LongId(Base.class, i * 31)));
+        }
+        assertEquals(500, map.entrySet().size());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        NumericIdMap<String> map = new NumericIdMap<>(String.class, true);
+        map.put(new LongId(Base.class, 1L), "a");
+        map.put(new StringId(Base.class, "2"), "b");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(map);
+        out.close();
+        NumericIdMap<String> copy = (NumericIdMap<String>) new ObjectInputStream(
+            new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+        assertTrue(copy.isSoft());
+        assertEquals(2, copy.size());
+        assertEquals("a", copy.get(new LongId(Base.class, 1L)));
+        assertEquals("b", copy.get(new StringId(Base.class, "2")));
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.meta;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.openjpa.lib.log.Log;
+import org.apache.openjpa.lib.log.NoneLogFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestMetaDataScanCache {
+
+    private final Log _log = new NoneLogFactory().getLog("test");
+    private File _dir;
+    private File _classes;
+
+    @Before
+    public void setUp() throws IOException {
+        _dir = File.createTempFile("scancache", "");
+        _dir.delete();
+        _classes = new File(_dir, "classes");
+        new File(_classes, "a").mkdirs();
+        write(new File(_classes, "a/A.class"), 10);
+    }
+
+    @After
+    public void tearDown() {
+        delete(_dir);
+    }
+
+    static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null)
+            for (File f : files)
+                delete(f);
+        file.delete();
+    }
+
+    private static void write(File file, int size) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[size]);
+        out.close();
+    }
+
+    private Map<Object, String[]> names() throws IOException {
+        Map<Object, String[]> names = new HashMap<>();
+        names.put(new URL("file:/classes/a/A.class"), new String[]{ "a.A" });
+        names.put("META-INF/orm.xml", new String[]{ "a.B", "a.C" });
+        return names;
+    }
+
+    @Test
+    public void testStoreAndRead() throws IOException {
+        File file = new File(_dir, "cache/types");
+        MetaDataScanCache cache = new MetaDataScanCache(file, _log);
+        assertNull(cache.get(_classes));
+        cache.put(_classes, names());
+        cache.store();
+        assertTrue(file.isFile());
+
+        Map<Object, String[]> cached = new MetaDataScanCache(file, _log)
+            .get(_classes);
+        assertNotNull(cached);
+        assertEquals(2, cached.size());
+        assertArrayEquals(new String[]{ "a.A" },
+            cached.get(new URL("file:/classes/a/A.class")));
+        assertArrayEquals(new String[]{ "a.B", "a.C" },
+            cached.get("META-INF/orm.xml"));
+    }
+
+    @Test
+    public void testChangedLocationIsRescanned() throws IOException {
+        MetaDataScanCache cache = new MetaDataScanCache
+            (new File(_dir, "types"), _log);
+        cache.put(_classes, names());
+        assertNotNull(cache.get(_classes));
+
+        write(new File(_classes, "a/A.class"), 20);
+        assertNull(cache.get(_classes));
+
+        cache.put(_classes, names());
+        write(new File(_classes, "a/B.class"), 10);
+        assertNull(cache.get(_classes));
+    }
+
+    @Test
+    public void testUnreadableCacheIsIgnored() throws IOException {
+        File file = new File(_dir, "types");
+        write(file, 3);
+        MetaDataScanCache cache = new MetaDataScanCache(file, _log);
+        assertNull(cache.get(_classes));
+        cache.put(_classes, names());
+        cache.store();
+        assertNotNull(new MetaDataScanCache(file, _log).get(_classes));
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.meta;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.openjpa.lib.log.Log;
+import org.apache.openjpa.lib.log.NoneLogFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestResolvedMetaDataCache {
+
+    private static final List<String> NO_TYPES = Collections.emptyList();
+
+    private final Log _log = new NoneLogFactory().getLog("test");
+    private File _dir;
+    private File _file;
+
+    public static class Holder implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        String name;
+        Object runtime;
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        _dir = File.createTempFile("resolvedcache", "");
+        _dir.delete();
+        _file = new File(_dir, "cache/types.resolved");
+    }
+
+    @After
+    public void tearDown() {
+        TestMetaDataScanCache.delete(_dir);
+    }
+
+    private static List<Object> context(Object obj) {
+        List<Object> context = new ArrayList<>();
+        context.add(obj);
+        return context;
+    }
+
+    @Test
+    public void testRoundTripResolvesContext() {
+        // not serializable, so it can only be written as a reference
+        Object written = new Object();
+        Holder holder = new Holder();
+        holder.name = "a";
+        holder.runtime = written;
+        Map<String, Object> state = new HashMap<>();
+        state.put("holder", holder);
+
+        ResolvedMetaDataCache cache = new ResolvedMetaDataCache(_file, _log);
+        assertNull(cache.read(1L, context(written),
+            getClass().getClassLoader(), NO_TYPES));
+        assertTrue(cache.write(1L, state, context(written)));
+        assertTrue(_file.isFile());
+        assertFalse(new File(_file.getPath() + ".tmp").exists());
+
+        Object read = new Object();
+        Map<String, Object> cached = new ResolvedMetaDataCache(_file, _log)
+            .read(1L, context(read), getClass().getClassLoader(), NO_TYPES);
+        assertNotNull(cached);
+        Holder copy = (Holder) cached.get("holder");
+        assertNotSame(holder, copy);
+        assertEquals("a", copy.name);
+        assertSame(read, copy.runtime);
+    }
+
+    @Test
+    public void testStaleFingerprint() {
+        ResolvedMetaDataCache cache = new ResolvedMetaDataCache(_file, _log);
+        assertTrue(cache.write(1L, new HashMap<String, Object>(),
+            Collections.emptyList()));
+        assertNull(cache.read(2L, Collections.emptyList(),
+            getClass().getClassLoader(), NO_TYPES));
+        assertNotNull(cache.read(1L, Collections.emptyList(),
+            getClass().getClassLoader(), NO_TYPES));
+    }
+
+    @Test
+    public void testUnserializableStateIsNotWritten() {
+        Holder holder = new Holder();
+        holder.runtime = new Object();
+        Map<String, Object> state = new HashMap<>();
+        state.put("holder", holder);
+
+        ResolvedMetaDataCache cache = new ResolvedMetaDataCache(_file, _log);
+        assertFalse(cache.write(1L, state, Collections.emptyList()));
+        assertFalse(_file.exists());
+        assertFalse(new File(_file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void testMissingContextIsNotRead() {
+        Object written = new Object();
+        Holder holder = new Holder();
+        holder.runtime = written;
+        Map<String, Object> state = new HashMap<>();
+        state.put("holder", holder);
+
+        ResolvedMetaDataCache cache = new ResolvedMetaDataCache(_file, _log);
+        assertTrue(cache.write(1L, state, context(written)));
+        assertNull(cache.read(1L, Collections.emptyList(),
+            getClass().getClassLoader(), NO_TYPES));
+    }
+
+    @Test
+    public void testUnexpectedClassIsNotRead() {
+        Map<String, Object> state = new HashMap<>();
+        state.put("failure", new ComparisonFailure("message", "a", "b"));
+
+        ResolvedMetaDataCache cache = new ResolvedMetaDataCache(_file, _log);
+        assertTrue(cache.write(1L, state, Collections.emptyList()));
+        assertNull(cache.read(1L, Collections.emptyList(),
+            getClass().getClassLoader(), NO_TYPES));
+
+        // classes of the packages of the persistent types are read
+        Map<String, Object> cached = cache.read(1L, Collections.emptyList(),
+            getClass().getClassLoader(),
+            Collections.singletonList(Assert.class.getName()));
+        assertNotNull(cached);
+        assertEquals("a", ((ComparisonFailure) cached.get("failure"))
+            .getExpected());
+    }
+
+    @Test
+    public void testCorruptFileIsNotRead() throws IOException {
+        _file.getParentFile().mkdirs();
+        FileOutputStream out = new FileOutputStream(_file);
+        out.write(new byte[]{ 1, 2, 3 });
+        out.close();
+        assertNull(new ResolvedMetaDataCache(_file, _log).read(1L,
+            Collections.emptyList(), getClass().getClassLoader(), NO_TYPES));
+    }
+
+    @Test
+    public void testFingerprintOfResource() throws IOException {
+        File rsrc = new File(_dir, "orm.xml");
+        _dir.mkdirs();
+        FileOutputStream out = new FileOutputStream(rsrc);
+        out.write(new byte[]{ 1, 2, 3 });
+        out.close();
+        long before = ResolvedMetaDataCache.fingerprint(rsrc.toURI().toURL());
+        assertEquals(before, ResolvedMetaDataCache.fingerprint
+            (rsrc.toURI().toURL()));
+
+        out = new FileOutputStream(rsrc);
+        out.write(new byte[]{ 1, 2, 4 });
+        out.close();
+        assertNotEquals(before, ResolvedMetaDataCache.fingerprint
+            (rsrc.toURI().toURL()));
+    }
+
+    @Test
+    public void testFingerprintOfProperties() throws IOException {
+        Map<String, Object> props = new HashMap<>();
+        props.put("openjpa.DataCache", "true");
+        props.put("openjpa.Log", new Object());
+        props.put("openjpa.FetchBatchSize", 10);
+        long before = ResolvedMetaDataCache.fingerprint(props);
+
+        // objects other than values contribute their class
+        props.put("openjpa.Log", new Object());
+        assertEquals(before, ResolvedMetaDataCache.fingerprint(props));
+
+        props.put("openjpa.DataCache", "false");
+        long string = ResolvedMetaDataCache.fingerprint(props);
+        assertNotEquals(before, string);
+
+        props.put("openjpa.FetchBatchSize", 20);
+        assertNotEquals(string, ResolvedMetaDataCache.fingerprint(props));
+    }
+
+    @Test
+    public void testFingerprintOfTypes() throws IOException {
+        ClassLoader loader = getClass().getClassLoader();
+        List<String> types = new ArrayList<>();
+        types.add(Holder.class.getName());
+        long one = ResolvedMetaDataCache.fingerprint(types, loader);
+        assertEquals(one, ResolvedMetaDataCache.fingerprint(types, loader));
+
+        types.add(getClass().getName());
+        assertNotEquals(one, ResolvedMetaDataCache.fingerprint(types, loader));
+    }
+}
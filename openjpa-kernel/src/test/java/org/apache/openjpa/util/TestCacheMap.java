@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestCacheMap {
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        final List<Object> removed = new ArrayList<>();
+        CacheMap map = new CacheMap(true, 10) {
+            @Override
+            protected void entryRemoved(Object key, Object value, boolean expired) {
+                assertTrue(expired);
+                removed.add(key);
+            }
+        };
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+        map.get("a");
+
+        assertEquals("b", map.evict());
+        assertEquals("c", map.evict());
+        assertEquals("a", map.evict());
+        assertNull(map.evict());
+        assertEquals(3, removed.size());
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testEvictSkipsPinnedEntries() {
+        CacheMap map = new CacheMap();
+        map.put("a", 1);
+        map.put("b", 2);
+        map.pin("a");
+
+        assertEquals("b", map.evict());
+        assertNull(map.evict());
+        assertEquals(1, map.get("a"));
+    }
+
+    @Test
+    public void testEvictSoftReferencesFirst() {
+        CacheMap map = new CacheMap(true, 10);
+        map.setCacheSize(1);
+        map.put("a", 1);
+        map.put("b", 2); // overflows "a" into the soft map
+
+        assertEquals("a", map.evict());
+        assertEquals("b", map.evict());
+        assertNull(map.evict());
+    }
+}
@@ -18,14 +18,18 @@
  */
 package org.apache.openjpa.util;
 
+import java.io.File;
 import java.io.InputStream;
 import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.AbstractMap;
 import java.util.AbstractSequentialList;
 import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Comparator;
@@ -862,6 +866,30 @@ public class TestProxyManager {
         }
     }
 
+    @Test
+    public void testWriteBuildTimeProxies() throws Exception {
+        File dir = File.createTempFile("proxies", "");
+        dir.delete();
+        dir.mkdirs();
+
+        List<String> names = _mgr.writeBuildTimeProxies(Arrays.<Class<?>>asList
+            (CustomSortedSet.class, CustomDate.class, CustomSortedSet.class,
+            String.class, NonproxyableBean2.class), dir);
+        assertEquals(2, names.size());
+        String name = "org.apache.openjpa.util."
+            + CustomSortedSet.class.getName().replace('.', '$') + "$proxy";
+        assertEquals(name, names.get(0));
+        assertTrue(new File(dir, name.replace('.', File.separatorChar)
+            + ".class").isFile());
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{
+            dir.toURI().toURL() }, getClass().getClassLoader());
+        Class<?> proxy = Class.forName(name, true, loader);
+        assertTrue(ProxyCollection.class.isAssignableFrom(proxy));
+        assertEquals(CustomSortedSet.class, proxy.getSuperclass());
+        loader.close();
+    }
+
     /**
      * Used to test custom list handling. Copy constructor intentionally ommitted.
      */
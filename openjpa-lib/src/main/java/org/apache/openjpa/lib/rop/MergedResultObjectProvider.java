@@ -19,12 +19,16 @@
 package org.apache.openjpa.lib.rop;
 
 import java.util.Comparator;
+import java.util.PriorityQueue;
 
 
 /**
  * A result object provider that merges multiple result object provider
  * delegates. Support exists for maintaining ordering of the internally held
  * results, provided that each of the individual results is itself ordered.
+ * Ordered delegates are merged through a heap holding the current value of
+ * each delegate, and a delegate is only advanced once its current value has
+ * been consumed.
  *
  * @author Abe White
  * @author Marc Prud'hommeaux
@@ -41,6 +45,8 @@ public class MergedResultObjectProvider implements ResultObjectProvider {
     private final byte[] _status;
     private Object[] _values;
     private Object[] _orderValues;
+    private PriorityQueue<Integer> _heap = null;
+    private int _last = -1;
     private Object _cur = null;
     private int _size = -1;
 
@@ -138,6 +144,8 @@ public class MergedResultObjectProvider implements ResultObjectProvider {
 
     private void clear() {
         _cur = null;
+        _heap = null;
+        _last = -1;
         for (int i = 0; i < _rops.length; i++) {
             _status[i] = OPENED;
             if (_values != null)
@@ -156,67 +164,78 @@ public class MergedResultObjectProvider implements ResultObjectProvider {
 
     @Override
     public boolean next() throws Exception {
-        // initialize all rops with the latest values
-        boolean hasValue = false;
+        if (_comp != null)
+            return nextOrdered();
+
         for (int i = 0; i < _status.length; i++) {
             switch (_status[i]) {
                 case UNOPENED:
-                    // this will only ever be the case if we aren't ordering
                     _rops[i].open();
                     _status[i] = OPENED;
                     // no break
                 case OPENED:
-                    // if this rop has a value, cache it; if we're not ordering,
-                    // then that's the value to return
+                    // the first rop with a value gives the value to return
                     if (_rops[i].next()) {
-                        if (_comp == null) {
-                            _cur = _rops[i].getResultObject();
-                            return true;
-                        } else {
-                            hasValue = true;
-                            _status[i] = VALUE;
-                            _values[i] = _rops[i].getResultObject();
-                            _orderValues[i] = getOrderingValue(_values[i],
-                                i, _rops[i]);
-                        }
-                    } else
-                        _status[i] = DONE;
-                    break;
-                case VALUE:
-                    // we only use this state when ordering
-                    hasValue = true;
+                        _cur = _rops[i].getResultObject();
+                        return true;
+                    }
+                    _status[i] = DONE;
                     break;
             }
         }
+        return false;
+    }
 
-        // if we get to this point without a comparator, it means none
-        // of our rops have any more values
-        if (_comp == null || !hasValue)
-            return false;
+    /**
+     * Return the least of the current values of all rops. Only the rop that
+     * gave the last value is advanced.
+     */
+    private boolean nextOrdered() throws Exception {
+        if (_heap == null) {
+            _heap = new PriorityQueue<>(Math.max(1, _rops.length),
+                new Comparator<Integer>() {
+                    @Override
+                    public int compare(Integer i1, Integer i2) {
+                        int cmp = _comp.compare(_orderValues[i1],
+                            _orderValues[i2]);
+                        return (cmp != 0) ? cmp : i1.compareTo(i2);
+                    }
+                });
+            for (int i = 0; i < _status.length; i++)
+                if (_status[i] == OPENED)
+                    advance(i);
+        } else if (_last != -1)
+            advance(_last);
 
-        // for all the rops with values, find the 'least' one according to
-        // the comparator
-        int least = -1;
-        Object orderVal = null;
-        for (int i = 0; i < _orderValues.length; i++) {
-            if (_status[i] != VALUE)
-                continue;
-            if (least == -1 || _comp.compare(_orderValues[i], orderVal) < 0) {
-                least = i;
-                orderVal = _orderValues[i];
-            }
-        }
+        _last = -1;
+        Integer least = _heap.poll();
+        if (least == null)
+            return false;
 
         // assign the least value to the current one, and clear the cached
-        // value for that rop so that we know to get the next value for
+        // value for that rop so that we know to get its next value for
         // the next comparison
-        _cur = _values[least];
-        _values[least] = null;
-        _orderValues[least] = null;
-        _status[least] = OPENED;
+        _last = least;
+        _cur = _values[_last];
+        _values[_last] = null;
+        _orderValues[_last] = null;
+        _status[_last] = OPENED;
         return true;
     }
 
+    /**
+     * Cache the next value of the given rop and add the rop to the heap.
+     */
+    private void advance(int i) throws Exception {
+        if (_rops[i].next()) {
+            _status[i] = VALUE;
+            _values[i] = _rops[i].getResultObject();
+            _orderValues[i] = getOrderingValue(_values[i], i, _rops[i]);
+            _heap.add(i);
+        } else
+            _status[i] = DONE;
+    }
+
     @Override
     public Object getResultObject() throws Exception {
         return _cur;
@@ -45,9 +45,18 @@ public class TemporaryClassLoader extends ClassLoader {
 
     @Override
     protected Class loadClass(String name, boolean resolve)
+        throws ClassNotFoundException {
+        // tools such as the enhancer may load classes from several threads;
+        // never define the same class twice
+        synchronized (getClassLoadingLock(name)) {
+            return loadClass0(name, resolve);
+        }
+    }
+
+    private Class<?> loadClass0(String name, boolean resolve)
         throws ClassNotFoundException {
         // see if we've already loaded it
-        Class c = findLoadedClass(name);
+        Class<?> c = findLoadedClass(name);
         if (c != null)
             return c;
 
@@ -19,10 +19,15 @@
 package org.apache.openjpa.lib.rop;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
 /**
  * Tests the {@link MergedResultObjectProvider}.
  *
@@ -60,6 +65,46 @@ public class TestOrderedMergedResultObjectProvider extends ResultListTest {
         };
     }
 
+    @Test
+    public void testOnlyConsumedProviderAdvances() throws Exception {
+        String two1 = new String("2");
+        String two2 = new String("2");
+        CountingProvider[] rops = new CountingProvider[]{
+            new CountingProvider(Arrays.asList("1", "4", "5", "6")),
+            new CountingProvider(Arrays.asList(two1, "3", "7")),
+            new CountingProvider(Arrays.asList(two2, "8")),
+        };
+        MergedResultObjectProvider merged =
+            new MergedResultObjectProvider(rops, new IntValueComparator());
+        merged.open();
+        List<Object> result = new ArrayList<>();
+        for (int i = 0; i < 4 && merged.next(); i++)
+            result.add(merged.getResultObject());
+
+        // equal values come in the order of their providers
+        assertEquals(Arrays.asList("1", "2", "2", "3"), result);
+        assertSame(two1, result.get(1));
+        assertSame(two2, result.get(2));
+        assertEquals(2, rops[0].nexts);
+        assertEquals(2, rops[1].nexts);
+        assertEquals(2, rops[2].nexts);
+        merged.close();
+    }
+
+    private static class CountingProvider extends ListResultObjectProvider {
+        int nexts;
+
+        CountingProvider(List list) {
+            super(list);
+        }
+
+        @Override
+        public boolean next() throws Exception {
+            nexts++;
+            return super.next();
+        }
+    }
+
     private static class IntValueComparator implements Comparator {
 
         @Override
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.detach;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.Persistence;
+
+import org.apache.openjpa.persistence.OpenJPAEntityManager;
+import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares detaching copies with the fields that need no detaching copied
+ * in bulk against detaching them one field at a time. Run with
+ * <pre>
+ * mvn -Pjmh test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.apache.openjpa.persistence.detach.DetachCopyBenchmark
+ * </pre>
+ * from the openjpa-persistence-jdbc directory. The database is configured
+ * with the same system properties as the tests. The benchmark runs in the
+ * JVM of the build, as exec:java does not pass the test class path on to
+ * forked JVMs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(0)
+public class DetachCopyBenchmark {
+
+    @Param({ "true", "false" })
+    public boolean bulk;
+
+    @Param({ "100" })
+    public int size;
+
+    private OpenJPAEntityManagerFactorySPI emf;
+    private OpenJPAEntityManager em;
+    private List<BulkDetachEntity> managed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<Object, Object> config = new HashMap<>(System.getProperties());
+        config.put("openjpa.MetaDataFactory", "jpa(Types="
+            + BulkDetachEntity.class.getName() + ";"
+            + BulkDetachAddress.class.getName() + ";"
+            + Entity7.class.getName() + ";" + Entity14.class.getName() + ")");
+        config.put("openjpa.jdbc.SynchronizeMappings", "buildSchema("
+            + "ForeignKeys=true,SchemaAction='add,deleteTableContents')");
+        emf = (OpenJPAEntityManagerFactorySPI)
+            Persistence.createEntityManagerFactory("test", config);
+        emf.getConfiguration().getDetachStateInstance()
+            .setCopyFieldsInBulk(bulk);
+
+        em = emf.createEntityManager();
+        em.getTransaction().begin();
+        Entity14 ref = new Entity14(1, "ref");
+        em.persist(ref);
+        for (int i = 0; i < size; i++) {
+            BulkDetachEntity e = new BulkDetachEntity(i, "entity" + i);
+            e.setCount(i);
+            e.setNotes("notes" + i);
+            e.setCreated(new Date(i));
+            e.getTags().add("tag" + i);
+            e.setAddress(new BulkDetachAddress("street" + i, "city" + i));
+            e.setRef(ref);
+            em.persist(e);
+        }
+        em.getTransaction().commit();
+        em.clear();
+        managed = em.createQuery("select e from BulkDetachEntity e",
+            BulkDetachEntity.class).getResultList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Benchmark
+    public void detachCopy(Blackhole bh) {
+        for (BulkDetachEntity e : managed)
+            bh.consume(em.detachCopy(e));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(DetachCopyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.datacache;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.openjpa.datacache.CacheDistributionPolicy;
+import org.apache.openjpa.datacache.ConcurrentDataCache;
+import org.apache.openjpa.datacache.DataCache;
+import org.apache.openjpa.datacache.DataCacheSizeEstimator;
+import org.apache.openjpa.datacache.PartitionedDataCache;
+import org.apache.openjpa.kernel.OpenJPAStateManager;
+import org.apache.openjpa.lib.conf.Configuration;
+import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
+import org.apache.openjpa.persistence.OpenJPAEntityManagerSPI;
+import org.apache.openjpa.persistence.StoreCacheImpl;
+import org.apache.openjpa.persistence.test.SingleEMFTestCase;
+import org.apache.openjpa.util.IntId;
+
+/**
+ * Tests the estimated memory budgets of the data cache and of its partitions.
+ */
+public class TestDataCacheMemoryBudget extends SingleEMFTestCase {
+    private static final int NAME_LENGTH = 1000;
+    private static final long MAX_MEMORY = 10000;
+    private static final long GLOBAL_MEMORY = 60000;
+
+    @Override
+    public void setUp() {
+        super.setUp(CLEAR_TABLES, CachedPerson.class,
+            "openjpa.RemoteCommitProvider", "sjvm",
+            "openjpa.DataCache", "true(MaxMemory=" + MAX_MEMORY + ")");
+    }
+
+    public void testEstimateFollowsFieldSizes() {
+        persist(emf, 0, 1, 1);
+        persist(emf, 1, 2, NAME_LENGTH);
+        ConcurrentDataCache cache = getCache(emf);
+
+        long small = DataCacheSizeEstimator.estimate(cache.get(new IntId(CachedPerson.class, 0)));
+        long large = DataCacheSizeEstimator.estimate(cache.get(new IntId(CachedPerson.class, 1)));
+        // two bytes per character, give or take the alignment of the arrays
+        assertTrue(small + " vs " + large, large - small >= 2 * (NAME_LENGTH - 1) - 16);
+        assertEquals(small + large, cache.getMemoryUsage());
+    }
+
+    public void testMaxMemoryEvictsDownToBudget() {
+        int persons = 20;
+        persist(emf, 0, persons, NAME_LENGTH);
+        ConcurrentDataCache cache = getCache(emf);
+
+        int cached = 0;
+        for (int i = 0; i < persons; i++)
+            if (cache.contains(new IntId(CachedPerson.class, i)))
+                cached++;
+        assertTrue(cached > 0);
+        assertTrue(cached < persons);
+        assertTrue(cache.getMemoryUsage() > 0);
+        assertTrue(cache.getMemoryUsage() <= MAX_MEMORY);
+    }
+
+    public void testMaxMemoryEvictsUnpinnedEntriesOnly() {
+        persist(emf, 0, 1, NAME_LENGTH);
+        ConcurrentDataCache cache = getCache(emf);
+        IntId pinned = new IntId(CachedPerson.class, 0);
+        assertTrue(cache.pin(pinned));
+
+        persist(emf, 1, 20, NAME_LENGTH);
+        assertTrue(cache.contains(pinned));
+    }
+
+    public void testRebalanceRecordsSharesAndEvictsOnNextPut() {
+        OpenJPAEntityManagerFactorySPI pemf = createEMF(CachedPerson.class,
+            "openjpa.RemoteCommitProvider", "sjvm",
+            "openjpa.DataCache", "partitioned(PartitionType=concurrent,EnableStatistics=true,MaxMemory="
+                + GLOBAL_MEMORY + ",MemoryRebalanceInterval=0,partitions="
+                + "'(name=even,EnableStatistics=true),(name=odd,EnableStatistics=true)')",
+            "openjpa.CacheDistributionPolicy", ParityPolicy.class.getName());
+        try {
+            PartitionedDataCache root = (PartitionedDataCache) ((StoreCacheImpl) pemf.getStoreCache()).getDelegate();
+            ConcurrentDataCache even = (ConcurrentDataCache) root.getPartition("even", false);
+            ConcurrentDataCache odd = (ConcurrentDataCache) root.getPartition("odd", false);
+            assertEquals(GLOBAL_MEMORY / 3, even.getMaxMemory());
+            assertEquals(GLOBAL_MEMORY / 3, odd.getMaxMemory());
+
+            persist(pemf, 0, 20, NAME_LENGTH);
+            long oddUsage = odd.getMemoryUsage();
+            assertTrue(oddUsage <= GLOBAL_MEMORY / 3);
+            assertTrue("precondition: odd partition is filled over a sixth of the budget",
+                oddUsage > GLOBAL_MEMORY / 6);
+
+            // all hits go to the even partition
+            for (int n = 0; n < 10; n++)
+                for (int i = 0; i < 20; i += 2)
+                    even.get(new IntId(CachedPerson.class, i));
+            root.rebalanceMemory(true);
+
+            Map<String, Long> budgets = root.getMemoryBudgets();
+            assertTrue(budgets.toString(), budgets.get("even") > budgets.get("odd"));
+            long total = 0;
+            for (Long budget : budgets.values())
+                total += budget;
+            assertTrue(budgets.toString(), total <= GLOBAL_MEMORY);
+
+            // the odd partition is only shrunk when an entry is next added to it
+            assertEquals(oddUsage, odd.getMemoryUsage());
+            persist(pemf, 21, 22, NAME_LENGTH);
+            assertTrue(odd.getMemoryUsage() <= odd.getMaxMemory());
+        } finally {
+            closeEMF(pemf);
+        }
+    }
+
+    private static ConcurrentDataCache getCache(OpenJPAEntityManagerFactorySPI emf) {
+        return (ConcurrentDataCache) ((StoreCacheImpl) emf.getStoreCache()).getDelegate();
+    }
+
+    /**
+     * Persist persons with the given range of ids and a last name of the given length.
+     */
+    private static void persist(OpenJPAEntityManagerFactorySPI emf, int from, int to, int nameLength) {
+        char[] name = new char[nameLength];
+        Arrays.fill(name, 'x');
+        OpenJPAEntityManagerSPI em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = from; i < to; i++) {
+            CachedPerson person = new CachedPerson();
+            person.setId(i);
+            person.setLastName(new String(name));
+            em.persist(person);
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    /**
+     * Caches persons with even ids and odd ids in separate partitions.
+     */
+    public static class ParityPolicy implements CacheDistributionPolicy {
+        @Override
+        public String selectCache(OpenJPAStateManager sm, Object context) {
+            Object id = sm.getObjectId();
+            if (!(id instanceof IntId))
+                return DataCache.NAME_DEFAULT;
+            return ((IntId) id).getId() % 2 == 0 ? "even" : "odd";
+        }
+
+        @Override
+        public void endConfiguration() {
+        }
+
+        @Override
+        public void setConfiguration(Configuration conf) {
+        }
+
+        @Override
+        public void startConfiguration() {
+        }
+    }
+}
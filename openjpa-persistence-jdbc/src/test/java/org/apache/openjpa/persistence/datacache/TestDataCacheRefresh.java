@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.datacache;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.datacache.DataCacheRefresher;
+import org.apache.openjpa.persistence.JPAFacadeHelper;
+import org.apache.openjpa.persistence.test.SingleEMFTestCase;
+
+/**
+ * Tests that data past its refresh timeout is served from the cache while it
+ * is reloaded in the background.
+ */
+public class TestDataCacheRefresh extends SingleEMFTestCase {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp(CLEAR_TABLES, RefreshedReference.class,
+            "openjpa.DataCache", "true(EvictOnBulkUpdate=false)",
+            "openjpa.RemoteCommitProvider", "sjvm");
+    }
+
+    public void testStaleDataIsServedAndRefreshed() throws Exception {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        RefreshedReference ref = new RefreshedReference();
+        ref.setId(1);
+        ref.setName("old");
+        em.persist(ref);
+        em.getTransaction().commit();
+        em.clear();
+
+        // change the database behind the back of the cache
+        em.getTransaction().begin();
+        em.createQuery("UPDATE RefreshedReference r SET r.name = 'new' WHERE r.id = 1").executeUpdate();
+        em.getTransaction().commit();
+        em.close();
+        assertTrue(emf.getCache().contains(RefreshedReference.class, 1));
+
+        Thread.sleep(200);
+
+        // the stale entry is still served, but schedules a reload
+        em = emf.createEntityManager();
+        assertEquals("old", em.find(RefreshedReference.class, 1).getName());
+        em.close();
+
+        DataCacheRefresher refresher = JPAFacadeHelper.toBrokerFactory(emf).getConfiguration()
+            .getDataCacheManagerInstance().getRefresher();
+        for (int i = 0; i < 100 && refresher.getPendingCount() > 0; i++)
+            Thread.sleep(50);
+        assertEquals(0, refresher.getPendingCount());
+
+        em = emf.createEntityManager();
+        assertEquals("new", em.find(RefreshedReference.class, 1).getName());
+        em.close();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.datacache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.lib.jdbc.AbstractJDBCListener;
+import org.apache.openjpa.lib.jdbc.JDBCEvent;
+import org.apache.openjpa.lib.jdbc.JDBCListener;
+import org.apache.openjpa.persistence.test.SingleEMFTestCase;
+
+/**
+ * Counts how often a query is executed against the database when many
+ * entity managers miss the query cache for it at the same time.
+ */
+public class TestQueryCacheCoalescing extends SingleEMFTestCase {
+
+    private static final int THREADS = 10;
+    private static final String QUERY =
+        "select p from CachedPerson p where p.lastName = :name";
+
+    /**
+     * Counts the statements selecting persons by last name.
+     */
+    public static class QueryCounter extends AbstractJDBCListener {
+        final AtomicInteger executions = new AtomicInteger();
+
+        @Override
+        public void beforeExecuteStatement(JDBCEvent event) {
+            if (event.getSQL() != null
+                && event.getSQL().indexOf("lastName = ?") != -1)
+                executions.incrementAndGet();
+        }
+    }
+
+    private final QueryCounter _counter = new QueryCounter();
+
+    @Override
+    public void setUp() {
+        super.setUp(CachedPerson.class, CachedEmployee.class,
+            CachedManager.class, CLEAR_TABLES,
+            "openjpa.DataCache", "true",
+            "openjpa.QueryCache", "true",
+            "openjpa.RemoteCommitProvider", "sjvm",
+            "openjpa.DataCacheManager", "default(LoadCoalescing=true)",
+            "openjpa.jdbc.JDBCListeners", new JDBCListener[] { _counter });
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < 5; i++) {
+            CachedPerson person = new CachedPerson();
+            person.setId(i);
+            person.setFirstName("First" + i);
+            person.setLastName((i % 2 == 0) ? "Even" : "Odd");
+            em.persist(person);
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    /**
+     * Run the query for the given name from a single entity manager and
+     * return the number of statements it executed.
+     */
+    private int countStatements(String name) {
+        _counter.executions.set(0);
+        EntityManager em = emf.createEntityManager();
+        assertFalse(em.createQuery(QUERY).setParameter("name", name)
+            .getResultList().isEmpty());
+        em.close();
+        return _counter.executions.get();
+    }
+
+    public void testConcurrentMissesExecuteQueryOnce() throws Exception {
+        // a query over a table per class hierarchy runs several statements
+        int perExecution = countStatements("Odd");
+        assertTrue(perExecution > 0);
+
+        _counter.executions.set(0);
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService exec = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(exec.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        start.await();
+                        EntityManager em = emf.createEntityManager();
+                        try {
+                            return em.createQuery(QUERY)
+                                .setParameter("name", "Even")
+                                .getResultList().size();
+                        } finally {
+                            em.close();
+                        }
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results)
+                assertEquals(3, result.get().intValue());
+        } finally {
+            exec.shutdown();
+        }
+        assertEquals(perExecution, _counter.executions.get());
+
+        // later executions read the cached result
+        assertEquals(0, countStatements("Even"));
+    }
+}
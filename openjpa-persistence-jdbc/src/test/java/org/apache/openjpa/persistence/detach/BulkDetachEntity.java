@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.detach;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.Basic;
+import javax.persistence.CascadeType;
+import javax.persistence.ElementCollection;
+import javax.persistence.Embedded;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToOne;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.Version;
+
+/**
+ * Entity with a field of each kind detach treats differently: plain values,
+ * a lazy value, proxied values, an embedded value, an uncascaded and a
+ * cascaded relation and a version.
+ */
+@Entity
+public class BulkDetachEntity {
+    @Id
+    private long id;
+
+    @Version
+    private int version;
+
+    private String name;
+
+    private int count;
+
+    @Basic(fetch=FetchType.LAZY)
+    private String notes;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date created;
+
+    @ElementCollection(fetch=FetchType.EAGER)
+    private List<String> tags = new ArrayList<>();
+
+    @Embedded
+    private BulkDetachAddress address;
+
+    @ManyToOne
+    private Entity14 ref;
+
+    @OneToOne(cascade=(CascadeType.ALL))
+    private Entity7 cascaded;
+
+    public BulkDetachEntity() {
+    }
+
+    public BulkDetachEntity(long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public Date getCreated() {
+        return created;
+    }
+
+    public void setCreated(Date created) {
+        this.created = created;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public BulkDetachAddress getAddress() {
+        return address;
+    }
+
+    public void setAddress(BulkDetachAddress address) {
+        this.address = address;
+    }
+
+    public Entity14 getRef() {
+        return ref;
+    }
+
+    public void setRef(Entity14 ref) {
+        this.ref = ref;
+    }
+
+    public Entity7 getCascaded() {
+        return cascaded;
+    }
+
+    public void setCascaded(Entity7 cascaded) {
+        this.cascaded = cascaded;
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.detach;
+
+import java.util.Date;
+import java.util.List;
+
+import org.apache.openjpa.conf.DetachOptions;
+import org.apache.openjpa.persistence.OpenJPAEntityManager;
+import org.apache.openjpa.persistence.test.SingleEMFTestCase;
+import org.apache.openjpa.util.Proxy;
+
+/**
+ * Compares detached copies made with the fields that need no detaching
+ * copied in bulk against copies made one field at a time.
+ */
+public class TestDetachCopyFieldsInBulk extends SingleEMFTestCase {
+
+    private static final long ID = 1;
+
+    private DetachOptions opts;
+
+    @Override
+    public void setUp() throws Exception {
+        setUp(BulkDetachEntity.class, BulkDetachAddress.class,
+            Entity7.class, Entity14.class, CLEAR_TABLES);
+        opts = emf.getConfiguration().getDetachStateInstance();
+        assertTrue(opts.getCopyFieldsInBulk());
+
+        OpenJPAEntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        BulkDetachEntity e = new BulkDetachEntity(ID, "bulk");
+        e.setCount(42);
+        e.setNotes("lazy notes");
+        e.setCreated(new Date(1000000L));
+        e.getTags().add("a");
+        e.getTags().add("b");
+        e.setAddress(new BulkDetachAddress("Main Street", "Springfield"));
+        e.setRef(new Entity14(ID, "ref"));
+        e.setCascaded(new Entity7(ID, "cascaded"));
+        em.persist(e.getRef());
+        em.persist(e);
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        opts.setCopyFieldsInBulk(true);
+        super.tearDown();
+    }
+
+    private BulkDetachEntity detachCopy(OpenJPAEntityManager em,
+        BulkDetachEntity managed, boolean bulk) {
+        opts.setCopyFieldsInBulk(bulk);
+        try {
+            return em.detachCopy(managed);
+        } finally {
+            opts.setCopyFieldsInBulk(true);
+        }
+    }
+
+    public void testCopiesMatchFieldByFieldCopies() {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        BulkDetachEntity managed = em.find(BulkDetachEntity.class, ID);
+        BulkDetachEntity single = detachCopy(em, managed, false);
+        BulkDetachEntity bulk = detachCopy(em, managed, true);
+
+        assertTrue(em.contains(managed));
+        for (BulkDetachEntity copy : new BulkDetachEntity[]{ single, bulk }) {
+            assertNotSame(managed, copy);
+            assertTrue(em.isDetached(copy));
+            assertFalse(em.contains(copy));
+        }
+
+        assertEquals(single.getId(), bulk.getId());
+        assertEquals(single.getVersion(), bulk.getVersion());
+        assertEquals(managed.getVersion(), bulk.getVersion());
+        assertEquals("bulk", bulk.getName());
+        assertEquals(single.getName(), bulk.getName());
+        assertEquals(42, bulk.getCount());
+        assertEquals(single.getCount(), bulk.getCount());
+
+        // proxied values are copied and reproxied the same way
+        assertEquals(single.getCreated(), bulk.getCreated());
+        assertNotSame(managed.getCreated(), bulk.getCreated());
+        assertEquals(single.getCreated() instanceof Proxy,
+            bulk.getCreated() instanceof Proxy);
+        assertEquals(single.getTags(), bulk.getTags());
+        assertNotSame(managed.getTags(), bulk.getTags());
+        assertEquals(single.getTags() instanceof Proxy,
+            bulk.getTags() instanceof Proxy);
+
+        // embedded values are detached copies, not the managed value
+        assertNotNull(bulk.getAddress());
+        assertNotSame(managed.getAddress(), bulk.getAddress());
+        assertNotSame(single.getAddress(), bulk.getAddress());
+        assertEquals(single.getAddress().getStreet(),
+            bulk.getAddress().getStreet());
+        assertEquals(single.getAddress().getCity(),
+            bulk.getAddress().getCity());
+
+        // uncascaded relations are referenced as they are
+        assertSame(single.getRef(), bulk.getRef());
+
+        // cascaded relations are detached copies
+        assertNotNull(bulk.getCascaded());
+        assertNotSame(managed.getCascaded(), bulk.getCascaded());
+        assertTrue(em.isDetached(bulk.getCascaded()));
+        assertEquals(single.getCascaded().getId(),
+            bulk.getCascaded().getId());
+        assertEquals(single.getCascaded().getName(),
+            bulk.getCascaded().getName());
+        em.close();
+    }
+
+    public void testLazyFieldsMatchFieldByFieldCopies() {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        BulkDetachEntity managed = em.find(BulkDetachEntity.class, ID);
+
+        // not loaded, so not copied
+        BulkDetachEntity single = detachCopy(em, managed, false);
+        BulkDetachEntity bulk = detachCopy(em, managed, true);
+        assertNull(single.getNotes());
+        assertNull(bulk.getNotes());
+
+        // loaded, so copied
+        assertEquals("lazy notes", managed.getNotes());
+        single = detachCopy(em, managed, false);
+        bulk = detachCopy(em, managed, true);
+        assertEquals("lazy notes", single.getNotes());
+        assertEquals("lazy notes", bulk.getNotes());
+        em.close();
+    }
+
+    public void testMergeOfCopy() {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        BulkDetachEntity bulk = detachCopy(em,
+            em.find(BulkDetachEntity.class, ID), true);
+        em.close();
+
+        bulk.setName("merged");
+        bulk.setCount(43);
+        bulk.getAddress().setCity("Shelbyville");
+
+        em = emf.createEntityManager();
+        em.getTransaction().begin();
+        em.merge(bulk);
+        em.getTransaction().commit();
+        em.close();
+
+        em = emf.createEntityManager();
+        BulkDetachEntity e = em.find(BulkDetachEntity.class, ID);
+        assertEquals("merged", e.getName());
+        assertEquals(43, e.getCount());
+        assertEquals("Shelbyville", e.getAddress().getCity());
+        // the lazy field was not detached, so the merge leaves it alone
+        assertEquals("lazy notes", e.getNotes());
+        assertEquals(2, e.getTags().size());
+        assertEquals("cascaded", e.getCascaded().getName());
+        em.close();
+    }
+
+    public void testDetachCopiesOfList() {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 2; i < 5; i++) {
+            BulkDetachEntity e = new BulkDetachEntity(i, "bulk" + i);
+            e.setCount(i);
+            e.setCascaded(new Entity7(i, "cascaded" + i));
+            em.persist(e);
+        }
+        em.getTransaction().commit();
+        em.clear();
+
+        List<BulkDetachEntity> managed = em.createQuery(
+            "select e from BulkDetachEntity e order by e.id",
+            BulkDetachEntity.class).getResultList();
+        assertEquals(4, managed.size());
+        for (BulkDetachEntity e : managed) {
+            BulkDetachEntity single = detachCopy(em, e, false);
+            BulkDetachEntity bulk = detachCopy(em, e, true);
+            assertEquals(single.getName(), bulk.getName());
+            assertEquals(single.getCount(), bulk.getCount());
+            assertEquals(single.getCascaded().getName(),
+                bulk.getCascaded().getName());
+        }
+        em.close();
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.entitymanager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.persistence.QueryTimeoutException;
+
+import org.apache.openjpa.kernel.AsyncExecutor;
+import org.apache.openjpa.persistence.OpenJPAEntityManager;
+import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
+import org.apache.openjpa.persistence.OpenJPAQuery;
+import org.apache.openjpa.persistence.simple.Person;
+import org.apache.openjpa.persistence.test.SingleEMFTestCase;
+
+/**
+ * Tests the asynchronous operations of entity managers and queries, run on
+ * a pool of 4 platform threads.
+ */
+public class TestAsyncOperations extends SingleEMFTestCase {
+    private static final int MAX_THREADS = 4;
+    private static final int PERSONS = 100;
+
+    @Override
+    public void setUp() {
+        setUp(Person.class, CLEAR_TABLES,
+            "openjpa.AsyncExecutor", "default(MaxThreads=" + MAX_THREADS
+            + ",VirtualThreads=false)");
+
+        OpenJPAEntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < PERSONS; i++) {
+            Person p = new Person();
+            p.setId(i);
+            p.setSurname("Surname" + i);
+            em.persist(p);
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    public void testFindAsync() throws Exception {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        Person p = em.findAsync(Person.class, 7).get();
+        assertEquals("Surname7", p.getSurname());
+        assertTrue(em.contains(p));
+        assertNull(em.findAsync(Person.class, PERSONS).get());
+        em.close();
+    }
+
+    public void testAsyncOperationMakesEntityManagerMultithreaded()
+        throws Exception {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        assertFalse(em.getMultithreaded());
+        CompletableFuture<Person> found = em.findAsync(Person.class, 3);
+        assertTrue(em.getMultithreaded());
+        // a call of this thread waits for the operation to release the lock
+        assertSame(em.find(Person.class, 3), found.get());
+        em.close();
+    }
+
+    public void testClosingFactoryStopsTimer() throws Exception {
+        OpenJPAEntityManagerFactorySPI other = createEMF(Person.class, FRESH_EMF,
+            "openjpa.AsyncExecutor", "default(MaxThreads=1,VirtualThreads=false)");
+        AsyncExecutor executor = (AsyncExecutor) other.getConfiguration()
+            .getAsyncExecutorInstance();
+        OpenJPAEntityManager em = other.createEntityManager();
+        OpenJPAQuery<Person> q = em.createQuery("select p from Person p",
+            Person.class);
+        q.setHint("javax.persistence.query.timeout", 10000);
+        assertEquals(PERSONS, q.getResultListAsync().get().size());
+        em.close();
+        other.close();
+        try {
+            executor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                }
+            }, 1);
+            fail("Expected the timer to be shut down");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+    }
+
+    public void testOperationsRunInOrder() throws Exception {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        Person p = new Person();
+        p.setId(PERSONS);
+        p.setSurname("Async");
+        em.persist(p);
+        CompletableFuture<Void> flush = em.flushAsync();
+        CompletableFuture<Integer> update = em.createQuery(
+            "update Person p set p.forename = 'Async' where p.surname = 'Async'")
+            .executeUpdateAsync();
+        CompletableFuture<List<Person>> list = em.createQuery(
+            "select p from Person p where p.forename = 'Async'", Person.class)
+            .getResultListAsync();
+
+        assertEquals(1, list.get().size());
+        assertTrue(flush.isDone());
+        assertEquals(1, update.get().intValue());
+        em.getTransaction().rollback();
+        em.close();
+    }
+
+    public void testFailureCompletesFuture() throws Exception {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        CompletableFuture<?> list = em.createQuery(
+            "update Person p set p.forename = 'Async'").getResultListAsync();
+        try {
+            list.get();
+            fail("Expected failure of update query executed as select");
+        } catch (ExecutionException e) {
+            assertNotNull(e.getCause());
+        }
+        // later operations still run
+        assertEquals("Surname1", em.findAsync(Person.class, 1).get().getSurname());
+        em.close();
+    }
+
+    public void testQueryTimeoutFailsQueuedQuery() throws Exception {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        OpenJPAQuery<Person> q = em.createQuery("select p from Person p",
+            Person.class);
+        q.setHint("javax.persistence.query.timeout", 100);
+
+        CountDownLatch release = occupyThreads();
+        try {
+            q.getResultListAsync().get();
+            fail("Expected query timeout");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof QueryTimeoutException);
+        } finally {
+            release.countDown();
+        }
+        assertEquals(PERSONS, em.createQuery("select p from Person p",
+            Person.class).getResultListAsync().get().size());
+        em.close();
+    }
+
+    public void testCancelQueuedOperation() throws Exception {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        CountDownLatch release = occupyThreads();
+        CompletableFuture<Person> cancelled = em.findAsync(Person.class, 1);
+        CompletableFuture<Person> found = em.findAsync(Person.class, 2);
+        assertTrue(cancelled.cancel(true));
+        release.countDown();
+
+        assertEquals("Surname2", found.get().getSurname());
+        assertTrue(cancelled.isCancelled());
+        em.close();
+    }
+
+    /**
+     * Many entity managers reading concurrently are served by the limited
+     * platform threads of the executor. The time taken is logged next to the
+     * time of the same reads run one after the other by the calling thread,
+     * but not asserted, as it depends on the machine.
+     */
+    public void testThroughputWithLimitedThreads() throws Exception {
+        int ems = 50;
+        int reads = 20;
+        List<OpenJPAEntityManager> managers = new ArrayList<>();
+        List<CompletableFuture<Person>> finds = new ArrayList<>();
+        List<CompletableFuture<List<Person>>> queries = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ems; i++) {
+            OpenJPAEntityManager em = emf.createEntityManager();
+            for (int j = 0; j < reads; j++)
+                assertNotNull(em.find(Person.class, (i * reads + j) % PERSONS));
+            assertEquals(10, em.createQuery("select p from Person p where p.id < 10",
+                Person.class).getResultList().size());
+            em.close();
+        }
+        long syncMillis = Math.max(1, (System.nanoTime() - start) / 1000000);
+
+        start = System.nanoTime();
+        for (int i = 0; i < ems; i++) {
+            OpenJPAEntityManager em = emf.createEntityManager();
+            managers.add(em);
+            for (int j = 0; j < reads; j++)
+                finds.add(em.findAsync(Person.class, (i * reads + j) % PERSONS));
+            queries.add(em.createQuery("select p from Person p where p.id < 10",
+                Person.class).getResultListAsync());
+        }
+        for (int i = 0; i < finds.size(); i++)
+            assertEquals("Surname" + (i % PERSONS), finds.get(i).get().getSurname());
+        for (CompletableFuture<List<Person>> query : queries)
+            assertEquals(10, query.get().size());
+        long millis = Math.max(1, (System.nanoTime() - start) / 1000000);
+
+        assertTrue(countAsyncThreads() <= MAX_THREADS);
+        int ops = finds.size() + queries.size();
+        getLog().info(ops + " asynchronous operations of " + ems
+            + " entity managers on " + MAX_THREADS + " threads in " + millis
+            + " ms: " + (ops * 1000L / millis) + " operations per second, "
+            + (ops * 1000L / syncMillis) + " run synchronously");
+        for (OpenJPAEntityManager em : managers)
+            em.close();
+    }
+
+    /**
+     * Keep all threads of the executor busy until the returned latch is
+     * released.
+     */
+    private CountDownLatch occupyThreads() throws InterruptedException {
+        Executor executor = emf.getConfiguration().getAsyncExecutorInstance();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(MAX_THREADS);
+        for (int i = 0; i < MAX_THREADS; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+        started.await();
+        return release;
+    }
+
+    private static int countAsyncThreads() {
+        int count = 0;
+        for (Thread t : Thread.getAllStackTraces().keySet())
+            if (t.getName().matches("OpenJPA Async \\d+"))
+                count++;
+        return count;
+    }
+}
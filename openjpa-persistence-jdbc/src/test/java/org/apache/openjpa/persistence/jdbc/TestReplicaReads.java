@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.jdbc;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+
+import org.apache.openjpa.jdbc.conf.JDBCConfiguration;
+import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
+import org.apache.openjpa.persistence.OpenJPAQuery;
+import org.apache.openjpa.persistence.simple.AllFieldTypes;
+import org.apache.openjpa.persistence.test.SingleEMFTestCase;
+
+/**
+ * Tests that reads outside of transactions, and queries marked read-only,
+ * use the replica data source, and that transactions use the primary one.
+ * <br>
+ * The replica data source counts the connections it gives and connects to the
+ * same database as the primary one.
+ */
+public class TestReplicaReads extends SingleEMFTestCase {
+    private static final String QUERY = "select e from AllFieldTypes e";
+    private CountingDataSource replica;
+    private OpenJPAEntityManagerFactorySPI replicaEmf;
+
+    @Override
+    public void setUp() {
+        setUp(AllFieldTypes.class, CLEAR_TABLES);
+        replica = new CountingDataSource(((JDBCConfiguration) emf
+            .getConfiguration()).getDataSource2(null));
+        replicaEmf = createEMF(AllFieldTypes.class,
+            "openjpa.jdbc.ReplicaConnectionFactory", replica,
+            "openjpa.jdbc.ReplicaLag", "0");
+
+        EntityManager em = replicaEmf.createEntityManager();
+        em.getTransaction().begin();
+        AllFieldTypes pc = new AllFieldTypes();
+        pc.setStringField("replica");
+        em.persist(pc);
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        closeEMF(replicaEmf);
+        super.tearDown();
+    }
+
+    public void testNontransactionalReadUsesReplica() {
+        EntityManager em = replicaEmf.createEntityManager();
+        int count = replica.getCount();
+        assertEquals(1, em.createQuery(QUERY).getResultList().size());
+        assertTrue(replica.getCount() > count);
+        em.close();
+    }
+
+    public void testTransactionalReadUsesPrimary() {
+        EntityManager em = replicaEmf.createEntityManager();
+        em.getTransaction().begin();
+        int count = replica.getCount();
+        assertEquals(1, em.createQuery(QUERY).getResultList().size());
+        assertEquals(count, replica.getCount());
+        em.getTransaction().rollback();
+        em.close();
+    }
+
+    public void testReadOnlyQueryInTransactionUsesReplica() {
+        EntityManager em = replicaEmf.createEntityManager();
+        em.getTransaction().begin();
+        int count = replica.getCount();
+        assertEquals(1, em.createQuery(QUERY)
+            .setHint(OpenJPAQuery.HINT_READ_ONLY, true)
+            .getResultList().size());
+        assertTrue(replica.getCount() > count);
+        em.getTransaction().rollback();
+        em.close();
+    }
+
+    public void testReadAfterCommitUsesPrimaryWithinLag() {
+        ((JDBCConfiguration) replicaEmf.getConfiguration())
+            .setReplicaLag(60 * 1000);
+        EntityManager em = replicaEmf.createEntityManager();
+        em.getTransaction().begin();
+        AllFieldTypes pc = new AllFieldTypes();
+        pc.setStringField("primary");
+        em.persist(pc);
+        em.getTransaction().commit();
+
+        int count = replica.getCount();
+        assertEquals(2, em.createQuery(QUERY).getResultList().size());
+        assertEquals(count, replica.getCount());
+        em.close();
+
+        em = replicaEmf.createEntityManager();
+        assertEquals(2, em.createQuery(QUERY).getResultList().size());
+        assertTrue(replica.getCount() > count);
+        em.close();
+    }
+
+    /**
+     * A data source that counts the connections of another.
+     */
+    public static class CountingDataSource implements DataSource {
+        private final DataSource _ds;
+        private int _count;
+
+        public CountingDataSource(DataSource ds) {
+            _ds = ds;
+        }
+
+        public synchronized int getCount() {
+            return _count;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            synchronized (this) {
+                _count++;
+            }
+            return _ds.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String user, String pass)
+            throws SQLException {
+            synchronized (this) {
+                _count++;
+            }
+            return _ds.getConnection(user, pass);
+        }
+
+        @Override
+        public PrintWriter getLogWriter() throws SQLException {
+            return _ds.getLogWriter();
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) throws SQLException {
+            _ds.setLogWriter(out);
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) throws SQLException {
+            _ds.setLoginTimeout(seconds);
+        }
+
+        @Override
+        public int getLoginTimeout() throws SQLException {
+            return _ds.getLoginTimeout();
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            throw new SQLException();
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return false;
+        }
+    }
+}
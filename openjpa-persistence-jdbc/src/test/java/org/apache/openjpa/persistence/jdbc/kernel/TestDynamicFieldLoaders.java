@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.jdbc.kernel;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.jdbc.conf.JDBCConfiguration;
+import org.apache.openjpa.jdbc.kernel.FieldLoader;
+import org.apache.openjpa.jdbc.meta.ClassMapping;
+import org.apache.openjpa.jdbc.meta.FieldMapping;
+import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
+import org.apache.openjpa.persistence.simple.AllFieldTypes;
+import org.apache.openjpa.persistence.test.SingleEMFTestCase;
+
+/**
+ * Tests that the generated field loaders load the same state as the
+ * strategies of the fields.
+ */
+public class TestDynamicFieldLoaders extends SingleEMFTestCase {
+    private static final String QUERY =
+        "select e from AllFieldTypes e order by e.intField";
+    private OpenJPAEntityManagerFactorySPI loaderEmf;
+
+    @Override
+    public void setUp() {
+        setUp(AllFieldTypes.class, CLEAR_TABLES);
+        loaderEmf = createEMF(AllFieldTypes.class,
+            "openjpa.jdbc.DynamicFieldLoaders", "true");
+
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        AllFieldTypes first = new AllFieldTypes();
+        first.setIntField(1);
+        first.setLongField(Long.MAX_VALUE);
+        first.setBooleanField(true);
+        first.setDoubleField(2.5);
+        first.setCharField('x');
+        first.setStringField("first");
+        first.setDateField(new Date(1000000L));
+        first.setWIntegerField(7);
+        AllFieldTypes second = new AllFieldTypes();
+        second.setIntField(2);
+        second.setSelfOneOne(first);
+        em.persist(first);
+        em.persist(second);
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        closeEMF(loaderEmf);
+        super.tearDown();
+    }
+
+    public void testLoaderHandlesPrimitiveAndStringFields() {
+        ClassMapping mapping = ((JDBCConfiguration) loaderEmf.getConfiguration())
+            .getMappingRepositoryInstance().getMapping(AllFieldTypes.class, null, true);
+        FieldLoader loader = mapping.getFieldLoader();
+        assertNotNull(loader);
+        assertTrue(loader.handles(position(mapping, "intField")));
+        assertTrue(loader.handles(position(mapping, "stringField")));
+        assertFalse(loader.handles(position(mapping, "wIntegerField")));
+        assertFalse(loader.handles(position(mapping, "dateField")));
+        assertFalse(loader.handles(position(mapping, "selfOneOne")));
+    }
+
+    public void testQueryLoadsSameStateAsStrategies() {
+        EntityManager em = emf.createEntityManager();
+        List<AllFieldTypes> expected = em.createQuery(QUERY, AllFieldTypes.class).getResultList();
+        EntityManager lem = loaderEmf.createEntityManager();
+        List<AllFieldTypes> actual = lem.createQuery(QUERY, AllFieldTypes.class).getResultList();
+
+        assertEquals(2, actual.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertSameState(expected.get(i), actual.get(i));
+        // loaded through the join of the eager relation
+        assertSameState(expected.get(1).getSelfOneOne(), actual.get(1).getSelfOneOne());
+        assertEquals("first", actual.get(0).getStringField());
+        assertNull(actual.get(1).getStringField());
+        em.close();
+        lem.close();
+    }
+
+    public void testRefreshLoadsSameState() {
+        EntityManager lem = loaderEmf.createEntityManager();
+        lem.getTransaction().begin();
+        AllFieldTypes pc = lem.createQuery(QUERY, AllFieldTypes.class).getResultList().get(0);
+        pc.setIntField(3);
+        pc.setStringField("changed");
+        lem.refresh(pc);
+        assertEquals(1, pc.getIntField());
+        assertEquals("first", pc.getStringField());
+        lem.getTransaction().rollback();
+        lem.close();
+    }
+
+    private static int position(ClassMapping mapping, String name) {
+        FieldMapping[] fms = mapping.getDefinedFieldMappings();
+        for (int i = 0; i < fms.length; i++)
+            if (fms[i].getName().equals(name))
+                return i;
+        fail(name);
+        return -1;
+    }
+
+    private static void assertSameState(AllFieldTypes expected, AllFieldTypes actual) {
+        assertEquals(expected.getIntField(), actual.getIntField());
+        assertEquals(expected.getLongField(), actual.getLongField());
+        assertEquals(expected.getBooleanField(), actual.getBooleanField());
+        assertEquals(expected.getDoubleField(), actual.getDoubleField());
+        assertEquals(expected.getCharField(), actual.getCharField());
+        assertEquals(expected.getStringField(), actual.getStringField());
+        assertEquals(expected.getDateField(), actual.getDateField());
+        assertEquals(expected.getWIntegerField(), actual.getWIntegerField());
+    }
+}
@@ -73,6 +73,20 @@ public class TestDefaultQueryStatistics extends SingleEMFTestCase {
         assertEquals(1000, statistics.keys().size());
     }
 
+    public void testCoalescedCount() {
+        QueryStatistics.Default<String> stats = new QueryStatistics.Default<>();
+        stats.recordExecution("q");
+        stats.recordCoalesced("q");
+        stats.recordCoalesced("q");
+        assertEquals(2, stats.getCoalescedCount());
+        assertEquals(2, stats.getTotalCoalescedCount());
+
+        stats.reset();
+        assertEquals(0, stats.getCoalescedCount());
+        assertEquals(2, stats.getTotalCoalescedCount());
+        assertEquals(0, new QueryStatistics.None<String>().getTotalCoalescedCount());
+    }
+
     public void testQueryStatisticsIsDisabledByDefault() {
         PreparedQueryCache cache = emf.getConfiguration().getQuerySQLCacheInstance();
         assertNotNull(cache);
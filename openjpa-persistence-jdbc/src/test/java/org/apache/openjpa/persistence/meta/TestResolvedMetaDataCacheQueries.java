@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.meta;
+
+import java.io.File;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
+import org.apache.openjpa.persistence.common.apps.Address;
+import org.apache.openjpa.persistence.common.apps.CompUser;
+import org.apache.openjpa.persistence.common.apps.FemaleUser;
+import org.apache.openjpa.persistence.common.apps.MaleUser;
+import org.apache.openjpa.persistence.test.AbstractPersistenceTestCase;
+
+/**
+ * Tests that queries by entity name and over a type hierarchy run against
+ * metadata installed from the resolved metadata cache.
+ */
+public class TestResolvedMetaDataCacheQueries
+    extends AbstractPersistenceTestCase {
+
+    private File _dir;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        _dir = File.createTempFile("resolvedcache", "");
+        _dir.delete();
+        _dir.mkdirs();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        File[] files = _dir.listFiles();
+        if (files != null)
+            for (File file : files)
+                file.delete();
+        _dir.delete();
+        super.tearDown();
+    }
+
+    /**
+     * Both factories must be configured alike for the second to read the
+     * cache the first writes, so tables are not cleared by configuration.
+     */
+    private OpenJPAEntityManagerFactorySPI createCachingEMF() {
+        return createEMF(CompUser.class, FemaleUser.class, MaleUser.class,
+            Address.class,
+            "openjpa.jdbc.SynchronizeMappings", "buildSchema(ForeignKeys=true)",
+            "openjpa.MetaDataRepository", "Preload=true",
+            "openjpa.MetaDataFactory",
+            "ScanCache=" + new File(_dir, "scan.cache").getPath());
+    }
+
+    public void testQueriesAgainstWarmCache() {
+        OpenJPAEntityManagerFactorySPI emf = createCachingEMF();
+        File resolved = new File(_dir, "scan.cache.resolved");
+        try {
+            EntityManager em = emf.createEntityManager();
+            em.getTransaction().begin();
+            em.createQuery("delete from CompUser u").executeUpdate();
+            em.persist(new FemaleUser("f", "pc1", null, 30, 1));
+            em.persist(new MaleUser("m", "pc2", null, 40, 2));
+            em.getTransaction().commit();
+            em.close();
+        } finally {
+            closeEMF(emf);
+        }
+        assertTrue(resolved.isFile());
+
+        // a warm start reads the cache and does not write it again
+        assertTrue(resolved.setLastModified(1000L));
+        emf = createCachingEMF();
+        try {
+            assertEquals(1000L, resolved.lastModified());
+            EntityManager em = emf.createEntityManager();
+            List<?> females = em.createQuery("select u from FemUser u")
+                .getResultList();
+            assertEquals(1, females.size());
+            assertTrue(females.get(0) instanceof FemaleUser);
+
+            List<?> users = em.createQuery("select u from CompUser u")
+                .getResultList();
+            assertEquals(2, users.size());
+            em.close();
+        } finally {
+            closeEMF(emf);
+        }
+    }
+}
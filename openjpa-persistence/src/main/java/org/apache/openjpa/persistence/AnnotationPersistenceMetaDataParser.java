@@ -892,16 +892,27 @@ public class AnnotationPersistenceMetaDataParser
      *
      */
     private void parseDataCache(ClassMetaData meta, DataCache cache) {
-        parseDataCache(meta, cache.enabled(), cache.name(), cache.timeout());
+        parseDataCache(meta, cache.enabled(), cache.name(), cache.timeout(), cache.refreshTimeout());
     }
 
     static void parseDataCache(ClassMetaData meta,
             boolean enabled,
             String name,
             int timeout) {
+        parseDataCache(meta, enabled, name, timeout, Integer.MIN_VALUE);
+    }
+
+    static void parseDataCache(ClassMetaData meta,
+            boolean enabled,
+            String name,
+            int timeout,
+            int refreshTimeout) {
         if (timeout != Integer.MIN_VALUE) {
             meta.setDataCacheTimeout(timeout);
         }
+        if (refreshTimeout != Integer.MIN_VALUE) {
+            meta.setDataCacheRefreshTimeout(refreshTimeout);
+        }
         String cacheName = name;
         if (StringUtil.isEmpty(cacheName)) {
             cacheName = org.apache.openjpa.datacache.DataCache.NAME_DEFAULT;
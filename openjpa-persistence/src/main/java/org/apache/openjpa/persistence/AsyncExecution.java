@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import javax.persistence.QueryTimeoutException;
+
+import org.apache.openjpa.kernel.AsyncExecutor;
+import org.apache.openjpa.kernel.Broker;
+import org.apache.openjpa.lib.util.Localizer;
+
+/**
+ * Runs the asynchronous operations of an entity manager on an executor.
+ * <br>
+ * A persistence context is not thread-safe, so the operations of an entity
+ * manager run one after the other, in the order they were requested: an
+ * operation is handed to the executor only once the previous one completed.
+ * The context is made multithreaded when the first operation is submitted,
+ * so that each operation runs holding the lock of the context and keeps out
+ * the calls of other threads, including the thread that submitted it. The
+ * context stays multithreaded once the queue drains: the submitting thread
+ * may hold the lock of the context at that point, and switching the lock off
+ * under it would leave the lock held.
+ * <br>
+ * An operation with a query timeout fails with a
+ * {@link QueryTimeoutException} once the timeout elapses, whether it still
+ * waits for its turn or runs; a running operation also has the statements
+ * of the context cancelled. Cancelling the future of a running operation
+ * cancels the statements of the context as well. The timeouts are scheduled
+ * by the executor if it is an {@link AsyncExecutor} or a
+ * {@link ScheduledExecutorService}; with another executor, only the query
+ * timeout of the statements applies.
+ *
+ * @since 3.0.1
+ */
+class AsyncExecution {
+    private static final Localizer _loc = Localizer.forPackage(AsyncExecution.class);
+    private final Broker _broker;
+    private final Executor _executor;
+    private final Queue<Operation<?>> _queue = new ArrayDeque<>();
+    private boolean _busy;
+
+    AsyncExecution(Broker broker, Executor executor) {
+        _broker = broker;
+        _executor = executor;
+        if (!broker.getMultithreaded())
+            broker.setMultithreaded(true);
+    }
+
+    /**
+     * Run the given operation after the operations submitted before it.
+     *
+     * @param timeout the time in milliseconds after which the operation fails,
+     * or 0 or less for none
+     */
+    <T> CompletableFuture<T> submit(Callable<T> op, int timeout) {
+        Operation<T> future = new Operation<>(op);
+        if (timeout > 0)
+            future.timeout(timeout);
+        synchronized (this) {
+            _queue.add(future);
+            if (!_busy) {
+                _busy = true;
+                next();
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Hand the next queued operation to the executor. Called holding the lock
+     * of this instance.
+     */
+    private void next() {
+        final Operation<?> op = _queue.poll();
+        if (op == null) {
+            _busy = false;
+            return;
+        }
+        try {
+            _executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        op.run();
+                    } finally {
+                        synchronized (AsyncExecution.this) {
+                            next();
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            op.completeExceptionally(ree);
+            for (Operation<?> queued : _queue)
+                queued.completeExceptionally(ree);
+            _queue.clear();
+            _busy = false;
+        }
+    }
+
+    /**
+     * Schedule the given command on the executor, or return null if the
+     * executor cannot schedule commands.
+     */
+    private ScheduledFuture<?> schedule(Runnable command, long millis) {
+        if (_executor instanceof AsyncExecutor)
+            return ((AsyncExecutor) _executor).schedule(command, millis);
+        if (_executor instanceof ScheduledExecutorService)
+            return ((ScheduledExecutorService) _executor).schedule(command, millis, TimeUnit.MILLISECONDS);
+        return null;
+    }
+
+    /**
+     * The future of an operation.
+     */
+    private class Operation<T> extends CompletableFuture<T> implements Runnable {
+        private final Callable<T> _op;
+        private volatile boolean _running;
+
+        Operation(Callable<T> op) {
+            _op = op;
+        }
+
+        @Override
+        public void run() {
+            // cancelled or timed out while waiting for its turn
+            if (isDone())
+                return;
+            // complete outside of the lock, as completing runs the dependent
+            // stages of the future
+            T result = null;
+            Throwable failure = null;
+            _broker.lock();
+            try {
+                _running = true;
+                result = _op.call();
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                _running = false;
+                _broker.unlock();
+            }
+            if (failure == null)
+                complete(result);
+            else
+                completeExceptionally(failure);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled && _running)
+                _broker.cancelAll();
+            return cancelled;
+        }
+
+        /**
+         * Fail this operation if it has not completed after the given number
+         * of milliseconds.
+         */
+        void timeout(final int millis) {
+            final ScheduledFuture<?> timer;
+            try {
+                timer = schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (completeExceptionally(new QueryTimeoutException(_loc.get("async-timeout",
+                            millis).getMessage())) && _running)
+                            _broker.cancelAll();
+                    }
+                }, millis);
+            } catch (RejectedExecutionException ree) {
+                completeExceptionally(ree);
+                return;
+            }
+            if (timer == null)
+                return;
+            whenComplete(new BiConsumer<T, Throwable>() {
+                @Override
+                public void accept(T result, Throwable t) {
+                    timer.cancel(false);
+                }
+            });
+        }
+    }
+}
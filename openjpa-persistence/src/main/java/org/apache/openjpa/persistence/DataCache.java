@@ -40,4 +40,13 @@ public @interface DataCache {
     String name() default "";
 
     int timeout() default Integer.MIN_VALUE;
+
+    /**
+     * Number of milliseconds after which cached data is reloaded in the
+     * background while the cached copy keeps being served. Must be less
+     * than the {@link #timeout}, after which reads block on the database.
+     *
+     * @since 3.0.1
+     */
+    int refreshTimeout() default Integer.MIN_VALUE;
 }
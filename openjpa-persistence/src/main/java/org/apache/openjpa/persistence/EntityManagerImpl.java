@@ -39,6 +39,8 @@ import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 import javax.persistence.CacheRetrieveMode;
 import javax.persistence.CacheStoreMode;
@@ -122,6 +124,7 @@ public class EntityManagerImpl
     protected RuntimeExceptionTranslator _ret = PersistenceExceptions.getRollbackTranslator(this);
     private boolean _convertPositionalParams = false;
     private boolean _isJoinedToTransaction;
+    private AsyncExecution _async;
 
     public EntityManagerImpl() {
         // for Externalizable
@@ -775,6 +778,42 @@ public class EntityManagerImpl
         _broker.flush();
     }
 
+    @Override
+    public <T> CompletableFuture<T> findAsync(final Class<T> cls, final Object oid) {
+        assertNotCloseInvoked();
+        return getAsyncExecution().submit(new Callable<T>() {
+            @Override
+            public T call() {
+                return find(cls, oid);
+            }
+        }, _broker.getFetchConfiguration().getQueryTimeout());
+    }
+
+    @Override
+    public CompletableFuture<Void> flushAsync() {
+        assertNotCloseInvoked();
+        _broker.assertOpen();
+        _broker.assertActiveTransaction();
+        return getAsyncExecution().submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                _broker.flush();
+                return null;
+            }
+        }, 0);
+    }
+
+    /**
+     * Return the execution of the asynchronous operations of this entity
+     * manager, which runs them one after the other on the executor of the
+     * configuration.
+     */
+    synchronized AsyncExecution getAsyncExecution() {
+        if (_async == null)
+            _async = new AsyncExecution(_broker, getConfiguration().getAsyncExecutorInstance());
+        return _async;
+    }
+
     @Override
     public void preFlush() {
         assertNotCloseInvoked();
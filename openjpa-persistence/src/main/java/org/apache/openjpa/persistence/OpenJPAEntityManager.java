@@ -21,6 +21,7 @@ package org.apache.openjpa.persistence;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityTransaction;
@@ -768,6 +769,41 @@ public interface OpenJPAEntityManager
      */
     void lockAll(Object... pcs);
 
+    /////////////////////////////
+    // Asynchronous operations
+    /////////////////////////////
+
+    /**
+     * Find the persistent instance with the given oid on the asynchronous
+     * executor of the configuration, as {@link #find(Class, Object)} does.
+     * <br>
+     * The asynchronous operations of an entity manager run one after the
+     * other, in the order they were requested, each holding the lock of the
+     * entity manager. The entity manager becomes multithreaded when it first
+     * runs an asynchronous operation, so that its other calls wait for a
+     * running operation to complete. It stays multithreaded until it is
+     * closed, so all its later calls take its lock, even once no asynchronous
+     * operation is pending. Operations do not join a JTA transaction of the
+     * calling thread.
+     * <br>
+     * If a query timeout is set on the {@link FetchPlan}, the future fails
+     * with a {@link javax.persistence.QueryTimeoutException} once the timeout
+     * elapses, and the pending statements are cancelled.
+     *
+     * @see org.apache.openjpa.conf.OpenJPAConfiguration#getAsyncExecutorInstance()
+     * @since 3.0.1
+     */
+    <T> CompletableFuture<T> findAsync(Class<T> cls, Object oid);
+
+    /**
+     * Flush the changes of the current transaction on the asynchronous
+     * executor of the configuration, as {@link #flush()} does.
+     *
+     * @see #findAsync(Class, Object)
+     * @since 3.0.1
+     */
+    CompletableFuture<Void> flushAsync();
+
     //////////////
     // Connection
     //////////////
@@ -18,7 +18,6 @@
  */
 package org.apache.openjpa.persistence;
 
-import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
@@ -28,6 +27,7 @@ import javax.persistence.spi.LoadState;
 import org.apache.openjpa.enhance.PersistenceCapable;
 import org.apache.openjpa.enhance.StateManager;
 import org.apache.openjpa.kernel.Broker;
+import org.apache.openjpa.kernel.FieldBits;
 import org.apache.openjpa.kernel.OpenJPAStateManager;
 import org.apache.openjpa.kernel.StateManagerImpl;
 import org.apache.openjpa.meta.FieldMetaData;
@@ -140,7 +140,7 @@ public class OpenJPAPersistenceUtil {
         HashSet<OpenJPAStateManager> pcs) {
         boolean isLoaded = true;
         try {
-            BitSet loadSet = sm.getLoaded();
+            FieldBits loadSet = sm.getLoadedBits();
             if (attr != null) {
                 FieldMetaData fmd = sm.getMetaData().getField(attr);
                 // Could not find field metadata for the specified attribute.
@@ -194,10 +194,8 @@ public class OpenJPAPersistenceUtil {
 
     private static boolean isLoadedField(OpenJPAStateManager sm,
         FieldMetaData fmd, HashSet<OpenJPAStateManager> pcs) {
-        BitSet loadSet = sm.getLoaded();
-
         // Simple load state check for the field
-        if (!loadSet.get(fmd.getIndex()))
+        if (!sm.isLoaded(fmd.getIndex()))
             return false;
 
         Object field = sm.fetchField(fmd.getIndex(), false);
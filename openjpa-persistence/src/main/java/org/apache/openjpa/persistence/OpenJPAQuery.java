@@ -21,8 +21,10 @@ package org.apache.openjpa.persistence;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import javax.persistence.FlushModeType;
 import javax.persistence.Query;
@@ -48,6 +50,14 @@ public interface OpenJPAQuery<X> extends TypedQuery<X> {
      */
     String HINT_RESULT_COUNT = QueryHints.HINT_RESULT_COUNT;
 
+    /**
+     * Hint key for marking a query as read-only, so that it may read from a
+     * replica of the database.
+     *
+     * @since 3.0.1
+     */
+    String HINT_READ_ONLY = QueryHints.HINT_READ_ONLY;
+
     /**
      * The owning entity manager.
      */
@@ -171,6 +181,35 @@ public interface OpenJPAQuery<X> extends TypedQuery<X> {
      */
     String[] getDataStoreActions(Map params);
 
+    /**
+     * Execute this query on the asynchronous executor of the configuration.
+     * The asynchronous operations of an entity manager run one after the
+     * other, in the order they were requested. The entity manager becomes
+     * multithreaded when it first runs an asynchronous operation and stays
+     * multithreaded until it is closed, so all its later calls take its
+     * lock. The query must not be modified until the returned future
+     * completes.
+     * <br>
+     * If a query timeout is set, the future fails with a
+     * {@link javax.persistence.QueryTimeoutException} once the timeout
+     * elapses, and the statements of the entity manager are cancelled.
+     * Cancelling the future of a running query cancels its statements.
+     *
+     * @see #getResultList()
+     * @see org.apache.openjpa.conf.OpenJPAConfiguration#getAsyncExecutorInstance()
+     * @since 3.0.1
+     */
+    CompletableFuture<List<X>> getResultListAsync();
+
+    /**
+     * Execute this update or delete query on the asynchronous executor of
+     * the configuration, as {@link #getResultListAsync()} does.
+     *
+     * @see #executeUpdate()
+     * @since 3.0.1
+     */
+    CompletableFuture<Integer> executeUpdateAsync();
+
     @Override OpenJPAQuery<X> setMaxResults(int maxResult);
 
     @Override OpenJPAQuery<X> setFirstResult(int startPosition);
@@ -18,6 +18,7 @@
  */
 package org.apache.openjpa.persistence;
 
+import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
 
@@ -36,7 +37,9 @@ import org.apache.openjpa.util.CallbackException;
 class PersistenceListenerAdapter
     implements LifecycleEventManager.ListenerAdapter, PersistListener,
     PostPersistListener, LoadListener, UpdateListener, DeleteListener,
-    PostDeleteListener {
+    PostDeleteListener, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private static final Localizer _loc = Localizer.forPackage
         (PersistenceListenerAdapter.class);
@@ -143,6 +143,7 @@ public class PersistenceProductDerivation
         _hints.add(QueryHints.HINT_INVALIDATE_FINDER);
         _hints.add(QueryHints.HINT_INVALIDATE_PREPARED_QUERY);
         _hints.add(QueryHints.HINT_PARAM_MARKER_IN_QUERY);
+        _hints.add(QueryHints.HINT_READ_ONLY);
         _hints.add(QueryHints.HINT_RECACHE_FINDER);
         _hints.add(QueryHints.HINT_RESULT_COUNT);
         _hints.add(QueryHints.HINT_SUBCLASSES);
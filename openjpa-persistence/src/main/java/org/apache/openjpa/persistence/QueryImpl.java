@@ -26,6 +26,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.locks.ReentrantLock;
 
 import javax.persistence.FlushModeType;
@@ -398,6 +400,28 @@ public class QueryImpl<X> extends AbstractQuery<X> implements Serializable {
         throw new InvalidStateException(_loc.get("not-update-delete-query", getQueryString()), null, null, false);
 	}
 
+	@Override
+    public CompletableFuture<List<X>> getResultListAsync() {
+		_em.assertNotCloseInvoked();
+		return _em.getAsyncExecution().submit(new Callable<List<X>>() {
+			@Override
+			public List<X> call() {
+				return getResultList();
+			}
+		}, _query.getFetchConfiguration().getQueryTimeout());
+	}
+
+	@Override
+    public CompletableFuture<Integer> executeUpdateAsync() {
+		_em.assertNotCloseInvoked();
+		return _em.getAsyncExecution().submit(new Callable<Integer>() {
+			@Override
+			public Integer call() {
+				return executeUpdate();
+			}
+		}, _query.getFetchConfiguration().getQueryTimeout());
+	}
+
 	/**
 	 * Cast the specified long down to an int, first checking for overflow.
 	 */
@@ -2485,11 +2485,15 @@ public class XMLPersistenceMetaDataParser
         int timeout = (Integer) (StringUtil.isEmpty(timeoutStr) ? Integer.MIN_VALUE :
             Integer.parseInt(timeoutStr));
 
+        String refreshStr = attrs.getValue("refresh-timeout");
+        int refreshTimeout = StringUtil.isEmpty(refreshStr) ? Integer.MIN_VALUE :
+            Integer.parseInt(refreshStr);
+
         String name = attrs.getValue("name");
         name = StringUtil.isEmpty(name) ? "" : name;
 
         AnnotationPersistenceMetaDataParser.parseDataCache(getRepository().getCachedMetaData(_cls),
-            enabled, name, timeout);
+            enabled, name, timeout, refreshTimeout);
 
         return true;
     }
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.slice;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.openjpa.util.OpenJPAId;
+
+/**
+ * A ring of slices for consistent hashing.
+ * <br>
+ * Each slice is placed on the ring at a number of points, its
+ * <em>virtual nodes</em>, derived from the slice name. A key belongs to the
+ * first slice at or after the hash of the key on the ring. Adding or removing
+ * a slice only moves the keys between that slice and its neighbours on the
+ * ring, about 1/n of all keys for n slices, rather than nearly all of them.
+ * <br>
+ * The hash of a key only depends on its value, so that every process
+ * computes the same slice for the same key.
+ *
+ * @since 3.0.1
+ */
+public class ConsistentHash {
+    private final List<String> _slices;
+    private final TreeMap<Long, String> _ring = new TreeMap<>();
+
+    /**
+     * Create a ring of the given slices.
+     *
+     * @param slices names of the slices
+     * @param virtualNodes number of points of each slice on the ring
+     */
+    public ConsistentHash(List<String> slices, int virtualNodes) {
+        _slices = new ArrayList<>(slices);
+        for (String slice : slices) {
+            for (int i = 0; i < virtualNodes; i++)
+                _ring.put(hash(slice + "#" + i), slice);
+        }
+    }
+
+    /**
+     * Gets the names of the slices on this ring.
+     */
+    public List<String> getSlices() {
+        return _slices;
+    }
+
+    /**
+     * Gets the slice the given key belongs to, or null if the ring is empty.
+     */
+    public String getSlice(Object key) {
+        if (_ring.isEmpty())
+            return null;
+        SortedMap<Long, String> tail = _ring.tailMap(hashKey(key));
+        return tail.isEmpty() ? _ring.firstEntry().getValue()
+            : tail.get(tail.firstKey());
+    }
+
+    /**
+     * Hash the given key. Identity objects are hashed by their key values, so
+     * that an instance and its object id hash alike. Compound keys are hashed
+     * by the values of their fields in the order of the field names.
+     */
+    public static long hashKey(Object key) {
+        if (key instanceof OpenJPAId)
+            return hashKey(((OpenJPAId) key).getIdObject());
+        if (key == null || key instanceof CharSequence
+            || key instanceof Number || key instanceof Character
+            || key instanceof Boolean)
+            return hash(String.valueOf(key));
+        if (key instanceof Enum)
+            return hash(((Enum<?>) key).name());
+        if (key instanceof Date)
+            return hash(String.valueOf(((Date) key).getTime()));
+        if (key instanceof Object[])
+            return hashAll(Arrays.asList((Object[]) key));
+        if (key instanceof byte[])
+            return hash(Arrays.toString((byte[]) key));
+        if (key instanceof char[])
+            return hash(new String((char[]) key));
+        if (key instanceof Map || key.getClass().getName().startsWith("java."))
+            return hash(String.valueOf(key));
+
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = key.getClass(); c != Object.class; c = c.getSuperclass()) {
+            for (Field f : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(f.getModifiers()) && !f.isSynthetic())
+                    fields.add(f);
+            }
+        }
+        fields.sort(new Comparator<Field>() {
+            @Override
+            public int compare(Field f1, Field f2) {
+                return f1.getName().compareTo(f2.getName());
+            }
+        });
+        List<Object> values = new ArrayList<>(fields.size());
+        try {
+            for (Field f : fields) {
+                f.setAccessible(true);
+                values.add(f.get(key));
+            }
+        } catch (Exception e) {
+            return hash(String.valueOf(key));
+        }
+        return hashAll(values);
+    }
+
+    private static long hashAll(List<?> values) {
+        long h = 1;
+        for (Object value : values)
+            h = 31 * h + hashKey(value);
+        return mix(h);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the UTF-8 bytes of the given string, with the
+     * bits mixed so that similar strings spread over the ring.
+     */
+    static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
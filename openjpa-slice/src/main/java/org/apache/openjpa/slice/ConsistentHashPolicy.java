@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.slice;
+
+import java.util.List;
+
+import org.apache.openjpa.enhance.PersistenceCapable;
+import org.apache.openjpa.kernel.OpenJPAStateManager;
+import org.apache.openjpa.kernel.StoreContext;
+import org.apache.openjpa.util.ImplHelper;
+
+/**
+ * Distributes instances to slices by consistent hashing of their primary key,
+ * and targets finders to the single slice that holds the given key.
+ * <br>
+ * Configured as the distribution policy, it also targets finders unless
+ * another finder target policy is configured:
+ * <pre>
+ * openjpa.slice.DistributionPolicy=hash
+ * </pre>
+ * The primary key of an instance must be assigned before it is flushed, so
+ * this policy suits application identity. A slice added to or removed from
+ * the active slices only changes the slice of about 1/n of the keys, which
+ * the {@link org.apache.openjpa.slice.jdbc.Rebalancer} moves.
+ *
+ * @see ConsistentHash
+ *
+ * @since 3.0.1
+ */
+public class ConsistentHashPolicy implements DistributionPolicy,
+    FinderTargetPolicy {
+
+    private int _virtualNodes = 100;
+    private volatile ConsistentHash _ring;
+
+    /**
+     * Gets the number of points of each slice on the hash ring.
+     */
+    public int getVirtualNodes() {
+        return _virtualNodes;
+    }
+
+    /**
+     * Sets the number of points of each slice on the hash ring. More points
+     * spread the keys more evenly across slices. Defaults to 100.
+     */
+    public void setVirtualNodes(int virtualNodes) {
+        _virtualNodes = Math.max(1, virtualNodes);
+        _ring = null;
+    }
+
+    /**
+     * Gets the slice of the primary key of the given instance, or null if
+     * the key is not yet assigned.
+     */
+    @Override
+    public String distribute(Object pc, List<String> slices, Object context) {
+        Object oid = getObjectId(pc, context);
+        return (oid == null) ? null : getRing(slices).getSlice(oid);
+    }
+
+    /**
+     * Gets the slice of the given primary key.
+     */
+    @Override
+    public String[] getTargets(Class<?> cls, Object oid, List<String> slices,
+        Object context) {
+        return (oid == null) ? null
+            : new String[]{ getRing(slices).getSlice(oid) };
+    }
+
+    /**
+     * Gets the ring of the given slices. The ring is rebuilt when the
+     * slices change.
+     */
+    protected ConsistentHash getRing(List<String> slices) {
+        ConsistentHash ring = _ring;
+        if (ring == null || !ring.getSlices().equals(slices)) {
+            ring = new ConsistentHash(slices, _virtualNodes);
+            _ring = ring;
+        }
+        return ring;
+    }
+
+    private static Object getObjectId(Object obj, Object context) {
+        PersistenceCapable pc = ImplHelper.toPersistenceCapable(obj, null);
+        if (pc == null)
+            return null;
+        if (context instanceof StoreContext) {
+            OpenJPAStateManager sm = ((StoreContext) context)
+                .getStateManager(obj);
+            if (sm != null)
+                return sm.getObjectId();
+        }
+        Object oid = pc.pcFetchObjectId();
+        if (oid == null) {
+            oid = pc.pcNewObjectIdInstance();
+            if (oid != null)
+                pc.pcCopyKeyFieldsToObjectId(oid);
+        }
+        return oid;
+    }
+}
@@ -38,6 +38,7 @@ import org.apache.openjpa.conf.OpenJPAConfiguration;
  * <LI> {@link ReplicationPolicy Replication Policy} maintains the same instance in multiple slices.
  * <LI> {@link QueryTargetPolicy Query Target Policy} narrows the slices for a query execution.
  * <LI> {@link FinderTargetPolicy Finder Target Policy} narrows the slices for primary key based lookup
+ * <LI> {@link ReplicaSelector Replica Selector} balances the reads of replicated types across slices.
  *
  * @author Pinaki Poddar
  *
@@ -126,6 +127,38 @@ public interface DistributedConfiguration extends OpenJPAConfiguration {
      */
     void setReplicationPolicy(String policy);
 
+    /**
+     * Gets the selector of the slice that a read of a replicated type is
+     * executed on.
+     *
+     * @since 3.0.1
+     */
+    ReplicaSelector getReplicaSelectorInstance();
+
+    /**
+     * Gets the selector, as a plugin string, of the slice that a read of a
+     * replicated type is executed on.
+     *
+     * @since 3.0.1
+     */
+    String getReplicaSelector();
+
+    /**
+     * Sets the selector of the slice that a read of a replicated type is
+     * executed on.
+     *
+     * @since 3.0.1
+     */
+    void setReplicaSelectorInstance(ReplicaSelector selector);
+
+    /**
+     * Sets the selector, from the given plugin string, of the slice that a
+     * read of a replicated type is executed on.
+     *
+     * @since 3.0.1
+     */
+    void setReplicaSelector(String selector);
+
     /**
      * Affirms if the given type is replicated.
      */
@@ -176,4 +209,84 @@ public interface DistributedConfiguration extends OpenJPAConfiguration {
      */
     void setFinderTargetPolicy(String policy);
 
+    /**
+     * Gets the maximum number of threads that execute operations against a
+     * single slice.
+     *
+     * @since 3.0.1
+     */
+    int getThreadsPerSlice();
+
+    /**
+     * Sets the maximum number of threads that execute operations against a
+     * single slice.
+     *
+     * @since 3.0.1
+     */
+    void setThreadsPerSlice(int threads);
+
+    /**
+     * Gets the time, in milliseconds, after which a query on a replicated
+     * type that has not completed on one slice is sent to another slice as
+     * well. The first result is used. A negative value disables such hedged
+     * queries.
+     *
+     * @since 3.0.1
+     */
+    int getHedgeDelay();
+
+    /**
+     * Sets the time, in milliseconds, after which a query on a replicated
+     * type that has not completed on one slice is sent to another slice as
+     * well.
+     *
+     * @since 3.0.1
+     */
+    void setHedgeDelay(int delay);
+
+    /**
+     * Gets the maximum number of statements that a slice sends to its
+     * database in a single batch when it flushes. Applies to the slices whose
+     * database dictionary does not configure batching. A negative value does
+     * not limit a batch and zero, the default, leaves the slices as
+     * configured.
+     *
+     * @since 3.0.1
+     */
+    int getBatchLimit();
+
+    /**
+     * Sets the maximum number of statements that a slice sends to its
+     * database in a single batch when it flushes.
+     *
+     * @since 3.0.1
+     */
+    void setBatchLimit(int limit);
+
+    /**
+     * Affirms if a query whose filter restricts the primary key of its
+     * candidates to a few values is only executed on the slices that the
+     * {@link FinderTargetPolicy} gives for these values. Only set this if the
+     * finder target policy gives the slices that the
+     * {@link DistributionPolicy} stores the instances in. Defaults to false.
+     *
+     * @since 3.0.1
+     */
+    boolean isQueryTargetsByKey();
+
+    /**
+     * Sets whether a query whose filter restricts the primary key of its
+     * candidates is only executed on the slices of the key values.
+     *
+     * @since 3.0.1
+     */
+    void setQueryTargetsByKey(boolean byKey);
+
+    /**
+     * Gets the bounded pool of threads that executes operations against the
+     * given slice.
+     *
+     * @since 3.0.1
+     */
+    SliceExecutor getExecutor(String sliceName);
 }
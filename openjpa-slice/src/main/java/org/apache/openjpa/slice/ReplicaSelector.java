@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.slice;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Selects the slice that a find or a query of a replicated type reads from.
+ * <br>
+ * Each read on a slice is reported to the selector when it starts and when it
+ * completes, so that a selector can balance the reads by the load of the
+ * slices. A selector is shared by all persistence contexts of a persistence
+ * unit and must be thread-safe.
+ *
+ * @see DistributedConfiguration#getReplicaSelectorInstance()
+ *
+ * @since 3.0.1
+ */
+public interface ReplicaSelector {
+    /**
+     * Gets the slice to read from.
+     *
+     * @param slices names of the active slices that hold the replicas. Never
+     * empty.
+     * @return one of the given slice names
+     */
+    String select(List<String> slices);
+
+    /**
+     * Notifies that a read on the given slice started.
+     */
+    void started(String slice);
+
+    /**
+     * Notifies that a read on the given slice completed, successfully or
+     * not, after the given number of nanoseconds.
+     */
+    void completed(String slice, long nanos);
+
+    /**
+     * Selects each slice in turn.
+     */
+    public static class RoundRobin implements ReplicaSelector {
+        private final AtomicInteger _next = new AtomicInteger();
+
+        @Override
+        public String select(List<String> slices) {
+            return slices.get(next(slices.size()));
+        }
+
+        @Override
+        public void started(String slice) {
+        }
+
+        @Override
+        public void completed(String slice, long nanos) {
+        }
+
+        /**
+         * Gets the next index in turn below the given bound.
+         */
+        protected int next(int bound) {
+            return (_next.getAndIncrement() & Integer.MAX_VALUE) % bound;
+        }
+    }
+
+    /**
+     * Selects the slice with the fewest reads in progress. Slices with as
+     * many reads in progress are selected in turn.
+     */
+    public static class LeastOutstanding extends RoundRobin {
+        private final ConcurrentMap<String, AtomicInteger> _outstanding =
+            new ConcurrentHashMap<>();
+
+        @Override
+        public String select(List<String> slices) {
+            int n = slices.size();
+            int start = next(n);
+            String selected = null;
+            double best = Double.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                String slice = slices.get((start + i) % n);
+                double cost = getCost(slice);
+                if (cost < best) {
+                    best = cost;
+                    selected = slice;
+                }
+            }
+            return selected;
+        }
+
+        @Override
+        public void started(String slice) {
+            getOutstanding(slice).incrementAndGet();
+        }
+
+        @Override
+        public void completed(String slice, long nanos) {
+            getOutstanding(slice).decrementAndGet();
+        }
+
+        /**
+         * Gets the number of reads in progress on the given slice.
+         */
+        public int getOutstandingCount(String slice) {
+            return getOutstanding(slice).get();
+        }
+
+        /**
+         * Gets the cost of reading from the given slice. The slice of least
+         * cost is selected.
+         */
+        protected double getCost(String slice) {
+            return getOutstandingCount(slice);
+        }
+
+        private AtomicInteger getOutstanding(String slice) {
+            AtomicInteger count = _outstanding.get(slice);
+            if (count == null) {
+                count = new AtomicInteger();
+                AtomicInteger existing = _outstanding.putIfAbsent(slice,
+                    count);
+                if (existing != null)
+                    count = existing;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Selects the slice with the least exponentially weighted moving average
+     * of its read latency, weighed by the reads in progress on the slice.
+     * A slice that has not completed a read yet is selected first.
+     */
+    public static class LatencyEWMA extends LeastOutstanding {
+        private final ConcurrentMap<String, AtomicLong> _latency =
+            new ConcurrentHashMap<>();
+        private double _decay = 0.3;
+
+        /**
+         * Gets the weight, between 0 and 1, of the latest read in the average.
+         */
+        public double getDecay() {
+            return _decay;
+        }
+
+        /**
+         * Sets the weight, between 0 and 1, of the latest read in the
+         * average. Defaults to 0.3.
+         */
+        public void setDecay(double decay) {
+            _decay = Math.min(1, Math.max(0, decay));
+        }
+
+        /**
+         * Gets the average read latency of the given slice, in nanoseconds,
+         * or 0 if no read has completed on the slice.
+         */
+        public double getAverageLatency(String slice) {
+            AtomicLong latency = _latency.get(slice);
+            return (latency == null) ? 0
+                : Double.longBitsToDouble(latency.get());
+        }
+
+        @Override
+        public void completed(String slice, long nanos) {
+            super.completed(slice, nanos);
+            AtomicLong latency = _latency.get(slice);
+            if (latency == null) {
+                latency = _latency.putIfAbsent(slice,
+                    new AtomicLong(Double.doubleToLongBits(nanos)));
+                if (latency == null)
+                    return;
+            }
+            while (true) {
+                long bits = latency.get();
+                double average = Double.longBitsToDouble(bits);
+                double updated = _decay * nanos + (1 - _decay) * average;
+                if (latency.compareAndSet(bits,
+                    Double.doubleToLongBits(updated)))
+                    return;
+            }
+        }
+
+        @Override
+        protected double getCost(String slice) {
+            return getAverageLatency(slice) * (getOutstandingCount(slice) + 1);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.slice;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of {@link SliceThread slice threads} that executes the
+ * operations against a single slice.
+ * <br>
+ * Each slice has its own pool so that a slow slice only delays the operations
+ * waiting for that slice. The operations beyond the number of threads wait in
+ * a queue. The pool records how long its operations take and how many wait,
+ * to monitor the slices. The operations are {@link SliceTask slice tasks},
+ * which are abandoned rather than interrupted when they are cancelled.
+ *
+ * @see DistributedConfiguration#getExecutor(String)
+ *
+ * @since 3.0.1
+ */
+public class SliceExecutor extends ThreadPoolExecutor {
+    private final String _slice;
+    private final ThreadLocal<Long> _start = new ThreadLocal<>();
+    private final AtomicLong _executed = new AtomicLong();
+    private final AtomicLong _totalNanos = new AtomicLong();
+    private final AtomicLong _maxNanos = new AtomicLong();
+
+    /**
+     * Create a pool of at most the given number of threads for the given
+     * slice. Idle threads are released after a minute.
+     */
+    public SliceExecutor(String slice, int threads) {
+        super(threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new SliceThread.SliceThreadFactory("-slice-" + slice + "-"));
+        allowCoreThreadTimeOut(true);
+        _slice = slice;
+    }
+
+    /**
+     * Gets the name of the slice this pool executes for.
+     */
+    public String getSliceName() {
+        return _slice;
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> call) {
+        return new SliceTask<>(call);
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        _start.set(System.nanoTime());
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        Long start = _start.get();
+        if (start != null) {
+            long nanos = System.nanoTime() - start;
+            _executed.incrementAndGet();
+            _totalNanos.addAndGet(nanos);
+            long max = _maxNanos.get();
+            while (nanos > max && !_maxNanos.compareAndSet(max, nanos))
+                max = _maxNanos.get();
+            _start.remove();
+        }
+        super.afterExecute(r, t);
+    }
+
+    /**
+     * Gets the number of operations waiting for a thread.
+     */
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    /**
+     * Gets the number of operations executed so far.
+     */
+    public long getExecutedCount() {
+        return _executed.get();
+    }
+
+    /**
+     * Gets the average time, in milliseconds, an operation took to execute.
+     */
+    public double getAverageLatency() {
+        long n = _executed.get();
+        return (n == 0) ? 0 : _totalNanos.get() / (n * 1000000.0);
+    }
+
+    /**
+     * Gets the longest time, in milliseconds, an operation took to execute.
+     */
+    public long getMaxLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(_maxNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "Slice " + _slice + " [threads=" + getPoolSize()
+            + ", active=" + getActiveCount() + ", queued=" + getQueueDepth()
+            + ", executed=" + getExecutedCount()
+            + ", avgLatency=" + getAverageLatency()
+            + "ms, maxLatency=" + getMaxLatency() + "ms]";
+    }
+}
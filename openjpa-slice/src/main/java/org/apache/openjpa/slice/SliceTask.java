@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.slice;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+import org.apache.openjpa.lib.util.Closeable;
+
+/**
+ * An operation submitted to a {@link SliceExecutor}.
+ * <br>
+ * An operation that is no longer waited for is abandoned rather than
+ * interrupted: interrupting a thread that executes a statement can leave
+ * the connection of the slice unusable. An abandoned operation that has not
+ * started is never executed. An abandoned operation that is executing runs
+ * to its end, which its statement's query timeout bounds, and then closes
+ * its result.
+ *
+ * @since 3.0.1
+ */
+public class SliceTask<T> extends FutureTask<T> {
+    private boolean _abandoned;
+
+    public SliceTask(Callable<T> call) {
+        super(call);
+    }
+
+    /**
+     * Abandon this operation. The result of the operation is closed, now if
+     * it has already completed or else once it completes.
+     *
+     * @return false if this operation had already completed
+     */
+    public boolean abandon() {
+        boolean cancelled;
+        synchronized (this) {
+            _abandoned = true;
+            cancelled = cancel(false);
+        }
+        if (!cancelled && isDone() && !isCancelled()) {
+            try {
+                close(get());
+            } catch (Exception e) {
+                // failed, nothing to close
+            }
+        }
+        return cancelled;
+    }
+
+    @Override
+    protected void set(T result) {
+        synchronized (this) {
+            if (!_abandoned) {
+                super.set(result);
+                return;
+            }
+        }
+        close(result);
+    }
+
+    private static void close(Object result) {
+        if (result instanceof Closeable) {
+            try {
+                ((Closeable) result).close();
+            } catch (Exception e) {
+                // nothing more to do
+            }
+        }
+    }
+}
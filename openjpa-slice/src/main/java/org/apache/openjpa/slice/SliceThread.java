@@ -21,6 +21,7 @@ package org.apache.openjpa.slice;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A thread to execute operation against each database slice.
@@ -63,12 +64,26 @@ public class SliceThread extends Thread {
         return _pool;
     }
 
-    private static class SliceThreadFactory implements ThreadFactory {
-        int n = 0;
+    static class SliceThreadFactory implements ThreadFactory {
+        private final String _suffix;
+        private final AtomicInteger n = new AtomicInteger();
+
+        SliceThreadFactory() {
+            this("-slice-");
+        }
+
+        /**
+         * Creates threads named after the submitting thread and the given
+         * suffix.
+         */
+        SliceThreadFactory(String suffix) {
+            _suffix = suffix;
+        }
+
         @Override
         public Thread newThread(Runnable r) {
             Thread parent = Thread.currentThread();
-            return new SliceThread(parent.getName()+"-slice-"+n++, parent, r);
+            return new SliceThread(parent.getName() + _suffix + n.getAndIncrement(), parent, r);
         }
     }
 }
@@ -25,6 +25,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -38,8 +39,10 @@ import org.apache.openjpa.conf.OpenJPAConfiguration;
 import org.apache.openjpa.jdbc.conf.JDBCConfiguration;
 import org.apache.openjpa.jdbc.conf.JDBCConfigurationImpl;
 import org.apache.openjpa.jdbc.schema.DataSourceFactory;
+import org.apache.openjpa.jdbc.sql.DBDictionary;
 import org.apache.openjpa.lib.conf.BooleanValue;
 import org.apache.openjpa.lib.conf.ConfigurationProvider;
+import org.apache.openjpa.lib.conf.IntValue;
 import org.apache.openjpa.lib.conf.PluginValue;
 import org.apache.openjpa.lib.conf.StringListValue;
 import org.apache.openjpa.lib.conf.StringValue;
@@ -51,13 +54,16 @@ import org.apache.openjpa.lib.util.J2DoPrivHelper;
 import org.apache.openjpa.lib.util.Localizer;
 import org.apache.openjpa.meta.ClassMetaData;
 import org.apache.openjpa.meta.MetaDataRepository;
+import org.apache.openjpa.slice.ConsistentHashPolicy;
 import org.apache.openjpa.slice.DistributedBrokerImpl;
 import org.apache.openjpa.slice.DistributionPolicy;
 import org.apache.openjpa.slice.FinderTargetPolicy;
 import org.apache.openjpa.slice.ProductDerivation;
 import org.apache.openjpa.slice.QueryTargetPolicy;
+import org.apache.openjpa.slice.ReplicaSelector;
 import org.apache.openjpa.slice.ReplicationPolicy;
 import org.apache.openjpa.slice.Slice;
+import org.apache.openjpa.slice.SliceExecutor;
 import org.apache.openjpa.util.UserException;
 
 /**
@@ -81,11 +87,17 @@ public class DistributedJDBCConfigurationImpl extends JDBCConfigurationImpl
     protected StringListValue namesPlugin;
     public PluginValue distributionPolicyPlugin;
     public PluginValue replicationPolicyPlugin;
+    public PluginValue replicaSelectorPlugin;
     public PluginValue queryTargetPolicyPlugin;
     public PluginValue finderTargetPolicyPlugin;
     public StringListValue replicatedTypesPlugin;
+    public IntValue threadsPerSlicePlugin;
+    public IntValue hedgeDelayPlugin;
+    public IntValue batchLimitPlugin;
+    public BooleanValue queryTargetsByKeyPlugin;
 
     private ReplicatedTypeRepository _replicationRepos;
+    private final Map<String, SliceExecutor> _executors = new HashMap<>();
 
     public static final String DOT = ".";
     public static final String REGEX_DOT = "\\.";
@@ -103,6 +115,7 @@ public class DistributedJDBCConfigurationImpl extends JDBCConfigurationImpl
 
         distributionPolicyPlugin = addPlugin(PREFIX_SLICE + "DistributionPolicy", true);
         distributionPolicyPlugin.setAlias("random", DistributionPolicy.Default.class.getName());
+        distributionPolicyPlugin.setAlias("hash", ConsistentHashPolicy.class.getName());
         distributionPolicyPlugin.setDefault("random");
         distributionPolicyPlugin.setString("random");
         distributionPolicyPlugin.setDynamic(true);
@@ -113,10 +126,19 @@ public class DistributedJDBCConfigurationImpl extends JDBCConfigurationImpl
         replicationPolicyPlugin.setString("all");
         replicationPolicyPlugin.setDynamic(true);
 
+        replicaSelectorPlugin = addPlugin(PREFIX_SLICE + "ReplicaSelector", true);
+        replicaSelectorPlugin.setAlias("round-robin", ReplicaSelector.RoundRobin.class.getName());
+        replicaSelectorPlugin.setAlias("least-outstanding",
+            ReplicaSelector.LeastOutstanding.class.getName());
+        replicaSelectorPlugin.setAlias("latency", ReplicaSelector.LatencyEWMA.class.getName());
+        replicaSelectorPlugin.setDefault("round-robin");
+        replicaSelectorPlugin.setString("round-robin");
+
         queryTargetPolicyPlugin = addPlugin(PREFIX_SLICE + "QueryTargetPolicy", true);
         queryTargetPolicyPlugin.setDynamic(true);
 
         finderTargetPolicyPlugin = addPlugin(PREFIX_SLICE + "FinderTargetPolicy", true);
+        finderTargetPolicyPlugin.setAlias("hash", ConsistentHashPolicy.class.getName());
         finderTargetPolicyPlugin.setDynamic(true);
 
         replicatedTypesPlugin = new StringListValue(PREFIX_SLICE + "ReplicatedTypes");
@@ -127,6 +149,25 @@ public class DistributedJDBCConfigurationImpl extends JDBCConfigurationImpl
 
         masterPlugin  = addString(PREFIX_SLICE + "Master");
         namesPlugin   = addStringList(PREFIX_SLICE + "Names");
+
+        threadsPerSlicePlugin = addInt(PREFIX_SLICE + "ThreadsPerSlice");
+        threadsPerSlicePlugin.setDefault(String.valueOf(
+            2 * Runtime.getRuntime().availableProcessors()));
+        threadsPerSlicePlugin.set(2 * Runtime.getRuntime().availableProcessors());
+
+        hedgeDelayPlugin = addInt(PREFIX_SLICE + "HedgeDelay");
+        hedgeDelayPlugin.setDefault("-1");
+        hedgeDelayPlugin.set(-1);
+        hedgeDelayPlugin.setDynamic(true);
+
+        batchLimitPlugin = addInt(PREFIX_SLICE + "BatchLimit");
+        batchLimitPlugin.setDefault("0");
+        batchLimitPlugin.set(0);
+
+        queryTargetsByKeyPlugin = addBoolean(PREFIX_SLICE + "QueryTargetsByKey");
+        queryTargetsByKeyPlugin.setDefault("false");
+        queryTargetsByKeyPlugin.set(false);
+        queryTargetsByKeyPlugin.setDynamic(true);
     }
 
     /**
@@ -270,6 +311,30 @@ public class DistributedJDBCConfigurationImpl extends JDBCConfigurationImpl
         replicationPolicyPlugin.setString(policy);
     }
 
+    @Override
+    public ReplicaSelector getReplicaSelectorInstance() {
+        if (replicaSelectorPlugin.get() == null) {
+            replicaSelectorPlugin.instantiate(ReplicaSelector.class,
+                    this, true);
+        }
+        return (ReplicaSelector) replicaSelectorPlugin.get();
+    }
+
+    @Override
+    public String getReplicaSelector() {
+        return replicaSelectorPlugin.getString();
+    }
+
+    @Override
+    public void setReplicaSelectorInstance(ReplicaSelector selector) {
+        replicaSelectorPlugin.set(selector);
+    }
+
+    @Override
+    public void setReplicaSelector(String selector) {
+        replicaSelectorPlugin.setString(selector);
+    }
+
     @Override
     public QueryTargetPolicy getQueryTargetPolicyInstance() {
         if (queryTargetPolicyPlugin.get() == null) {
@@ -298,12 +363,21 @@ public class DistributedJDBCConfigurationImpl extends JDBCConfigurationImpl
         queryTargetPolicyPlugin.setString(policy);
     }
 
+    /**
+     * Gets the configured finder target policy or, if none is configured,
+     * the distribution policy if it can also target finders.
+     */
     @Override
     public FinderTargetPolicy getFinderTargetPolicyInstance() {
         if (finderTargetPolicyPlugin.get() == null) {
             finderTargetPolicyPlugin.instantiate(FinderTargetPolicy.class,
                     this, true);
         }
+        if (finderTargetPolicyPlugin.get() == null) {
+            DistributionPolicy policy = getDistributionPolicyInstance();
+            if (policy instanceof FinderTargetPolicy)
+                return (FinderTargetPolicy) policy;
+        }
         return (FinderTargetPolicy) finderTargetPolicyPlugin.get();
     }
 
@@ -344,6 +418,73 @@ public class DistributedJDBCConfigurationImpl extends JDBCConfigurationImpl
         lenientPlugin.set(lenient);
     }
 
+    @Override
+    public int getThreadsPerSlice() {
+        return threadsPerSlicePlugin.get();
+    }
+
+    @Override
+    public void setThreadsPerSlice(int threads) {
+        threadsPerSlicePlugin.set(threads);
+    }
+
+    @Override
+    public int getHedgeDelay() {
+        return hedgeDelayPlugin.get();
+    }
+
+    @Override
+    public void setHedgeDelay(int delay) {
+        hedgeDelayPlugin.set(delay);
+    }
+
+    @Override
+    public int getBatchLimit() {
+        return batchLimitPlugin.get();
+    }
+
+    @Override
+    public void setBatchLimit(int limit) {
+        batchLimitPlugin.set(limit);
+    }
+
+    @Override
+    public boolean isQueryTargetsByKey() {
+        return queryTargetsByKeyPlugin.get();
+    }
+
+    @Override
+    public void setQueryTargetsByKey(boolean byKey) {
+        queryTargetsByKeyPlugin.set(byKey);
+    }
+
+    /**
+     * Gets the pool of threads for the given slice, created on first use.
+     */
+    @Override
+    public synchronized SliceExecutor getExecutor(String sliceName) {
+        SliceExecutor executor = _executors.get(sliceName);
+        if (executor == null) {
+            executor = new SliceExecutor(sliceName,
+                Math.max(1, getThreadsPerSlice()));
+            _executors.put(sliceName, executor);
+        }
+        return executor;
+    }
+
+    /**
+     * Releases the threads of the slices.
+     */
+    @Override
+    protected void preClose() {
+        synchronized (this) {
+            for (SliceExecutor executor : _executors.values())
+                executor.shutdown();
+            _executors.clear();
+        }
+        super.preClose();
+    }
+
     public void setMaster(String master) {
         masterPlugin.set(master);
     }
@@ -389,6 +530,7 @@ public class DistributedJDBCConfigurationImpl extends JDBCConfigurationImpl
 
     DataSource createDataSource(Slice slice) throws Exception {
         JDBCConfiguration conf = (JDBCConfiguration)slice.getConfiguration();
+        configureBatching(conf);
         DataSource ds = (DataSource)conf.getConnectionFactory();
         if (ds == null) {
             Log log = conf.getConfigurationLog();
@@ -405,6 +547,25 @@ public class DistributedJDBCConfigurationImpl extends JDBCConfigurationImpl
         return ds;
     }
 
+    /**
+     * Sets the configured batch limit on the dictionary of the given slice
+     * configuration, unless its dictionary configures batching itself. The
+     * dictionary belongs to the slice, so it is configured once, before its
+     * first connection.
+     *
+     * @since 3.0.1
+     */
+    void configureBatching(JDBCConfiguration conf) {
+        int limit = getBatchLimit();
+        if (limit == 0)
+            return;
+        DBDictionary dict = conf.getDBDictionaryInstance();
+        String plugin = conf.getDBDictionary();
+        if (dict.getBatchLimit() == 0 && (plugin == null
+            || !plugin.toLowerCase().contains("batchlimit")))
+            dict.setBatchLimit(limit);
+    }
+
     String getConnectionInfo(OpenJPAConfiguration conf) {
         String result = conf.getConnectionURL();
         if (result == null) {
@@ -21,6 +21,7 @@ package org.apache.openjpa.slice.jdbc;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
@@ -28,8 +29,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
 import org.apache.openjpa.enhance.PersistenceCapable;
@@ -55,11 +54,12 @@ import org.apache.openjpa.meta.ClassMetaData;
 import org.apache.openjpa.meta.FieldMetaData;
 import org.apache.openjpa.slice.DistributedConfiguration;
 import org.apache.openjpa.slice.DistributedStoreManager;
+import org.apache.openjpa.slice.ReplicaSelector;
 import org.apache.openjpa.slice.Slice;
 import org.apache.openjpa.slice.SliceImplHelper;
 import org.apache.openjpa.slice.SliceInfo;
 import org.apache.openjpa.slice.SlicePersistence;
-import org.apache.openjpa.slice.SliceThread;
+import org.apache.openjpa.slice.SliceExecutor;
 import org.apache.openjpa.util.InternalException;
 import org.apache.openjpa.util.StoreException;
 
@@ -112,6 +112,16 @@ class DistributedJDBCStoreManager extends JDBCStoreManager
     	return _slices.get(i);
     }
 
+    /**
+     * Gets the pool of threads that executes operations against the given
+     * slice.
+     *
+     * @since 3.0.1
+     */
+    SliceExecutor getExecutor(SliceStoreManager slice) {
+        return _conf.getExecutor(slice.getName());
+    }
+
     @Override
     public SliceStoreManager addSlice(Slice slice) {
         SliceStoreManager result = new SliceStoreManager(slice);
@@ -261,62 +271,136 @@ class DistributedJDBCStoreManager extends JDBCStoreManager
 
     /**
      * Flush the given StateManagers after binning them to respective physical
-     * slices.
+     * slices. The slices without replicated instances are flushed in
+     * parallel, while the slices with replicated instances are flushed one
+     * after the other as the versions of replicated instances are reset
+     * between them. Waits for all slices to complete before reporting any
+     * failure.
      */
     @Override
     public Collection flush(Collection sms) {
-        Collection exceptions = new ArrayList();
-        List<Future<Collection>> futures = new ArrayList<>();
-        Map<String, StateManagerSet> subsets = bin(sms, null);
+        Collection<Object> exceptions = new ArrayList<>();
+        Map<String, StateManagerSet> subsets = bin(sms, null, false);
         Collection<StateManagerSet> remaining =
             new ArrayList<>(subsets.values());
-        ExecutorService threadPool = SliceThread.getPool();
-        for (int i = 0; i < _slices.size(); i++) {
-            SliceStoreManager slice = _slices.get(i);
+        List<String> parallel = new ArrayList<>();
+        List<Future<Collection<?>>> futures = new ArrayList<>();
+        for (SliceStoreManager slice : _slices) {
             StateManagerSet subset = subsets.get(slice.getName());
-            if (subset.isEmpty())
+            if (subset.isEmpty() || subset.containsReplicated())
                 continue;
-            if (subset.containsReplicated()) {
+            parallel.add(slice.getName());
+            futures.add(getExecutor(slice).submit(new Flusher(slice, subset)));
+        }
+
+        RuntimeException error = null;
+        try {
+            for (SliceStoreManager slice : _slices) {
+                StateManagerSet subset = subsets.get(slice.getName());
+                if (!subset.containsReplicated())
+                    continue;
                 Map<OpenJPAStateManager, Object> oldVersions = cacheVersion(
                     subset.getReplicated());
-            	collectException(slice.flush(subset), exceptions);
+                collectException(slice.flush(subset), exceptions);
                 remaining.remove(subset);
-            	rollbackVersion(subset.getReplicated(), oldVersions, remaining);
-            } else {
-            	futures.add(threadPool.submit(new Flusher(slice, subset)));
-            }
-        }
-        for (Future<Collection> future : futures) {
-            try {
-            	collectException(future.get(), exceptions);
-            } catch (InterruptedException e) {
-                throw new StoreException(e);
-            } catch (ExecutionException e) {
-                throw new StoreException(e.getCause());
+                rollbackVersion(subset.getReplicated(), oldVersions, remaining);
             }
+        } catch (RuntimeException e) {
+            error = e;
         }
 
+        List<Collection<?>> results = new ArrayList<>();
+        List<Throwable> failures = SliceTasks.awaitAll(futures, results);
+        if (error != null)
+            throw error;
+        for (Collection<?> result : results)
+            collectException(result, exceptions);
+        throwFailures("flush-failed", parallel, failures);
 	    return exceptions;
     }
 
-    private void collectException(Collection error,  Collection holder) {
+    private void collectException(Collection<?> error,
+        Collection<Object> holder) {
         if (!(error == null || error.isEmpty())) {
         	holder.addAll(error);
         }
     }
 
+    /**
+     * Commits all slices in parallel. Every slice is committed even if
+     * another fails.
+     */
     @Override
     public void commit() {
-    	for (SliceStoreManager slice : _slices) {
-    		slice.commit();
-    	}
+        complete(true);
     }
 
+    /**
+     * Rolls back all slices in parallel. Every slice is rolled back even if
+     * another fails.
+     */
     @Override
     public void rollback() {
-    	for (SliceStoreManager slice : _slices) {
-    		slice.rollback();
-    	}
+        complete(false);
+    }
+
+    /**
+     * Commits or rolls back all slices in parallel and waits for all of them.
+     * Then raises the failures of the slices, if any, in the order of the
+     * slices.
+     */
+    private void complete(final boolean commit) {
+        if (_slices.size() == 1) {
+            if (commit)
+                _slices.get(0).commit();
+            else
+                _slices.get(0).rollback();
+            return;
+        }
+
+        List<String> names = new ArrayList<>();
+        List<Future<Object>> futures = new ArrayList<>();
+        for (final SliceStoreManager slice : _slices) {
+            names.add(slice.getName());
+            futures.add(getExecutor(slice).submit(new Callable<Object>() {
+                @Override
+                public Object call() {
+                    if (commit)
+                        slice.commit();
+                    else
+                        slice.rollback();
+                    return null;
+                }
+            }));
+        }
+        List<Throwable> failures = SliceTasks.awaitAll(futures,
+            new ArrayList<>());
+        throwFailures(commit ? "commit-failed" : "rollback-failed", names,
+            failures);
+    }
+
+    /**
+     * Raises the failures of the given slices, if any, as the nested
+     * exceptions of a single exception that names the failed and the
+     * completed slices.
+     */
+    private static void throwFailures(String message, List<String> slices,
+        List<Throwable> failures) {
+        List<String> failed = new ArrayList<>();
+        List<String> completed = new ArrayList<>();
+        List<Throwable> nested = new ArrayList<>();
+        for (int i = 0; i < slices.size(); i++) {
+            if (failures.get(i) == null) {
+                completed.add(slices.get(i));
+            } else {
+                failed.add(slices.get(i));
+                nested.add(failures.get(i));
+            }
+        }
+        if (nested.isEmpty())
+            return;
+        throw new StoreException(_loc.get(message, failed, completed))
+            .setNestedThrowables(nested.toArray(new Throwable[nested.size()]));
     }
 
     /**
@@ -358,8 +442,12 @@ class DistributedJDBCStoreManager extends JDBCStoreManager
     /**
      * Separate the given list of StateManagers in separate lists for each slice
      * by the associated slice identifier of each StateManager.
+     *
+     * @param read if true, a replicated instance is only added to the list of
+     * the slice selected to read it from
      */
-    private Map<String, StateManagerSet> bin(Collection sms, Object edata) {
+    private Map<String, StateManagerSet> bin(Collection<?> sms, Object edata,
+        boolean read) {
         Map<String, StateManagerSet> subsets =  new HashMap<>();
         for (SliceStoreManager slice : _slices) {
             subsets.put(slice.getName(), new StateManagerSet(_conf));
@@ -367,6 +455,8 @@ class DistributedJDBCStoreManager extends JDBCStoreManager
         for (Object x : sms) {
             OpenJPAStateManager sm = (OpenJPAStateManager) x;
             String[] targets = findSliceNames(sm, edata).getSlices();
+            if (read && targets.length > 1)
+                targets = new String[]{ selectReplica(Arrays.asList(targets)) };
            	for (String slice : targets) {
             	subsets.get(slice).add(sm);
             }
@@ -374,6 +464,39 @@ class DistributedJDBCStoreManager extends JDBCStoreManager
         return subsets;
     }
 
+    /**
+     * Gets the slice to read a replicated instance from, among the given
+     * slices that hold it.
+     *
+     * @since 3.0.1
+     */
+    String selectReplica(List<String> slices) {
+        if (slices.size() == 1)
+            return slices.get(0);
+        return _conf.getReplicaSelectorInstance().select(slices);
+    }
+
+    /**
+     * Orders the given slices that hold a replicated instance so that the
+     * slice to read it from comes first.
+     *
+     * @since 3.0.1
+     */
+    private List<SliceStoreManager> orderReplicas(
+        List<SliceStoreManager> slices) {
+        if (slices.size() < 2)
+            return slices;
+        List<String> names = new ArrayList<>();
+        for (SliceStoreManager slice : slices)
+            names.add(slice.getName());
+        int first = names.indexOf(selectReplica(names));
+        if (first <= 0)
+            return slices;
+        List<SliceStoreManager> result = new ArrayList<>(slices);
+        result.add(0, result.remove(first));
+        return result;
+    }
+
     @Override
     public Object getClientConnection() {
         return _master.getClientConnection();
@@ -413,10 +536,27 @@ class DistributedJDBCStoreManager extends JDBCStoreManager
         }
         // not a part of Query result load. Look into the slices till found
         List<SliceStoreManager> targets = getTargets(fetch);
-        for (SliceStoreManager slice : targets) {
-            if (slice.initialize(sm, state, fetch, edata)) {
-                assignSlice(sm, slice.getName());
-                return true;
+        if (!_conf.isReplicated(sm.getMetaData().getDescribedType())) {
+            for (SliceStoreManager slice : targets) {
+                if (slice.initialize(sm, state, fetch, edata)) {
+                    assignSlice(sm, slice.getName());
+                    return true;
+                }
+            }
+            return false;
+        }
+        ReplicaSelector selector = _conf.getReplicaSelectorInstance();
+        for (SliceStoreManager slice : orderReplicas(targets)) {
+            long start = System.nanoTime();
+            selector.started(slice.getName());
+            try {
+                if (slice.initialize(sm, state, fetch, edata)) {
+                    assignSlice(sm, slice.getName());
+                    return true;
+                }
+            } finally {
+                selector.completed(slice.getName(),
+                    System.nanoTime() - start);
             }
         }
         return false;
@@ -425,21 +565,45 @@ class DistributedJDBCStoreManager extends JDBCStoreManager
     @Override
     public boolean load(OpenJPAStateManager sm, BitSet fields,
             FetchConfiguration fetch, int lockLevel, Object edata) {
-        return selectStore(sm, edata).load(sm, fields, fetch, lockLevel, edata);
+        if (!_conf.isReplicated(sm.getMetaData().getDescribedType()))
+            return selectStore(sm, edata).load(sm, fields, fetch, lockLevel,
+                edata);
+        String target = selectReplica(Arrays.asList(
+            findSliceNames(sm, edata).getSlices()));
+        SliceStoreManager slice = lookup(target);
+        if (slice == null)
+            throw new InternalException(_loc.get("wrong-slice", target, sm));
+        ReplicaSelector selector = _conf.getReplicaSelectorInstance();
+        long start = System.nanoTime();
+        selector.started(target);
+        try {
+            return slice.load(sm, fields, fetch, lockLevel, edata);
+        } finally {
+            selector.completed(target, System.nanoTime() - start);
+        }
     }
 
     @Override
     public Collection loadAll(Collection sms, PCState state, int load,
             FetchConfiguration fetch, Object edata) {
-        Map<String, StateManagerSet> subsets = bin(sms, edata);
-        Collection result = new ArrayList();
+        Map<String, StateManagerSet> subsets = bin(sms, edata, true);
+        Collection<Object> result = new ArrayList<>();
+        ReplicaSelector selector = _conf.getReplicaSelectorInstance();
         for (SliceStoreManager slice : _slices) {
             StateManagerSet subset = subsets.get(slice.getName());
             if (subset.isEmpty())
                 continue;
-            Collection tmp = slice.loadAll(subset, state, load, fetch, edata);
-            if (tmp != null && !tmp.isEmpty())
-                result.addAll(tmp);
+            long start = System.nanoTime();
+            selector.started(slice.getName());
+            try {
+                Collection<?> tmp = slice.loadAll(subset, state, load, fetch,
+                    edata);
+                if (tmp != null && !tmp.isEmpty())
+                    result.addAll(tmp);
+            } finally {
+                selector.completed(slice.getName(),
+                    System.nanoTime() - start);
+            }
         }
         return result;
     }
@@ -534,6 +698,17 @@ class DistributedJDBCStoreManager extends JDBCStoreManager
             return _slices;
         String[] targetNames = hint instanceof String
                 ? new String[]{hint.toString()} : (String[])hint;
+        return getTargets(targetNames);
+    }
+
+    /**
+     * Gets the active slices of the given names.
+     *
+     * @return all active slices if the given names match no active slice.
+     *
+     * @since 3.0.1
+     */
+    List<SliceStoreManager> getTargets(String[] targetNames) {
         List<SliceStoreManager> targets = new ArrayList<>();
         for (SliceStoreManager slice : _slices) {
             for (String name : targetNames) {
@@ -547,7 +722,7 @@ class DistributedJDBCStoreManager extends JDBCStoreManager
         return targets;
     }
 
-    private static class Flusher implements Callable<Collection> {
+    private static class Flusher implements Callable<Collection<?>> {
         final SliceStoreManager store;
         final StateManagerSet toFlush;
 
@@ -557,7 +732,7 @@ class DistributedJDBCStoreManager extends JDBCStoreManager
         }
 
         @Override
-        public Collection call() throws Exception {
+        public Collection<?> call() throws Exception {
         	return store.flush(toFlush);
         }
     }
@@ -22,8 +22,6 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
 import org.apache.openjpa.jdbc.kernel.JDBCStore;
@@ -31,15 +29,12 @@ import org.apache.openjpa.jdbc.kernel.SQLStoreQuery;
 import org.apache.openjpa.kernel.FetchConfiguration;
 import org.apache.openjpa.kernel.OrderingMergedResultObjectProvider;
 import org.apache.openjpa.kernel.QueryContext;
-import org.apache.openjpa.kernel.StoreManager;
 import org.apache.openjpa.kernel.StoreQuery;
 import org.apache.openjpa.lib.rop.MergedResultObjectProvider;
 import org.apache.openjpa.lib.rop.RangeResultObjectProvider;
 import org.apache.openjpa.lib.rop.ResultObjectProvider;
 import org.apache.openjpa.meta.ClassMetaData;
 import org.apache.openjpa.slice.DistributedConfiguration;
-import org.apache.openjpa.slice.SliceThread;
-import org.apache.openjpa.util.StoreException;
 
 /**
  * A query for distributed databases.
@@ -116,36 +111,26 @@ class DistributedSQLStoreQuery extends SQLStoreQuery {
 			List<SliceStoreManager> targets = findTargets();
 			QueryContext ctx = q.getContext();
 			boolean isReplicated = containsReplicated(ctx);
-            ExecutorService threadPool = SliceThread.getPool();
 			for (int i = 0; i < owner._queries.size(); i++) {
                 // if replicated, then execute only on single slice
 				if (isReplicated && !usedExecutors.isEmpty()) {
 					break;
 				}
-                StoreManager sm = owner.getDistributedStore().getSlice(i);
+                SliceStoreManager sm = owner.getDistributedStore().getSlice(i);
 				if (!targets.contains(sm))
 					continue;
 				StoreQuery query = owner._queries.get(i);
 				Executor executor = executors.get(i);
-				if (!targets.contains(sm))
-					continue;
 				usedExecutors.add(executor);
                 QueryExecutor call = new QueryExecutor();
                 call.executor = executor;
                 call.query = query;
                 call.params = params;
                 call.range = range;
-                futures.add(threadPool.submit(call));
-			}
-			for (Future<ResultObjectProvider> future : futures) {
-				try {
-					rops.add(future.get());
-				} catch (InterruptedException e) {
-					throw new RuntimeException(e);
-				} catch (ExecutionException e) {
-					throw new StoreException(e.getCause());
-				}
+                futures.add(owner.getDistributedStore().getExecutor(sm)
+                    .submit(call));
 			}
+			rops.addAll(await(q, futures));
 
 			ResultObjectProvider[] tmp = rops
                     .toArray(new ResultObjectProvider[rops.size()]);
@@ -193,57 +178,48 @@ class DistributedSQLStoreQuery extends SQLStoreQuery {
 		@Override
         public Number executeDelete(StoreQuery q, Object[] params) {
 			Iterator<StoreQuery> qs = owner._queries.iterator();
-			List<Future<Number>> futures = null;
-			int result = 0;
-            ExecutorService threadPool = SliceThread.getPool();
-			for (Executor ex : executors) {
-				if (futures == null)
-                    futures = new ArrayList<>();
+			List<Future<Number>> futures = new ArrayList<>();
+			for (int i = 0; i < executors.size(); i++) {
 				DeleteExecutor call = new DeleteExecutor();
-				call.executor = ex;
+				call.executor = executors.get(i);
 				call.query = qs.next();
 				call.params = params;
-				futures.add(threadPool.submit(call));
+				futures.add(owner.getDistributedStore().getExecutor(
+					owner.getDistributedStore().getSlice(i)).submit(call));
 			}
-			for (Future<Number> future : futures) {
-				try {
-					Number n = future.get();
-					if (n != null)
-						result += n.intValue();
-				} catch (InterruptedException e) {
-					throw new RuntimeException(e);
-				} catch (ExecutionException e) {
-					throw new StoreException(e.getCause());
-				}
-			}
-			return result;
+			return sum(await(q, futures));
 		}
 
 		@Override
         public Number executeUpdate(StoreQuery q, Object[] params) {
 			Iterator<StoreQuery> qs = owner._queries.iterator();
-			List<Future<Number>> futures = null;
-			int result = 0;
-            ExecutorService threadPool = SliceThread.getPool();
-			for (Executor ex : executors) {
-				if (futures == null)
-                    futures = new ArrayList<>();
+			List<Future<Number>> futures = new ArrayList<>();
+			for (int i = 0; i < executors.size(); i++) {
 				UpdateExecutor call = new UpdateExecutor();
-				call.executor = ex;
+				call.executor = executors.get(i);
 				call.query = qs.next();
 				call.params = params;
-				futures.add(threadPool.submit(call));
-			}
-			for (Future<Number> future : futures) {
-				try {
-					Number n = future.get();
-                    result += (n == null) ? 0 : n.intValue();
-				} catch (InterruptedException e) {
-					throw new RuntimeException(e);
-				} catch (ExecutionException e) {
-					throw new StoreException(e.getCause());
-				}
+				futures.add(owner.getDistributedStore().getExecutor(
+					owner.getDistributedStore().getSlice(i)).submit(call));
 			}
+			return sum(await(q, futures));
+		}
+
+		/**
+		 * Wait for the given slice operations of the given query, at most
+		 * for the query timeout.
+		 */
+		private <T> List<T> await(StoreQuery q, List<Future<T>> futures) {
+			QueryContext ctx = q.getContext();
+			return SliceTasks.await(futures,
+				ctx.getFetchConfiguration().getQueryTimeout(),
+				ctx.getQueryString());
+		}
+
+		private static int sum(List<Number> numbers) {
+			int result = 0;
+			for (Number n : numbers)
+				result += (n == null) ? 0 : n.intValue();
 			return result;
 		}
 
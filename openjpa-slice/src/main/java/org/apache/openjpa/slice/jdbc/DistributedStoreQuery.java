@@ -19,11 +19,8 @@
 package org.apache.openjpa.slice.jdbc;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
 import org.apache.openjpa.jdbc.kernel.JDBCStore;
@@ -32,16 +29,19 @@ import org.apache.openjpa.kernel.ExpressionStoreQuery;
 import org.apache.openjpa.kernel.FetchConfiguration;
 import org.apache.openjpa.kernel.OrderingMergedResultObjectProvider;
 import org.apache.openjpa.kernel.QueryContext;
-import org.apache.openjpa.kernel.StoreManager;
 import org.apache.openjpa.kernel.StoreQuery;
 import org.apache.openjpa.kernel.exps.ExpressionParser;
+import org.apache.openjpa.kernel.exps.QueryExpressions;
 import org.apache.openjpa.lib.rop.MergedResultObjectProvider;
 import org.apache.openjpa.lib.rop.RangeResultObjectProvider;
 import org.apache.openjpa.lib.rop.ResultObjectProvider;
+import org.apache.openjpa.lib.util.Localizer;
 import org.apache.openjpa.meta.ClassMetaData;
 import org.apache.openjpa.slice.DistributedConfiguration;
-import org.apache.openjpa.slice.SliceThread;
-import org.apache.openjpa.util.StoreException;
+import org.apache.openjpa.slice.ReplicaSelector;
+import org.apache.openjpa.slice.SliceExecutor;
+import org.apache.openjpa.slice.SlicePersistence;
+import org.apache.openjpa.util.UserException;
 
 /**
  * A query for distributed databases.
@@ -51,6 +51,8 @@ import org.apache.openjpa.util.StoreException;
  */
 class DistributedStoreQuery extends JDBCStoreQuery {
     private static final long serialVersionUID = 1L;
+    private static final Localizer _loc =
+        Localizer.forPackage(DistributedStoreQuery.class);
     private List<StoreQuery> _queries = new ArrayList<>();
 	private ExpressionParser _parser;
 
@@ -76,6 +78,7 @@ class DistributedStoreQuery extends JDBCStoreQuery {
 		for (StoreQuery q : _queries) {
 			ex.addExecutor(q.newDataStoreExecutor(meta, subs));
 		}
+		ex.rewriteProjections(meta);
 		return ex;
 	}
 
@@ -97,18 +100,40 @@ class DistributedStoreQuery extends JDBCStoreQuery {
         private static final long serialVersionUID = 1L;
         private List<Executor> executors = new ArrayList<>();
 		private DistributedStoreQuery owner = null;
+		private ClassMetaData candidate = null;
+		private int[] avgCounts = null;
+		private int[] groupKeys = null;
 
         public ParallelExecutor(DistributedStoreQuery dsq, ClassMetaData meta,
                 boolean subclasses, ExpressionParser parser, Object parsed,
 				boolean parallel) {
 			super(dsq, meta, subclasses, parser, parsed);
 			owner = dsq;
+			candidate = meta;
 		}
 
 		public void addExecutor(Executor ex) {
 			executors.add(ex);
 		}
 
+		/**
+		 * Rows of the slices can only be combined into groups on the values
+		 * of the grouping terms, so each slice is asked for the grouping terms
+		 * that are not projected. Averages of the slices can not be combined.
+		 * Each slice is asked for the sum and count of an averaged value
+		 * instead.
+		 *
+		 * @since 3.0.1
+		 */
+		void rewriteProjections(ClassMetaData meta) {
+			for (Executor ex : executors) {
+				for (QueryExpressions exps : ex.getQueryExpressions()) {
+					groupKeys = PartialAggregates.projectGrouping(exps);
+					avgCounts = PartialAggregates.rewrite(exps, meta);
+				}
+			}
+		}
+
 		/**
          * Each child query must be executed with slice context and not the
 		 * given query context.
@@ -119,35 +144,70 @@ class DistributedStoreQuery extends JDBCStoreQuery {
 			List<Future<ResultObjectProvider>> futures = new ArrayList<>();
             final List<Executor> usedExecutors = new ArrayList<>();
 			final List<ResultObjectProvider> rops = new ArrayList<>();
-			List<SliceStoreManager> targets = findTargets();
 			QueryContext ctx = q.getContext();
 			boolean isReplicated = containsReplicated(ctx);
-            ExecutorService threadPool = SliceThread.getPool();
+			List<SliceStoreManager> targets = findTargets(q, params);
+            // a slice can not limit its groups before they are combined.
+            // Otherwise each slice returns at most the rows up to the end of
+            // the range, and the merged rows are skipped to its start
+            QueryExpressions exps = getQueryExpressions()[0];
+            Range sliceRange = new Range();
+            if (exps.grouping.length == 0) {
+                sliceRange.end = range.end;
+                sliceRange.lrs = range.lrs || (range.start > 0 && ctx
+                    .getFetchConfiguration().getFetchBatchSize() >= 0);
+            }
+            if (exps.having != null && !isReplicated && targets.size() > 1)
+                throw new UserException(_loc.get("having-unsupported",
+                    ctx.getQueryString()));
 
+			DistributedConfiguration conf = owner.getDistributedStore()
+			    .getConfiguration();
+			List<Callable<ResultObjectProvider>> calls = new ArrayList<>();
+			List<SliceExecutor> pools = new ArrayList<>();
+			List<String> names = new ArrayList<>();
 			for (int i = 0; i < owner._queries.size(); i++) {
-                // if replicated, then execute only on single slice
-				if (isReplicated && !usedExecutors.isEmpty()) {
-					break;
-				}
-                StoreManager sm = owner.getDistributedStore().getSlice(i);
+                SliceStoreManager sm = owner.getDistributedStore().getSlice(i);
 				if (!targets.contains(sm))
 					continue;
                 QueryExecutor call = new QueryExecutor();
                 call.executor = executors.get(i);
                 call.query = owner._queries.get(i);
                 call.params = params;
-                call.range = range;
+                call.range = sliceRange;
+                if (isReplicated) {
+                    call.slice = sm.getName();
+                    call.selector = conf.getReplicaSelectorInstance();
+                }
 				usedExecutors.add(call.executor);
-                futures.add(threadPool.submit(call));
+				calls.add(call);
+				pools.add(owner.getDistributedStore().getExecutor(sm));
+				names.add(sm.getName());
 			}
-			for (Future<ResultObjectProvider> future : futures) {
-				try {
-					rops.add(future.get());
-				} catch (InterruptedException e) {
-					throw new RuntimeException(e);
-				} catch (ExecutionException e) {
-					throw new StoreException(e.getCause());
+
+			int timeout = ctx.getFetchConfiguration().getQueryTimeout();
+			if (isReplicated && calls.size() > 1) {
+                // if replicated, then execute only on the selected slice,
+                // unless it is slow to respond
+				int first = names.indexOf(owner.getDistributedStore()
+					.selectReplica(names));
+				if (first > 0) {
+					calls.add(0, calls.remove(first));
+					pools.add(0, pools.remove(first));
+					usedExecutors.add(0, usedExecutors.remove(first));
 				}
+				usedExecutors.subList(1, usedExecutors.size()).clear();
+				if (conf.getHedgeDelay() >= 0) {
+					rops.add(SliceTasks.hedge(calls, pools, conf.getHedgeDelay(),
+						timeout, ctx.getQueryString()));
+				} else {
+					calls.subList(1, calls.size()).clear();
+				}
+			}
+			if (rops.isEmpty()) {
+				for (int i = 0; i < calls.size(); i++)
+					futures.add(pools.get(i).submit(calls.get(i)));
+				rops.addAll(await(q, futures));
 			}
 
 			ResultObjectProvider[] tmp = rops.toArray(new ResultObjectProvider[rops.size()]);
@@ -155,9 +215,13 @@ class DistributedStoreQuery extends JDBCStoreQuery {
 			boolean[] ascending = getAscending(q);
 			boolean isAscending = ascending.length > 0;
 			boolean isAggregate = ctx.isAggregate();
-			boolean hasRange = ctx.getEndRange() != Long.MAX_VALUE;
-			if (isAggregate) {
-				result = new UniqueResultObjectProvider(tmp, q,	getQueryExpressions());
+			boolean hasRange = range.start != 0 || range.end != Long.MAX_VALUE;
+			if (exps.grouping.length > 0) {
+				result = new GroupingResultObjectProvider(tmp, q, this, params,
+					exps, avgCounts, groupKeys);
+			} else if (isAggregate) {
+				result = new UniqueResultObjectProvider(tmp, q,	getQueryExpressions(),
+					avgCounts);
 			} else if (isAscending) {
                 result = new OrderingMergedResultObjectProvider(tmp, ascending,
                     usedExecutors.toArray(new Executor[usedExecutors.size()]),
@@ -166,7 +230,7 @@ class DistributedStoreQuery extends JDBCStoreQuery {
 				result = new MergedResultObjectProvider(tmp);
 			}
 			if (hasRange) {
-                result = new RangeResultObjectProvider(result, ctx.getStartRange(), ctx.getEndRange());
+                result = new RangeResultObjectProvider(result, range.start, range.end);
 			}
 			return result;
 		}
@@ -193,11 +257,9 @@ class DistributedStoreQuery extends JDBCStoreQuery {
 		@Override
         public Number executeDelete(StoreQuery q, Object[] params) {
 			List<Future<Number>> futures = new ArrayList<>();
-			int result = 0;
-            ExecutorService threadPool = SliceThread.getPool();
-			List<SliceStoreManager> targets = findTargets();
+			List<SliceStoreManager> targets = findTargets(q, params);
 			for (int i = 0; i < owner._queries.size(); i++) {
-                StoreManager sm = owner.getDistributedStore().getSlice(i);
+                SliceStoreManager sm = owner.getDistributedStore().getSlice(i);
 				if (!targets.contains(sm))
 					continue;
 
@@ -205,52 +267,64 @@ class DistributedStoreQuery extends JDBCStoreQuery {
 				call.executor = executors.get(i);
 				call.query = owner._queries.get(i);
 				call.params = params;
-				futures.add(threadPool.submit(call));
-			}
-			for (Future<Number> future : futures) {
-				try {
-					Number n = future.get();
-					if (n != null)
-						result += n.intValue();
-				} catch (InterruptedException e) {
-					throw new RuntimeException(e);
-				} catch (ExecutionException e) {
-					throw new StoreException(e.getCause());
-				}
+				futures.add(owner.getDistributedStore().getExecutor(sm)
+					.submit(call));
 			}
-			return result;
+			return sum(await(q, futures));
 		}
 
 		@Override
         public Number executeUpdate(StoreQuery q, Object[] params) {
-			Iterator<StoreQuery> qs = owner._queries.iterator();
-			List<Future<Number>> futures = null;
-			int result = 0;
-            ExecutorService threadPool = SliceThread.getPool();
-			for (Executor ex : executors) {
-				if (futures == null)
-                    futures = new ArrayList<>();
+			List<Future<Number>> futures = new ArrayList<>();
+			List<SliceStoreManager> targets = findTargets(q, params);
+			for (int i = 0; i < owner._queries.size(); i++) {
+                SliceStoreManager sm = owner.getDistributedStore().getSlice(i);
+				if (!targets.contains(sm))
+					continue;
+
 				UpdateExecutor call = new UpdateExecutor();
-				call.executor = ex;
-				call.query = qs.next();
+				call.executor = executors.get(i);
+				call.query = owner._queries.get(i);
 				call.params = params;
-				futures.add(threadPool.submit(call));
-			}
-			for (Future<Number> future : futures) {
-				try {
-					Number n = future.get();
-                    result += (n == null) ? 0 : n.intValue();
-				} catch (InterruptedException e) {
-					throw new RuntimeException(e);
-				} catch (ExecutionException e) {
-					throw new StoreException(e.getCause());
-				}
+				futures.add(owner.getDistributedStore().getExecutor(sm)
+					.submit(call));
 			}
+			return sum(await(q, futures));
+		}
+
+		/**
+		 * Wait for the given slice operations of the given query, at most
+		 * for the query timeout.
+		 */
+		private <T> List<T> await(StoreQuery q, List<Future<T>> futures) {
+			QueryContext ctx = q.getContext();
+			return SliceTasks.await(futures,
+				ctx.getFetchConfiguration().getQueryTimeout(),
+				ctx.getQueryString());
+		}
+
+		private static int sum(List<Number> numbers) {
+			int result = 0;
+			for (Number n : numbers)
+				result += (n == null) ? 0 : n.intValue();
 			return result;
 		}
 
-		List<SliceStoreManager> findTargets() {
+		/**
+		 * Gets the slices targeted by hint or, without a hint, the slices
+		 * that hold the primary key values the filter of the query restricts
+		 * its candidates to.
+		 */
+		List<SliceStoreManager> findTargets(StoreQuery q, Object[] params) {
   		    FetchConfiguration fetch = owner.getContext().getFetchConfiguration();
+			if (fetch.getHint(SlicePersistence.HINT_TARGET) == null
+				&& !containsReplicated(q.getContext())) {
+				String[] keyTargets = KeyPredicates.getTargets(
+					getQueryExpressions()[0], candidate, params,
+					q.getContext().getStoreContext());
+				if (keyTargets != null)
+					return owner.getDistributedStore().getTargets(keyTargets);
+			}
 			return owner.getDistributedStore().getTargets(fetch);
 		}
 
@@ -261,10 +335,20 @@ class DistributedStoreQuery extends JDBCStoreQuery {
 		Executor executor;
 		Object[] params;
 		Range range;
+		String slice;
+		ReplicaSelector selector;
 
 		@Override
         public ResultObjectProvider call() throws Exception {
-			return executor.executeQuery(query, params, range);
+			if (selector == null)
+				return executor.executeQuery(query, params, range);
+			long start = System.nanoTime();
+			selector.started(slice);
+			try {
+				return executor.executeQuery(query, params, range);
+			} finally {
+				selector.completed(slice, System.nanoTime() - start);
+			}
 		}
 	}
 
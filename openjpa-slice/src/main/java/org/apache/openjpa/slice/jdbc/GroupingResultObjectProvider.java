@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.slice.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.openjpa.kernel.StoreQuery;
+import org.apache.openjpa.kernel.exps.QueryExpressions;
+import org.apache.openjpa.lib.rop.ResultObjectProvider;
+import org.apache.openjpa.lib.util.Localizer;
+import org.apache.openjpa.util.InternalException;
+
+/**
+ * Combines the grouped results of different databases.
+ * <br>
+ * Each slice computes partial aggregates for the groups it holds. Rows of
+ * different slices that belong to the same group, i.e. carry the same values
+ * for the grouping terms, are combined into one row. The combined rows are
+ * then ordered by the ordering of the query, if any.
+ * <br>
+ * Each slice also selects the grouping terms that the query does not project,
+ * see {@link PartialAggregates#projectGrouping(QueryExpressions)}. These
+ * columns take part in matching the rows of a group, and are removed from the
+ * combined rows.
+ *
+ * @since 3.0.1
+ */
+class GroupingResultObjectProvider implements ResultObjectProvider {
+    private final ResultObjectProvider[] _rops;
+    private final StoreQuery _query;
+    private final StoreQuery.Executor _executor;
+    private final Object[] _params;
+    private final QueryExpressions _exps;
+    private final PartialAggregates _aggregates;
+    private final int[] _keys;
+    private List<Object[]> _rows;
+    private int _index = -1;
+    private boolean _opened;
+
+    private static final Localizer _loc =
+        Localizer.forPackage(GroupingResultObjectProvider.class);
+
+    /**
+     * Constructor.
+     *
+     * @param rops the results of each slice
+     * @param q the query
+     * @param executor the executor of the query, used to extract the
+     * ordering values of a result row
+     * @param params the query parameters
+     * @param exps the expressions of the query
+     * @param counts the indices of the COUNT columns added for averages
+     * or null, see {@link PartialAggregates#rewrite}
+     * @param keys the indices of the columns added for the grouping terms
+     * that are not projected or null, see
+     * {@link PartialAggregates#projectGrouping}
+     */
+    public GroupingResultObjectProvider(ResultObjectProvider[] rops,
+        StoreQuery q, StoreQuery.Executor executor, Object[] params,
+        QueryExpressions exps, int[] counts, int[] keys) {
+        _rops = rops;
+        _query = q;
+        _executor = executor;
+        _params = params;
+        _exps = exps;
+        _aggregates = new PartialAggregates(exps.projections, counts);
+        _keys = (keys == null) ? new int[0] : keys;
+    }
+
+    @Override
+    public void open() throws Exception {
+        for (ResultObjectProvider rop : _rops)
+            rop.open();
+        _opened = true;
+    }
+
+    @Override
+    public boolean next() throws Exception {
+        if (!_opened)
+            open();
+        if (_rows == null)
+            _rows = merge();
+        return ++_index < _rows.size();
+    }
+
+    @Override
+    public Object getResultObject() throws Exception {
+        if (!_opened)
+            throw new InternalException(_loc.get("not-open"));
+        return _rows.get(_index);
+    }
+
+    /**
+     * Read the rows of all slices and combine the rows of each group.
+     */
+    private List<Object[]> merge() throws Exception {
+        Map<List<Object>, Object[]> groups = new LinkedHashMap<>();
+        for (ResultObjectProvider rop : _rops) {
+            while (rop.next()) {
+                Object[] row = (Object[]) rop.getResultObject();
+                List<Object> key = getKey(row);
+                groups.put(key, _aggregates.merge(groups.get(key), row));
+            }
+        }
+
+        List<Object[]> result = new ArrayList<>(groups.size());
+        for (Object[] row : groups.values())
+            result.add(_aggregates.finish(row));
+        if (_exps.ascending.length > 0)
+            Collections.sort(result, new OrderingComparator());
+        return result;
+    }
+
+    private List<Object> getKey(Object[] row) {
+        List<Object> key = new ArrayList<>();
+        for (int i = 0; i < _exps.projections.length; i++)
+            if (!_aggregates.isAggregate(i))
+                key.add(row[i]);
+        for (int i = 0; i < _keys.length; i++)
+            key.add(row[_keys[i]]);
+        return key;
+    }
+
+    @Override
+    public boolean absolute(int pos) throws Exception {
+        if (_rows == null)
+            _rows = merge();
+        _index = pos;
+        return pos >= 0 && pos < _rows.size();
+    }
+
+    @Override
+    public int size() throws Exception {
+        if (_rows == null)
+            _rows = merge();
+        return _rows.size();
+    }
+
+    @Override
+    public boolean supportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void reset() throws Exception {
+        _index = -1;
+    }
+
+    @Override
+    public void close() throws Exception {
+        _opened = false;
+        for (ResultObjectProvider rop : _rops)
+            rop.close();
+    }
+
+    @Override
+    public void handleCheckedException(Exception e) {
+        _rops[0].handleCheckedException(e);
+    }
+
+    /**
+     * Orders the combined rows on the ordering terms of the query. Nulls
+     * come last in ascending order, as they do in the merge of ordered
+     * results.
+     */
+    private class OrderingComparator implements Comparator<Object[]> {
+        @Override
+        public int compare(Object[] row1, Object[] row2) {
+            for (int i = 0; i < _exps.ascending.length; i++) {
+                Object o1 = _executor.getOrderingValue(_query, _params, row1, i);
+                Object o2 = _executor.getOrderingValue(_query, _params, row2, i);
+                int cmp = cmp(o1, o2, _exps.ascending[i]);
+                if (cmp != 0)
+                    return cmp;
+            }
+            return 0;
+        }
+
+        private int cmp(Object o1, Object o2, boolean asc) {
+            if (o1 == null && o2 == null)
+                return 0;
+            if (o1 == null)
+                return (asc) ? 1 : -1;
+            if (o2 == null)
+                return (asc) ? -1 : 1;
+            @SuppressWarnings("unchecked")
+            int cmp = ((Comparable<Object>) o1).compareTo(o2);
+            return (asc) ? cmp : -cmp;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.slice.jdbc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.openjpa.jdbc.kernel.exps.PCPath;
+import org.apache.openjpa.kernel.StoreContext;
+import org.apache.openjpa.kernel.exps.Constant;
+import org.apache.openjpa.kernel.exps.Expression;
+import org.apache.openjpa.kernel.exps.ExpressionVisitor;
+import org.apache.openjpa.kernel.exps.QueryExpressions;
+import org.apache.openjpa.kernel.exps.Value;
+import org.apache.openjpa.meta.ClassMetaData;
+import org.apache.openjpa.meta.FieldMetaData;
+import org.apache.openjpa.slice.DistributedConfiguration;
+import org.apache.openjpa.slice.FinderTargetPolicy;
+
+/**
+ * Finds the slices of a query whose filter restricts the primary key of its
+ * candidates to a few values.
+ * <br>
+ * The filter is reduced to the set of key values that a candidate must have
+ * to satisfy it. Equality to a constant or parameter, and membership in a
+ * list of them, restrict the key; a conjunction restricts it to the key
+ * values common to its terms that restrict it, and a disjunction to the key
+ * values of all its terms, provided each of them restricts it. The slices of
+ * the key values are given by the {@link FinderTargetPolicy}, as for a find
+ * of each of them.
+ * <br>
+ * A finder target policy need not give all the slices an instance may be
+ * stored in, so queries are only targeted by their key values if the
+ * configuration affirms {@link DistributedConfiguration#isQueryTargetsByKey()}.
+ *
+ * @since 3.0.1
+ */
+class KeyPredicates implements ExpressionVisitor {
+    private static final String AND = "AndExpression";
+    private static final String OR  = "OrExpression";
+    private static final String EQUAL = "EqualExpression";
+    private static final String IN = "InExpression";
+
+    private final FieldMetaData _key;
+    private final Object[] _params;
+    private final LinkedList<Term> _terms = new LinkedList<>();
+    private Set<Object> _keys;
+    private int _depth;
+
+    private KeyPredicates(FieldMetaData key, Object[] params) {
+        _key = key;
+        _params = params;
+    }
+
+    /**
+     * Gets the slices that hold the candidates of the given query expressions,
+     * or null if the filter does not restrict the candidates to a few key
+     * values, no finder target policy is configured, or queries are not
+     * targeted by key.
+     */
+    static String[] getTargets(QueryExpressions exps, ClassMetaData meta,
+        Object[] params, StoreContext ctx) {
+        if (exps == null || exps.filter == null || meta == null)
+            return null;
+        DistributedConfiguration conf =
+            (DistributedConfiguration) ctx.getConfiguration();
+        if (!conf.isQueryTargetsByKey())
+            return null;
+        FinderTargetPolicy policy = conf.getFinderTargetPolicyInstance();
+        if (policy == null)
+            return null;
+        Collection<Object> keys = getKeys(exps.filter, meta, params);
+        if (keys == null || keys.isEmpty())
+            return null;
+
+        List<String> slices = conf.getActiveSliceNames();
+        Set<String> targets = new LinkedHashSet<>();
+        for (Object key : keys) {
+            String[] names = policy.getTargets(meta.getDescribedType(), key,
+                slices, ctx);
+            if (names == null || names.length == 0)
+                return null;
+            targets.addAll(Arrays.asList(names));
+        }
+        return targets.toArray(new String[targets.size()]);
+    }
+
+    /**
+     * Gets the primary key values the given filter restricts the candidates
+     * of the given type to, or null if it does not.
+     */
+    static Collection<Object> getKeys(Expression filter, ClassMetaData meta,
+        Object[] params) {
+        if (meta.getIdentityType() != ClassMetaData.ID_APPLICATION)
+            return null;
+        FieldMetaData[] pks = meta.getPrimaryKeyFields();
+        if (pks.length != 1)
+            return null;
+        KeyPredicates visitor = new KeyPredicates(pks[0], params);
+        filter.acceptVisit(visitor);
+        return visitor._keys;
+    }
+
+    @Override
+    public void enter(Expression exp) {
+        _terms.push(new Term(exp.getClass().getSimpleName(), _depth));
+    }
+
+    @Override
+    public void exit(Expression exp) {
+        Term term = _terms.pop();
+        Set<Object> keys = term.getKeys();
+        Term parent = _terms.peek();
+        if (parent == null)
+            _keys = keys;
+        else if (parent.depth == term.depth)
+            parent.terms.add(keys);
+    }
+
+    @Override
+    public void enter(Value val) {
+        Term term = _terms.peek();
+        if (term != null && term.depth == _depth)
+            term.values.add(val);
+        _depth++;
+    }
+
+    @Override
+    public void exit(Value val) {
+        _depth--;
+    }
+
+    /**
+     * Affirms if the given value is the primary key of the candidate.
+     */
+    boolean isKey(Value val) {
+        if (!(val instanceof PCPath))
+            return false;
+        PCPath path = (PCPath) val;
+        return !path.isVariablePath() && !path.isSubqueryPath()
+            && path.last() != null && path.last().isPrimaryKey()
+            && path.last().getName().equals(_key.getName())
+            && path.getPCPathString().equals(_key.getName() + ".");
+    }
+
+    /**
+     * An expression with the key values of its sub-expressions, or null for
+     * the sub-expressions that do not restrict the key, and its values.
+     */
+    private class Term {
+        final String op;
+        final int depth;
+        final List<Set<Object>> terms = new ArrayList<>();
+        final List<Value> values = new ArrayList<>();
+
+        Term(String op, int depth) {
+            this.op = op;
+            this.depth = depth;
+        }
+
+        Set<Object> getKeys() {
+            if (AND.equals(op)) {
+                Set<Object> keys = null;
+                for (Set<Object> term : terms) {
+                    if (term == null)
+                        continue;
+                    if (keys == null)
+                        keys = new LinkedHashSet<>(term);
+                    else
+                        keys.retainAll(term);
+                }
+                return keys;
+            }
+            if (OR.equals(op)) {
+                Set<Object> keys = new LinkedHashSet<>();
+                for (Set<Object> term : terms) {
+                    if (term == null)
+                        return null;
+                    keys.addAll(term);
+                }
+                return terms.isEmpty() ? null : keys;
+            }
+            if ((EQUAL.equals(op) || IN.equals(op)) && values.size() == 2) {
+                Value v1 = values.get(0);
+                Value v2 = values.get(1);
+                if (isKey(v1) && v2 instanceof Constant)
+                    return getValues(op, (Constant) v2);
+                if (EQUAL.equals(op) && isKey(v2) && v1 instanceof Constant)
+                    return getValues(op, (Constant) v1);
+            }
+            return null;
+        }
+
+        private Set<Object> getValues(String op, Constant val) {
+            Object value = val.getValue(_params);
+            Set<Object> keys = new LinkedHashSet<>();
+            if (IN.equals(op) && value instanceof Collection)
+                keys.addAll((Collection<?>) value);
+            else if (IN.equals(op) && value instanceof Object[])
+                keys.addAll(Arrays.asList((Object[]) value));
+            else if (value instanceof Collection || value instanceof Object[])
+                return null;
+            else
+                keys.add(value);
+            return keys.contains(null) ? null : keys;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.slice.jdbc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.openjpa.jdbc.kernel.exps.JDBCExpressionFactory;
+import org.apache.openjpa.jdbc.kernel.exps.NullableAggregateUnaryOp;
+import org.apache.openjpa.jdbc.meta.ClassMapping;
+import org.apache.openjpa.kernel.Filters;
+import org.apache.openjpa.kernel.exps.QueryExpressions;
+import org.apache.openjpa.kernel.exps.Value;
+import org.apache.openjpa.lib.util.Localizer;
+import org.apache.openjpa.meta.ClassMetaData;
+import org.apache.openjpa.util.UserException;
+
+/**
+ * Combines the partial aggregates computed by each slice into the aggregates
+ * of the whole query.
+ * <br>
+ * COUNT, MAX, MIN and SUM of the slices combine directly. AVG does not: each
+ * slice is asked for the SUM and COUNT of the averaged value instead, see
+ * {@link #rewrite(QueryExpressions, ClassMetaData)}, and the average is
+ * computed once all slices are combined.
+ *
+ * @since 3.0.1
+ */
+class PartialAggregates {
+    private static final String COUNT = "Count";
+    private static final String MAX   = "Max";
+    private static final String MIN   = "Min";
+    private static final String SUM   = "Sum";
+    private static final String AVG   = "Avg";
+    private static final String DISTINCT = "Distinct";
+
+    private static final Localizer _loc =
+        Localizer.forPackage(PartialAggregates.class);
+
+    private final Value[] _values;
+    private final String[] _ops;
+    private final int[] _counts;
+
+    /**
+     * Constructor.
+     *
+     * @param values the projections of the query
+     * @param counts for each projection, the index of the additional COUNT
+     * column that each slice selects for an average, or -1. May be null if
+     * the query has no average.
+     */
+    PartialAggregates(Value[] values, int[] counts) {
+        _values = values;
+        _counts = counts;
+        _ops = new String[values.length];
+        for (int i = 0; i < values.length; i++)
+            _ops[i] = values[i].isAggregate()
+                ? values[i].getClass().getSimpleName() : null;
+    }
+
+    /**
+     * Rewrite each AVG projection of the given expressions of a slice query
+     * into a SUM and add a COUNT of the same value as an additional
+     * projection.
+     *
+     * @return for each original projection, the index of its COUNT or -1, or
+     * null if there was no AVG to rewrite
+     */
+    static int[] rewrite(QueryExpressions exps, ClassMetaData meta) {
+        int[] counts = null;
+        List<Value> added = null;
+        JDBCExpressionFactory factory = null;
+        for (int i = 0; i < exps.projections.length; i++) {
+            Value v = exps.projections[i];
+            if (!v.isAggregate() || !AVG.equals(v.getClass().getSimpleName()))
+                continue;
+
+            Value arg = ((NullableAggregateUnaryOp) v).getValue();
+            if (DISTINCT.equals(arg.getClass().getSimpleName()))
+                throw new UserException(_loc.get("aggregate-unsupported",
+                    "AVG(DISTINCT)"));
+            if (counts == null) {
+                counts = new int[exps.projections.length];
+                for (int j = 0; j < counts.length; j++)
+                    counts[j] = -1;
+                added = new ArrayList<>();
+                factory = new JDBCExpressionFactory((ClassMapping) meta);
+            }
+            exps.projections[i] = factory.sum(arg);
+            counts[i] = exps.projections.length + added.size();
+            added.add(factory.count(arg));
+        }
+        if (counts == null)
+            return null;
+
+        int avgs = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == -1)
+                continue;
+            String clause = exps.projectionClauses[i];
+            if (clause.regionMatches(true, 0, AVG, 0, AVG.length()))
+                clause = COUNT.toUpperCase() + clause.substring(AVG.length());
+            else
+                clause = COUNT.toUpperCase() + "(" + clause + ")";
+            project(exps, added.get(avgs++), clause);
+        }
+        return counts;
+    }
+
+    /**
+     * Add each grouping term of the given expressions of a slice query that
+     * is not projected as an additional projection, so that the rows of
+     * different slices can be matched to their group.
+     *
+     * @return the indices of the added projections, or null if all grouping
+     * terms are projected
+     */
+    static int[] projectGrouping(QueryExpressions exps) {
+        if (exps.grouping.length == 0 || exps.projections.length == 0)
+            return null;
+        List<String> projected = Arrays.asList(exps.projectionClauses);
+        int[] keys = new int[exps.grouping.length];
+        int count = 0;
+        for (int i = 0; i < exps.grouping.length; i++) {
+            if (projected.contains(exps.groupingClauses[i]))
+                continue;
+            keys[count++] = exps.projections.length;
+            project(exps, exps.grouping[i], exps.groupingClauses[i]);
+        }
+        return (count == 0) ? null : Arrays.copyOf(keys, count);
+    }
+
+    /**
+     * Add the given value as the last projection of the given expressions,
+     * keeping the clauses and aliases of the projections in step.
+     */
+    private static void project(QueryExpressions exps, Value v,
+        String clause) {
+        int len = exps.projections.length;
+        exps.projections = Arrays.copyOf(exps.projections, len + 1);
+        exps.projections[len] = v;
+        exps.projectionClauses = Arrays.copyOf(exps.projectionClauses,
+            len + 1);
+        exps.projectionClauses[len] = clause;
+        exps.projectionAliases = Arrays.copyOf(exps.projectionAliases,
+            len + 1);
+        exps.projectionAliases[len] = "";
+    }
+
+    /**
+     * Whether the given projection is an aggregate.
+     */
+    boolean isAggregate(int i) {
+        return _ops[i] != null;
+    }
+
+    /**
+     * Combine a row of a slice into the given running row. The running row
+     * is null for the first row of a group.
+     */
+    Object[] merge(Object[] current, Object[] row) {
+        if (current == null)
+            return row.clone();
+
+        for (int i = 0; i < _values.length; i++) {
+            String op = _ops[i];
+            if (op == null) {
+                if (current[i] == null)
+                    current[i] = row[i];
+            } else if (COUNT.equals(op)) {
+                current[i] = count(current[i], row[i]);
+            } else if (MAX.equals(op)) {
+                current[i] = max(current[i], row[i]);
+            } else if (MIN.equals(op)) {
+                current[i] = min(current[i], row[i]);
+            } else if (SUM.equals(op)) {
+                current[i] = sum(current[i], row[i]);
+            } else if (AVG.equals(op) && _counts != null && _counts[i] != -1) {
+                current[i] = sum(current[i], row[i]);
+                current[_counts[i]] = count(current[_counts[i]],
+                    row[_counts[i]]);
+            } else {
+                throw new UnsupportedOperationException
+                    (_loc.get("aggregate-unsupported", op).toString());
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Compute the final projections of a combined row.
+     */
+    Object[] finish(Object[] row) {
+        Object[] result = new Object[_values.length];
+        for (int i = 0; i < result.length; i++) {
+            Object val = row[i];
+            if (_counts != null && _counts[i] != -1)
+                val = avg(val, row[_counts[i]]);
+            result[i] = Filters.convert(val, _values[i].getType());
+        }
+        return result;
+    }
+
+    static Object count(Object current, Object other) {
+        if (current == null)
+            return other;
+        if (other == null)
+        	return current;
+        return ((Number)current).longValue() + ((Number)other).longValue();
+    }
+
+    static Object max(Object current, Object other) {
+        if (current == null)
+            return other;
+        if (other == null)
+        	return current;
+        if (current instanceof Number) {
+        	return Math.max(((Number)current).doubleValue(),
+                ((Number)other).doubleValue());
+        }
+        if (current instanceof String) {
+        	return  ((String)current).compareTo((String)other) > 0 ? current : other;
+        }
+        if (current instanceof Date) {
+        	return ((Date)current).compareTo((Date)other) > 0 ? current : other;
+        }
+        if (current instanceof Character) {
+        	return ((Character)current).compareTo((Character)other) > 0 ? current : other;
+        }
+        throw new UnsupportedOperationException(_loc.get("aggregate-unsupported-on-type",
+        		"MAX()", (current == null ? other : current).getClass().getName()).toString());
+    }
+
+    static Object min(Object current, Object other) {
+        if (current == null)
+            return other;
+        if (other == null)
+        	return current;
+        if (current instanceof Number) {
+	        return Math.min(((Number)current).doubleValue(),
+	                ((Number)other).doubleValue());
+        }
+        if (current instanceof String) {
+        	return ((String)current).compareTo((String)other) < 0 ? current : other;
+        }
+        if (current instanceof Date) {
+        	return ((Date)current).compareTo((Date)other) < 0 ? current : other;
+        }
+        if (current instanceof Character) {
+        	return ((Character)current).compareTo((Character)other) < 0 ? current : other;
+        }
+        throw new UnsupportedOperationException(_loc.get("aggregate-unsupported-on-type",
+        		"MIN()", (current == null ? other : current).getClass().getName()).toString());
+    }
+
+    static Object sum(Object current, Object other) {
+        if (current == null)
+            return other;
+        if (other == null)
+        	return current;
+        if (current instanceof Number) {
+        	return (((Number)current).doubleValue() +
+                ((Number)other).doubleValue());
+        }
+        throw new UnsupportedOperationException(_loc.get("aggregate-unsupported-on-type",
+        		"SUM()", (current == null ? other : current).getClass().getName()).toString());
+    }
+
+    static Object avg(Object sum, Object count) {
+        if (sum == null || count == null || ((Number) count).longValue() == 0)
+            return null;
+        return ((Number) sum).doubleValue() / ((Number) count).longValue();
+    }
+}
@@ -0,0 +1,517 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.slice.jdbc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.openjpa.conf.OpenJPAConfiguration;
+import org.apache.openjpa.enhance.PCRegistry;
+import org.apache.openjpa.enhance.PersistenceCapable;
+import org.apache.openjpa.kernel.Broker;
+import org.apache.openjpa.kernel.BrokerFactory;
+import org.apache.openjpa.kernel.OpCallbacks;
+import org.apache.openjpa.kernel.OpenJPAStateManager;
+import org.apache.openjpa.kernel.Query;
+import org.apache.openjpa.kernel.jpql.JPQLParser;
+import org.apache.openjpa.lib.conf.Configurations;
+import org.apache.openjpa.lib.log.Log;
+import org.apache.openjpa.lib.util.Localizer;
+import org.apache.openjpa.lib.util.Options;
+import org.apache.openjpa.meta.ClassMetaData;
+import org.apache.openjpa.meta.FieldMetaData;
+import org.apache.openjpa.meta.JavaTypes;
+import org.apache.openjpa.meta.MetaDataRepository;
+import org.apache.openjpa.meta.ValueMetaData;
+import org.apache.openjpa.slice.DistributionPolicy;
+import org.apache.openjpa.slice.SliceImplHelper;
+import org.apache.openjpa.slice.SliceInfo;
+import org.apache.openjpa.slice.SlicePersistence;
+import org.apache.openjpa.util.ImplHelper;
+import org.apache.openjpa.util.Proxy;
+
+/**
+ * Moves the persistent instances that are not stored in the slice their
+ * {@link DistributionPolicy} assigns them to, typically after a slice has been
+ * added to or removed from the active slices of a
+ * {@link org.apache.openjpa.slice.ConsistentHashPolicy consistent hash}.
+ * <br>
+ * Each root instance is read from its current slice, inserted into its
+ * assigned slice together with the instances it cascades persist to, and then
+ * these instances, and only these, are deleted from its current slice. The
+ * root instances are read and moved in pages of the batch size, each page
+ * committed to the assigned slices before it is deleted from the current ones,
+ * so that an interrupted run never loses an instance and can simply be run
+ * again.
+ * <br>
+ * The tool accepts the standard set of command-line arguments defined by
+ * the configuration framework, as well as:
+ * <ul>
+ * <li><i>-dryRun/-d &lt;true/t | false/f&gt;</i>: Only report how many
+ * instances would move. Defaults to false.</li>
+ * <li><i>-batchSize/-b &lt;number&gt;</i>: The number of root instances moved
+ * per transaction. Defaults to 100.</li>
+ * </ul>
+ * The remaining arguments name the root classes to rebalance. Without any,
+ * all persistent classes that are neither replicated nor reached by a
+ * cascaded persist are rebalanced. Only classes that use application identity
+ * can be rebalanced, as identity must be preserved across slices.
+ *
+ * @since 3.0.1
+ */
+public class Rebalancer {
+    private static final Localizer _loc =
+        Localizer.forPackage(Rebalancer.class);
+
+    private final DistributedJDBCConfiguration _conf;
+    private final Log _log;
+    private boolean _dryRun = false;
+    private int _batchSize = 100;
+
+    public Rebalancer(DistributedJDBCConfiguration conf) {
+        _conf = conf;
+        _log = conf.getLog(OpenJPAConfiguration.LOG_TOOL);
+    }
+
+    /**
+     * Affirms if instances are only counted rather than moved.
+     */
+    public boolean isDryRun() {
+        return _dryRun;
+    }
+
+    /**
+     * Sets whether instances are only counted rather than moved.
+     */
+    public void setDryRun(boolean dryRun) {
+        _dryRun = dryRun;
+    }
+
+    /**
+     * Gets the number of root instances moved per transaction.
+     */
+    public int getBatchSize() {
+        return _batchSize;
+    }
+
+    /**
+     * Sets the number of root instances moved per transaction.
+     */
+    public void setBatchSize(int batchSize) {
+        _batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Rebalance the instances of the given root classes, or of all root
+     * classes if none is given.
+     *
+     * @return the number of root instances that were, or for a dry run would
+     * be, moved
+     */
+    public int rebalance(Class<?>... types) {
+        DistributedJDBCBrokerFactory factory =
+            new DistributedJDBCBrokerFactory(_conf);
+        try {
+            return rebalance(factory, types);
+        } finally {
+            factory.close();
+        }
+    }
+
+    /**
+     * Rebalance the instances of the given root classes, or of all root
+     * classes if none is given, with brokers of the given factory.
+     */
+    int rebalance(BrokerFactory factory, Class<?>... types) {
+        Collection<ClassMetaData> roots = getRoots(types);
+        int moved = 0;
+        for (ClassMetaData meta : roots)
+            for (String slice : _conf.getActiveSliceNames())
+                moved += rebalance(factory, meta, slice);
+        return moved;
+    }
+
+    /**
+     * Moves the instances of the given class out of the given slice. The
+     * instances are read in pages of the batch size, ordered by identity.
+     * Each page is moved in a transaction of its own.
+     */
+    private int rebalance(BrokerFactory factory, ClassMetaData meta,
+        String slice) {
+        List<String> slices = _conf.getActiveSliceNames();
+        DistributionPolicy policy = _conf.getDistributionPolicyInstance();
+        Broker src = factory.newBroker();
+        Broker dst = null;
+        try {
+            src.getFetchConfiguration().setHint(SlicePersistence.HINT_TARGET,
+                slice);
+            if (!_dryRun) {
+                dst = factory.newBroker();
+                src.begin();
+                dst.begin();
+            }
+
+            int count = 0;
+            long offset = 0;
+            while (true) {
+                List<?> page = getPage(src, meta, offset);
+                // the instances of a batch share their copies, so that an
+                // instance two roots cascade to is copied once
+                Map<Object, Object> copies = new IdentityHashMap<>();
+                for (Object pc : page) {
+                    String target = policy.distribute(pc, slices, src);
+                    if (target == null || target.equals(slice))
+                        continue;
+                    count++;
+                    if (_dryRun)
+                        continue;
+                    ((TargetFetchConfiguration) dst.getFetchConfiguration())
+                        .setTargets(new String[]{ target });
+                    copy(src, dst, pc, target, copies);
+                }
+
+                if (_dryRun)
+                    offset += page.size();
+                else if (!copies.isEmpty()) {
+                    // the instances that stay in the slice are not deleted,
+                    // so the next page starts after them
+                    for (Object pc : page)
+                        if (!copies.containsKey(pc))
+                            offset++;
+                    delete(src, copies.keySet());
+                    commit(src, dst);
+                    _log.info(_loc.get("rebalance-progress", slice, count,
+                        meta.getDescribedType().getName()));
+                } else
+                    offset += page.size();
+                src.evictAll(null);
+                if (dst != null)
+                    dst.evictAll(null);
+                if (page.size() < _batchSize)
+                    break;
+            }
+            _log.info(_loc.get("rebalance-type", new Object[]{
+                meta.getDescribedType().getName(), slice, count}));
+            return count;
+        } finally {
+            if (dst != null)
+                close(dst);
+            close(src);
+        }
+    }
+
+    /**
+     * Reads a page of the batch size of the instances of the given class,
+     * ordered by their primary key fields.
+     */
+    private List<?> getPage(Broker broker, ClassMetaData meta, long offset) {
+        StringBuilder jpql = new StringBuilder("SELECT x FROM ")
+            .append(meta.getTypeAlias()).append(" x");
+        FieldMetaData[] pks = meta.getPrimaryKeyFields();
+        for (int i = 0; i < pks.length; i++)
+            jpql.append((i == 0) ? " ORDER BY x." : ", x.")
+                .append(pks[i].getName());
+        Query q = broker.newQuery(JPQLParser.LANG_JPQL, jpql.toString());
+        try {
+            q.setRange(offset, offset + _batchSize);
+            return new ArrayList<>((Collection<?>) q.execute());
+        } finally {
+            q.closeAll();
+        }
+    }
+
+    /**
+     * Deletes exactly the given instances, without cascading to the
+     * instances they refer to.
+     */
+    private static void delete(Broker broker, Collection<Object> pcs) {
+        OpCallbacks call = new OpCallbacks() {
+            @Override
+            public int processArgument(int op, Object arg,
+                OpenJPAStateManager sm) {
+                return ACT_RUN;
+            }
+        };
+        for (Object pc : pcs)
+            broker.delete(pc, call);
+    }
+
+    /**
+     * Commits the copies before deleting their originals.
+     */
+    private static void commit(Broker src, Broker dst) {
+        dst.commit();
+        src.commit();
+        dst.begin();
+        src.begin();
+    }
+
+    private static void close(Broker broker) {
+        if (broker.isActive())
+            broker.rollback();
+        broker.close();
+    }
+
+    /**
+     * Persists a copy of the given instance, and of the instances it cascades
+     * persist to, in the given target slice. An instance that the target
+     * slice already holds, as an interrupted run left it, is not copied again
+     * but is still recorded, so that it is deleted from the source slice.
+     *
+     * @param copies the copy of each instance of the batch, keyed by the
+     * instance
+     */
+    private Object copy(Broker src, Broker dst, Object pc, String target,
+        Map<Object, Object> copies) {
+        Object copy = copies.get(pc);
+        if (copy != null)
+            return copy;
+
+        OpenJPAStateManager sm = src.getStateManager(pc);
+        ClassMetaData meta = sm.getMetaData();
+        Object oid = sm.getObjectId();
+        OpenJPAStateManager nsm = null;
+        copy = dst.find(oid, true, null);
+        if (copy == null) {
+            PersistenceCapable npc = PCRegistry.newInstance(
+                meta.getDescribedType(), null, oid, false);
+            nsm = dst.persist(npc, oid, null);
+            new SliceInfo(target).setInto(nsm);
+            copy = npc;
+        }
+        copies.put(pc, copy);
+
+        FieldMetaData[] fmds = meta.getFields();
+        for (int i = 0; i < fmds.length; i++) {
+            if (!isCopied(fmds[i]))
+                continue;
+            Object val = copyValue(src, dst, sm.fetchField(i, true), fmds[i],
+                target, copies);
+            if (nsm != null) {
+                nsm.storeField(i, val);
+                nsm.dirty(i);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Copies the value of a field, translating references to instances of
+     * the source broker into instances of the target broker.
+     */
+    @SuppressWarnings("unchecked")
+    private Object copyValue(Broker src, Broker dst, Object val,
+        FieldMetaData fmd, String target, Map<Object, Object> copies) {
+        if (val instanceof Proxy)
+            val = ((Proxy) val).copy(val);
+        switch (fmd.getDeclaredTypeCode()) {
+            case JavaTypes.COLLECTION:
+                if (val != null) {
+                    Collection<Object> coll = (Collection<Object>) val;
+                    List<Object> elems = new ArrayList<>(coll);
+                    coll.clear();
+                    for (Object elem : elems)
+                        coll.add(copyRelation(src, dst, elem,
+                            fmd.getElement(), target, copies));
+                }
+                return val;
+            case JavaTypes.MAP:
+                if (val != null) {
+                    Map<Object, Object> map = (Map<Object, Object>) val;
+                    List<Map.Entry<Object, Object>> entries =
+                        new ArrayList<>(map.entrySet());
+                    map.clear();
+                    for (Map.Entry<Object, Object> entry : entries)
+                        map.put(copyRelation(src, dst, entry.getKey(),
+                            fmd.getKey(), target, copies),
+                            copyRelation(src, dst, entry.getValue(),
+                            fmd.getElement(), target, copies));
+                }
+                return val;
+            case JavaTypes.ARRAY:
+                if (val instanceof Object[]) {
+                    Object[] arr = ((Object[]) val).clone();
+                    for (int i = 0; i < arr.length; i++)
+                        arr[i] = copyRelation(src, dst, arr[i],
+                            fmd.getElement(), target, copies);
+                    return arr;
+                }
+                return val;
+            default:
+                return copyRelation(src, dst, val, fmd, target, copies);
+        }
+    }
+
+    /**
+     * Copies the related instances that are persisted by cascade, as they are
+     * stored in the same slice, and references the others by identity.
+     */
+    private Object copyRelation(Broker src, Broker dst, Object val,
+        ValueMetaData vmd, String target, Map<Object, Object> copies) {
+        if (val == null || !ImplHelper.isManageable(val))
+            return val;
+        if (vmd.getCascadePersist() != ValueMetaData.CASCADE_NONE
+            && !SliceImplHelper.isReplicated(val, _conf))
+            return copy(src, dst, val, target, copies);
+        return dst.find(src.getObjectId(val), false, null);
+    }
+
+    /**
+     * Affirms if the value of the given field is copied. The identity and
+     * version of an instance are assigned by the target broker, and the
+     * relations mapped by the other side are copied from that side.
+     */
+    private static boolean isCopied(FieldMetaData fmd) {
+        return fmd.getManagement() == FieldMetaData.MANAGE_PERSISTENT
+            && !fmd.isPrimaryKey()
+            && !fmd.isVersion()
+            && fmd.getMappedBy() == null;
+    }
+
+    /**
+     * Gets the classes to rebalance.
+     */
+    private Collection<ClassMetaData> getRoots(Class<?>... types) {
+        MetaDataRepository repos = _conf.getMetaDataRepositoryInstance();
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        boolean all = types == null || types.length == 0;
+        Collection<Class<?>> classes = all
+            ? repos.loadPersistentTypes(false, loader)
+            : Arrays.asList(types);
+
+        List<ClassMetaData> metas = new ArrayList<>();
+        Set<Class<?>> cascaded = new HashSet<>();
+        for (Class<?> cls : classes) {
+            ClassMetaData meta = repos.getMetaData(cls, loader, true);
+            metas.add(meta);
+            for (FieldMetaData fmd : meta.getFields()) {
+                addCascaded(fmd, cascaded);
+                addCascaded(fmd.getElement(), cascaded);
+                addCascaded(fmd.getKey(), cascaded);
+            }
+        }
+
+        List<ClassMetaData> roots = new ArrayList<>();
+        for (ClassMetaData meta : metas) {
+            Class<?> cls = meta.getDescribedType();
+            if (meta.isEmbeddedOnly() || meta.isAbstract()
+                || _conf.isReplicated(cls)
+                || (all && cascaded.contains(cls)))
+                continue;
+            if (meta.getIdentityType() != ClassMetaData.ID_APPLICATION) {
+                _log.warn(_loc.get("rebalance-not-app-id", cls.getName()));
+                continue;
+            }
+            if (hasEmbedded(meta)) {
+                _log.warn(_loc.get("rebalance-embedded", cls.getName()));
+                continue;
+            }
+            roots.add(meta);
+        }
+        return roots;
+    }
+
+    private static void addCascaded(ValueMetaData vmd, Set<Class<?>> types) {
+        if (vmd.getDeclaredTypeMetaData() != null
+            && vmd.getCascadePersist() != ValueMetaData.CASCADE_NONE)
+            types.add(vmd.getDeclaredType());
+    }
+
+    private static boolean hasEmbedded(ClassMetaData meta) {
+        for (FieldMetaData fmd : meta.getFields())
+            if (fmd.isEmbeddedPC() || fmd.getElement().isEmbeddedPC()
+                || fmd.getKey().isEmbeddedPC())
+                return true;
+        return false;
+    }
+
+    /**
+     * Usage: java org.apache.openjpa.slice.jdbc.Rebalancer [option]*
+     * [class name]*
+     *  <br>
+     * Where the following options are recognized.
+     * <ul>
+     * <li><i>-properties/-p &lt;properties file or resource&gt;</i>: The
+     * path or resource name of an OpenJPA properties file containing
+     * information as outlined in {@link OpenJPAConfiguration}. Optional.</li>
+     * <li><i>-&lt;property name&gt; &lt;property value&gt;</i>: All bean
+     * properties of the OpenJPA {@link DistributedJDBCConfiguration} can be
+     * set by using their names and supplying a value.</li>
+     * <li><i>-dryRun/-d &lt;true/t | false/f&gt;</i>: Only report how many
+     * instances would move.</li>
+     * <li><i>-batchSize/-b &lt;number&gt;</i>: The number of root instances
+     * moved per transaction.</li>
+     * </ul>
+     */
+    public static void main(String[] args)
+        throws Exception {
+        Options opts = new Options();
+        final String[] arguments = opts.setFromCmdLine(args);
+        boolean ret = Configurations.runAgainstAllAnchors(opts,
+            new Configurations.Runnable() {
+            @Override
+            public boolean run(Options opts) throws Exception {
+                DistributedJDBCConfiguration conf =
+                    new DistributedJDBCConfigurationImpl();
+                try {
+                    return Rebalancer.run(conf, arguments, opts);
+                } finally {
+                    conf.close();
+                }
+            }
+        });
+        if (!ret) {
+            // START - ALLOW PRINT STATEMENTS
+            System.out.println(_loc.get("rebalance-usage"));
+            // STOP - ALLOW PRINT STATEMENTS
+        }
+    }
+
+    /**
+     * Run the tool. Returns false if invalid options were given.
+     */
+    public static boolean run(DistributedJDBCConfiguration conf,
+        String[] args, Options opts)
+        throws Exception {
+        boolean dryRun = opts.removeBooleanProperty("dryRun", "d", false);
+        int batchSize = opts.removeIntProperty("batchSize", "b", 100);
+        Configurations.populateConfiguration(conf, opts);
+        if (batchSize < 1)
+            return false;
+
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        Class<?>[] types = new Class<?>[args.length];
+        for (int i = 0; i < args.length; i++)
+            types[i] = Class.forName(args[i], true, loader);
+
+        Rebalancer rebalancer = new Rebalancer(conf);
+        rebalancer.setDryRun(dryRun);
+        rebalancer.setBatchSize(batchSize);
+        int moved = rebalancer.rebalance(types);
+        conf.getLog(OpenJPAConfiguration.LOG_TOOL).info(_loc.get(
+            dryRun ? "rebalance-dry-run" : "rebalance-done", moved));
+        return true;
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.slice.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.openjpa.lib.rop.ResultObjectProvider;
+import org.apache.openjpa.slice.SliceExecutor;
+import org.apache.openjpa.slice.SliceTask;
+import org.apache.openjpa.util.QueryException;
+import org.apache.openjpa.util.StoreException;
+
+/**
+ * Waits for the operations submitted to the slices.
+ * <br>
+ * A wait is bounded by the query timeout. When the timeout expires or an
+ * operation fails, the outstanding operations are abandoned, see
+ * {@link SliceTask#abandon()}. The slice threads executing their statements
+ * are not interrupted, the query timeout of each statement bounds them.
+ *
+ * @since 3.0.1
+ */
+final class SliceTasks {
+    private SliceTasks() {
+    }
+
+    /**
+     * Wait for the results of all the given operations.
+     *
+     * @param timeout the number of milliseconds to wait for all operations,
+     * or zero or a negative value to wait without bound
+     * @param failed the query that timed out
+     */
+    static <T> List<T> await(List<Future<T>> futures, long timeout,
+        Object failed) {
+        long deadline = getDeadline(timeout);
+        List<T> results = new ArrayList<>(futures.size());
+        boolean complete = false;
+        try {
+            for (Future<T> future : futures) {
+                if (deadline == Long.MAX_VALUE)
+                    results.add(future.get());
+                else
+                    results.add(future.get(Math.max(0,
+                        deadline - System.currentTimeMillis()),
+                        TimeUnit.MILLISECONDS));
+            }
+            complete = true;
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new StoreException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new QueryException(failed, (int) timeout);
+        } finally {
+            if (!complete) {
+                cancel(futures.subList(results.size(), futures.size()));
+                for (T result : results)
+                    close(result);
+            }
+        }
+    }
+
+    /**
+     * Execute the first of the given equivalent operations and, each time
+     * the given delay passes or an operation fails without a result, the
+     * next one as well. Returns the first result. The other operations are
+     * cancelled.
+     *
+     * @param delay the number of milliseconds to wait for an operation
+     * before the next one is executed
+     * @param timeout the number of milliseconds to wait for a result, or
+     * zero or a negative value to wait without bound
+     * @param failed the query that timed out
+     */
+    static <T> T hedge(List<Callable<T>> calls, List<SliceExecutor> pools,
+        long delay, long timeout, Object failed) {
+        long deadline = getDeadline(timeout);
+        BlockingQueue<Future<T>> done = new LinkedBlockingQueue<>();
+        List<Future<T>> futures = new ArrayList<>();
+        Throwable error = null;
+        boolean submit = true;
+        int failures = 0;
+        try {
+            while (true) {
+                if (submit && futures.size() < calls.size()) {
+                    int i = futures.size();
+                    futures.add(new ExecutorCompletionService<>(pools.get(i),
+                        done).submit(calls.get(i)));
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0)
+                    throw new QueryException(failed, (int) timeout);
+                long wait = (futures.size() < calls.size())
+                    ? Math.min(delay, remaining) : remaining;
+                Future<T> future = done.poll(wait, TimeUnit.MILLISECONDS);
+                submit = true;
+                if (future == null)
+                    continue;
+                try {
+                    T result = future.get();
+                    futures.remove(future);
+                    return result;
+                } catch (ExecutionException e) {
+                    error = e.getCause();
+                    if (++failures == calls.size())
+                        throw new StoreException(error);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            cancel(futures);
+        }
+    }
+
+    /**
+     * Wait for all the given operations to complete, however long they take,
+     * so that none of them is still running when a failure is handled.
+     *
+     * @param results receives the result of each operation, or null for an
+     * operation that failed
+     * @return the failure of each operation, or null for an operation that
+     * completed
+     */
+    static <T> List<Throwable> awaitAll(List<Future<T>> futures,
+        List<T> results) {
+        List<Throwable> failures = new ArrayList<>(futures.size());
+        boolean interrupted = false;
+        for (Future<T> future : futures) {
+            T result = null;
+            Throwable failure = null;
+            while (true) {
+                try {
+                    result = future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    failure = e.getCause();
+                    break;
+                } catch (CancellationException e) {
+                    failure = e;
+                    break;
+                }
+            }
+            results.add(result);
+            failures.add(failure);
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        return failures;
+    }
+
+    private static long getDeadline(long timeout) {
+        return (timeout <= 0) ? Long.MAX_VALUE
+            : System.currentTimeMillis() + timeout;
+    }
+
+    /**
+     * Cancel the given operations without interrupting them. Results of
+     * operations that completed are closed.
+     */
+    private static <T> void cancel(List<Future<T>> futures) {
+        for (Future<T> future : futures) {
+            if (future instanceof SliceTask) {
+                ((SliceTask<T>) future).abandon();
+                continue;
+            }
+            if (future.cancel(false) || !future.isDone())
+                continue;
+            try {
+                close(future.get());
+            } catch (Exception e) {
+                // failed or cancelled, nothing to close
+            }
+        }
+    }
+
+    private static void close(Object result) {
+        if (result instanceof ResultObjectProvider) {
+            try {
+                ((ResultObjectProvider) result).close();
+            } catch (Exception e) {
+                // nothing more to do
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.slice;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.apache.openjpa.util.LongId;
+import org.apache.openjpa.util.StringId;
+
+/**
+ * Tests the slice of keys on a consistent hash ring.
+ */
+public class TestConsistentHash extends TestCase {
+    private static final int KEYS = 10000;
+    private static final List<String> THREE = Arrays.asList("One", "Two",
+        "Three");
+    private static final List<String> FOUR = Arrays.asList("One", "Two",
+        "Three", "Four");
+
+    public void testSameKeySameSlice() {
+        ConsistentHash ring = new ConsistentHash(THREE, 100);
+        ConsistentHash other = new ConsistentHash(THREE, 100);
+        for (long i = 0; i < 100; i++) {
+            assertEquals(ring.getSlice(i), ring.getSlice(i));
+            assertEquals(ring.getSlice(i), other.getSlice(i));
+        }
+    }
+
+    public void testIdentityHashesAsKey() {
+        ConsistentHash ring = new ConsistentHash(THREE, 100);
+        for (long i = 0; i < 100; i++) {
+            assertEquals(ring.getSlice(i),
+                ring.getSlice(new LongId(Object.class, i)));
+            assertEquals(ring.getSlice("key" + i),
+                ring.getSlice(new StringId(Object.class, "key" + i)));
+        }
+    }
+
+    public void testKeysSpreadEvenly() {
+        ConsistentHash ring = new ConsistentHash(FOUR, 100);
+        Map<String, Integer> counts = new HashMap<>();
+        for (long i = 0; i < KEYS; i++) {
+            String slice = ring.getSlice(i);
+            Integer count = counts.get(slice);
+            counts.put(slice, count == null ? 1 : count + 1);
+        }
+        assertEquals(FOUR.size(), counts.size());
+        for (Integer count : counts.values())
+            assertTrue(count + " keys", count > KEYS / FOUR.size() / 2
+                && count < KEYS / FOUR.size() * 2);
+    }
+
+    public void testAddedSliceOnlyTakesKeys() {
+        ConsistentHash before = new ConsistentHash(THREE, 100);
+        ConsistentHash after = new ConsistentHash(FOUR, 100);
+        int moved = 0;
+        for (long i = 0; i < KEYS; i++) {
+            String slice = after.getSlice(i);
+            if (!slice.equals(before.getSlice(i))) {
+                assertEquals("Four", slice);
+                moved++;
+            }
+        }
+        assertTrue(moved + " keys moved", moved > KEYS / FOUR.size() / 2
+            && moved < KEYS / FOUR.size() * 2);
+    }
+
+    public void testPolicyRebuildsRingForSlices() {
+        ConsistentHashPolicy policy = new ConsistentHashPolicy();
+        ConsistentHash three = new ConsistentHash(THREE, 100);
+        ConsistentHash four = new ConsistentHash(FOUR, 100);
+        for (long i = 0; i < 100; i++) {
+            assertEquals(three.getSlice(i),
+                policy.getTargets(Object.class, i, THREE, null)[0]);
+            assertEquals(four.getSlice(i),
+                policy.getTargets(Object.class, i, FOUR, null)[0]);
+        }
+        assertNull(policy.getTargets(Object.class, null, FOUR, null));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.slice;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.jdbc.conf.JDBCConfiguration;
+import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
+
+/**
+ * Tests that the slices of a transaction commit and roll back in the threads
+ * of their executors, and the batch limit of the slices.
+ */
+public class TestParallelTransaction extends SliceTestCase {
+
+    @Override
+    protected String getPersistenceUnitName() {
+        return "slice";
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp(PObject.class, Person.class, Address.class, Country.class,
+            CLEAR_TABLES, "openjpa.slice.BatchLimit", "25",
+            "openjpa.slice.Two.DBDictionary", "derby(BatchLimit=5)");
+    }
+
+    public void testCommitAndRollbackOnEverySlice() throws Exception {
+        DistributedConfiguration conf =
+            (DistributedConfiguration) emf.getConfiguration();
+        SliceExecutor one = conf.getExecutor("One");
+        SliceExecutor two = conf.getExecutor("Two");
+        EntityManager em = emf.createEntityManager();
+
+        em.getTransaction().begin();
+        Person a = new Person("A1");
+        Person b = new Person("B1");
+        em.persist(a);
+        em.persist(b);
+        em.flush();
+        long before1 = one.getExecutedCount();
+        long before2 = two.getExecutedCount();
+        em.getTransaction().commit();
+        assertExecuted(one, before1);
+        assertExecuted(two, before2);
+        assertEquals("One", SlicePersistence.getSlice(a));
+        assertEquals("Two", SlicePersistence.getSlice(b));
+
+        em.getTransaction().begin();
+        em.persist(new Person("A2"));
+        em.persist(new Person("B2"));
+        em.flush();
+        before1 = one.getExecutedCount();
+        before2 = two.getExecutedCount();
+        em.getTransaction().rollback();
+        assertExecuted(one, before1);
+        assertExecuted(two, before2);
+        em.close();
+
+        assertEquals(2, count(Person.class));
+    }
+
+    public void testBatchLimitOfSlices() {
+        DistributedConfiguration conf =
+            (DistributedConfiguration) emf.getConfiguration();
+        // the dictionary of slice One does not configure batching
+        assertEquals(25, getBatchLimit(conf, "One"));
+        assertEquals(5, getBatchLimit(conf, "Two"));
+
+        // by default, the slices are left as configured
+        OpenJPAEntityManagerFactorySPI other = createEMF(PObject.class,
+            Person.class, Address.class, Country.class,
+            "openjpa.slice.Two.DBDictionary", "derby(BatchLimit=5)");
+        try {
+            other.createEntityManager().close();
+            DistributedConfiguration defaults =
+                (DistributedConfiguration) other.getConfiguration();
+            assertEquals(0, defaults.getBatchLimit());
+            assertEquals(0, getBatchLimit(defaults, "One"));
+            assertEquals(5, getBatchLimit(defaults, "Two"));
+        } finally {
+            other.close();
+        }
+    }
+
+    private static int getBatchLimit(DistributedConfiguration conf,
+        String slice) {
+        return ((JDBCConfiguration) conf.getSlice(slice).getConfiguration())
+            .getDBDictionaryInstance().getBatchLimit();
+    }
+
+    /**
+     * Asserts that the given executor executed an operation since it counted
+     * the given number. An operation is counted just after its result is
+     * available, so the count is awaited.
+     */
+    private static void assertExecuted(SliceExecutor executor, long before)
+        throws InterruptedException {
+        for (int i = 0; i < 100 && executor.getExecutedCount() <= before; i++)
+            Thread.sleep(10);
+        assertTrue(executor.getExecutedCount() > before);
+    }
+}
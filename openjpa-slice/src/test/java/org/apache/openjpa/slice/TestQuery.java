@@ -174,6 +174,69 @@ public class TestQuery extends SliceTestCase {
         assertEquals(VALUE_MAX, ((Number)max).intValue());
     }
 
+    public void testAverageQuery() {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        Object avg = em.createQuery("SELECT AVG(p.value) FROM PObject p")
+                .getSingleResult();
+        // slice averages are 102 and 101, the average over all slices is not
+        Object[] partial = (Object[]) em.createQuery(
+                "SELECT COUNT(p),AVG(p.value),MAX(p.value) FROM PObject p " +
+                "WHERE p.value IN (100,101,102,104)")
+                .getSingleResult();
+        em.getTransaction().rollback();
+
+        assertEquals((VALUE_MIN + VALUE_MAX) / 2.0,
+                ((Number)avg).doubleValue(), 0.001);
+        assertEquals(4, ((Number)partial[0]).intValue());
+        assertEquals(101.75, ((Number)partial[1]).doubleValue(), 0.001);
+        assertEquals(104, ((Number)partial[2]).intValue());
+    }
+
+    public void testGroupByQuery() {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        // the address of each slice has the same zip code
+        List<?> zips = em.createQuery(
+                "SELECT a.zip,COUNT(p) FROM Person p JOIN p.address a " +
+                "GROUP BY a.zip").getResultList();
+        List<?> values = em.createQuery(
+                "SELECT p.value,COUNT(p) FROM PObject p " +
+                "GROUP BY p.value ORDER BY p.value DESC").getResultList();
+        // the grouping term is not projected, but groups are still combined
+        List<?> counts = em.createQuery(
+                "SELECT COUNT(p) FROM Person p JOIN p.address a " +
+                "GROUP BY a.zip").getResultList();
+        em.getTransaction().rollback();
+
+        assertEquals(1, zips.size());
+        assertEquals(2, ((Number)((Object[])zips.get(0))[1]).intValue());
+        assertEquals(1, counts.size());
+        assertEquals(2, ((Number)counts.get(0)).intValue());
+        assertEquals(POBJECT_COUNT, values.size());
+        int old = Integer.MAX_VALUE;
+        for (Object row : values) {
+            int value = ((Number)((Object[])row)[0]).intValue();
+            assertTrue(value < old);
+            assertEquals(1, ((Number)((Object[])row)[1]).intValue());
+            old = value;
+        }
+    }
+
+    public void testHavingOnManySlicesIsRejected() {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        try {
+            em.createQuery("SELECT p.value,COUNT(p) FROM PObject p " +
+                    "GROUP BY p.value HAVING COUNT(p) > 1").getResultList();
+            fail("HAVING can not be evaluated on the groups of many slices");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("HAVING"));
+        } finally {
+            em.getTransaction().rollback();
+        }
+    }
+
     public void testSetMaxResult() {
         EntityManager em = emf.createEntityManager();
         int limit = 3;
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.slice;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.slice.policy.SampleFinderPolicy;
+
+/**
+ * Tests that a query whose filter restricts the primary key of its candidates
+ * executes only on the slices the finder target policy gives for the key.
+ * <br>
+ * The instances are distributed by the parity of their value, but targeted
+ * by the parity of their identifier, so that an instance is only found by key
+ * if both agree on its slice.
+ */
+public class TestQueryKeyTargets extends SliceTestCase {
+    private static final int POBJECT_COUNT = 4;
+    private List<PObject> pcs = new ArrayList<>();
+
+    @Override
+    protected String getPersistenceUnitName() {
+        return "ordering";
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp(PObject.class, Person.class, Address.class, Country.class,
+            Car.class, Manufacturer.class,
+            "openjpa.slice.FinderTargetPolicy",
+            SampleFinderPolicy.class.getName(),
+            "openjpa.slice.QueryTargetsByKey", "true", CLEAR_TABLES);
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < POBJECT_COUNT; i++) {
+            PObject pc = new PObject();
+            pc.setValue(100 + i / 2);
+            em.persist(pc);
+            pcs.add(pc);
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    public void testEqualityTargetsSliceOfKey() {
+        EntityManager em = emf.createEntityManager();
+        int found = 0;
+        for (PObject pc : pcs) {
+            List<?> result = em.createQuery(
+                "select p from PObject p where p.id = :id")
+                .setParameter("id", pc.getId()).getResultList();
+            assertEquals(isTargeted(pc) ? 1 : 0, result.size());
+            found += result.size();
+        }
+        assertTrue(found > 0);
+        assertTrue(found < POBJECT_COUNT);
+        em.close();
+    }
+
+    public void testInTargetsSlicesOfKeys() {
+        EntityManager em = emf.createEntityManager();
+        List<Long> ids = new ArrayList<>();
+        for (PObject pc : pcs)
+            ids.add(pc.getId());
+        List<?> result = em.createQuery(
+            "select p from PObject p where p.id in :ids")
+            .setParameter("ids", ids).getResultList();
+        assertEquals(POBJECT_COUNT, result.size());
+
+        result = em.createQuery(
+            "select p from PObject p where p.id in :ids and p.value > 0")
+            .setParameter("ids", ids.subList(0, 1)).getResultList();
+        assertEquals(isTargeted(pcs.get(0)) ? 1 : 0, result.size());
+        em.close();
+    }
+
+    public void testDisjunctionWithoutKeyTargetsAllSlices() {
+        EntityManager em = emf.createEntityManager();
+        for (PObject pc : pcs) {
+            List<?> result = em.createQuery(
+                "select p from PObject p where p.id = :id or p.value < 0")
+                .setParameter("id", pc.getId()).getResultList();
+            assertEquals(1, result.size());
+        }
+        em.close();
+    }
+
+    public void testKeyDoesNotTargetUnlessEnabled() {
+        ((DistributedConfiguration) emf.getConfiguration())
+            .setQueryTargetsByKey(false);
+        EntityManager em = emf.createEntityManager();
+        for (PObject pc : pcs) {
+            List<?> result = em.createQuery(
+                "select p from PObject p where p.id = :id")
+                .setParameter("id", pc.getId()).getResultList();
+            assertEquals(1, result.size());
+        }
+        em.close();
+    }
+
+    /**
+     * Affirms if the finder target policy gives the slice the given instance
+     * is stored in.
+     */
+    boolean isTargeted(PObject pc) {
+        List<String> slices = ((DistributedConfiguration) emf
+            .getConfiguration()).getActiveSliceNames();
+        String[] targets = new SampleFinderPolicy().getTargets(PObject.class,
+            pc.getId(), slices, null);
+        return targets[0].equals(SlicePersistence.getSlice(pc));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.slice;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.persistence.OpenJPAEntityManager;
+import org.apache.openjpa.persistence.OpenJPAPersistence;
+
+/**
+ * Tests that finds, batch loads and queries of a replicated type read from
+ * the slice chosen by the replica selector, and report their reads to it.
+ */
+public class TestReplicaRouting extends SingleEMFTestCase {
+
+    /**
+     * Selects the last of the slices and records the reads reported.
+     */
+    public static class Recording extends ReplicaSelector.RoundRobin {
+        final List<String> started = new ArrayList<>();
+        final List<String> completed = new ArrayList<>();
+
+        @Override
+        public String select(List<String> slices) {
+            return slices.get(slices.size() - 1);
+        }
+
+        @Override
+        public synchronized void started(String slice) {
+            started.add(slice);
+        }
+
+        @Override
+        public synchronized void completed(String slice, long nanos) {
+            completed.add(slice);
+        }
+
+        synchronized void clear() {
+            started.clear();
+            completed.clear();
+        }
+    }
+
+    @Override
+    protected String getPersistenceUnitName() {
+        return "replication";
+    }
+
+    @Override
+    public void setUp() {
+        super.setUp(CLEAR_TABLES, "openjpa.slice.ReplicaSelector",
+            Recording.class.getName());
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        ReplicatedParent parent = new ReplicatedParent();
+        parent.setName("parent");
+        em.persist(parent);
+        em.getTransaction().commit();
+        em.close();
+        getSelector().clear();
+    }
+
+    private Recording getSelector() {
+        return (Recording) ((DistributedConfiguration) emf.getConfiguration())
+            .getReplicaSelectorInstance();
+    }
+
+    public void testFindReadsFromSelectedSlice() {
+        EntityManager em = emf.createEntityManager();
+        assertNotNull(em.find(ReplicatedParent.class, "parent"));
+        em.close();
+        assertReadsOnlyFrom("Two");
+    }
+
+    public void testBatchLoadReadsFromSelectedSlice() {
+        OpenJPAEntityManager em = OpenJPAPersistence.cast(
+            emf.createEntityManager());
+        ReplicatedParent[] found = em.findAll(ReplicatedParent.class,
+            "parent");
+        assertEquals(1, found.length);
+        assertNotNull(found[0]);
+        em.close();
+        assertReadsOnlyFrom("Two");
+    }
+
+    public void testQueryReadsFromSelectedSlice() {
+        EntityManager em = emf.createEntityManager();
+        List<?> result = em.createQuery("select p from ReplicatedParent p")
+            .getResultList();
+        assertEquals(1, result.size());
+        em.close();
+        assertReadsOnlyFrom("Two");
+    }
+
+    private void assertReadsOnlyFrom(String slice) {
+        Recording selector = getSelector();
+        synchronized (selector) {
+            assertFalse(selector.started.isEmpty());
+            for (String read : selector.started)
+                assertEquals(slice, read);
+            assertEquals(selector.started, selector.completed);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.slice;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the selection of the slice a replicated type is read from.
+ */
+public class TestReplicaSelector extends TestCase {
+    private static final List<String> SLICES = Arrays.asList("One", "Two",
+        "Three");
+
+    public void testRoundRobinSelectsEachSliceInTurn() {
+        ReplicaSelector selector = new ReplicaSelector.RoundRobin();
+        Map<String, Integer> counts = select(selector, 30);
+        assertEquals(SLICES.size(), counts.size());
+        for (Integer count : counts.values())
+            assertEquals(10, count.intValue());
+    }
+
+    public void testLeastOutstandingAvoidsBusySlice() {
+        ReplicaSelector.LeastOutstanding selector =
+            new ReplicaSelector.LeastOutstanding();
+        selector.started("One");
+        selector.started("Two");
+        for (int i = 0; i < 10; i++)
+            assertEquals("Three", selector.select(SLICES));
+
+        selector.started("Three");
+        selector.started("Three");
+        selector.completed("One", 0);
+        assertEquals(0, selector.getOutstandingCount("One"));
+        assertEquals("One", selector.select(SLICES));
+    }
+
+    public void testLeastOutstandingSelectsIdleSlicesInTurn() {
+        ReplicaSelector selector = new ReplicaSelector.LeastOutstanding();
+        Map<String, Integer> counts = select(selector, 30);
+        assertEquals(SLICES.size(), counts.size());
+    }
+
+    public void testLatencyPrefersUnmeasuredThenFasterSlice() {
+        ReplicaSelector.LatencyEWMA selector =
+            new ReplicaSelector.LatencyEWMA();
+        selector.started("One");
+        selector.completed("One", 1000);
+        selector.started("Two");
+        selector.completed("Two", 5000);
+        assertEquals("Three", selector.select(SLICES));
+
+        selector.started("Three");
+        selector.completed("Three", 3000);
+        for (int i = 0; i < 10; i++)
+            assertEquals("One", selector.select(SLICES));
+    }
+
+    public void testLatencyAverageDecays() {
+        ReplicaSelector.LatencyEWMA selector =
+            new ReplicaSelector.LatencyEWMA();
+        selector.setDecay(0.5);
+        selector.completed("One", 1000);
+        assertEquals(1000d, selector.getAverageLatency("One"));
+        selector.completed("One", 3000);
+        assertEquals(2000d, selector.getAverageLatency("One"));
+        assertEquals(0d, selector.getAverageLatency("Two"));
+    }
+
+    public void testLatencyWeighsOutstandingReads() {
+        ReplicaSelector.LatencyEWMA selector =
+            new ReplicaSelector.LatencyEWMA();
+        selector.completed("One", 1000);
+        selector.completed("Two", 1500);
+        assertEquals("One", selector.select(SLICES.subList(0, 2)));
+        selector.started("One");
+        assertEquals("Two", selector.select(SLICES.subList(0, 2)));
+    }
+
+    private Map<String, Integer> select(ReplicaSelector selector, int n) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            String slice = selector.select(SLICES);
+            Integer count = counts.get(slice);
+            counts.put(slice, count == null ? 1 : count + 1);
+        }
+        return counts;
+    }
+}
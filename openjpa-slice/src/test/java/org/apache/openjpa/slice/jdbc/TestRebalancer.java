@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.slice.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.kernel.BrokerFactory;
+import org.apache.openjpa.persistence.JPAFacadeHelper;
+import org.apache.openjpa.slice.Address;
+import org.apache.openjpa.slice.DistributionPolicy;
+import org.apache.openjpa.slice.Person;
+import org.apache.openjpa.slice.SlicePersistence;
+import org.apache.openjpa.slice.SliceTestCase;
+import org.junit.Ignore;
+
+/**
+ * Tests moving instances, with the instances they cascade persist to, to the
+ * slice the distribution policy assigns them to.
+ */
+public class TestRebalancer extends SliceTestCase {
+
+    @Override
+    protected String getPersistenceUnitName() {
+        return "slice";
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        TargetPolicy.target = "One";
+        super.setUp(CLEAR_TABLES, Person.class, Address.class,
+            "openjpa.slice.DistributionPolicy", TargetPolicy.class.getName());
+    }
+
+    public void testMovesGraphToAssignedSlice() {
+        List<Long> ids = new ArrayList<>();
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Person p = new Person("p" + i);
+            p.setAddress(new Address("city" + i, i));
+            em.persist(p);
+            persons.add(p);
+        }
+        em.getTransaction().commit();
+        for (Person p : persons)
+            ids.add(p.getId());
+        em.close();
+        assertEquals(3, count(Person.class, "One"));
+        assertEquals(3, count(Address.class, "One"));
+
+        TargetPolicy.target = "Two";
+        BrokerFactory factory = JPAFacadeHelper.toBrokerFactory(emf);
+        Rebalancer rebalancer = new Rebalancer(
+            (DistributedJDBCConfiguration) emf.getConfiguration());
+        // smaller than the number of instances, to move them in pages
+        rebalancer.setBatchSize(2);
+        rebalancer.setDryRun(true);
+        assertEquals(3, rebalancer.rebalance(factory, Person.class));
+        assertEquals(3, count(Person.class, "One"));
+        assertEquals(0, count(Person.class, "Two"));
+
+        rebalancer.setDryRun(false);
+        assertEquals(3, rebalancer.rebalance(factory, Person.class));
+        assertEquals(0, count(Person.class, "One"));
+        assertEquals(0, count(Address.class, "One"));
+        assertEquals(3, count(Person.class, "Two"));
+        assertEquals(3, count(Address.class, "Two"));
+
+        em = emf.createEntityManager();
+        for (int i = 0; i < ids.size(); i++) {
+            Person p = em.find(Person.class, ids.get(i));
+            assertEquals("p" + i, p.getName());
+            assertEquals("Two", SlicePersistence.getSlice(p));
+            assertEquals("city" + i, p.getAddress().getCity());
+            assertEquals("Two", SlicePersistence.getSlice(p.getAddress()));
+        }
+        em.close();
+
+        // nothing is left to move
+        assertEquals(0, rebalancer.rebalance(factory, Person.class));
+    }
+
+    private int count(Class<?> type, String slice) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Number n = (Number) em.createQuery("SELECT COUNT(x) FROM "
+                + type.getSimpleName() + " x")
+                .setHint(SlicePersistence.HINT_TARGET, slice)
+                .getSingleResult();
+            return n.intValue();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Stores each instance in the slice the test sets.
+     */
+    @Ignore
+    public static class TargetPolicy implements DistributionPolicy {
+        static String target;
+
+        @Override
+        public String distribute(Object pc, List<String> slices,
+            Object context) {
+            return target;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.slice.jdbc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import junit.framework.TestCase;
+
+import org.apache.openjpa.lib.rop.ListResultObjectProvider;
+import org.apache.openjpa.lib.rop.ResultObjectProvider;
+import org.apache.openjpa.slice.SliceExecutor;
+import org.apache.openjpa.slice.SliceTask;
+import org.apache.openjpa.util.QueryException;
+import org.apache.openjpa.util.StoreException;
+
+/**
+ * Tests waiting for slice operations without databases.
+ */
+public class TestSliceTasks extends TestCase {
+    private SliceExecutor slow;
+    private SliceExecutor fast;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    public void setUp() {
+        slow = new SliceExecutor("slow", 1);
+        fast = new SliceExecutor("fast", 1);
+    }
+
+    @Override
+    public void tearDown() {
+        release.countDown();
+        slow.shutdownNow();
+        fast.shutdownNow();
+    }
+
+    private Callable<String> blocking(final String result) {
+        return new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                release.await();
+                return result;
+            }
+        };
+    }
+
+    private Callable<String> returning(final String result) {
+        return new Callable<String>() {
+            @Override
+            public String call() {
+                return result;
+            }
+        };
+    }
+
+    public void testAwaitCollectsResultsInOrder() {
+        List<Future<String>> futures = new ArrayList<>();
+        futures.add(slow.submit(returning("a")));
+        futures.add(fast.submit(returning("b")));
+        assertEquals(Arrays.asList("a", "b"),
+            SliceTasks.await(futures, -1, "query"));
+    }
+
+    public void testAwaitWithoutTimeout() {
+        Callable<String> sleeping = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                Thread.sleep(50);
+                return "b";
+            }
+        };
+        List<Future<String>> futures = new ArrayList<>();
+        futures.add(fast.submit(returning("a")));
+        futures.add(slow.submit(sleeping));
+        // a timeout of 0 waits without bound, as a negative one does
+        assertEquals(Arrays.asList("a", "b"),
+            SliceTasks.await(futures, 0, "query"));
+    }
+
+    public void testAwaitAbandonsOnTimeout() throws Exception {
+        final CountDownLatch closed = new CountDownLatch(1);
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        Callable<ResultObjectProvider> blockingResult =
+            new Callable<ResultObjectProvider>() {
+            @Override
+            public ResultObjectProvider call() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+                return new ListResultObjectProvider(new ArrayList<Object>()) {
+                    @Override
+                    public void close() {
+                        closed.countDown();
+                    }
+                };
+            }
+        };
+        List<Future<ResultObjectProvider>> futures = new ArrayList<>();
+        futures.add(slow.submit(blockingResult));
+        Future<String> queued = slow.submit(returning("queued"));
+        try {
+            SliceTasks.await(futures, 100, "query");
+            fail("expected timeout");
+        } catch (QueryException e) {
+            assertEquals(100, e.getTimeout());
+        }
+        assertTrue(futures.get(0).isCancelled());
+
+        // the slice thread is not interrupted, and the result of the
+        // abandoned operation is closed once it completes
+        release.countDown();
+        assertTrue(closed.await(1, TimeUnit.SECONDS));
+        assertFalse(interrupted.get());
+        assertEquals("queued", queued.get(1, TimeUnit.SECONDS));
+        assertEquals("c", slow.submit(returning("c")).get(1, TimeUnit.SECONDS));
+    }
+
+    public void testAbandonBeforeStartDoesNotExecute() throws Exception {
+        final AtomicBoolean executed = new AtomicBoolean();
+        Future<String> running = slow.submit(blocking("a"));
+        Future<String> waiting = slow.submit(new Callable<String>() {
+            @Override
+            public String call() {
+                executed.set(true);
+                return "b";
+            }
+        });
+        assertTrue(((SliceTask<String>) waiting).abandon());
+        release.countDown();
+        assertEquals("a", running.get(1, TimeUnit.SECONDS));
+        assertEquals("c", slow.submit(returning("c")).get(1, TimeUnit.SECONDS));
+        assertFalse(executed.get());
+    }
+
+    public void testAwaitAllWaitsForSlowAfterFailure() {
+        final List<String> completed = new ArrayList<>();
+        Callable<String> failing = new Callable<String>() {
+            @Override
+            public String call() {
+                throw new IllegalStateException("down");
+            }
+        };
+        Callable<String> slowCall = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                Thread.sleep(100);
+                synchronized (completed) {
+                    completed.add("slow");
+                }
+                return "slow";
+            }
+        };
+        List<Future<String>> futures = new ArrayList<>();
+        futures.add(fast.submit(failing));
+        futures.add(slow.submit(slowCall));
+        List<String> results = new ArrayList<>();
+        List<Throwable> failures = SliceTasks.awaitAll(futures, results);
+        synchronized (completed) {
+            assertEquals(Arrays.asList("slow"), completed);
+        }
+        assertEquals(Arrays.asList(null, "slow"), results);
+        assertTrue(failures.get(0) instanceof IllegalStateException);
+        assertNull(failures.get(1));
+    }
+
+    public void testHedgeUsesNextSliceWhenFirstIsSlow() {
+        List<Callable<String>> calls = new ArrayList<>();
+        calls.add(blocking("slow"));
+        calls.add(returning("fast"));
+        String result = SliceTasks.hedge(calls, Arrays.asList(slow, fast),
+            50, -1, "query");
+        assertEquals("fast", result);
+    }
+
+    public void testHedgeWithoutTimeout() {
+        List<Callable<String>> calls = new ArrayList<>();
+        calls.add(blocking("slow"));
+        calls.add(returning("fast"));
+        String result = SliceTasks.hedge(calls, Arrays.asList(slow, fast),
+            50, 0, "query");
+        assertEquals("fast", result);
+    }
+
+    public void testHedgeUsesFirstSliceWhenFast() {
+        List<Callable<String>> calls = new ArrayList<>();
+        calls.add(returning("first"));
+        calls.add(returning("second"));
+        String result = SliceTasks.hedge(calls, Arrays.asList(fast, slow),
+            1000, -1, "query");
+        assertEquals("first", result);
+        assertEquals(0, slow.getExecutedCount());
+    }
+
+    public void testHedgeFailsWhenAllSlicesFail() {
+        Callable<String> failing = new Callable<String>() {
+            @Override
+            public String call() {
+                throw new IllegalStateException("down");
+            }
+        };
+        List<Callable<String>> calls = new ArrayList<>();
+        calls.add(failing);
+        calls.add(failing);
+        try {
+            SliceTasks.hedge(calls, Arrays.asList(fast, slow), 1000, -1,
+                "query");
+            fail("expected failure");
+        } catch (StoreException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
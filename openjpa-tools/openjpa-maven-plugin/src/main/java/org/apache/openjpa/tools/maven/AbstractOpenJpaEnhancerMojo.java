@@ -20,7 +20,12 @@ package org.apache.openjpa.tools.maven;
 
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -72,6 +77,45 @@ public abstract class AbstractOpenJpaEnhancerMojo extends AbstractOpenJpaMojo {
      */
     private static final String OPTION_USE_TEMP_CLASSLOADER = "tcl";
 
+    /**
+     * Whether to also generate the classes OpenJPA otherwise generates at runtime
+     * for the persistent classes: proxies of their collection, map, date and
+     * calendar fields and, if <code>openjpa.DynamicDataStructs</code> is enabled,
+     * their data cache PCData classes. They are written next to the enhanced classes
+     * and picked up at runtime instead of being generated.
+     * @since 3.0.1
+     */
+    @Parameter(defaultValue="false")
+    protected boolean generateHelpers;
+    /**
+     * used for passing the generateHelpers parameter to the enhnacer tool
+     */
+    private static final String OPTION_GENERATE_HELPERS = "generateHelpers";
+
+    /**
+     * Only enhance the classes that were added or recompiled since the last
+     * enhancement of the same class directory, along with the classes that
+     * refer to them, such as their subclasses. All classes are enhanced again
+     * when the enhancer options, the <code>META-INF</code> mapping files or the
+     * class path change. The state of the last run is kept in the
+     * {@link #workDir}.
+     * @since 3.0.1
+     */
+    @Parameter(property="openjpa.incremental", defaultValue="false")
+    protected boolean incremental;
+
+    /**
+     * The number of classes to enhance concurrently. All threads share the
+     * metadata loaded for the enhancement.
+     * @since 3.0.1
+     */
+    @Parameter(property="openjpa.enhancerThreads", defaultValue="1")
+    protected int threads;
+    /**
+     * used for passing the threads parameter to the enhnacer tool
+     */
+    private static final String OPTION_THREADS = "threads";
+
 
     /**
      * {@inheritDoc}
@@ -89,8 +133,43 @@ public abstract class AbstractOpenJpaEnhancerMojo extends AbstractOpenJpaMojo {
         }
 
         List<File> entities = findEntityClassFiles();
+        Options opts = getOptions();
+
+        if (!incremental) {
+            enhance(entities, opts);
+            return;
+        }
 
-        enhance(entities);
+        EnhancementState state;
+        String inputs;
+        List<File> changed;
+        try {
+            state = new EnhancementState(getEnhancementStateFile(), getEntityClasses());
+            inputs = getInputsFingerprint(opts);
+            changed = state.getChangedFiles(entities, inputs);
+        } catch (IOException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+
+        if (changed.isEmpty()) {
+            getLog().info("All " + entities.size() + " classes are up to date, skipping enhancement");
+            return;
+        }
+        getLog().info("Enhancing " + changed.size() + " of " + entities.size() + " classes");
+
+        try {
+            enhance(changed, opts);
+        } catch (MojoExecutionException e) {
+            state.clear();
+            throw e;
+        }
+
+        try {
+            // pick up generated helper classes as well as the enhanced classes
+            state.store(findEntityClassFiles(), inputs);
+        } catch (IOException e) {
+            getLog().warn("Could not store the enhancement state: " + e.getMessage());
+        }
     }
 
     /**
@@ -107,18 +186,71 @@ public abstract class AbstractOpenJpaEnhancerMojo extends AbstractOpenJpaMojo {
         opts.put(OPTION_ADD_DEFAULT_CONSTRUCTOR, Boolean.toString(addDefaultConstructor));
         opts.put(OPTION_ENFORCE_PROPERTY_RESTRICTION, Boolean.toString(enforcePropertyRestrictions));
         opts.put(OPTION_USE_TEMP_CLASSLOADER, Boolean.toString(tmpClassLoader));
+        opts.put(OPTION_GENERATE_HELPERS, Boolean.toString(generateHelpers));
+        opts.put(OPTION_THREADS, Integer.toString(threads));
 
         return opts;
     }
 
+    /**
+     * The file holding the state of the last incremental enhancement.
+     */
+    File getEnhancementStateFile() {
+        return new File(workDir, "enhance-" + getEntityClasses().getName() + ".state");
+    }
+
+    /**
+     * Compute a fingerprint of the enhancement inputs other than the class
+     * files themselves: the enhancer options, the persistence.xml, the
+     * <code>META-INF</code> files of the class directory and the class path.
+     */
+    private String getInputsFingerprint(Options opts) throws IOException {
+        long hash = 17;
+        Map<String, String> sorted = new TreeMap<>();
+        for (Map.Entry<Object, Object> entry : opts.entrySet()) {
+            sorted.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+        }
+        for (Map.Entry<String, String> entry : sorted.entrySet()) {
+            String value = entry.getValue();
+            if (OPTION_PROPERTIES_FILE.equals(entry.getKey()) || OPTION_PROPERTIES.equals(entry.getKey())) {
+                // the persistence.xml may be a fresh copy in the work dir;
+                // use its content rather than its location
+                int idx = value.indexOf('#');
+                File xml = new File(idx == -1 ? value : value.substring(0, idx));
+                if (xml.isFile()) {
+                    value = checksum(xml) + (idx == -1 ? "" : value.substring(idx));
+                }
+            }
+            hash = 31 * (31 * hash + entry.getKey().hashCode()) + value.hashCode();
+        }
+
+        hash = EnhancementState.fingerprint(new File(getEntityClasses(), "META-INF"), hash);
+        List<String> classpath = getClasspathElements();
+        if (classpath != null) {
+            for (String element : classpath) {
+                File file = new File(element);
+                if (!file.getAbsoluteFile().equals(getEntityClasses().getAbsoluteFile())) {
+                    hash = EnhancementState.fingerprint(file, hash);
+                }
+            }
+        }
+        return Long.toHexString(hash);
+    }
+
+    private static long checksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(file.toPath()));
+        return crc.getValue();
+    }
+
     /**
      * Processes a list of class file resources that are to be enhanced.
      *
      * @param files class file resources to enhance.
+     * @param opts the options for the enhancer tool
      * @throws MojoExecutionException if the enhancer encountered a failure
      */
-    private void enhance(List<File> files) throws MojoExecutionException {
-        Options opts = getOptions();
+    private void enhance(List<File> files, Options opts) throws MojoExecutionException {
 
         // list of input files
         String[] args = getFilePaths(files);
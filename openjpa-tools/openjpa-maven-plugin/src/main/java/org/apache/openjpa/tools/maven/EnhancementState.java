@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.tools.maven;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Remembers the class files a previous enhancer run left behind, so that an
+ * incremental build only passes new and recompiled classes to the enhancer.
+ * <br>
+ * A class file is identified by its size and modification time after
+ * enhancement. A class the compiler did not touch since still matches and
+ * is skipped, unless it refers to a class that changed: subclasses and
+ * classes embedding a persistent type are enhanced against its metadata.
+ * The state also holds a fingerprint of everything else enhancement depends
+ * on: the enhancer options, the mapping files and the class path. If it
+ * changes, all classes are enhanced again.
+ *
+ * @since 3.0.1
+ */
+class EnhancementState {
+
+    private static final String INPUTS = "#inputs";
+
+    private final File file;
+    private final File classes;
+    private final Properties state = new Properties();
+
+    /**
+     * Load the state stored in the given file, if any.
+     *
+     * @param file the file holding the state of the last run
+     * @param classes the directory holding the enhanced classes
+     */
+    EnhancementState(File file, File classes) throws IOException {
+        this.file = file;
+        this.classes = classes;
+        if (file.isFile()) {
+            InputStream in = new FileInputStream(file);
+            try {
+                state.load(in);
+            } finally {
+                in.close();
+            }
+        }
+    }
+
+    /**
+     * Return the files of the given list that changed since the last run,
+     * along with the files that refer to a changed class, directly or
+     * through other such files. All of them if the given inputs fingerprint
+     * changed.
+     */
+    List<File> getChangedFiles(List<File> files, String inputs) throws IOException {
+        if (!inputs.equals(state.getProperty(INPUTS))) {
+            return files;
+        }
+
+        List<File> changed = new ArrayList<>();
+        List<File> unchanged = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (File f : files) {
+            if (!signature(f).equals(state.getProperty(getKey(f)))) {
+                changed.add(f);
+                names.add(getClassName(f));
+            } else {
+                unchanged.add(f);
+            }
+        }
+
+        while (!names.isEmpty() && !unchanged.isEmpty()) {
+            List<String> dependents = new ArrayList<>();
+            for (Iterator<File> itr = unchanged.iterator(); itr.hasNext();) {
+                File f = itr.next();
+                if (refersTo(f, names)) {
+                    itr.remove();
+                    changed.add(f);
+                    dependents.add(getClassName(f));
+                }
+            }
+            names = dependents;
+        }
+        return changed;
+    }
+
+    /**
+     * Whether the given class file mentions any of the given internal class
+     * names. Class names are held as strings in the constant pool, so this
+     * finds superclasses, field types and all other references, along with
+     * the odd false positive that merely costs an extra enhancement.
+     */
+    private static boolean refersTo(File f, List<String> names) throws IOException {
+        String bytes = new String(Files.readAllBytes(f.toPath()), StandardCharsets.ISO_8859_1);
+        for (String name : names) {
+            String encoded = new String(name.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1);
+            if (bytes.contains(encoded)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Record the given files in their current, enhanced state and store
+     * the state. Files no longer present are forgotten.
+     */
+    void store(List<File> files, String inputs) throws IOException {
+        state.clear();
+        state.setProperty(INPUTS, inputs);
+        for (File f : files) {
+            state.setProperty(getKey(f), signature(f));
+        }
+
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Can't create " + dir.getAbsolutePath());
+        }
+        OutputStream out = new FileOutputStream(file);
+        try {
+            state.store(out, "OpenJPA enhancement state of " + classes.getAbsolutePath());
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Forget the state, e.g. after a failed run.
+     */
+    void clear() {
+        state.clear();
+        if (file.exists()) {
+            file.delete();
+        }
+    }
+
+    private String getKey(File f) {
+        String path = f.getAbsolutePath();
+        String root = classes.getAbsolutePath();
+        if (path.startsWith(root)) {
+            path = path.substring(root.length());
+        }
+        return path.replace(File.separatorChar, '/');
+    }
+
+    /**
+     * The internal name of the class in the given class file.
+     */
+    private String getClassName(File f) {
+        String key = getKey(f);
+        if (key.startsWith("/")) {
+            key = key.substring(1);
+        }
+        return key.endsWith(".class") ? key.substring(0, key.length() - 6) : key;
+    }
+
+    private static String signature(File f) {
+        return f.length() + ":" + f.lastModified();
+    }
+
+    /**
+     * Fold the path, size and modification time of the given file or of
+     * the files in the given directory tree into a fingerprint.
+     */
+    static long fingerprint(File f, long hash) {
+        hash = 31 * hash + f.getPath().hashCode();
+        if (!f.isDirectory()) {
+            return 31 * (31 * hash + f.length()) + f.lastModified();
+        }
+        String[] children = f.list();
+        if (children == null) {
+            return hash;
+        }
+        Arrays.sort(children);
+        for (String child : children) {
+            hash = fingerprint(new File(f, child), hash);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.tools.maven;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class EnhancementStateTest extends TestCase {
+
+    private File dir;
+    private File classes;
+    private File stateFile;
+    private File a;
+    private File b;
+    private File c;
+    private File d;
+    private List<File> files;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        dir = File.createTempFile("enhancementstate", "");
+        dir.delete();
+        classes = new File(dir, "classes");
+        stateFile = new File(dir, "work/enhance.state");
+
+        // B extends A, C embeds B, D stands alone
+        a = write("p/A.class", "class p/A");
+        b = write("p/B.class", "class p/B super p/A");
+        c = write("p/C.class", "class p/C field Lp/B;");
+        d = write("q/D.class", "class q/D");
+        files = Arrays.asList(a, b, c, d);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        delete(dir);
+        super.tearDown();
+    }
+
+    private File write(String path, String content) throws IOException {
+        File file = new File(classes, path);
+        file.getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes(StandardCharsets.ISO_8859_1));
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    /**
+     * Rewrite the given class file as the compiler would.
+     */
+    private void recompile(File file) throws IOException {
+        long modified = file.lastModified();
+        OutputStream out = new FileOutputStream(file, true);
+        try {
+            out.write(' ');
+        } finally {
+            out.close();
+        }
+        file.setLastModified(modified + 2000);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private EnhancementState stored() throws IOException {
+        new EnhancementState(stateFile, classes).store(files, "inputs");
+        return new EnhancementState(stateFile, classes);
+    }
+
+    public void testAllFilesChangedWithoutState() throws IOException {
+        assertEquals(files, new EnhancementState(stateFile, classes).getChangedFiles(files, "inputs"));
+    }
+
+    public void testUnchangedFilesAreSkipped() throws IOException {
+        assertTrue(stored().getChangedFiles(files, "inputs").isEmpty());
+        assertTrue(stateFile.isFile());
+    }
+
+    public void testChangedInputsChangeAllFiles() throws IOException {
+        assertEquals(files, stored().getChangedFiles(files, "other"));
+    }
+
+    public void testChangedFileWithoutDependents() throws IOException {
+        EnhancementState state = stored();
+        recompile(d);
+        assertEquals(Arrays.asList(d), state.getChangedFiles(files, "inputs"));
+    }
+
+    public void testChangedFileInvalidatesDependents() throws IOException {
+        EnhancementState state = stored();
+        recompile(a);
+        // B refers to A, and C to B
+        assertEquals(new HashSet<>(Arrays.asList(a, b, c)),
+            new HashSet<>(state.getChangedFiles(files, "inputs")));
+
+        state = stored();
+        recompile(b);
+        assertEquals(new HashSet<>(Arrays.asList(b, c)),
+            new HashSet<>(state.getChangedFiles(files, "inputs")));
+    }
+
+    public void testNewFileIsChanged() throws IOException {
+        EnhancementState state = stored();
+        File e = write("q/E.class", "class q/E");
+        List<File> more = Arrays.asList(a, b, c, d, e);
+        assertEquals(Arrays.asList(e), state.getChangedFiles(more, "inputs"));
+    }
+
+    public void testClear() throws IOException {
+        EnhancementState state = stored();
+        state.clear();
+        assertFalse(stateFile.exists());
+        assertEquals(files, new EnhancementState(stateFile, classes).getChangedFiles(files, "inputs"));
+    }
+
+    public void testFingerprint() throws IOException {
+        long hash = EnhancementState.fingerprint(classes, 17);
+        assertEquals(hash, EnhancementState.fingerprint(classes, 17));
+        recompile(d);
+        assertTrue(hash != EnhancementState.fingerprint(classes, 17));
+    }
+}
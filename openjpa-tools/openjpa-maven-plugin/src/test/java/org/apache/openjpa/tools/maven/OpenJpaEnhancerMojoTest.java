@@ -48,4 +48,34 @@ public class OpenJpaEnhancerMojoTest extends AbstractMojoTestCase {
       mojo.execute();
     }
 
+    public void testIncrementalParallelExecution() throws Exception {
+      File testPom = new File( getBasedir(), "target/test-classes/projects/project-01/plugin-config.xml" );
+
+      OpenJpaEnhancerMojo mojo = (OpenJpaEnhancerMojo) lookupMojo( "enhance", testPom );
+      assertNotNull( mojo );
+
+      mojo.classes = new File( getBasedir(), "target/test-classes/" );
+      mojo.compileClasspathElements = new ArrayList<>();
+      mojo.compileClasspathElements.add( mojo.classes.getAbsolutePath() );
+      mojo.workDir = new File( getBasedir(), "target/openjpa-work-incremental" );
+      mojo.incremental = true;
+      mojo.threads = 2;
+
+      assertEquals( "2", mojo.getOptions().getProperty( "threads" ) );
+
+      File stateFile = mojo.getEnhancementStateFile();
+      stateFile.delete();
+      try {
+          mojo.execute();
+          assertTrue( stateFile.isFile() );
+          long stored = stateFile.lastModified();
+
+          // nothing changed, so the state is not stored again
+          mojo.execute();
+          assertEquals( stored, stateFile.lastModified() );
+      } finally {
+          stateFile.delete();
+      }
+    }
+
 }
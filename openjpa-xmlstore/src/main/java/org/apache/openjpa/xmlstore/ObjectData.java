@@ -113,7 +113,7 @@ public final class ObjectData
 
         FieldMetaData[] fmds = _meta.getFields();
         for (int i = 0; i < fmds.length; i++)
-            if (!sm.getLoaded().get(i) && fetch.requiresFetch(fmds[i])
+            if (!sm.isLoaded(i) && fetch.requiresFetch(fmds[i])
                 != FetchConfiguration.FETCH_NONE)
                 sm.store(i, toLoadable(sm, fmds[i], _data[i], fetch));
     }
@@ -250,7 +250,7 @@ public final class ObjectData
         // run through each persistent field in the state manager and store it
         FieldMetaData[] fmds = _meta.getFields();
         for (int i = 0; i < fmds.length; i++) {
-            if (sm.getDirty().get(i)
+            if (sm.isDirty(i)
                 && fmds[i].getManagement() == FieldMetaData.MANAGE_PERSISTENT)
                 _data[i] = toStorable(fmds[i], sm.fetch(i), sm.getContext());
         }